@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights reserved.
+ * TestConnectedComponents.java is PROPRIETARY/CONFIDENTIAL built in 3:31:08 PM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.frankjiang.image4j.geom.ComponentLabeler;
+import com.github.frankjiang.image4j.geom.ComponentStatistics;
+import com.github.frankjiang.image4j.geom.ConnectedComponent;
+import com.github.frankjiang.image4j.geom.ConnectedComponentDetector;
+import com.github.frankjiang.image4j.geom.LabelMap;
+import com.github.frankjiang.image4j.geom.ParallelComponentLabeler;
+import com.github.frankjiang.image4j.geom.RunLengthComponent;
+
+/**
+ * Test case for the connected component labeling.
+ * <p>
+ * </p>
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TestConnectedComponents
+{
+	private BufferedImage speckles;
+
+	@Before
+	public void setUp()
+	{
+		// the blobs, the diagonal chains and the isolated speckles
+		Random random = new Random(0);
+		this.speckles = new BufferedImage(211, 137, BufferedImage.TYPE_BYTE_BINARY);
+		for (int y = 0; y < this.speckles.getHeight(); y++)
+			for (int x = 0; x < this.speckles.getWidth(); x++)
+			{
+				boolean on = random.nextInt(100) < 45 || (x + y) % 17 == 0
+						|| (x / 20 + y / 15) % 3 == 0 && random.nextInt(10) != 0;
+				this.speckles.getRaster().setSample(x, y, 0, on ? 1 : 0);
+			}
+	}
+
+	@Test
+	public void testLabeler()
+	{
+		for (int connectivity : new int[] { 4, 8 })
+		{
+			int[] expected = this.flood(this.speckles, false, connectivity);
+			LabelMap map = new ComponentLabeler(connectivity).label(this.speckles, false);
+			this.assertLabelsEqual(expected, map);
+			// the dark pixels of the color image
+			BufferedImage color = new BufferedImage(this.speckles.getWidth(),
+					this.speckles.getHeight(), BufferedImage.TYPE_INT_RGB);
+			color.getGraphics().drawImage(this.speckles, 0, 0, null);
+			expected = this.flood(color, true, connectivity);
+			this.assertLabelsEqual(expected,
+					new ComponentLabeler(connectivity).label(color, true));
+		}
+		// the diagonal pixels are connected by the corners only
+		byte[] mask = { 1, 0, 1, 0, 1, 0, 1, 0, 1 };
+		assertEquals(5, new ComponentLabeler(4).label(mask, 3, 3).getCount());
+		assertEquals(1, new ComponentLabeler(8).label(mask, 3, 3).getCount());
+		// the spiral merged at the end
+		mask = new byte[] { 1, 1, 1, 1, 1, 0, 0, 0, 0, 1, 1, 1, 1, 0, 1, 1, 0, 0, 0, 1, 1, 1,
+				1, 1, 1 };
+		LabelMap map = new ComponentLabeler(4).label(mask, 5, 5);
+		assertEquals(1, map.getCount());
+		assertEquals(0, map.getLabel(1, 1));
+		assertEquals(1, map.getLabel(2, 2));
+	}
+
+	@Test
+	public void testDetector()
+	{
+		int[] labels = this.flood(this.speckles, false, 4);
+		int count = 0;
+		for (int label : labels)
+			count = Math.max(count, label);
+		LinkedList<ConnectedComponent> components = new ConnectedComponentDetector(
+				this.speckles).detect();
+		assertEquals(count, components.size());
+		int width = this.speckles.getWidth();
+		int label = 1;
+		for (ConnectedComponent component : components)
+		{
+			int size = 0;
+			for (int i = 0; i < labels.length; i++)
+				if (labels[i] == label)
+				{
+					size++;
+					assertTrue(component.contains(i % width, i / width));
+				}
+			assertEquals(size, component.size());
+			label++;
+		}
+	}
+
+	@Test
+	public void testRunLength()
+	{
+		int[] labels = this.flood(this.speckles, false, 8);
+		int width = this.speckles.getWidth(), height = this.speckles.getHeight();
+		LinkedList<RunLengthComponent> components = new ConnectedComponentDetector(
+				this.speckles, false, ComponentLabeler.CONNECTIVITY_8).detectRuns();
+		int label = 1;
+		for (RunLengthComponent component : components)
+		{
+			Rectangle bounds = component.getBounds();
+			Raster mask = component.getMask();
+			assertEquals(bounds.width, mask.getWidth());
+			assertEquals(bounds.height, mask.getHeight());
+			Iterator<Point> iterator = component.iterator();
+			int size = 0;
+			for (int y = 0; y < height; y++)
+				for (int x = 0; x < width; x++)
+				{
+					boolean inside = labels[y * width + x] == label;
+					assertEquals(inside, component.contains(x, y));
+					if (bounds.contains(x, y))
+						assertEquals(inside ? 1 : 0,
+								mask.getSample(x - bounds.x, y - bounds.y, 0));
+					else
+						assertTrue(!inside);
+					if (inside)
+					{
+						size++;
+						assertEquals(new Point(x, y), iterator.next());
+					}
+				}
+			assertTrue(!iterator.hasNext());
+			assertEquals(size, component.size());
+			int current = label;
+			int[] visited = { 0 };
+			component.visit((x, y) ->
+			{
+				assertEquals(current, labels[y * width + x]);
+				visited[0]++;
+			});
+			assertEquals(size, visited[0]);
+			label++;
+		}
+		assertEquals(label - 1, components.size());
+		// the coordinates beyond 16 bits and the adjacent runs
+		RunLengthComponent wide = new RunLengthComponent();
+		wide.addRun(3, 70000, 70010);
+		wide.addRun(3, 70011, 70020);
+		wide.addRun(4, 69990, 69999);
+		assertEquals(2, wide.getRunCount());
+		assertEquals(31, wide.size());
+		assertTrue(wide.contains(70020, 3));
+		assertTrue(!wide.contains(70000, 4));
+		assertEquals(new Rectangle(69990, 3, 31, 2), wide.getBounds());
+		try
+		{
+			wide.addRun(4, 69000, 69001);
+			assertTrue(false);
+		}
+		catch (IllegalArgumentException e)
+		{
+		}
+	}
+
+	@Test
+	public void testStatistics()
+	{
+		int width = this.speckles.getWidth(), height = this.speckles.getHeight();
+		for (int connectivity : new int[] { 4, 8 })
+		{
+			int[] labels = this.flood(this.speckles, false, connectivity);
+			ComponentStatistics statistics = new ComponentLabeler(connectivity)
+					.measure(this.speckles, false, null);
+			int count = 0;
+			for (int label : labels)
+				count = Math.max(count, label);
+			assertEquals(count, statistics.getCount());
+			long[] area = new long[count], perimeter = new long[count];
+			long[] sumX = new long[count], sumY = new long[count], sumXY = new long[count];
+			int[] minX = new int[count], maxY = new int[count];
+			Arrays.fill(minX, Integer.MAX_VALUE);
+			for (int y = 0; y < height; y++)
+				for (int x = 0; x < width; x++)
+				{
+					int c = labels[y * width + x] - 1;
+					if (c < 0)
+						continue;
+					area[c]++;
+					sumX[c] += x;
+					sumY[c] += y;
+					sumXY[c] += x * y;
+					minX[c] = Math.min(minX[c], x);
+					maxY[c] = Math.max(maxY[c], y);
+					int[][] edges = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+					for (int[] edge : edges)
+					{
+						int u = x + edge[0], v = y + edge[1];
+						if (u < 0 || v < 0 || u >= width || v >= height
+								|| labels[v * width + u] == 0)
+							perimeter[c]++;
+					}
+				}
+			for (int c = 0; c < count; c++)
+			{
+				assertEquals(area[c], statistics.getArea(c));
+				assertEquals(perimeter[c], statistics.getPerimeter(c));
+				assertEquals(minX[c], statistics.getMinX(c));
+				assertEquals(maxY[c], statistics.getMaxY(c));
+				assertEquals(sumX[c] / (double) area[c], statistics.getCentroid(c).getX(), 1e-9);
+				assertEquals(sumY[c] / (double) area[c], statistics.getCentroid(c).getY(), 1e-9);
+				double covariance = sumXY[c] / (double) area[c]
+						- sumX[c] / (double) area[c] * sumY[c] / area[c];
+				assertEquals(covariance, statistics.getCovariance(c), 1e-6);
+			}
+			// the speckles are dropped in the same order
+			ComponentStatistics large = new ComponentLabeler(connectivity).measure(this.speckles,
+					false, ComponentStatistics.getAreaFilter(5, Long.MAX_VALUE));
+			int kept = 0;
+			for (int c = 0; c < count; c++)
+				if (area[c] >= 5)
+					assertEquals(area[c], large.getArea(kept++));
+			assertEquals(kept, large.getCount());
+		}
+		// the horizontal bar and its orientation
+		byte[] mask = new byte[20 * 10];
+		for (int x = 2; x < 18; x++)
+			for (int y = 4; y < 7; y++)
+				mask[y * 20 + x] = 1;
+		ComponentStatistics bar = new ComponentLabeler(4).measure(mask, 20, 10, null);
+		assertEquals(1, bar.getCount());
+		assertEquals(new Rectangle(2, 4, 16, 3), bar.getBounds(0));
+		assertEquals(2 * (16 + 3), bar.getPerimeter(0));
+		assertEquals(0, bar.getOrientation(0), 1e-9);
+		assertEquals(0, new ComponentLabeler(4).measure(mask, 20, 10,
+				ComponentStatistics.getAspectFilter(0, 1)).getCount());
+	}
+
+	@Test
+	public void testParallel()
+	{
+		int width = this.speckles.getWidth(), height = this.speckles.getHeight();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for (int connectivity : new int[] { 4, 8 })
+		{
+			ComponentLabeler sequential = new ComponentLabeler(connectivity);
+			LabelMap expected = sequential.label(this.speckles, false);
+			ComponentStatistics statistics = sequential.measure(this.speckles, false, null);
+			ParallelComponentLabeler parallel = new ParallelComponentLabeler(connectivity, pool);
+			// the single rows, the odd stripes and the automatic stripes
+			for (int rows : new int[] { 1, 7, 0 })
+			{
+				parallel.setStripeHeight(rows);
+				LabelMap map = parallel.label(this.speckles, false);
+				assertEquals(expected.getCount(), map.getCount());
+				assertArrayEquals(expected.getLabels(), map.getLabels());
+				ComponentStatistics actual = parallel.measure(this.speckles, false, null);
+				assertEquals(statistics.getCount(), actual.getCount());
+				for (int c = 0; c < statistics.getCount(); c++)
+				{
+					assertEquals(statistics.getArea(c), actual.getArea(c));
+					assertEquals(statistics.getBounds(c), actual.getBounds(c));
+					assertEquals(statistics.getPerimeter(c), actual.getPerimeter(c));
+					assertEquals(statistics.getCentroid(c), actual.getCentroid(c));
+					assertEquals(statistics.getVarianceX(c), actual.getVarianceX(c), 1e-9);
+					assertEquals(statistics.getVarianceY(c), actual.getVarianceY(c), 1e-9);
+					assertEquals(statistics.getCovariance(c), actual.getCovariance(c), 1e-9);
+				}
+			}
+			// the mask and the filter
+			byte[] mask = new byte[width * height];
+			for (int i = 0; i < mask.length; i++)
+				mask[i] = (byte) (expected.getLabels()[i] != 0 ? 1 : 0);
+			parallel.setStripeHeight(5);
+			assertArrayEquals(expected.getLabels(), parallel.label(mask, width, height).getLabels());
+			ComponentStatistics.Filter filter = ComponentStatistics.getAreaFilter(10, 1000);
+			ComponentStatistics kept = parallel.measure(mask, width, height, filter);
+			ComponentStatistics reference = sequential.measure(mask, width, height, filter);
+			assertEquals(reference.getCount(), kept.getCount());
+			for (int c = 0; c < reference.getCount(); c++)
+				assertEquals(reference.getBounds(c), kept.getBounds(c));
+		}
+		assertEquals(new ConnectedComponentDetector(this.speckles).detectRuns().size(),
+				new ConnectedComponentDetector(this.speckles, false,
+						new ParallelComponentLabeler(4, pool)).detectRuns().size());
+	}
+
+	/**
+	 * Returns the labels of the components found by the flood fill, in the
+	 * raster order of their first pixels.
+	 */
+	private int[] flood(BufferedImage image, boolean reverse, int connectivity)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		int[] labels = new int[width * height];
+		int count = 0;
+		ArrayDeque<Point> queue = new ArrayDeque<>();
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				if (labels[y * width + x] == 0 && this.isForeground(image, x, y, reverse))
+				{
+					labels[y * width + x] = ++count;
+					queue.add(new Point(x, y));
+					while (!queue.isEmpty())
+					{
+						Point p = queue.poll();
+						for (int dy = -1; dy <= 1; dy++)
+							for (int dx = -1; dx <= 1; dx++)
+							{
+								int u = p.x + dx, v = p.y + dy;
+								if (connectivity == 4 && dx != 0 && dy != 0 || u < 0 || v < 0
+										|| u >= width || v >= height || labels[v * width + u] != 0
+										|| !this.isForeground(image, u, v, reverse))
+									continue;
+								labels[v * width + u] = count;
+								queue.add(new Point(u, v));
+							}
+					}
+				}
+		return labels;
+	}
+
+	private boolean isForeground(BufferedImage image, int x, int y, boolean reverse)
+	{
+		return (image.getRGB(x, y) & 0xff) >= 127 != reverse;
+	}
+
+	private void assertLabelsEqual(int[] expected, LabelMap map)
+	{
+		int count = 0;
+		for (int i = 0; i < expected.length; i++)
+		{
+			assertEquals(expected[i], map.getLabels()[i]);
+			count = Math.max(count, expected[i]);
+		}
+		assertEquals(count, map.getCount());
+	}
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights reserved.
+ * TestConvolution.java is PROPRIETARY/CONFIDENTIAL built in 3:40:18 AM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.frankjiang.image4j.TileExecutor;
+import com.github.frankjiang.image4j.conv.BoxFilterOp;
+import com.github.frankjiang.image4j.conv.ConvolveUtils;
+import com.github.frankjiang.image4j.conv.FFTConvolveOp;
+import com.github.frankjiang.image4j.conv.FrequencyFilterOp;
+import com.github.frankjiang.image4j.conv.GradientOp;
+import com.github.frankjiang.image4j.conv.KernelUtils;
+import com.github.frankjiang.image4j.conv.RecursiveGaussianOp;
+import com.github.frankjiang.image4j.conv.SeparableConvolveOp;
+import com.github.frankjiang.image4j.math.FFT;
+import com.github.frankjiang.image4j.math.Radius;
+import com.github.frankjiang.image4j.math.func.ButternworthFunction;
+import com.github.frankjiang.image4j.math.func.GaussFunction;
+import com.github.frankjiang.image4j.math.func.HomomorphicEnhanceFilterFunction;
+
+/**
+ * Test case for the convolutions.
+ * <p>
+ * </p>
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TestConvolution
+{
+	private BufferedImage image;
+
+	@Before
+	public void setUp()
+	{
+		Random random = new Random(0);
+		this.image = new BufferedImage(67, 45, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < this.image.getHeight(); y++)
+			for (int x = 0; x < this.image.getWidth(); x++)
+				this.image.setRGB(x, y, random.nextInt());
+	}
+
+	@Test
+	public void testSeparate()
+	{
+		assertNotNull(KernelUtils.separate(KernelUtils.getGaussianKernel(7, 5, 2f)));
+		assertNotNull(KernelUtils.separate(KernelUtils.getHarmonicMeanKernel9()));
+		for (Kernel kernel : KernelUtils.getSobelKernel())
+			assertTrue(KernelUtils.isSeparable(kernel));
+		for (Kernel kernel : KernelUtils.getPrewittKernel())
+			assertTrue(KernelUtils.isSeparable(kernel));
+		for (Kernel kernel : KernelUtils.getRobertKernel())
+			assertFalse(KernelUtils.isSeparable(kernel));
+		assertNull(KernelUtils.separate(new Kernel(3, 3, new float[] { 0, 1, 0, 1, -4, 1, 0, 1, 0 })));
+		Kernel[] kernels = KernelUtils.separate(KernelUtils.getSobelKernel()[1]);
+		assertEquals(3, kernels[0].getWidth());
+		assertEquals(1, kernels[0].getHeight());
+		assertEquals(1, kernels[1].getWidth());
+		assertEquals(3, kernels[1].getHeight());
+	}
+
+	@Test
+	public void testSeparableConvolve()
+	{
+		Kernel kernel = KernelUtils.getGaussianKernel(7, 5, 2f);
+		for (int edge : new int[] { ConvolveOp.EDGE_ZERO_FILL, ConvolveOp.EDGE_NO_OP })
+		{
+			BufferedImage expected = new ConvolveOp(kernel, edge, null).filter(this.image, null);
+			BufferedImage actual = new SeparableConvolveOp(kernel, edge, null).filter(this.image,
+					null);
+			this.assertClose(expected.getRaster(), actual.getRaster(), 1);
+		}
+		// the kernel with negative weights on the gray raster
+		Kernel sobel = KernelUtils.getSobelKernel()[0];
+		BufferedImage gray = new BufferedImage(this.image.getWidth(), this.image.getHeight(),
+				BufferedImage.TYPE_BYTE_GRAY);
+		gray.getGraphics().drawImage(this.image, 0, 0, null);
+		WritableRaster expected = new ConvolveOp(sobel).filter(gray.getRaster(), null);
+		WritableRaster actual = new SeparableConvolveOp(sobel, ConvolveOp.EDGE_ZERO_FILL, null)
+				.filter(gray.getRaster(), null);
+		this.assertClose(expected, actual, 1);
+		// the separated Gaussian kernels
+		Kernel[] kernels = KernelUtils.getGaussianKernels(7, 5, 2f);
+		BufferedImage separated = new SeparableConvolveOp(kernels[0], kernels[1])
+				.filter(this.image, null);
+		this.assertClose(new ConvolveOp(kernel).filter(this.image, null).getRaster(),
+				separated.getRaster(), 1);
+	}
+
+	@Test
+	public void testSeparableConvolveEven()
+	{
+		// the even sizes are placed at the offsets of ConvolveOp
+		float[][][] factors = { { { 1, 3, 3, 1 }, { 1, 3, 3, 1 } }, { { 1, 2 }, { 1, 2, 1 } },
+				{ { 1, 2, 3, 3, 2, 1 }, { 1, 1 } } };
+		for (float[][] factor : factors)
+		{
+			float[] row = factor[0], column = factor[1];
+			float[] data = new float[row.length * column.length];
+			float sum = 0f;
+			for (float r : row)
+				for (float c : column)
+					sum += r * c;
+			for (int j = 0; j < column.length; j++)
+				for (int i = 0; i < row.length; i++)
+					data[j * row.length + i] = row[i] * column[j] / sum;
+			Kernel kernel = new Kernel(row.length, column.length, data);
+			for (int edge : new int[] { ConvolveOp.EDGE_ZERO_FILL, ConvolveOp.EDGE_NO_OP })
+			{
+				BufferedImage expected = new ConvolveOp(kernel, edge, null).filter(this.image, null);
+				BufferedImage actual = new SeparableConvolveOp(kernel, edge, null)
+						.filter(this.image, null);
+				this.assertClose(expected.getRaster(), actual.getRaster(), 1);
+			}
+		}
+		// the utilities route the even Gaussian kernel without changing the result
+		Kernel gaussian = KernelUtils.getGaussianKernel(4, 6, 1.5f);
+		this.assertClose(new ConvolveOp(gaussian, ConvolveOp.EDGE_NO_OP, null)
+				.filter(this.image, null).getRaster(),
+				ConvolveUtils.convolve(this.image, gaussian).getRaster(), 1);
+	}
+
+	@Test
+	public void testBoxFilter()
+	{
+		for (int[] size : new int[][] { { 11, 11 }, { 4, 3 }, { 101, 1 } })
+		{
+			BoxFilterOp op = new BoxFilterOp(size[0], size[1], null);
+			Raster src = this.image.getRaster();
+			WritableRaster dst = op.filter(src, null);
+			int xo = (size[0] - 1) / 2, yo = (size[1] - 1) / 2;
+			for (int y = 0; y < src.getHeight(); y++)
+				for (int x = 0; x < src.getWidth(); x++)
+					for (int b = 0; b < src.getNumBands(); b++)
+					{
+						long sum = 0, count = 0;
+						for (int j = y - yo; j < y - yo + size[1]; j++)
+							for (int i = x - xo; i < x - xo + size[0]; i++)
+								if (i >= 0 && j >= 0 && i < src.getWidth() && j < src.getHeight())
+								{
+									sum += src.getSample(i, j, b);
+									count++;
+								}
+						assertEquals((sum + count / 2) / count, dst.getSample(x, y, b));
+					}
+			// the tiles are bit-identical to the serial operation
+			BufferedImage expected = op.filter(this.image, null);
+			op.setExecutor(new TileExecutor(new ForkJoinPool(4), 17, 13, 0));
+			this.assertClose(expected.getRaster(), op.filter(this.image, null).getRaster(), 0);
+		}
+	}
+
+	@Test
+	public void testRecursiveGaussian()
+	{
+		// the interior approximates the dense Gaussian kernel
+		float sigma = 3f;
+		int size = 25;
+		Kernel[] kernels = KernelUtils.getGaussianKernels(size, size, sigma);
+		Raster expected = new SeparableConvolveOp(kernels[0], kernels[1])
+				.filter(this.image.getRaster(), null);
+		Raster actual = new RecursiveGaussianOp(sigma).filter(this.image.getRaster(), null);
+		for (int y = size / 2; y < this.image.getHeight() - size / 2; y++)
+			for (int x = size / 2; x < this.image.getWidth() - size / 2; x++)
+				for (int b = 0; b < 4; b++)
+					assertTrue(Math.abs(expected.getSample(x, y, b) - actual.getSample(x, y, b)) <= 3);
+		// the clamped boundary keeps the flat image flat
+		BufferedImage flat = new BufferedImage(100, 80, BufferedImage.TYPE_BYTE_GRAY);
+		WritableRaster raster = flat.getRaster();
+		for (int y = 0; y < 80; y++)
+			for (int x = 0; x < 100; x++)
+				raster.setSample(x, y, 0, 200);
+		Raster clamped = new RecursiveGaussianOp(40f).filter(raster, null);
+		Raster zero = new RecursiveGaussianOp(5f, RecursiveGaussianOp.BOUNDARY_ZERO, null)
+				.filter(raster, null);
+		for (int y = 0; y < 80; y++)
+			for (int x = 0; x < 100; x++)
+				assertEquals(200, clamped.getSample(x, y, 0));
+		assertTrue(zero.getSample(0, 0, 0) < 100);
+		assertTrue(Math.abs(zero.getSample(50, 40, 0) - 200) <= 2);
+	}
+
+	@Test
+	public void testFFTConvolve()
+	{
+		// the transform round trip
+		double[] re = new double[64], im = new double[64];
+		Random random = new Random(1);
+		for (int i = 0; i < re.length; i++)
+			re[i] = random.nextDouble();
+		double[] copy = re.clone();
+		FFT.transform(re, im, 8, 8, false);
+		FFT.transform(re, im, 8, 8, true);
+		for (int i = 0; i < re.length; i++)
+		{
+			assertEquals(copy[i], re[i], 1e-9);
+			assertEquals(0, im[i], 1e-9);
+		}
+		// the non-separable kernels of the odd and the even sizes
+		for (int[] size : new int[][] { { 17, 15 }, { 16, 16 }, { 20, 15 } })
+		{
+			float[] data = new float[size[0] * size[1]];
+			for (int i = 0; i < data.length; i++)
+				data[i] = random.nextFloat() / data.length * 2;
+			Kernel kernel = new Kernel(size[0], size[1], data);
+			for (int edge : new int[] { ConvolveOp.EDGE_ZERO_FILL, ConvolveOp.EDGE_NO_OP })
+			{
+				BufferedImage expected = new ConvolveOp(kernel, edge, null).filter(this.image,
+						null);
+				BufferedImage actual = new FFTConvolveOp(kernel, edge, null).filter(this.image,
+						null);
+				this.assertClose(expected.getRaster(), actual.getRaster(), 1);
+			}
+		}
+		// the kernel list equals the composite kernel
+		Kernel[] kernels = KernelUtils.getGaussianKernels(9, 9, 2f);
+		BufferedImage expected = new ConvolveOp(KernelUtils.getGaussianKernel(9, 9, 2f))
+				.filter(this.image, null);
+		BufferedImage actual = new FFTConvolveOp(ConvolveOp.EDGE_ZERO_FILL, null, kernels)
+				.filter(this.image, null);
+		this.assertClose(expected.getRaster(), actual.getRaster(), 1);
+		assertTrue(FFTConvolveOp.isPreferred(new Kernel(41, 41, new float[41 * 41]), 2000, 1500));
+		assertFalse(FFTConvolveOp.isPreferred(new Kernel(3, 3, new float[9]), 2000, 1500));
+	}
+
+	@Test
+	public void testFrequencyFilter()
+	{
+		// the all-pass filters keep the image in both the modes
+		Radius all = new Radius(Double.MAX_VALUE, true);
+		this.assertClose(this.image.getRaster(),
+				new FrequencyFilterOp(all).filter(this.image, null).getRaster(), 1);
+		this.assertClose(this.image.getRaster(), new FrequencyFilterOp(all, true, null)
+				.filter(this.image, null).getRaster(), 1);
+		// the low pass filters keep the flat image flat and the alpha band
+		BufferedImage flat = new BufferedImage(50, 30, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < flat.getHeight(); y++)
+			for (int x = 0; x < flat.getWidth(); x++)
+				flat.setRGB(x, y, x % 2 == 0 ? 0x80c86432 : 0x40c86432);
+		FrequencyFilterOp gauss = new FrequencyFilterOp(new GaussFunction(4, 1, true));
+		BufferedImage smooth = gauss.filter(flat, null);
+		for (int y = 0; y < flat.getHeight(); y++)
+			for (int x = 0; x < flat.getWidth(); x++)
+				assertEquals(flat.getRGB(x, y), smooth.getRGB(x, y));
+		// the cached transfer values give the same result
+		this.assertClose(smooth.getRaster(), gauss.filter(flat, null).getRaster(), 0);
+		// the high boost of the homomorphic filter raises the contrast of the edges
+		HomomorphicEnhanceFilterFunction enhance = new HomomorphicEnhanceFilterFunction(
+				new ButternworthFunction(8, 2, 1, false), 1.5, 1);
+		BufferedImage gray = new BufferedImage(64, 64, BufferedImage.TYPE_BYTE_GRAY);
+		WritableRaster raster = gray.getRaster();
+		for (int y = 0; y < 64; y++)
+			for (int x = 0; x < 64; x++)
+				raster.setSample(x, y, 0, (x / 8 + y / 8) % 2 == 0 ? 20 + x : 60 + 2 * x);
+		Raster enhanced = new FrequencyFilterOp(enhance, true, null).filter(raster, null);
+		int before = raster.getSample(47, 3, 0) - raster.getSample(48, 3, 0);
+		int after = enhanced.getSample(47, 3, 0) - enhanced.getSample(48, 3, 0);
+		assertTrue(before + " vs " + after, Math.abs(after) > Math.abs(before));
+	}
+
+	@Test
+	public void testGradient()
+	{
+		BufferedImage gray = new BufferedImage(this.image.getWidth(), this.image.getHeight(),
+				BufferedImage.TYPE_BYTE_GRAY);
+		gray.getGraphics().drawImage(this.image, 0, 0, null);
+		Raster src = gray.getRaster();
+		Kernel[] sobel = KernelUtils.getSobelKernel();
+		WritableRaster l2 = new GradientOp(GradientOp.REDUCE_L2, true, GradientOp.EDGE_ZERO_FILL,
+				null, sobel).filter(src, null);
+		Kernel[] kirsch = KernelUtils.getKirschKernel();
+		WritableRaster direction = new GradientOp(GradientOp.REDUCE_DIRECTION, kirsch)
+				.filter(src, null);
+		assertEquals(2, l2.getNumBands());
+		for (int y = 0; y < src.getHeight(); y++)
+			for (int x = 0; x < src.getWidth(); x++)
+			{
+				if (x == 0 || y == 0 || x == src.getWidth() - 1 || y == src.getHeight() - 1)
+				{
+					assertEquals(0, l2.getSample(x, y, 0));
+					continue;
+				}
+				float gx = this.response(src, x, y, sobel[0]);
+				float gy = this.response(src, x, y, sobel[1]);
+				int magnitude = (int) Math.min(255, Math.sqrt(gx * gx + gy * gy));
+				assertEquals(magnitude, l2.getSample(x, y, 0));
+				int index = 0;
+				float best = this.response(src, x, y, kirsch[0]);
+				for (int k = 1; k < kirsch.length; k++)
+					if (this.response(src, x, y, kirsch[k]) > best)
+					{
+						best = this.response(src, x, y, kirsch[k]);
+						index = k;
+					}
+				assertEquals(index, direction.getSample(x, y, 0));
+			}
+		// the image filter keeps the alpha band
+		BufferedImage edges = new GradientOp(GradientOp.REDUCE_MAX, sobel).filter(this.image,
+				null);
+		assertEquals(this.image.getRGB(10, 10) >>> 24, edges.getRGB(10, 10) >>> 24);
+		// the even kernels are placed at the ConvolveOp offsets
+		Kernel[] robert = KernelUtils.getRobertKernel();
+		WritableRaster l1 = new GradientOp(GradientOp.REDUCE_L1, robert).filter(src, null);
+		for (int y = 0; y < src.getHeight(); y++)
+			for (int x = 0; x < src.getWidth(); x++)
+			{
+				if (x == 0 || y == 0 || x == src.getWidth() - 1 || y == src.getHeight() - 1)
+				{
+					assertEquals(0, l1.getSample(x, y, 0));
+					continue;
+				}
+				float sum = Math.abs(this.response(src, x, y, robert[0]))
+						+ Math.abs(this.response(src, x, y, robert[1]));
+				assertEquals((int) Math.min(255, sum), l1.getSample(x, y, 0));
+			}
+	}
+
+	private float response(Raster src, int x, int y, Kernel kernel)
+	{
+		float[] data = kernel.getKernelData(null);
+		int xo = KernelUtils.getXOffset(kernel), yo = KernelUtils.getYOffset(kernel);
+		float sum = 0f;
+		for (int j = 0, i = data.length - 1; j < kernel.getHeight(); j++)
+			for (int k = 0; k < kernel.getWidth(); k++, i--)
+				sum += data[i] * src.getSample(x - xo + k, y - yo + j, 0);
+		return sum;
+	}
+
+	private void assertClose(Raster expected, Raster actual, int tolerance)
+	{
+		int[] e = expected.getPixels(0, 0, expected.getWidth(), expected.getHeight(), (int[]) null);
+		int[] a = actual.getPixels(0, 0, actual.getWidth(), actual.getHeight(), (int[]) null);
+		assertEquals(e.length, a.length);
+		for (int i = 0; i < e.length; i++)
+			assertTrue(i + ": " + e[i] + " vs " + a[i], Math.abs(e[i] - a[i]) <= tolerance);
+	}
+}
@@ -6,11 +6,25 @@
 
 package com.github.frankjiang.image4j.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Random;
 
 import org.junit.Test;
 
 import com.github.frankjiang.image4j.geom.GeometryUtils;
+import com.github.frankjiang.image4j.geom.PerspectiveTransform;
+import com.github.frankjiang.image4j.geom.PerspectiveTransformOp;
+import com.github.frankjiang.image4j.geom.RemapCache;
+import com.github.frankjiang.image4j.geom.RemapTable;
+import com.github.frankjiang.image4j.math.InterpolationKernel;
 
 /**
  * Test case for geometry.
@@ -27,4 +41,234 @@ public class TestGeometry
 		BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
 		GeometryUtils.scale(image, 0.5f, 0.5f, GeometryUtils.TYPE_BICUBIC);
 	}
+
+	@Test
+	public void testTransformSpan() throws NoninvertibleTransformException
+	{
+		BufferedImage src = new BufferedImage(61, 47, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < src.getHeight(); y++)
+			for (int x = 0; x < src.getWidth(); x++)
+				src.setRGB(x, y, 0xffffffff);
+		PerspectiveTransform[] xforms = {
+				new PerspectiveTransform(0.9, 0.2, 5, -0.15, 1.05, 3, 0.004, -0.003, 1),
+				new PerspectiveTransform(0, -1, 60, 1, 0, 0, 0, 0, 1),
+				new PerspectiveTransform(1.3, -0.4, 12, 0.25, 0.8, -9, -0.002, 0.005, 1) };
+		for (PerspectiveTransform xform : xforms)
+		{
+			// the scanline spans write exactly the pixels mapped into the source
+			BufferedImage dst = new PerspectiveTransformOp(xform,
+					PerspectiveTransformOp.TYPE_NEAREST_NEIGHBOR, PerspectiveTransformOp.Fill.None)
+							.filter(src, new BufferedImage(90, 80, BufferedImage.TYPE_INT_ARGB));
+			Point2D p = new Point2D.Double();
+			for (int y = 0; y < dst.getHeight(); y++)
+				for (int x = 0; x < dst.getWidth(); x++)
+				{
+					xform.inverseTransform(new Point2D.Double(x, y), p);
+					int sx = (int) (float) p.getX(), sy = (int) (float) p.getY();
+					boolean mapped = sx >= -1 && sx <= src.getWidth() - 1 && sy >= -1
+							&& sy <= src.getHeight() - 1;
+					assertEquals(mapped ? 0xffffffff : 0, dst.getRGB(x, y));
+				}
+		}
+	}
+
+	@Test
+	public void testTransformLayouts()
+	{
+		Random random = new Random(3);
+		BufferedImage packed = new BufferedImage(61, 47, BufferedImage.TYPE_INT_RGB);
+		BufferedImage bytes = new BufferedImage(61, 47, BufferedImage.TYPE_3BYTE_BGR);
+		for (int y = 0; y < 47; y++)
+			for (int x = 0; x < 61; x++)
+			{
+				int argb = random.nextInt();
+				packed.setRGB(x, y, argb);
+				bytes.setRGB(x, y, argb);
+			}
+		PerspectiveTransform[] xforms = {
+				new PerspectiveTransform(0.9, 0.2, 5, -0.15, 1.05, 3, 0.004, -0.003, 1),
+				new PerspectiveTransform(0, -1, 60, 1, 0, 0, 0, 0, 1) };
+		int[] types = { GeometryUtils.TYPE_NEAREST_NEIGHBOR, GeometryUtils.TYPE_BILINEAR,
+				GeometryUtils.TYPE_BICUBIC };
+		for (PerspectiveTransform xform : xforms)
+			for (int type : types)
+			{
+				// the packed and the byte layouts interpolate the same pixels
+				PerspectiveTransformOp op = new PerspectiveTransformOp(xform, type,
+						PerspectiveTransformOp.Fill.Blank);
+				BufferedImage a = op.filter(packed, new BufferedImage(70, 70,
+						BufferedImage.TYPE_INT_ARGB));
+				BufferedImage b = op.filter(bytes, new BufferedImage(70, 70,
+						BufferedImage.TYPE_INT_ARGB));
+				WritableRaster raster = op.filter(packed.getRaster(),
+						packed.getRaster().createCompatibleWritableRaster(70, 70));
+				for (int y = 0; y < 70; y++)
+					for (int x = 0; x < 70; x++)
+					{
+						int p = a.getRGB(x, y), q = raster.getDataBuffer().getElem(y * 70 + x);
+						assertEquals(p, b.getRGB(x, y));
+						// the bilinear weights of the packed pixels are rounded to 8 bits
+						if (p != 0)
+							for (int shift = 0; shift < 24; shift += 8)
+								assertTrue(Math.abs((p >>> shift & 0xff)
+										- (q >>> shift & 0xff)) <= 2);
+					}
+			}
+	}
+
+	@Test
+	public void testRemapCache()
+	{
+		Random random = new Random(0);
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < image.getHeight(); y++)
+			for (int x = 0; x < image.getWidth(); x++)
+				image.setRGB(x, y, random.nextInt());
+		PerspectiveTransform xform = PerspectiveTransform.getQuadToQuad(0, 0, 63, 0, 63, 47, 0,
+				47, 3, 5, 55, 1, 60, 44, 2, 40);
+		PerspectiveTransformOp op = new PerspectiveTransformOp(xform);
+		BufferedImage expected = op.filter(image, null);
+		RemapCache cache = new RemapCache(RemapCache.DEFAULT_CAPACITY);
+		op.setRemapCache(cache);
+		BufferedImage actual = op.filter(image, null);
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+			{
+				int p = expected.getRGB(x, y), q = actual.getRGB(x, y);
+				for (int shift = 0; shift < 32; shift += 8)
+					assertTrue(Math.abs((p >>> shift & 0xff) - (q >>> shift & 0xff)) <= 1);
+			}
+		assertEquals(1, cache.size());
+		RemapTable table = cache.getTable(xform, 64, 48, expected.getWidth(),
+				expected.getHeight(), op.getInterpolationType());
+		assertSame(table, cache.getTable(xform, 64, 48, expected.getWidth(),
+				expected.getHeight(), op.getInterpolationType()));
+
+		// the least recently used table is evicted
+		cache = new RemapCache(table.getMemory() * 2);
+		RemapTable first = cache.getTable(xform, 64, 48, expected.getWidth(), expected.getHeight(),
+				PerspectiveTransformOp.TYPE_BILINEAR);
+		cache.getTable(xform, 64, 48, expected.getWidth(), expected.getHeight(),
+				PerspectiveTransformOp.TYPE_NEAREST_NEIGHBOR);
+		assertSame(first, cache.getTable(xform, 64, 48, expected.getWidth(),
+				expected.getHeight(), PerspectiveTransformOp.TYPE_BILINEAR));
+		cache.getTable(xform, 64, 48, expected.getWidth(), expected.getHeight(),
+				PerspectiveTransformOp.TYPE_BICUBIC);
+		assertEquals(2, cache.size());
+		assertTrue(cache.getMemory() <= cache.getCapacity());
+		assertSame(first, cache.getTable(xform, 64, 48, expected.getWidth(),
+				expected.getHeight(), PerspectiveTransformOp.TYPE_BILINEAR));
+
+		// the default capacity holds the compact table of a 10-megapixel frame
+		assertTrue(RemapCache.getSharedCache().isCacheable(4000, 2500));
+		assertFalse(RemapCache.getSharedCache().isCacheable(4000, 3000));
+		// the byte layout is warped from the window of the source rows
+		BufferedImage bytes = new BufferedImage(64, 48, BufferedImage.TYPE_4BYTE_ABGR);
+		bytes.getGraphics().drawImage(image, 0, 0, null);
+		op.setRemapCache(null);
+		expected = op.filter(bytes, null);
+		op.setRemapCache(cache);
+		actual = op.filter(bytes, null);
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+	}
+
+	@Test
+	public void testGridApproximation()
+	{
+		BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < image.getHeight(); y++)
+			for (int x = 0; x < image.getWidth(); x++)
+				image.setRGB(x, y, x / 4 << 16 | y / 3 << 8 | (x + y) / 5);
+		PerspectiveTransform xform = PerspectiveTransform.getQuadToQuad(0, 0, 640, 0, 640, 480, 0,
+				480, 40, 30, 620, 10, 635, 470, 10, 440);
+		BufferedImage expected = new PerspectiveTransformOp(xform).filter(image, null);
+		PerspectiveTransformOp op = new PerspectiveTransformOp(xform);
+		op.setMaxError(0.25);
+		BufferedImage actual = op.filter(image, null);
+		assertTrue(op.getGridSize() > 1);
+		assertTrue(op.getGridError() <= 0.25);
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+			{
+				int p = expected.getRGB(x, y), q = actual.getRGB(x, y);
+				// skip the edge of the warped image
+				if (p >>> 24 != 0xff || q >>> 24 != 0xff)
+					continue;
+				for (int shift = 0; shift < 24; shift += 8)
+					assertTrue(Math.abs((p >>> shift & 0xff) - (q >>> shift & 0xff)) <= 2);
+			}
+		// the direct warp and the cached table map the same coordinates
+		int gridSize = op.getGridSize();
+		op.setRemapCache(new RemapCache(RemapCache.DEFAULT_CAPACITY));
+		BufferedImage cached = op.filter(image, null);
+		assertEquals(gridSize, op.getGridSize());
+		for (int y = 0; y < cached.getHeight(); y++)
+			for (int x = 0; x < cached.getWidth(); x++)
+				assertEquals(actual.getRGB(x, y), cached.getRGB(x, y));
+	}
+
+	@Test
+	public void testInterpolationKernel()
+	{
+		int[] argb = { 0xff000000, 0xff0000ff, 0x80ff0000, 0x00000000 };
+		InterpolationKernel bilinear = InterpolationKernel.getInstance(GeometryUtils.TYPE_BILINEAR);
+		assertEquals(0xff000080, bilinear.interpolate(argb, 2, 2, 0, 0, 128, 0));
+		assertEquals(0xa0400040, bilinear.interpolate(argb, 2, 2, 0, 0, 128, 128));
+		// the flat regions stay flat with the clamped edges
+		int[] flat = new int[16];
+		java.util.Arrays.fill(flat, 0xff336699);
+		InterpolationKernel bicubic = InterpolationKernel.getInstance(GeometryUtils.TYPE_BICUBIC);
+		for (int f = 0; f < InterpolationKernel.FRACTION_ONE; f += 17)
+			assertEquals(0xff336699, bicubic.interpolate(flat, 4, 4, 3, -1, f, 255 - f));
+		// the scaled image keeps the colors of the nearest neighbors
+		BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+		image.setRGB(0, 0, 0xffff0000);
+		image.setRGB(1, 0, 0xff0000ff);
+		BufferedImage scaled = GeometryUtils.scale(image, 2f, 2f,
+				GeometryUtils.TYPE_NEAREST_NEIGHBOR);
+		assertEquals(4, scaled.getWidth());
+		assertEquals(0xffff0000, scaled.getRGB(1, 1));
+		assertEquals(0xff0000ff, scaled.getRGB(2, 1));
+	}
+
+	@Test
+	public void testRowInterpolation()
+	{
+		int width = 13, height = 9;
+		Random random = new Random(7);
+		int[] argb = new int[width * height];
+		for (int i = 0; i < argb.length; i++)
+			argb[i] = random.nextInt();
+		int[] types = { GeometryUtils.TYPE_NEAREST_NEIGHBOR, GeometryUtils.TYPE_BILINEAR,
+				GeometryUtils.TYPE_BICUBIC };
+		for (int type : types)
+		{
+			InterpolationKernel kernel = InterpolationKernel.getInstance(type);
+			int[][] rows = new int[kernel.getTaps()][width];
+			for (int n = 0; n < 2000; n++)
+			{
+				int x = random.nextInt(width + 6) - 3, y = random.nextInt(height + 6) - 3;
+				int fx = random.nextInt(InterpolationKernel.FRACTION_ONE);
+				int fy = random.nextInt(InterpolationKernel.FRACTION_ONE);
+				for (int j = 0; j < rows.length; j++)
+				{
+					int row = Math.min(Math.max(y + kernel.getOrigin() + j, 0), height - 1);
+					System.arraycopy(argb, row * width, rows[j], 0, width);
+				}
+				assertEquals(kernel.interpolate(argb, width, height, x, y, fx, fy),
+						kernel.interpolate(rows, width, x, fx, fy));
+			}
+		}
+		// the scaled destination matches the one of AffineTransformOp
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+		BufferedImage scaled = GeometryUtils.scale(image, 0.7f, 1.3f,
+				GeometryUtils.TYPE_NEAREST_NEIGHBOR);
+		assertEquals(BufferedImage.TYPE_3BYTE_BGR, scaled.getType());
+		assertEquals((int) (width * (double) 0.7f), scaled.getWidth());
+		assertEquals((int) (height * (double) 1.3f), scaled.getHeight());
+		scaled = GeometryUtils.scale(image, 0.7f, 1.3f, GeometryUtils.TYPE_BICUBIC);
+		assertEquals(BufferedImage.TYPE_INT_ARGB, scaled.getType());
+	}
 }
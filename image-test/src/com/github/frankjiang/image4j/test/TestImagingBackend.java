@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights reserved.
+ * TestImagingBackend.java is PROPRIETARY/CONFIDENTIAL built in 12:58:12 AM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.Kernel;
+import java.awt.image.LookupOp;
+import java.awt.image.Raster;
+import java.awt.image.ShortLookupTable;
+import java.awt.image.WritableRaster;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.frankjiang.image4j.ImagingLib;
+import com.github.frankjiang.image4j.JavaImagingBackend;
+import com.github.frankjiang.image4j.conv.MultiKernelConvolveOp;
+
+/**
+ * Test case for the imaging backends.
+ * <p>
+ * </p>
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TestImagingBackend
+{
+	private BufferedImage image;
+
+	@Before
+	public void setUp()
+	{
+		Random random = new Random(0);
+		this.image = new BufferedImage(53, 41, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < this.image.getHeight(); y++)
+			for (int x = 0; x < this.image.getWidth(); x++)
+				this.image.setRGB(x, y, random.nextInt());
+	}
+
+	@Test
+	public void testConvolve()
+	{
+		// the odd size and the even sizes, which ConvolveOp places one pixel
+		// past their origins
+		for (int[] size : new int[][] { { 5, 3 }, { 4, 4 }, { 2, 3 } })
+		{
+			float[] data = new float[size[0] * size[1]];
+			for (int i = 0; i < data.length; i++)
+				data[i] = (i % 7 + 1) / 64f;
+			Kernel kernel = new Kernel(size[0], size[1], data);
+			for (int edge : new int[] { ConvolveOp.EDGE_ZERO_FILL, ConvolveOp.EDGE_NO_OP })
+			{
+				ConvolveOp op = new ConvolveOp(kernel, edge, null);
+				BufferedImage expected = op.filter(this.image, null);
+				BufferedImage actual = new JavaImagingBackend().filter(op, this.image,
+						op.createCompatibleDestImage(this.image, null));
+				for (int y = 0; y < expected.getHeight(); y++)
+					for (int x = 0; x < expected.getWidth(); x++)
+						assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testConvolveFloatingPoint()
+	{
+		WritableRaster src = Raster.createWritableRaster(
+				new BandedSampleModel(DataBuffer.TYPE_FLOAT, 37, 29, 2), null);
+		Random random = new Random(1);
+		for (int y = 0; y < src.getHeight(); y++)
+			for (int x = 0; x < src.getWidth(); x++)
+				for (int b = 0; b < 2; b++)
+					src.setSample(x, y, b, random.nextFloat() * 1000 - 500);
+		float[] separable = { 1, 2, 1, 2, 4, 2, 1, 2, 1 };
+		float[] data = new float[15];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (i % 4 - 1) / 8f;
+		for (Kernel kernel : new Kernel[] { new Kernel(3, 3, separable), new Kernel(5, 3, data) })
+		{
+			WritableRaster dst = new MultiKernelConvolveOp(ConvolveOp.EDGE_NO_OP, null, kernel)
+					.filter(src, null);
+			float[] k = kernel.getKernelData(null);
+			int kw = kernel.getWidth(), kh = kernel.getHeight();
+			int xo = kernel.getXOrigin(), yo = kernel.getYOrigin();
+			for (int y = 0; y < src.getHeight(); y++)
+				for (int x = 0; x < src.getWidth(); x++)
+				{
+					double expected = src.getSampleDouble(x, y, 1);
+					if (x >= xo && x < src.getWidth() - kw + xo + 1 && y >= yo
+							&& y < src.getHeight() - kh + yo + 1)
+					{
+						expected = 0;
+						for (int j = 0; j < kh; j++)
+							for (int i = 0; i < kw; i++)
+								expected += k[k.length - 1 - j * kw - i]
+										* src.getSampleDouble(x - xo + i, y - yo + j, 1);
+					}
+					assertEquals(expected, dst.getSampleDouble(x, y, 1), 1e-2);
+				}
+		}
+	}
+
+	@Test
+	public void testConvolveInt32()
+	{
+		WritableRaster src = Raster.createBandedRaster(DataBuffer.TYPE_INT, 23, 19, 1, null);
+		for (int y = 0; y < src.getHeight(); y++)
+			for (int x = 0; x < src.getWidth(); x++)
+				src.setSample(x, y, 0, (x + y) % 2 == 0 ? 2000000000 : 1000000000);
+		float[] data = new float[9];
+		data[4] = 1.5f;
+		WritableRaster dst = ImagingLib.filter(new ConvolveOp(new Kernel(3, 3, data)), src, null);
+		assertNotNull(dst);
+		assertEquals(0, dst.getSample(0, 0, 0));
+		// clamped into the range of the 32-bit samples
+		assertEquals(Integer.MAX_VALUE, dst.getSample(2, 2, 0));
+		assertEquals(1500000000, dst.getSample(2, 1, 0), 200);
+	}
+
+	@Test
+	public void testAffineFloatingPoint()
+	{
+		WritableRaster ints = this.image.getRaster();
+		int w = ints.getWidth(), h = ints.getHeight(), nb = ints.getNumBands();
+		WritableRaster bytes = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, w, h, nb,
+				null);
+		WritableRaster floats = Raster.createWritableRaster(
+				new BandedSampleModel(DataBuffer.TYPE_FLOAT, w, h, nb), null);
+		for (int y = 0; y < h; y++)
+			for (int x = 0; x < w; x++)
+				for (int b = 0; b < nb; b++)
+				{
+					bytes.setSample(x, y, b, ints.getSample(x, y, b));
+					floats.setSample(x, y, b, ints.getSample(x, y, b));
+				}
+		AffineTransform xform = AffineTransform.getRotateInstance(0.3, 26, 20);
+		xform.scale(1.2, 0.9);
+		for (int type : new int[] { AffineTransformOp.TYPE_NEAREST_NEIGHBOR,
+				AffineTransformOp.TYPE_BILINEAR, AffineTransformOp.TYPE_BICUBIC })
+		{
+			// the platform transforms the plain raster
+			AffineTransformOp op = new AffineTransformOp(xform, type);
+			WritableRaster expected = op.filter(bytes,
+					bytes.createCompatibleWritableRaster(60, 50));
+			WritableRaster packed = new JavaImagingBackend().filter(op, ints,
+					ints.createCompatibleWritableRaster(60, 50));
+			WritableRaster actual = new JavaImagingBackend().filter(op, floats,
+					floats.createCompatibleWritableRaster(60, 50));
+			int tolerance = type == AffineTransformOp.TYPE_NEAREST_NEIGHBOR ? 0 : 1;
+			for (int y = 0; y < expected.getHeight(); y++)
+				for (int x = 0; x < expected.getWidth(); x++)
+					for (int b = 0; b < nb; b++)
+					{
+						int e = expected.getSample(x, y, b);
+						assertEquals(e, packed.getSample(x, y, b), tolerance);
+						// the floating point samples are rounded and clamped, their
+						// offsets are quantized coarser than the platform ones
+						double v = actual.getSampleDouble(x, y, b);
+						v = Math.min(255, Math.max(0, Math.floor(v + 0.5)));
+						assertEquals(e, v, 2 * tolerance);
+					}
+		}
+		// the floating point samples are looked up by their truncated values
+		short[] table = new short[256];
+		for (int i = 0; i < table.length; i++)
+			table[i] = (short) (255 - i);
+		floats.setSample(0, 0, 0, 100.75f);
+		WritableRaster dst = ImagingLib.filter(new LookupOp(new ShortLookupTable(0, table), null),
+				floats, null);
+		assertNotNull(dst);
+		assertEquals(155, dst.getSampleFloat(0, 0, 0), 0);
+	}
+
+	@Test
+	public void testLookupWithOffset()
+	{
+		short[] table = new short[246];
+		for (int i = 0; i < table.length; i++)
+			table[i] = (short) (255 - i);
+		BufferedImage src = new BufferedImage(3, 1, BufferedImage.TYPE_BYTE_GRAY);
+		src.getRaster().setPixels(0, 0, 3, 1, new int[] { 10, 100, 255 });
+		BufferedImage dst = ImagingLib.filter(new LookupOp(new ShortLookupTable(10, table), null),
+				src, null);
+		assertNotNull(dst);
+		int[] pixels = dst.getRaster().getPixels(0, 0, 3, 1, (int[]) null);
+		assertEquals(255, pixels[0]);
+		assertEquals(165, pixels[1]);
+		assertEquals(10, pixels[2]);
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights reserved.
+ * TestMorphology.java is PROPRIETARY/CONFIDENTIAL built in 7:31:09 AM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.frankjiang.image4j.RowPipeline;
+import com.github.frankjiang.image4j.morph.BinaryMorphOp;
+import com.github.frankjiang.image4j.morph.ColorMorphOp;
+import com.github.frankjiang.image4j.morph.MorphKernel;
+
+/**
+ * Test case for the morphology.
+ * <p>
+ * </p>
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TestMorphology
+{
+	private BufferedImage image;
+
+	@Before
+	public void setUp()
+	{
+		Random random = new Random(0);
+		this.image = new BufferedImage(71, 53, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < this.image.getHeight(); y++)
+			for (int x = 0; x < this.image.getWidth(); x++)
+				this.image.setRGB(x, y, random.nextInt());
+	}
+
+	@Test
+	public void testRectangle()
+	{
+		// the rectangle off the origin
+		Point[] offsets = new Point[15];
+		for (int i = 0; i < offsets.length; i++)
+			offsets[i] = new Point(i % 5 - 3, i / 5 + 2);
+		MorphKernel[] kernels = { MorphKernel.getSquareKernel(15), MorphKernel.getSquareKernel(2),
+				MorphKernel.getShadowKernel(4), new MorphKernel(offsets) };
+		for (MorphKernel kernel : kernels)
+		{
+			assertTrue(kernel.isRectangular());
+			for (int type : new int[] { ColorMorphOp.TYPE_ERODE, ColorMorphOp.TYPE_DILATE,
+					ColorMorphOp.TYPE_OPEN, ColorMorphOp.TYPE_CLOSE })
+			{
+				// the lines equal the offsets streamed by the row operations
+				ColorMorphOp op = new ColorMorphOp(kernel, type);
+				BufferedImage expected = new BufferedImage(this.image.getWidth(),
+						this.image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+				new RowPipeline(this.image.getWidth(), this.image.getHeight())
+						.add(op.getRowOps()).run(this.image, expected);
+				this.assertImageEquals(expected, op.filter(this.image, null));
+			}
+		}
+		assertFalse(new MorphKernel(new Point(0, 0), new Point(1, 1)).isRectangular());
+	}
+
+	@Test
+	public void testBinary()
+	{
+		// the rows span the words unaligned
+		Random random = new Random(1);
+		BufferedImage binary = new BufferedImage(150, 37, BufferedImage.TYPE_BYTE_BINARY);
+		for (int y = 0; y < binary.getHeight(); y++)
+			for (int x = 0; x < binary.getWidth(); x++)
+				binary.setRGB(x, y, random.nextInt(3) == 0 ? 0xff000000 : 0xffffffff);
+		MorphKernel[] kernels = { MorphKernel.getSquareKernel(5), MorphKernel.getShadowKernel(3),
+				new MorphKernel(new Point(70, 1), new Point(-3, -2), new Point(0, 0),
+						new Point(1, 0), new Point(2, 0)) };
+		for (MorphKernel kernel : kernels)
+			for (int type : new int[] { ColorMorphOp.TYPE_ERODE, ColorMorphOp.TYPE_DILATE,
+					ColorMorphOp.TYPE_OPEN, ColorMorphOp.TYPE_CLOSE })
+			{
+				BufferedImage expected = new ColorMorphOp(kernel, type).filter(binary, null);
+				BufferedImage actual = new BinaryMorphOp(kernel, type).filter(binary, null);
+				assertEquals(BufferedImage.TYPE_BYTE_BINARY, actual.getType());
+				this.assertImageEquals(expected, actual);
+			}
+		// the isolated foreground pixels
+		MorphKernel hit = new MorphKernel(new Point(0, 0), new Point(0, 0));
+		Point[] ring = new Point[8];
+		for (int i = 0, k = 0; i < 9; i++)
+			if (i != 4)
+				ring[k++] = new Point(i % 3 - 1, i / 3 - 1);
+		BufferedImage isolated = new BinaryMorphOp(hit, new MorphKernel(ring)).filter(binary,
+				null);
+		for (int y = 0; y < binary.getHeight(); y++)
+			for (int x = 0; x < binary.getWidth(); x++)
+			{
+				boolean expected = binary.getRGB(x, y) == 0xffffffff;
+				for (Point p : ring)
+				{
+					int px = x + p.x, py = y + p.y;
+					if (px >= 0 && py >= 0 && px < binary.getWidth() && py < binary.getHeight())
+						expected &= binary.getRGB(px, py) != 0xffffffff;
+				}
+				assertEquals(expected, isolated.getRGB(x, y) == 0xffffffff);
+			}
+	}
+
+	@Test
+	public void testCompound()
+	{
+		Point[] offsets = { new Point(0, 0), new Point(1, 0), new Point(-2, 1), new Point(0, -1),
+				new Point(3, 2) };
+		MorphKernel[] kernels = { MorphKernel.getSquareKernel(5), MorphKernel.getShadowKernel(3),
+				new MorphKernel(offsets) };
+		int width = this.image.getWidth(), height = this.image.getHeight();
+		for (MorphKernel kernel : kernels)
+		{
+			BufferedImage eroded = new ColorMorphOp(kernel, ColorMorphOp.TYPE_ERODE)
+					.filter(this.image, null);
+			BufferedImage dilated = new ColorMorphOp(kernel, ColorMorphOp.TYPE_DILATE)
+					.filter(this.image, null);
+			BufferedImage opened = new ColorMorphOp(kernel, ColorMorphOp.TYPE_DILATE)
+					.filter(eroded, null);
+			BufferedImage closed = new ColorMorphOp(kernel, ColorMorphOp.TYPE_ERODE)
+					.filter(dilated, null);
+			this.assertImageEquals(opened,
+					new ColorMorphOp(kernel, ColorMorphOp.TYPE_OPEN).filter(this.image, null));
+			this.assertImageEquals(closed,
+					new ColorMorphOp(kernel, ColorMorphOp.TYPE_CLOSE).filter(this.image, null));
+			// the compound results equal the differences of the sequential results
+			BufferedImage[][] cases = { { dilated, eroded, dilated },
+					{ this.image, opened, this.image }, { closed, this.image, this.image } };
+			int[] types = { ColorMorphOp.TYPE_GRADIENT, ColorMorphOp.TYPE_WHITE_TOP_HAT,
+					ColorMorphOp.TYPE_BLACK_TOP_HAT };
+			for (int i = 0; i < types.length; i++)
+			{
+				ColorMorphOp op = new ColorMorphOp(kernel, types[i]);
+				BufferedImage actual = op.filter(this.image, null);
+				BufferedImage streamed = new BufferedImage(width, height,
+						BufferedImage.TYPE_INT_ARGB);
+				new RowPipeline(width, height).add(op.getRowOps()).run(this.image, streamed);
+				for (int y = 0; y < height; y++)
+					for (int x = 0; x < width; x++)
+					{
+						int hi = cases[i][0].getRGB(x, y), lo = cases[i][1].getRGB(x, y);
+						int expected = cases[i][2].getRGB(x, y) & 0xff000000;
+						for (int shift = 0; shift < 24; shift += 8)
+							expected |= Math.max(0, (hi >> shift & 0xff) - (lo >> shift & 0xff)) << shift;
+						assertEquals(expected, actual.getRGB(x, y));
+						assertEquals(expected, streamed.getRGB(x, y));
+					}
+			}
+		}
+		// the opaque images stay opaque
+		BufferedImage opaque = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		opaque.createGraphics().drawImage(this.image, 0, 0, null);
+		BufferedImage hat = new ColorMorphOp(MorphKernel.getSquareKernel(3),
+				ColorMorphOp.TYPE_WHITE_TOP_HAT).filter(opaque, null);
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				assertEquals(0xff, hat.getRGB(x, y) >>> 24);
+	}
+
+	@Test
+	public void testRuns()
+	{
+		assertEquals(13, MorphKernel.getDiskKernel(2).getOffsets().length);
+		assertEquals(9, MorphKernel.getCrossKernel(2).getOffsets().length);
+		assertEquals(13, MorphKernel.getDiamondKernel(2).getOffsets().length);
+		int[][] runs = MorphKernel.getDiskKernel(2).getRuns();
+		int[][] expected = { { -2, 0, 0 }, { -1, -1, 1 }, { 0, -2, 2 }, { 1, -1, 1 },
+				{ 2, 0, 0 } };
+		assertEquals(expected.length, runs.length);
+		for (int i = 0; i < runs.length; i++)
+			for (int j = 0; j < 3; j++)
+				assertEquals(expected[i][j], runs[i][j]);
+		// the lines of the major axes and the diagonal
+		assertEquals(1, MorphKernel.getLineKernel(5, 0).getRuns().length);
+		assertEquals(5, MorphKernel.getLineKernel(5, Math.PI / 2).getRuns().length);
+		for (Point p : MorphKernel.getLineKernel(5, Math.PI / 4).getOffsets())
+			assertEquals(-p.x, p.y);
+		// the spans equal the offsets, the run of 4 pads its line longer than
+		// the one of 5 at the image width
+		Point[] offsets = { new Point(-2, 0), new Point(-1, 0), new Point(0, 0), new Point(1, 0),
+				new Point(2, 0), new Point(-2, 1), new Point(-1, 1), new Point(0, 1),
+				new Point(1, 1) };
+		MorphKernel[] kernels = { MorphKernel.getDiskKernel(3), MorphKernel.getCrossKernel(2),
+				MorphKernel.getDiamondKernel(2), MorphKernel.getLineKernel(7, 0.4),
+				new MorphKernel(offsets) };
+		int width = this.image.getWidth(), height = this.image.getHeight();
+		for (MorphKernel kernel : kernels)
+			for (int type : new int[] { ColorMorphOp.TYPE_ERODE, ColorMorphOp.TYPE_DILATE })
+			{
+				BufferedImage actual = new ColorMorphOp(kernel, type).filter(this.image, null);
+				boolean max = type == ColorMorphOp.TYPE_DILATE;
+				for (int y = 0; y < height; y++)
+					for (int x = 0; x < width; x++)
+					{
+						int pixel = 0;
+						for (int shift = 0; shift < 32; shift += 8)
+						{
+							int value = max ? 0 : 0xff;
+							for (Point p : kernel.getOffsets())
+								if (x + p.x >= 0 && x + p.x < width && y + p.y >= 0
+										&& y + p.y < height)
+								{
+									int v = this.image.getRGB(x + p.x, y + p.y) >>> shift & 0xff;
+									value = max ? Math.max(value, v) : Math.min(value, v);
+								}
+							pixel |= value << shift;
+						}
+						assertEquals(pixel, actual.getRGB(x, y));
+					}
+			}
+	}
+
+	private void assertImageEquals(BufferedImage expected, BufferedImage actual)
+	{
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights reserved.
+ * TestOpChain.java is PROPRIETARY/CONFIDENTIAL built in 11:48:30 PM, Oct 16, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.RescaleOp;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.frankjiang.image4j.OpChain;
+import com.github.frankjiang.image4j.color.EnhanceOp;
+import com.github.frankjiang.image4j.color.FuncBasedEnhanceOp;
+import com.github.frankjiang.image4j.effect.ContourOp;
+import com.github.frankjiang.image4j.morph.ColorMorphOp;
+import com.github.frankjiang.image4j.morph.MorphKernel;
+import com.github.frankjiang.image4j.thresholding.GlobalThresholding;
+
+/**
+ * Test case for the fused operation chain.
+ * <p>
+ * </p>
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TestOpChain
+{
+	private BufferedImage image;
+
+	@Before
+	public void setUp()
+	{
+		Random random = new Random(0);
+		this.image = new BufferedImage(97, 83, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < this.image.getHeight(); y++)
+			for (int x = 0; x < this.image.getWidth(); x++)
+				this.image.setRGB(x, y, random.nextInt(4) == 0 ? 0 : random.nextInt());
+	}
+
+	@Test
+	public void testStreamed()
+	{
+		this.assertChainEquivalent(new FuncBasedEnhanceOp(EnhanceOp.TYPE_RGB, v -> 255 - v),
+				new FuncBasedEnhanceOp(EnhanceOp.TYPE_RED, v -> v / 2),
+				new ColorMorphOp(MorphKernel.getSquareKernel(3), ColorMorphOp.TYPE_OPEN),
+				new ContourOp(Color.BLUE, MorphKernel.getShadowKernel(2)));
+	}
+
+	@Test
+	public void testBarrier()
+	{
+		this.assertChainEquivalent(
+				new ColorMorphOp(MorphKernel.getSquareKernel(4), ColorMorphOp.TYPE_CLOSE),
+				new RescaleOp(0.5f, 10f, null),
+				new ColorMorphOp(MorphKernel.getSquareKernel(2), ColorMorphOp.TYPE_DILATE));
+	}
+
+	@Test
+	public void testThresholding()
+	{
+		// the fused thresholding converts the colors to gray as the operation
+		Random random = new Random(1);
+		BufferedImage rgb = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < rgb.getHeight(); y++)
+			for (int x = 0; x < rgb.getWidth(); x++)
+				rgb.setRGB(x, y, random.nextInt());
+		this.image = rgb;
+		this.assertChainEquivalent(new GlobalThresholding(128));
+		this.assertChainEquivalent(
+				new ColorMorphOp(MorphKernel.getSquareKernel(2), ColorMorphOp.TYPE_ERODE),
+				new GlobalThresholding(100));
+		assertEquals(BufferedImage.TYPE_BYTE_BINARY,
+				new OpChain(new GlobalThresholding(128)).filter(rgb, null).getType());
+	}
+
+	private void assertChainEquivalent(BufferedImageOp... ops)
+	{
+		BufferedImage expected = this.image;
+		for (BufferedImageOp op : ops)
+			expected = op.filter(expected, null);
+		BufferedImage actual = new OpChain(ops).filter(this.image, null);
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+	}
+}
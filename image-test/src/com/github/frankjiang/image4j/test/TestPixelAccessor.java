@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights reserved.
+ * TestPixelAccessor.java is PROPRIETARY/CONFIDENTIAL built in 9:14:26 AM, Oct 18, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.frankjiang.image4j.PixelAccessor;
+
+/**
+ * Test case for the pixel accessors.
+ * <p>
+ * </p>
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TestPixelAccessor
+{
+	private static final int[]	TYPES	= { BufferedImage.TYPE_INT_RGB,
+			BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR,
+			BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_GRAY,
+			BufferedImage.TYPE_BYTE_BINARY };
+
+	@Test
+	public void testImages()
+	{
+		for (int type : TYPES)
+		{
+			this.assertAccessor(new BufferedImage(37, 23, type), type);
+			// the subimages shift the rows, the bits of the binary images
+			// start inside a byte
+			this.assertAccessor(new BufferedImage(50, 31, type).getSubimage(3, 5, 37, 23), type);
+		}
+	}
+
+	@Test
+	public void testKinds()
+	{
+		BufferedImage binary = new BufferedImage(50, 31, BufferedImage.TYPE_BYTE_BINARY)
+				.getSubimage(3, 5, 37, 23);
+		PixelAccessor accessor = PixelAccessor.getAccessor(binary);
+		assertEquals(PixelAccessor.ByteBinary.class, accessor.getClass());
+		assertEquals(3, ((PixelAccessor.ByteBinary) accessor).getBitOffset());
+		assertEquals(PixelAccessor.ByteGray.class, PixelAccessor
+				.getAccessor(new BufferedImage(5, 5, BufferedImage.TYPE_BYTE_GRAY)).getClass());
+	}
+
+	private void assertAccessor(BufferedImage image, int type)
+	{
+		Random random = new Random(type);
+		int width = image.getWidth(), height = image.getHeight();
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				image.setRGB(x, y, random.nextInt());
+		PixelAccessor accessor = PixelAccessor.getAccessor(image);
+		assertEquals(width, accessor.getWidth());
+		assertEquals(height, accessor.getHeight());
+		WritableRaster raster = image.getRaster();
+		int bands = raster.getNumBands();
+		int[] row = new int[width + 2];
+		for (int y = 0; y < height; y++)
+		{
+			// the colors, one by one and by rows with an offset
+			accessor.getRGB(0, y, width, row, 2);
+			for (int x = 0; x < width; x++)
+			{
+				String at = String.format("type %d (%d, %d)", type, x, y);
+				assertEquals(at, image.getRGB(x, y), accessor.getRGB(x, y));
+				assertEquals(at, image.getRGB(x, y), row[x + 2]);
+			}
+			// the samples
+			assertArrayEquals(raster.getPixels(0, y, width, 1, (int[]) null),
+					accessor.getPixels(0, y, width, null));
+			assertArrayEquals(raster.getPixels(4, y, 9, 1, (int[]) null),
+					accessor.getPixels(4, y, 9, new int[9 * bands]));
+		}
+		// the colors written by the accessor read back like the ones written
+		// by the image
+		BufferedImage reference = new BufferedImage(width, height, image.getType());
+		int[] colors = new int[width];
+		for (int y = 0; y < height; y++)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				colors[x] = random.nextInt();
+				reference.setRGB(x, y, colors[x]);
+			}
+			if (y % 2 == 0)
+				accessor.setRGB(0, y, width, colors, 0);
+			else
+				for (int x = 0; x < width; x++)
+					accessor.setRGB(x, y, colors[x]);
+		}
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				assertEquals(String.format("type %d (%d, %d)", type, x, y),
+						reference.getRGB(x, y), image.getRGB(x, y));
+		// the samples written by the accessor
+		int[] samples = new int[width * bands];
+		int max = type == BufferedImage.TYPE_BYTE_BINARY ? 2 : 256;
+		for (int y = 0; y < height; y++)
+		{
+			for (int i = 0; i < samples.length; i++)
+				samples[i] = random.nextInt(max);
+			accessor.setPixels(0, y, width, samples);
+			assertArrayEquals(samples, raster.getPixels(0, y, width, 1, (int[]) null));
+		}
+	}
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights reserved.
+ * TestThresholding.java is PROPRIETARY/CONFIDENTIAL built in 11:02:36 AM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.frankjiang.image4j.OpChain;
+import com.github.frankjiang.image4j.TileExecutor;
+import com.github.frankjiang.image4j.color.ColorConvertUtils;
+import com.github.frankjiang.image4j.histogram.Histogram;
+import com.github.frankjiang.image4j.thresholding.BradleyThresholding;
+import com.github.frankjiang.image4j.thresholding.GlobalThresholdFinder;
+import com.github.frankjiang.image4j.thresholding.GlobalThresholding;
+import com.github.frankjiang.image4j.thresholding.IntegralImage;
+import com.github.frankjiang.image4j.thresholding.KapurThresholdFinder;
+import com.github.frankjiang.image4j.thresholding.LocalThresholding;
+import com.github.frankjiang.image4j.thresholding.LookupThresholding;
+import com.github.frankjiang.image4j.thresholding.MultiOtsuThresholdFinder;
+import com.github.frankjiang.image4j.thresholding.NiblackThresholding;
+import com.github.frankjiang.image4j.thresholding.OtsuThresholdFinder;
+import com.github.frankjiang.image4j.thresholding.SauvolaThresholding;
+import com.github.frankjiang.image4j.thresholding.TriangleThresholdFinder;
+
+/**
+ * Test case for the histograms and the thresholding.
+ * <p>
+ * </p>
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TestThresholding
+{
+	private BufferedImage page;
+
+	@Before
+	public void setUp()
+	{
+		// the dark text on the bright paper
+		Random random = new Random(0);
+		this.page = new BufferedImage(613, 457, BufferedImage.TYPE_BYTE_GRAY);
+		for (int y = 0; y < this.page.getHeight(); y++)
+			for (int x = 0; x < this.page.getWidth(); x++)
+			{
+				boolean ink = (x / 7 + y / 11) % 5 == 0;
+				int gray = (ink ? 40 : 200) + (int) (random.nextGaussian() * 12);
+				this.page.getRaster().setSample(x, y, 0, Math.max(0, Math.min(255, gray)));
+			}
+	}
+
+	@Test
+	public void testHistogram()
+	{
+		// the bands are split on the pool
+		Random random = new Random(1);
+		BufferedImage image = new BufferedImage(701, 523, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < image.getHeight(); y++)
+			for (int x = 0; x < image.getWidth(); x++)
+				image.setRGB(x, y, random.nextInt());
+		int[] channels = { Histogram.CHANNEL_GRAY, Histogram.CHANNEL_RED, Histogram.CHANNEL_GREEN,
+				Histogram.CHANNEL_BLUE, Histogram.CHANNEL_ALPHA, Histogram.CHANNEL_BRIGHTNESS };
+		Histogram[] histograms = Histogram.compute(new ForkJoinPool(3), image, channels);
+		long[][] expected = new long[channels.length][256];
+		for (int y = 0; y < image.getHeight(); y++)
+			for (int x = 0; x < image.getWidth(); x++)
+			{
+				int argb = image.getRGB(x, y);
+				int r = argb >> 16 & 0xff, g = argb >> 8 & 0xff, b = argb & 0xff;
+				expected[0][ColorConvertUtils.getGray(argb)]++;
+				expected[1][r]++;
+				expected[2][g]++;
+				expected[3][b]++;
+				expected[4][argb >>> 24]++;
+				expected[5][Math.max(r, Math.max(g, b))]++;
+			}
+		for (int c = 0; c < channels.length; c++)
+		{
+			assertArrayEquals(expected[c], histograms[c].getBins());
+			assertEquals((long) image.getWidth() * image.getHeight(), histograms[c].getTotal());
+		}
+		// the samples of the gray images
+		long[] gray = new long[256];
+		for (int y = 0; y < this.page.getHeight(); y++)
+			for (int x = 0; x < this.page.getWidth(); x++)
+				gray[this.page.getRaster().getSample(x, y, 0)]++;
+		assertArrayEquals(gray,
+				Histogram.getHistogram(this.page, Histogram.CHANNEL_GRAY).getBins());
+	}
+
+	@Test
+	public void testFinders()
+	{
+		Histogram histogram = Histogram.getHistogram(this.page, Histogram.CHANNEL_GRAY);
+		GlobalThresholdFinder[] finders = { new OtsuThresholdFinder(),
+				new MultiOtsuThresholdFinder(2) };
+		for (GlobalThresholdFinder finder : finders)
+		{
+			int threshold = finder.findThreshold(histogram);
+			assertTrue(finder.getClass().getSimpleName() + " " + threshold,
+					threshold > 70 && threshold < 170);
+		}
+		// the triangle cuts at the foot of the paper peak
+		int foot = new TriangleThresholdFinder().findThreshold(histogram);
+		assertTrue("TriangleThresholdFinder " + foot, foot > 150 && foot < 190);
+		// the exhaustive sum of the class entropies
+		double total = histogram.getTotal(), maximum = Double.NEGATIVE_INFINITY;
+		int entropic = 0;
+		for (int t = 0; t < 255; t++)
+		{
+			double probability = 0;
+			for (int i = 0; i <= t; i++)
+				probability += histogram.getCount(i) / total;
+			if (probability <= 0 || probability >= 1)
+				continue;
+			double entropy = 0;
+			for (int i = 0; i < 256; i++)
+			{
+				double p = histogram.getCount(i) / total / (i <= t ? probability : 1 - probability);
+				if (p > 0)
+					entropy -= p * Math.log(p);
+			}
+			if (entropy > maximum)
+			{
+				maximum = entropy;
+				entropic = t;
+			}
+		}
+		assertEquals(entropic, new KapurThresholdFinder().findThreshold(histogram));
+		// the exhaustive between-class variance
+		Random random = new Random(2);
+		long[] bins = new long[256];
+		for (int i = 0; i < 256; i++)
+			bins[i] = random.nextInt(100);
+		histogram = new Histogram(bins);
+		int threshold = new OtsuThresholdFinder().findThreshold(histogram);
+		double best = -1;
+		int expected = 0;
+		for (int t = 0; t < 255; t++)
+		{
+			double w0 = 0, w1 = 0, s0 = 0, s1 = 0;
+			for (int i = 0; i < 256; i++)
+				if (i <= t)
+				{
+					w0 += bins[i];
+					s0 += i * bins[i];
+				}
+				else
+				{
+					w1 += bins[i];
+					s1 += i * bins[i];
+				}
+			double variance = w0 * w1 * Math.pow(s0 / w0 - s1 / w1, 2);
+			if (variance > best + 1e-6 * variance)
+			{
+				best = variance;
+				expected = t;
+			}
+		}
+		assertEquals(expected, threshold);
+		assertEquals(threshold, new MultiOtsuThresholdFinder(2).findThreshold(histogram));
+		// the three classes
+		bins = new long[256];
+		for (int i = 0; i < 256; i++)
+			bins[i] = Math.round(1000 * (Math.exp(-Math.pow(i - 30, 2) / 50)
+					+ Math.exp(-Math.pow(i - 120, 2) / 50) + Math.exp(-Math.pow(i - 220, 2) / 50)));
+		int[] thresholds = new MultiOtsuThresholdFinder(3).findThresholds(new Histogram(bins));
+		assertEquals(2, thresholds.length);
+		assertTrue(thresholds[0] > 45 && thresholds[0] < 105);
+		assertTrue(thresholds[1] > 135 && thresholds[1] < 205);
+	}
+
+	@Test
+	public void testGlobalThresholding()
+	{
+		GlobalThresholding op = new GlobalThresholding(new OtsuThresholdFinder());
+		int threshold = new OtsuThresholdFinder()
+				.findThreshold(Histogram.getHistogram(this.page, Histogram.CHANNEL_GRAY));
+		BufferedImage expected = new GlobalThresholding(threshold).filter(this.page, null);
+		this.assertImageEquals(expected, op.filter(this.page, null));
+		// the found threshold is kept on the operation
+		assertEquals(threshold, op.getThreshold());
+		// the tiles share the threshold of the whole image
+		op.setExecutor(new TileExecutor(new ForkJoinPool(4), 64, 48, 0));
+		this.assertImageEquals(expected, op.filter(this.page, null));
+		// the chain does not fuse the histogram thresholding
+		this.assertImageEquals(expected, new OpChain(op).filter(this.page, null));
+		// the concurrent filters of the darker page do not share the threshold
+		final BufferedImage dark = new BufferedImage(this.page.getWidth(), this.page.getHeight(),
+				BufferedImage.TYPE_BYTE_GRAY);
+		for (int y = 0; y < dark.getHeight(); y++)
+			for (int x = 0; x < dark.getWidth(); x++)
+				dark.getRaster().setSample(x, y, 0, this.page.getRaster().getSample(x, y, 0) / 2);
+		int darker = new OtsuThresholdFinder()
+				.findThreshold(Histogram.getHistogram(dark, Histogram.CHANNEL_GRAY));
+		BufferedImage expectedDark = new GlobalThresholding(darker).filter(dark, null);
+		final GlobalThresholding shared = new GlobalThresholding(new OtsuThresholdFinder());
+		List<Future<BufferedImage>> results = new ArrayList<>();
+		ExecutorService service = Executors.newFixedThreadPool(4);
+		try
+		{
+			for (int i = 0; i < 16; i++)
+			{
+				final BufferedImage image = i % 2 == 0 ? this.page : dark;
+				results.add(service.submit(() -> shared.filter(image, null)));
+			}
+			for (int i = 0; i < results.size(); i++)
+				this.assertImageEquals(i % 2 == 0 ? expected : expectedDark, results.get(i).get());
+		}
+		catch (InterruptedException | ExecutionException e)
+		{
+			throw new AssertionError(e);
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	@Test
+	public void testBinarize()
+	{
+		// the odd width leaves a partial byte at the end of each row
+		int width = this.page.getWidth(), height = this.page.getHeight();
+		int threshold = 117;
+		BufferedImage expected = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				if (this.page.getRaster().getSample(x, y, 0) > threshold)
+					expected.getRaster().setSample(x, y, 0, 1);
+		GlobalThresholding op = new GlobalThresholding(threshold);
+		this.assertImageEquals(expected, op.filter(this.page, null));
+		op.setExecutor(new TileExecutor(new ForkJoinPool(4), 40, 24, 0));
+		this.assertImageEquals(expected, op.filter(this.page, null));
+		// the destinations inside larger images keep the pixels around them
+		for (int offset : new int[] { 8, 3 })
+		{
+			BufferedImage canvas = new BufferedImage(width + 16, height + 2,
+					BufferedImage.TYPE_BYTE_BINARY);
+			for (int y = 0; y < canvas.getHeight(); y++)
+				for (int x = 0; x < canvas.getWidth(); x++)
+					canvas.getRaster().setSample(x, y, 0, 1);
+			new GlobalThresholding(threshold).filter(this.page,
+					canvas.getSubimage(offset, 1, width, height));
+			for (int y = 0; y < canvas.getHeight(); y++)
+				for (int x = 0; x < canvas.getWidth(); x++)
+				{
+					boolean inside = x >= offset && x < offset + width && y >= 1 && y <= height;
+					int bit = inside ? expected.getRaster().getSample(x - offset, y - 1, 0) : 1;
+					assertEquals(bit, canvas.getRaster().getSample(x, y, 0));
+				}
+		}
+		// the color sources are converted to gray, with the alpha band
+		BufferedImage color = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		color.getGraphics().drawImage(this.page, 0, 0, null);
+		BufferedImage luminance = ColorConvertUtils.getGrayImage(color);
+		BufferedImage converted = new GlobalThresholding(threshold).filter(color, null);
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				assertEquals(luminance.getRaster().getSample(x, y, 0) > threshold ? 1 : 0,
+						converted.getRaster().getSample(x, y, 0));
+		// the middle class of the three
+		int[] thresholds = { 90, 170 };
+		LookupThresholding lookup = LookupThresholding.getClassThresholding(thresholds, 1);
+		BufferedImage band = lookup.filter(this.page, null);
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+			{
+				int gray = this.page.getRaster().getSample(x, y, 0);
+				assertEquals(gray > 90 && gray <= 170 ? 1 : 0, band.getRaster().getSample(x, y, 0));
+				assertEquals(lookup.filterRGB(x, y, this.page.getRGB(x, y)), band.getRGB(x, y));
+			}
+	}
+
+	@Test
+	public void testLocalThresholding()
+	{
+		// the text under the uneven illumination
+		Random random = new Random(3);
+		BufferedImage image = new BufferedImage(97, 61, BufferedImage.TYPE_BYTE_GRAY);
+		for (int y = 0; y < image.getHeight(); y++)
+			for (int x = 0; x < image.getWidth(); x++)
+			{
+				int light = 60 + x * 2;
+				int gray = (x / 3 + y / 5) % 4 == 0 ? light / 3 : light;
+				gray += random.nextInt(9) - 4;
+				image.getRaster().setSample(x, y, 0, Math.max(0, Math.min(255, gray)));
+			}
+		int radius = 6;
+		LocalThresholding[] ops = { new NiblackThresholding(radius),
+				new SauvolaThresholding(radius), new BradleyThresholding(radius) };
+		IntegralImage integral = IntegralImage.compute(image, true);
+		int width = image.getWidth(), height = image.getHeight();
+		for (LocalThresholding op : ops)
+		{
+			BufferedImage expected = new BufferedImage(width, height,
+					BufferedImage.TYPE_BYTE_BINARY);
+			for (int y = 0; y < height; y++)
+				for (int x = 0; x < width; x++)
+				{
+					// the window clipped to the image
+					int x0 = Math.max(0, x - radius), y0 = Math.max(0, y - radius);
+					int x1 = Math.min(width - 1, x + radius), y1 = Math.min(height - 1, y + radius);
+					long sum = 0, square = 0;
+					for (int v = y0; v <= y1; v++)
+						for (int u = x0; u <= x1; u++)
+						{
+							int gray = image.getRaster().getSample(u, v, 0);
+							sum += gray;
+							square += gray * gray;
+						}
+					assertEquals(sum, integral.getSum(x0, y0, x1, y1));
+					assertEquals(square, integral.getSquaredSum(x0, y0, x1, y1));
+					double n = (x1 - x0 + 1) * (y1 - y0 + 1);
+					double mean = sum / n;
+					double variance = square / n - mean * mean;
+					double deviation = variance > 0 ? Math.sqrt(variance) : 0;
+					double threshold;
+					if (op instanceof NiblackThresholding)
+						threshold = mean - 0.2 * deviation;
+					else if (op instanceof SauvolaThresholding)
+						threshold = mean * (1 + 0.5 * (deviation / 128 - 1));
+					else
+						threshold = mean * (1 - 0.15);
+					if (image.getRaster().getSample(x, y, 0) > threshold)
+						expected.getRaster().setSample(x, y, 0, 1);
+				}
+			this.assertImageEquals(expected, op.filter(image, null));
+			op.setStreaming(true);
+			this.assertImageEquals(expected, op.filter(image, null));
+			op.setExecutor(new TileExecutor(new ForkJoinPool(4), 32, 16, 0));
+			this.assertImageEquals(expected, op.filter(image, null));
+		}
+		// the global threshold loses the paper in the dark
+		BufferedImage global = new GlobalThresholding(new OtsuThresholdFinder()).filter(image,
+				null);
+		BufferedImage local = new BradleyThresholding(radius).filter(image, null);
+		int paper = 0, lost = 0;
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width / 4; x++)
+				if ((x / 3 + y / 5) % 4 != 0)
+				{
+					paper++;
+					lost += global.getRGB(x, y) == 0xff000000 ? 1 : 0;
+					assertEquals(0xffffffff, local.getRGB(x, y));
+				}
+		assertTrue(lost > paper / 2);
+	}
+
+	private void assertImageEquals(BufferedImage expected, BufferedImage actual)
+	{
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+				assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights reserved.
+ * TestTileExecutor.java is PROPRIETARY/CONFIDENTIAL built in 10:05:12 PM, Oct 16, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.TileExecutor;
+import com.github.frankjiang.image4j.effect.ContourOp;
+import com.github.frankjiang.image4j.morph.ColorMorphOp;
+import com.github.frankjiang.image4j.morph.MorphKernel;
+
+/**
+ * Test case for the tile-parallel executor.
+ * <p>
+ * </p>
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TestTileExecutor
+{
+	private BufferedImage	image;
+
+	private TileExecutor	executor;
+
+	@Before
+	public void setUp()
+	{
+		Random random = new Random(0);
+		this.image = new BufferedImage(211, 149, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < this.image.getHeight(); y++)
+			for (int x = 0; x < this.image.getWidth(); x++)
+				this.image.setRGB(x, y, random.nextInt(4) == 0 ? 0 : random.nextInt());
+		this.executor = new TileExecutor(new ForkJoinPool(4), 37, 29, 0);
+	}
+
+	@Test
+	public void testMorphology()
+	{
+		this.assertSerialEquivalent(
+				new ColorMorphOp(MorphKernel.getSquareKernel(5), ColorMorphOp.TYPE_ERODE));
+		this.assertSerialEquivalent(
+				new ColorMorphOp(MorphKernel.getSquareKernel(4), ColorMorphOp.TYPE_OPEN));
+	}
+
+	@Test
+	public void testContour()
+	{
+		this.assertSerialEquivalent(new ContourOp(Color.RED, MorphKernel.getSquareKernel(3)));
+	}
+
+	private void assertSerialEquivalent(ImagingOp op)
+	{
+		BufferedImage serial = op.filter(this.image, null);
+		op.setExecutor(this.executor);
+		BufferedImage parallel = op.filter(this.image, null);
+		for (int y = 0; y < serial.getHeight(); y++)
+			for (int x = 0; x < serial.getWidth(); x++)
+				assertEquals(serial.getRGB(x, y), parallel.getRGB(x, y));
+	}
+}
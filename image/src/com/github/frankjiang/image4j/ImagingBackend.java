@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ImagingBackend.java is PROPRIETARY/CONFIDENTIAL built in 12:10:44 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.WritableRaster;
+
+/**
+ * The imaging backend of {@linkplain ImagingLib}, which implements the
+ * accelerated operations.
+ * <p>
+ * The backends are registered in {@linkplain ImagingLib}. For each operation,
+ * the backends supporting it are tried in the descending order of their
+ * priorities until one of them succeeds.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ * @see ImagingLib#registerBackend(ImagingBackend)
+ */
+public interface ImagingBackend
+{
+	/**
+	 * Returns the name of this backend.
+	 *
+	 * @return the name
+	 */
+	public String getName();
+
+	/**
+	 * Returns the priority of this backend for the specified operation and
+	 * raster layouts, the higher the faster.
+	 *
+	 * @param op the operation, a {@linkplain BufferedImageOp} or a
+	 *            {@linkplain RasterOp}
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 * @return the priority, negative if the operation or the layouts are not
+	 *         supported
+	 */
+	public int getPriority(Object op, Raster src, Raster dst);
+
+	/**
+	 * Filter the specified source image to the specified destination image
+	 * with the specified image operator.
+	 *
+	 * @param op the image operator
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @return the destination image, or <code>null</code> if this backend
+	 *         declines the operation
+	 */
+	public BufferedImage filter(BufferedImageOp op, BufferedImage src, BufferedImage dst);
+
+	/**
+	 * Filter the specified source raster to the specified destination raster
+	 * with the specified raster operator.
+	 *
+	 * @param op the raster operator
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 * @return the destination raster, or <code>null</code> if this backend
+	 *         declines the operation
+	 */
+	public WritableRaster filter(RasterOp op, Raster src, WritableRaster dst);
+}
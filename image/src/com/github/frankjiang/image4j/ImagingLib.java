@@ -37,14 +37,19 @@ import java.awt.geom.Point2D;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
 import java.awt.image.BufferedImageOp;
-import java.awt.image.ByteLookupTable;
 import java.awt.image.ColorModel;
 import java.awt.image.ConvolveOp;
+import java.awt.image.DataBuffer;
 import java.awt.image.LookupOp;
-import java.awt.image.LookupTable;
 import java.awt.image.Raster;
 import java.awt.image.RasterOp;
 import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
@@ -52,50 +57,59 @@ import javax.swing.WindowConstants;
 import com.github.frankjiang.image4j.geom.PerspectiveTransform;
 import com.github.frankjiang.image4j.geom.PerspectiveTransformOp;
 import com.github.frankjiang.image4j.gui.ImagePanel;
-import com.github.frankjiang.image4j.math.Interpolation;
-import com.github.frankjiang.image4j.math.InterpolationBicubic;
-import com.github.frankjiang.image4j.math.InterpolationBilinear;
-import com.github.frankjiang.image4j.math.InterpolationNearestNeighbour;
-
-import sun.awt.image.SunWritableRaster;
+import com.github.frankjiang.image4j.math.InterpolationKernel;
 
 /**
- * This class provides a hook to access platform-specific
- * imaging code.
- * If the implementing class cannot handle the op, tile format or
- * image format, the method will return null;
- * If there is an error when processing the
- * data, the implementing class may either return null
- * (in which case our java code will be executed) or may throw
- * an exception.
+ * This class provides a hook to access the imaging backends.
+ * <p>
+ * The look up operations, the affine transformations, the convolutions and
+ * the perspective transformations are dispatched to the registered
+ * {@linkplain ImagingBackend backends}. For each call the backend which
+ * supports the operation on the given raster layouts with the highest
+ * priority is chosen, and the next one is tried if it declines. The
+ * {@linkplain NativeImagingBackend native backend} and the
+ * {@linkplain JavaImagingBackend pure Java backend} are registered by default.
+ * The pure Java backend accepts the supported operations on any raster layout
+ * and is always tried after all the other backends, so that these operations
+ * always succeed.
+ * </p>
+ * If no backend can handle the op, tile format or image format, the method
+ * will return null; If there is an error when processing the data, the
+ * backend may either return null (in which case our java code will be
+ * executed) or may throw an exception.
  */
 public class ImagingLib
 {
 	/**
-	 * The number of native operations.
+	 * The number of supported operations.
 	 */
-	private static final int	NUM_NATIVE_OPS	= 4;
+	private static final int					NUM_NATIVE_OPS	= 4;
 	/**
 	 * The operation tag for look up operations
 	 */
-	private static final int	LOOKUP_OP		= 0;
+	static final int							LOOKUP_OP		= 0;
 	/**
 	 * The operation tag for affine transfromation.
 	 */
-	private static final int	AFFINE_OP		= 1;
+	static final int							AFFINE_OP		= 1;
 	/**
 	 * The operation tag for convolution operators.
 	 */
-	private static final int	CONVOLVE_OP		= 2;
+	static final int							CONVOLVE_OP		= 2;
 	/**
 	 * The operation tag for perspective transfromation.
 	 */
-	private static final int	PERSPECTIVE_OP	= 3;
+	static final int							PERSPECTIVE_OP	= 3;
+
+	/**
+	 * The operation classes which uses this library.
+	 */
+	private static Class<?>[]					nativeOpClass	= new Class<?>[ImagingLib.NUM_NATIVE_OPS];
 
 	/**
-	 * The native operation classes which uses this library.
+	 * The registered backends.
 	 */
-	private static Class[]		nativeOpClass	= new Class[ImagingLib.NUM_NATIVE_OPS];
+	private static final List<ImagingBackend>	backends		= new CopyOnWriteArrayList<>();
 
 	static
 	{
@@ -103,42 +117,78 @@ public class ImagingLib
 		// Cache the class references of the operations we know about
 		// at the time this class is initially loaded.
 		//
-		try
-		{
-			ImagingLib.nativeOpClass[ImagingLib.LOOKUP_OP] = Class
-					.forName("java.awt.image.LookupOp");
-		}
-		catch (ClassNotFoundException e)
-		{
-			System.err.println("Could not find class: " + e);
-		}
-		try
-		{
-			ImagingLib.nativeOpClass[ImagingLib.AFFINE_OP] = Class
-					.forName("java.awt.image.AffineTransformOp");
-		}
-		catch (ClassNotFoundException e)
-		{
-			System.err.println("Could not find class: " + e);
-		}
-		try
-		{
-			ImagingLib.nativeOpClass[ImagingLib.CONVOLVE_OP] = Class
-					.forName("java.awt.image.ConvolveOp");
-		}
-		catch (ClassNotFoundException e)
-		{
-			System.err.println("Could not find class: " + e);
-		}
-		try
-		{
-			ImagingLib.nativeOpClass[ImagingLib.PERSPECTIVE_OP] = Class
-					.forName("com.github.frankjiang.image4j.geom.PerspectiveTransformOp");
-		}
-		catch (ClassNotFoundException e)
+		ImagingLib.nativeOpClass[ImagingLib.LOOKUP_OP] = LookupOp.class;
+		ImagingLib.nativeOpClass[ImagingLib.AFFINE_OP] = AffineTransformOp.class;
+		ImagingLib.nativeOpClass[ImagingLib.CONVOLVE_OP] = ConvolveOp.class;
+		ImagingLib.nativeOpClass[ImagingLib.PERSPECTIVE_OP] = PerspectiveTransformOp.class;
+		ImagingLib.backends.add(new NativeImagingBackend());
+		ImagingLib.backends.add(new JavaImagingBackend());
+	}
+
+	/**
+	 * Register the imaging backend.
+	 *
+	 * @param backend the backend
+	 */
+	public static void registerBackend(ImagingBackend backend)
+	{
+		if (backend == null)
+			throw new NullPointerException("The backend is null.");
+		ImagingLib.backends.add(backend);
+	}
+
+	/**
+	 * Unregister the imaging backend.
+	 *
+	 * @param backend the backend
+	 * @return <code>true</code> if the backend was registered
+	 */
+	public static boolean unregisterBackend(ImagingBackend backend)
+	{
+		return ImagingLib.backends.remove(backend);
+	}
+
+	/**
+	 * Returns the registered backends.
+	 *
+	 * @return the backends in the order of registration
+	 */
+	public static List<ImagingBackend> getBackends()
+	{
+		return Collections.unmodifiableList(ImagingLib.backends);
+	}
+
+	/**
+	 * Returns the backends supporting the operation on the specified rasters in
+	 * the descending order of their priorities, the
+	 * {@linkplain JavaImagingBackend pure Java backends} are the last.
+	 *
+	 * @param op the operation
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 * @return the supporting backends
+	 */
+	private static List<ImagingBackend> getBackends(Object op, Raster src, Raster dst)
+	{
+		List<ImagingBackend> list = new ArrayList<>();
+		final Map<ImagingBackend, Integer> priorities = new IdentityHashMap<>();
+		for (ImagingBackend backend : ImagingLib.backends)
 		{
-			System.err.println("Could not find class: " + e);
+			int priority = backend.getPriority(op, src, dst);
+			if (priority >= 0)
+			{
+				list.add(backend);
+				priorities.put(backend, priority);
+			}
 		}
+		list.sort((a, b) -> {
+			boolean fallbackA = a instanceof JavaImagingBackend;
+			boolean fallbackB = b instanceof JavaImagingBackend;
+			if (fallbackA != fallbackB)
+				return fallbackA ? 1 : -1;
+			return priorities.get(b) - priorities.get(a);
+		});
+		return list;
 	}
 
 	/**
@@ -177,57 +227,13 @@ public class ImagingLib
 		if (dst == null)
 			dst = op.createCompatibleDestImage(src, null);
 
-		BufferedImage retBI = null;
-		switch (ImagingLib.getNativeOpIndex(op.getClass()))
+		for (ImagingBackend backend : ImagingLib.getBackends(op, src.getRaster(), dst.getRaster()))
 		{
-		case LOOKUP_OP:
-			// REMIND: Fix this!
-			LookupTable table = ((LookupOp) op).getTable();
-			if (table.getOffset() != 0)
-				// Right now the native code doesn't support offsets
-				return null;
-			if (table instanceof ByteLookupTable)
-			{
-				ByteLookupTable bt = (ByteLookupTable) table;
-				if (sun.awt.image.ImagingLib.lookupByteBI(src, dst, bt.getTable()) > 0)
-					retBI = dst;
-			}
-			break;
-
-		case AFFINE_OP:
-		{
-			AffineTransformOp bOp = (AffineTransformOp) op;
-			double[] matrix = new double[6];
-
-			bOp.getTransform().getMatrix(matrix);
-
-			if (sun.awt.image.ImagingLib.transformBI(src, dst, matrix,
-					bOp.getInterpolationType()) > 0)
-				retBI = dst;
-		}
-			break;
-
-		case CONVOLVE_OP:
-			ConvolveOp cOp = (ConvolveOp) op;
-			if (sun.awt.image.ImagingLib.convolveBI(src, dst, cOp.getKernel(),
-					cOp.getEdgeCondition()) > 0)
-				retBI = dst;
-			break;
-		case PERSPECTIVE_OP:
-			PerspectiveTransformOp bOp = (PerspectiveTransformOp) op;
-			double[] matrix = new double[9];
-			bOp.getTransform().getMatrix(matrix);
-			if (ImagingLib.transformBIExtend9(src, dst, matrix, bOp.getInterpolationType()) > 0)
-				retBI = dst;
-			break;
-		default:
-			break;
+			BufferedImage retBI = backend.filter(op, src, dst);
+			if (retBI != null)
+				return retBI;
 		}
-
-		if (retBI != null)
-			SunWritableRaster.markDirty(retBI);
-
-		return retBI;
+		return null;
 	}
 
 	/**
@@ -247,63 +253,27 @@ public class ImagingLib
 		if (dst == null)
 			dst = op.createCompatibleDestRaster(src);
 
-		WritableRaster retRaster = null;
-		switch (ImagingLib.getNativeOpIndex(op.getClass()))
-		{
-
-		case LOOKUP_OP:
-			// REMIND: Fix this!
-			LookupTable table = ((LookupOp) op).getTable();
-			if (table.getOffset() != 0)
-				// Right now the native code doesn't support offsets
-				return null;
-			if (table instanceof ByteLookupTable)
-			{
-				ByteLookupTable bt = (ByteLookupTable) table;
-				if (sun.awt.image.ImagingLib.lookupByteRaster(src, dst, bt.getTable()) > 0)
-					retRaster = dst;
-			}
-			break;
-
-		case AFFINE_OP:
-		{
-			AffineTransformOp bOp = (AffineTransformOp) op;
-			double[] matrix = new double[6];
-			bOp.getTransform().getMatrix(matrix);
-			if (sun.awt.image.ImagingLib.transformRaster(src, dst, matrix,
-					bOp.getInterpolationType()) > 0)
-				retRaster = dst;
-		}
-			break;
-
-		case CONVOLVE_OP:
-			ConvolveOp cOp = (ConvolveOp) op;
-			if (sun.awt.image.ImagingLib.convolveRaster(src, dst, cOp.getKernel(),
-					cOp.getEdgeCondition()) > 0)
-				retRaster = dst;
-			break;
-
-		case PERSPECTIVE_OP:
+		for (ImagingBackend backend : ImagingLib.getBackends(op, src, dst))
 		{
-			PerspectiveTransformOp bOp = (PerspectiveTransformOp) op;
-			double[] matrix = new double[9];
-			bOp.getTransform().getMatrix(matrix);
-			if (ImagingLib.transformRasterExtend9(src, dst, matrix, bOp.getInterpolationType()) > 0)
-				retRaster = dst;
+			WritableRaster retRaster = backend.filter(op, src, dst);
+			if (retRaster != null)
+				return retRaster;
 		}
-			break;
-		default:
-			break;
-		}
-
-		if (retRaster != null)
-			SunWritableRaster.markDirty(retRaster);
-
-		return retRaster;
+		return null;
+	}
 
+	/**
+	 * Returns the index of the operation supported by this library.
+	 *
+	 * @param op the operation
+	 * @return the operation index, <code>-1</code> if not supported
+	 */
+	static int getOpIndex(Object op)
+	{
+		return op == null ? -1 : ImagingLib.getNativeOpIndex(op.getClass());
 	}
 
-	private static int getNativeOpIndex(Class opClass)
+	private static int getNativeOpIndex(Class<?> opClass)
 	{
 		//
 		// Search for this class in cached list of
@@ -465,9 +435,102 @@ public class ImagingLib
 	//		
 	//	}
 
+	/**
+	 * Returns the adjoint of the specified transformation matrix, which maps
+	 * the destination points back to the source points in the same way as
+	 * {@linkplain #inverseTransform(Point2D, Point2D, double[])}. The adjoint
+	 * is organized in the order of the flat matrix.
+	 *
+	 * @param flatmatrix the transformation matrix
+	 * @return the adjoint matrix
+	 */
+	public static double[] adjoint(double[] flatmatrix)
+	{
+		return new double[] {
+				flatmatrix[4] * flatmatrix[8] - flatmatrix[7] * flatmatrix[5],
+				flatmatrix[7] * flatmatrix[2] - flatmatrix[1] * flatmatrix[8],
+				flatmatrix[1] * flatmatrix[5] - flatmatrix[4] * flatmatrix[2],
+				flatmatrix[6] * flatmatrix[5] - flatmatrix[3] * flatmatrix[8],
+				flatmatrix[0] * flatmatrix[8] - flatmatrix[6] * flatmatrix[2],
+				flatmatrix[3] * flatmatrix[2] - flatmatrix[0] * flatmatrix[5],
+				flatmatrix[3] * flatmatrix[7] - flatmatrix[6] * flatmatrix[4],
+				flatmatrix[6] * flatmatrix[1] - flatmatrix[0] * flatmatrix[7],
+				flatmatrix[0] * flatmatrix[4] - flatmatrix[3] * flatmatrix[1] };
+	}
+
+	/**
+	 * Compute the span of the destination scanline whose pixels may be mapped
+	 * into the source by the inverse matrix. A source point (X, Y) is used if
+	 * <code>-2 &lt; X &lt; srcWidth</code> and <code>-2 &lt; Y &lt; srcHeight</code>
+	 * . Since the homogeneous coordinates are linear along the scanline, these
+	 * conditions are linear once the denominator keeps its sign. The span is
+	 * widened by one pixel at both ends, the pixels inside it should still be
+	 * tested.
+	 *
+	 * @param inverse the inverse matrix
+	 * @param y the scanline
+	 * @param width the width of the destination
+	 * @param srcWidth the width of the source
+	 * @param srcHeight the height of the source
+	 * @param span the span [start, end) of the scanline
+	 */
+	public static void getSpan(double[] inverse, int y, int width, int srcWidth, int srcHeight,
+			int[] span)
+	{
+		span[0] = 0;
+		span[1] = width;
+		double w0 = inverse[5] * y + inverse[8];
+		double w1 = w0 + inverse[2] * (width - 1);
+		// the denominator vanishes in the scanline
+		if (!(w0 > 0 && w1 > 0 || w0 < 0 && w1 < 0))
+			return;
+		double s = w0 > 0 ? 1 : -1;
+		double nx = inverse[3] * y + inverse[6];
+		double ny = inverse[4] * y + inverse[7];
+		double[] bounds = { 0, width - 1 };
+		if (!ImagingLib.clip(bounds, s * (nx + 2 * w0), s * (inverse[0] + 2 * inverse[2]))
+				|| !ImagingLib.clip(bounds, s * (srcWidth * w0 - nx),
+						s * (srcWidth * inverse[2] - inverse[0]))
+				|| !ImagingLib.clip(bounds, s * (ny + 2 * w0), s * (inverse[1] + 2 * inverse[2]))
+				|| !ImagingLib.clip(bounds, s * (srcHeight * w0 - ny),
+						s * (srcHeight * inverse[2] - inverse[1])))
+		{
+			span[1] = 0;
+			return;
+		}
+		span[0] = Math.max(0, (int) Math.floor(bounds[0]) - 1);
+		span[1] = Math.max(span[0], Math.min(width, (int) Math.ceil(bounds[1]) + 2));
+	}
+
+	/**
+	 * Clip the bounds by the condition <code>p + q * x &gt; 0</code>.
+	 *
+	 * @param bounds the bounds [low, high] of x
+	 * @param p the constant term
+	 * @param q the coefficient of x
+	 * @return <code>false</code> if the condition cannot be satisfied
+	 */
+	private static boolean clip(double[] bounds, double p, double q)
+	{
+		if (q == 0)
+			return p >= 0;
+		double x = -p / q;
+		if (q > 0)
+			bounds[0] = Math.max(bounds[0], x);
+		else
+			bounds[1] = Math.min(bounds[1], x);
+		return bounds[0] <= bounds[1] + 1;
+	}
+
 	/**
 	 * Filter the specified source image to the specified destination image with
 	 * the specified transformation matrix and interpolation type.
+	 * <p>
+	 * The destination is traversed in scanlines. The inverse matrix is computed
+	 * once and the homogeneous source coordinates are forward-differenced
+	 * along each scanline, only the span of the scanline which may be mapped
+	 * into the source is visited.
+	 * </p>
 	 *
 	 * @param src the specified source image
 	 * @param dst the specified destination image, if <code>null</code> a
@@ -483,101 +546,78 @@ public class ImagingLib
 		int width = src.getWidth();
 		Rectangle rect = new Rectangle(dst.getWidth(), dst.getHeight());
 
-		int xt, yt, alpha, red, green, blue;
-		int[] pixels = new int[4]; // p00, p10, p01, p11
-		float ex, ey, dx, dy;
-		Point2D.Float p = new Point2D.Float();
-		ColorModel model = src.getColorModel();
-		Interpolation interpolation;
-		switch (interpolationType)
+		float dx, dy;
+		double nx, ny, w;
+		InterpolationKernel kernel = InterpolationKernel.getInstance(interpolationType);
+		int bits = InterpolationKernel.FRACTION_BITS, mask = InterpolationKernel.FRACTION_ONE - 1;
+		double[] inverse = ImagingLib.adjoint(matrix);
+		int[] span = new int[2];
+
+		PixelAccessor in = PixelAccessor.getAccessor(src);
+		PixelAccessor out = PixelAccessor.getAccessor(dst);
+		// the packed pixels are interpolated in their backing array, the
+		// others in the window of the source rows used by each scanline
+		int[] pixels = null;
+		int offset = 0, stride = 0, opaque = 0;
+		RowWindow window = null;
+		if (in instanceof PixelAccessor.IntPacked)
 		{
-		case PerspectiveTransformOp.TYPE_BICUBIC:
-			interpolation = new InterpolationBicubic();
-			break;
-		default:
-		case PerspectiveTransformOp.TYPE_BILINEAR:
-			interpolation = new InterpolationBilinear();
-			break;
-		case PerspectiveTransformOp.TYPE_NEAREST_NEIGHBOR:
-			interpolation = new InterpolationNearestNeighbour();
-			break;
+			PixelAccessor.IntPacked packed = (PixelAccessor.IntPacked) in;
+			pixels = packed.getData();
+			offset = packed.getIndex(0, 0);
+			stride = packed.getScanlineStride();
+			opaque = src.getColorModel().hasAlpha() ? 0 : 0xff000000;
 		}
-
-		// WritableRaster alphaRaster = src.getAlphaRaster();
-		WritableRaster raster = src.getRaster();
-		try
+		else
+			window = new RowWindow(in, kernel);
+		int[] row = new int[rect.width];
+		for (int y = 0; y < rect.height; y++)
 		{
-			for (int x = 0; x < rect.width; x++)
-				for (int y = 0; y < rect.height; y++)
-				{
-					p.setLocation(x, y);
-					ImagingLib.inverseTransform(p, p, matrix);
-
-					dx = p.x;
-					dy = p.y;
-					xt = (int) dx;
-					yt = (int) dy;
-					ex = dx - xt;
-					ey = dy - yt;
-
-					// manage the edge
-					// -----------------------------------
-					if (xt > width - 1 || xt < -1 || yt > height - 1 || yt < -1)
-						continue;
-
-					// in case of overflow
-					if (xt >= width - 1)
-						xt = width - 2;
-					else if (xt < 0)
-						xt = 0;
-					if (yt >= height - 1)
-						yt = height - 2;
-					else if (yt < 0)
-						yt = 0;
-
-					// data00, data01, data10, data11
-					Object[] data = { raster.getDataElements(xt, yt, null),
-							raster.getDataElements(xt, yt + 1, null),
-							raster.getDataElements(xt + 1, yt, null),
-							raster.getDataElements(xt + 1, yt + 1, null) };
-					// -----------------------------------
-					// alpha channel
-					for (int i = 0; i < 4; i++)
-						pixels[i] = model.getAlpha(data[i]);
-					alpha = interpolation.interpolate(ex, ey, pixels[0], pixels[1], pixels[2],
-							pixels[3]);
-					// red channel
-					// -----------------------------------
-					for (int i = 0; i < 4; i++)
-						pixels[i] = model.getRed(data[i]);
-					red = interpolation.interpolate(ex, ey, pixels[0], pixels[1], pixels[2],
-							pixels[3]);
-					// green channel
-					// -----------------------------------
-					for (int i = 0; i < 4; i++)
-						pixels[i] = model.getGreen(data[i]);
-					green = interpolation.interpolate(ex, ey, pixels[0], pixels[1], pixels[2],
-							pixels[3]);
-					// blue channel
-					// -----------------------------------
-					for (int i = 0; i < 4; i++)
-						pixels[i] = model.getBlue(data[i]);
-					blue = interpolation.interpolate(ex, ey, pixels[0], pixels[1], pixels[2],
-							pixels[3]);
-					// set pixel
-					dst.setRGB(x, y, alpha << 24 | red << 16 | green << 8 | blue);
-				}
-		}
-		catch (NoninvertibleTransformException e)
-		{
-			return -1;
+			ImagingLib.getSpan(inverse, y, rect.width, width, height, span);
+			if (span[0] >= span[1])
+				continue;
+			out.getRGB(span[0], y, span[1] - span[0], row, span[0]);
+			nx = inverse[0] * span[0] + inverse[3] * y + inverse[6];
+			ny = inverse[1] * span[0] + inverse[4] * y + inverse[7];
+			w = inverse[2] * span[0] + inverse[5] * y + inverse[8];
+			if (window != null)
+			{
+				// the source Y coordinate is monotonic along the scanline
+				int last = span[1] - 1 - span[0];
+				double y0 = ny / w, y1 = (ny + inverse[1] * last) / (w + inverse[2] * last);
+				window.slide(Math.min(y0, y1), Math.max(y0, y1));
+			}
+			for (int x = span[0]; x < span[1]; x++, nx += inverse[0], ny += inverse[1], w += inverse[2])
+			{
+				if (Math.abs(w) < PerspectiveTransform.PERSPECTIVE_DIVIDE_EPSILON)
+					return -1;
+				dx = (float) (nx / w);
+				dy = (float) (ny / w);
+
+				// manage the edge
+				// -----------------------------------
+				if ((int) dx > width - 1 || (int) dx < -1 || (int) dy > height - 1 || (int) dy < -1)
+					continue;
+
+				// interpolate all the channels at the fixed-point coordinates
+				int sx = InterpolationKernel.quantize(dx), sy = InterpolationKernel.quantize(dy);
+				if (pixels == null)
+					row[x] = kernel.interpolate(window.getRows(sy >> bits), width, sx >> bits,
+							sx & mask, sy & mask);
+				else
+					row[x] = opaque | kernel.interpolate(pixels, offset, stride, width, height,
+							sx >> bits, sy >> bits, sx & mask, sy & mask);
+			}
+			out.setRGB(span[0], y, span[1] - span[0], row, span[0]);
 		}
 		return 1;
 	}
 
 	/**
 	 * Filter the specified source image to the specified destination image with
-	 * the specified transformation matrix and interpolation type.
+	 * the specified transformation matrix and interpolation type, the
+	 * destination is traversed in the same way as
+	 * {@linkplain #transformBIExtend9(BufferedImage, BufferedImage, double[], int)}.
 	 *
 	 * @param src the specified source raster
 	 * @param dst the specified destination raster, if <code>null</code> a
@@ -585,8 +625,6 @@ public class ImagingLib
 	 * @param matrix the 9-elements transformation matrix
 	 * @param interpolationType the interpolation type
 	 * @return the exit code, &gt1 if succeeded; otherwise failed
-	 * @throws NoninvertibleTransformException if the transformation cannot be
-	 *             inverted
 	 */
 	protected static int transformRasterExtend9(Raster src, WritableRaster dst, double[] matrix,
 			int interpolationType)
@@ -595,73 +633,75 @@ public class ImagingLib
 		int width = src.getWidth();
 		Rectangle rect = new Rectangle(dst.getWidth(), dst.getHeight());
 
-		int xt, yt;
-		float ex, ey, dx, dy;
-		Point2D.Float p = new Point2D.Float();
+		float dx, dy;
+		double nx, ny, w;
+		InterpolationKernel kernel = InterpolationKernel.getInstance(interpolationType);
+		int bits = InterpolationKernel.FRACTION_BITS, mask = InterpolationKernel.FRACTION_ONE - 1;
+		double[] inverse = ImagingLib.adjoint(matrix);
+		int[] span = new int[2];
 
-		Interpolation interpolation;
-		switch (interpolationType)
+		int nb = src.getNumBands();
+		int[] max = new int[nb];
+		for (int b = 0; b < nb; b++)
 		{
-		case PerspectiveTransformOp.TYPE_BICUBIC:
-			interpolation = new InterpolationBicubic();
-			break;
-		default:
-		case PerspectiveTransformOp.TYPE_BILINEAR:
-			interpolation = new InterpolationBilinear();
-			break;
-		case PerspectiveTransformOp.TYPE_NEAREST_NEIGHBOR:
-			interpolation = new InterpolationNearestNeighbour();
-			break;
+			int size = src.getSampleModel().getSampleSize(b);
+			max[b] = size < 31 ? (1 << size) - 1 : Integer.MAX_VALUE;
 		}
-
-		try
+		// the floating point samples are interpolated without rounding
+		int type = src.getTransferType();
+		boolean floating = type == DataBuffer.TYPE_FLOAT || type == DataBuffer.TYPE_DOUBLE;
+		// the source rows are read in the window used by each scanline and
+		// each span of the destination is written at once
+		RowWindow window = new RowWindow(src, kernel, floating);
+		int[] row = floating ? null : new int[rect.width * nb];
+		double[] samples = floating ? new double[rect.width * nb] : null;
+		for (int y = 0; y < rect.height; y++)
 		{
-			int[][] data = new int[4][4];
-			int[] out = new int[4];
-			for (int x = 0; x < rect.width; x++)
-				for (int y = 0; y < rect.height; y++)
+			ImagingLib.getSpan(inverse, y, rect.width, width, height, span);
+			if (span[0] >= span[1])
+				continue;
+			if (floating)
+				dst.getPixels(span[0], y, span[1] - span[0], 1, samples);
+			else
+				dst.getPixels(span[0], y, span[1] - span[0], 1, row);
+			nx = inverse[0] * span[0] + inverse[3] * y + inverse[6];
+			ny = inverse[1] * span[0] + inverse[4] * y + inverse[7];
+			w = inverse[2] * span[0] + inverse[5] * y + inverse[8];
+			int last = span[1] - 1 - span[0];
+			double y0 = ny / w, y1 = (ny + inverse[1] * last) / (w + inverse[2] * last);
+			window.slide(Math.min(y0, y1), Math.max(y0, y1));
+			for (int x = span[0]; x < span[1]; x++, nx += inverse[0], ny += inverse[1], w += inverse[2])
+			{
+				if (Math.abs(w) < PerspectiveTransform.PERSPECTIVE_DIVIDE_EPSILON)
+					return -1;
+				dx = (float) (nx / w);
+				dy = (float) (ny / w);
+
+				// manage the edge
+				// -----------------------------------
+				if ((int) dx > width - 1 || (int) dx < -1 || (int) dy > height - 1 || (int) dy < -1)
+					continue;
+
+				// interpolate each band at the fixed-point coordinates
+				int sx = InterpolationKernel.quantize(dx), sy = InterpolationKernel.quantize(dy);
+				int o = (x - span[0]) * nb;
+				if (floating)
 				{
-					p.setLocation(x, y);
-					ImagingLib.inverseTransform(p, p, matrix);
-
-					dx = p.x;
-					dy = p.y;
-					xt = (int) dx;
-					yt = (int) dy;
-					ex = dx - xt;
-					ey = dy - yt;
-
-					// manage the edge
-					// -----------------------------------
-					if (xt > width - 1 || xt < -1 || yt > height - 1 || yt < -1)
-						continue;
-
-					// in case of overflow
-					if (xt >= width - 1)
-						xt = width - 2;
-					else if (xt < 0)
-						xt = 0;
-					if (yt >= height - 1)
-						yt = height - 2;
-					else if (yt < 0)
-						yt = 0;
-
-					// data00, data01, data10, data11
-					src.getPixel(xt, yt, data[0]);
-					src.getPixel(xt, yt + 1, data[1]);
-					src.getPixel(xt + 1, yt, data[2]);
-					src.getPixel(xt + 1, yt + 1, data[3]);
-					// Do interpolation in spite of alpha channel
-					for (int i = 0; i < 4; i++)
-						out[i] = interpolation.interpolate(ex, ey, data[0][i], data[1][i],
-								data[2][i], data[3][i]);
-					// set pixel
-					dst.setPixel(x, y, out);
+					double[][] rows = window.getSamples(sy >> bits);
+					for (int b = 0; b < nb; b++)
+						samples[o + b] = kernel.interpolate(rows, width, nb, b, sx >> bits,
+								sx & mask, sy & mask);
 				}
-		}
-		catch (NoninvertibleTransformException e)
-		{
-			return -1;
+				else
+				{
+					kernel.interpolate(window.getRows(sy >> bits), width, nb, sx >> bits, sx & mask,
+							sy & mask, max, row, o);
+				}
+			}
+			if (floating)
+				dst.setPixels(span[0], y, span[1] - span[0], 1, samples);
+			else
+				dst.setPixels(span[0], y, span[1] - span[0], 1, row);
 		}
 		return 1;
 	}
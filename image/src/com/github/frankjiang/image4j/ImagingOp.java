@@ -38,7 +38,12 @@ public abstract class ImagingOp implements BufferedImageOp
 	/**
 	 * The rendering hints.
 	 */
-	protected RenderingHints hints;
+	protected RenderingHints	hints;
+
+	/**
+	 * The tile-parallel executor, <code>null</code> for the serial operation.
+	 */
+	protected TileExecutor		executor;
 
 	/**
 	 * Construct an instance of <tt>ImagingOp</tt>.
@@ -192,7 +197,7 @@ public abstract class ImagingOp implements BufferedImageOp
 		if (dst.getColorModel() instanceof IndexColorModel)
 			dst = new BufferedImage(dst.getWidth(), dst.getHeight(), BufferedImage.TYPE_INT_ARGB);
 
-		this.operate(src, dst);
+		this.execute(src, dst);
 
 		if (needToConvert)
 		{
@@ -326,6 +331,79 @@ public abstract class ImagingOp implements BufferedImageOp
 		return this.hints;
 	}
 
+	/**
+	 * Returns the tile-parallel executor.
+	 *
+	 * @return the executor, <code>null</code> for the serial operation
+	 */
+	public TileExecutor getExecutor()
+	{
+		return this.executor;
+	}
+
+	/**
+	 * Set the tile-parallel executor.
+	 * <p>
+	 * The executor is used only if this operation is tileable, the result is
+	 * bit-identical to the serial operation.
+	 * </p>
+	 *
+	 * @param executor the value of executor, <code>null</code> for the serial
+	 *            operation
+	 * @see #isTileable()
+	 */
+	public void setExecutor(TileExecutor executor)
+	{
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns <code>true</code> if this operation can be performed tile by
+	 * tile, which means that each destination pixel depends only on the source
+	 * pixels within the halo around it and not on its absolute position.
+	 * <p>
+	 * The default implementation returns <code>false</code>.
+	 * </p>
+	 *
+	 * @return <code>true</code> if tileable
+	 * @see #getHalo()
+	 */
+	protected boolean isTileable()
+	{
+		return false;
+	}
+
+	/**
+	 * Returns the halo size of this operation, the maximum distance between a
+	 * destination pixel and the source pixels it depends on.
+	 * <p>
+	 * The default implementation returns 0.
+	 * </p>
+	 *
+	 * @return the halo size
+	 */
+	protected int getHalo()
+	{
+		return 0;
+	}
+
+	/**
+	 * Operates the source image with the tile-parallel executor if available,
+	 * otherwise operates it serially.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @throws ImagingOpException if an error occurs during this operation
+	 */
+	protected void execute(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		if (this.executor != null && this.isTileable() && src.getWidth() == dst.getWidth()
+				&& src.getHeight() == dst.getHeight())
+			this.executor.execute(this, src, dst);
+		else
+			this.operate(src, dst);
+	}
+
 	/**
 	 * Operates the source image <code>src</code> and stores the result in the
 	 * destination image <code>dst</code>.
@@ -0,0 +1,835 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * JavaImagingBackend.java is PROPRIETARY/CONFIDENTIAL built in 12:31:27 AM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ByteLookupTable;
+import java.awt.image.ColorModel;
+import java.awt.image.ConvolveOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.ImagingOpException;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Kernel;
+import java.awt.image.LookupOp;
+import java.awt.image.LookupTable;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.SampleModel;
+import java.awt.image.ShortLookupTable;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+import com.github.frankjiang.image4j.conv.FFTConvolveOp;
+import com.github.frankjiang.image4j.conv.KernelUtils;
+import com.github.frankjiang.image4j.conv.SeparableConvolveOp;
+import com.github.frankjiang.image4j.geom.PerspectiveTransformOp;
+import com.github.frankjiang.image4j.math.InterpolationKernel;
+
+/**
+ * The pure Java imaging backend.
+ * <p>
+ * This backend supports the look up operations, the affine transformations,
+ * the convolutions and the perspective transformations on any raster layout,
+ * including the floating point samples and the 32-bit integral samples, so
+ * that it is always available as the fallback of the other backends. The
+ * operations are performed on the raw samples row by row.
+ * </p>
+ * <p>
+ * The results follow the platform code of the JDK operations: the convolution
+ * kernel is rotated by 180 degrees and applied to the raw samples of every
+ * band including alpha, the integral results are truncated; the affine
+ * transformation maps the pixel centers and leaves the destination pixels
+ * mapped out of the source untouched; the floating point samples are looked
+ * up by their truncated values.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class JavaImagingBackend implements ImagingBackend
+{
+	/**
+	 * The priority of this backend, the lowest one since it is always tried
+	 * after the other backends.
+	 */
+	public static final int PRIORITY = 0;
+
+	/**
+	 * The cubic convolution weights of the neighbors of the 256 quantized
+	 * offsets, taken at the midpoints of the offsets in 14 fractional bits as
+	 * the platform tables are.
+	 */
+	private static final int[]		CUBIC_WEIGHTS	= new int[256 * 4];
+	/**
+	 * The weights of {@linkplain #CUBIC_WEIGHTS} in full precision, used for
+	 * the edge pixels.
+	 */
+	private static final double[]	CUBIC_EXACT		= new double[256 * 4];
+
+	static
+	{
+		for (int i = 0, k = 0; i < 256; i++)
+		{
+			double t = (i + 0.5) / 256;
+			for (int j = 0; j < 4; j++, k++)
+			{
+				// the cubic convolution with a = -0.5 at the distance to the neighbor
+				double d = Math.abs(t + 1 - j);
+				double w = d <= 1 ? (1.5 * d - 2.5) * d * d + 1
+						: ((-0.5 * d + 2.5) * d - 4) * d + 2;
+				JavaImagingBackend.CUBIC_EXACT[k] = w;
+				JavaImagingBackend.CUBIC_WEIGHTS[k] = (int) Math.round(w * (1 << 14));
+			}
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingBackend#getName()
+	 */
+	@Override
+	public String getName()
+	{
+		return "java";
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingBackend#getPriority(java.lang.Object,
+	 *      java.awt.image.Raster, java.awt.image.Raster)
+	 */
+	@Override
+	public int getPriority(Object op, Raster src, Raster dst)
+	{
+		if (ImagingLib.getOpIndex(op) < 0)
+			return -1;
+		return PRIORITY;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingBackend#filter(java.awt.image.BufferedImageOp,
+	 *      java.awt.image.BufferedImage, java.awt.image.BufferedImage)
+	 */
+	@Override
+	public BufferedImage filter(BufferedImageOp op, BufferedImage src, BufferedImage dst)
+	{
+		switch (ImagingLib.getOpIndex(op))
+		{
+		case ImagingLib.LOOKUP_OP:
+			return this.lookup((LookupOp) op, src, dst);
+		case ImagingLib.AFFINE_OP:
+			return this.affine((AffineTransformOp) op, src, dst);
+		case ImagingLib.CONVOLVE_OP:
+			return this.convolve((ConvolveOp) op, src, dst);
+		case ImagingLib.PERSPECTIVE_OP:
+		{
+			PerspectiveTransformOp bOp = (PerspectiveTransformOp) op;
+			double[] matrix = new double[9];
+			bOp.getTransform().getMatrix(matrix);
+			return ImagingLib.transformBIExtend9(src, dst, matrix, bOp.getInterpolationType()) > 0
+					? dst : null;
+		}
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingBackend#filter(java.awt.image.RasterOp,
+	 *      java.awt.image.Raster, java.awt.image.WritableRaster)
+	 */
+	@Override
+	public WritableRaster filter(RasterOp op, Raster src, WritableRaster dst)
+	{
+		switch (ImagingLib.getOpIndex(op))
+		{
+		case ImagingLib.LOOKUP_OP:
+		{
+			LookupTable table = ((LookupOp) op).getTable();
+			int nt = table.getNumComponents();
+			if (nt != 1 && nt != src.getNumBands())
+				throw new IllegalArgumentException("Number of arrays in the  lookup table ("
+						+ nt + ") is not compatible with the src Raster: " + src);
+			boolean[] bands = new boolean[src.getNumBands()];
+			Arrays.fill(bands, true);
+			lookup(table, src, dst, bands);
+			return dst;
+		}
+		case ImagingLib.AFFINE_OP:
+		{
+			AffineTransformOp aOp = (AffineTransformOp) op;
+			affine(aOp.getTransform(), aOp.getInterpolationType(), src, dst);
+			return dst;
+		}
+		case ImagingLib.CONVOLVE_OP:
+		{
+			ConvolveOp cOp = (ConvolveOp) op;
+			convolve(cOp.getKernel(), cOp.getEdgeCondition(), src, dst);
+			return dst;
+		}
+		case ImagingLib.PERSPECTIVE_OP:
+		{
+			PerspectiveTransformOp bOp = (PerspectiveTransformOp) op;
+			double[] matrix = new double[9];
+			bOp.getTransform().getMatrix(matrix);
+			return ImagingLib.transformRasterExtend9(src, dst, matrix,
+					bOp.getInterpolationType()) > 0 ? dst : null;
+		}
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Look up the color components of the source image.
+	 *
+	 * @param op the look up operation
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @return the destination image
+	 */
+	protected BufferedImage lookup(LookupOp op, BufferedImage src, BufferedImage dst)
+	{
+		src = expand(src, true);
+		if (src.isAlphaPremultiplied())
+		{
+			src = copy(src);
+			src.coerceData(false);
+		}
+		ColorModel cm = src.getColorModel();
+		LookupTable table = op.getTable();
+		int nt = table.getNumComponents();
+		int nb = src.getRaster().getNumBands();
+		boolean[] bands = new boolean[nb];
+		if (nt == 1 || cm.hasAlpha() && nt == cm.getNumColorComponents())
+			for (int b = 0; b < cm.getNumColorComponents(); b++)
+				bands[b] = true;
+		else if (nt == nb)
+			Arrays.fill(bands, true);
+		else
+			throw new IllegalArgumentException("Number of color/alpha components should be "
+					+ nb + " but it is " + nt);
+		// the looked up samples are stored as they are if the number of bands matches
+		BufferedImage target = nb == dst.getRaster().getNumBands()
+				&& !(dst.getColorModel() instanceof IndexColorModel) ? dst : compatible(src, dst);
+		lookup(table, src.getRaster(), target.getRaster(), bands);
+		return restore(target, dst);
+	}
+
+	/**
+	 * Transform the source image with the affine transformation.
+	 *
+	 * @param op the affine transformation operation
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @return the destination image
+	 */
+	protected BufferedImage affine(AffineTransformOp op, BufferedImage src, BufferedImage dst)
+	{
+		src = expand(src, op.getInterpolationType() != AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
+		if (compatible(src, dst) != dst && !(dst.getColorModel() instanceof IndexColorModel))
+			src = convert(src, dst.getColorModel());
+		BufferedImage target = compatible(src, dst);
+		if (target != dst)
+			draw(dst, target);
+		affine(op.getTransform(), op.getInterpolationType(), src.getRaster(), target.getRaster());
+		return restore(target, dst);
+	}
+
+	/**
+	 * Convolve the source image.
+	 *
+	 * @param op the convolution operation
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @return the destination image
+	 */
+	protected BufferedImage convolve(ConvolveOp op, BufferedImage src, BufferedImage dst)
+	{
+		src = expand(src, true);
+		BufferedImage target = compatible(src, dst);
+		convolve(op.getKernel(), op.getEdgeCondition(), src.getRaster(), target.getRaster());
+		return restore(target, dst);
+	}
+
+	/**
+	 * Look up the samples of the specified bands, the other bands are copied.
+	 *
+	 * @param table the look up table
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 * @param bands the flags of the looked up bands
+	 */
+	protected static void lookup(LookupTable table, Raster src, WritableRaster dst,
+			boolean[] bands)
+	{
+		int w = Math.min(src.getWidth(), dst.getWidth());
+		int h = Math.min(src.getHeight(), dst.getHeight());
+		int nb = src.getNumBands();
+		int nt = table.getNumComponents();
+		SampleModel sm = src.getSampleModel();
+		// the short samples are looked up in the tables of all their values,
+		// the floating point and the wider samples one by one
+		boolean tabulated = isShort(src);
+		int[][] luts = new int[nb][];
+		for (int b = 0; b < nb; b++)
+			if (bands[b] && tabulated)
+				luts[b] = createLookupTable(table, nt == 1 ? 0 : b, sm.getSampleSize(b));
+		int[] in = new int[nt], out = new int[nt];
+		int[] row = new int[w * nb];
+		for (int y = 0; y < h; y++)
+		{
+			src.getPixels(src.getMinX(), src.getMinY() + y, w, 1, row);
+			for (int b = 0; b < nb; b++)
+			{
+				if (!bands[b])
+					continue;
+				int[] lut = luts[b];
+				int component = nt == 1 ? 0 : b;
+				for (int i = b; i < row.length; i += nb)
+				{
+					int v = lut == null ? lookup(table, component, row[i], in, out) : lut[row[i]];
+					if (v < 0)
+						throw new ArrayIndexOutOfBoundsException(
+								"The sample " + row[i] + " is out of the look up table.");
+					row[i] = v;
+				}
+			}
+			dst.setPixels(dst.getMinX(), dst.getMinY() + y, w, 1, row);
+		}
+	}
+
+	/**
+	 * Create the integral look up table of one component of the specified
+	 * look up table for all the sample values, the values out of the table are
+	 * marked as <code>-1</code>.
+	 *
+	 * @param table the look up table
+	 * @param component the component index
+	 * @param bits the number of bits of the samples
+	 * @return the integral look up table
+	 */
+	private static int[] createLookupTable(LookupTable table, int component, int bits)
+	{
+		int[] lut = new int[1 << bits];
+		int[] in = new int[table.getNumComponents()];
+		int[] out = new int[in.length];
+		for (int v = 0; v < lut.length; v++)
+			lut[v] = lookup(table, component, v, in, out);
+		return lut;
+	}
+
+	/**
+	 * Look up one sample value in one component of the specified look up
+	 * table.
+	 *
+	 * @param table the look up table
+	 * @param component the component index
+	 * @param value the sample value
+	 * @param in the buffer of the looked up pixel of the generic tables
+	 * @param out the buffer of the result pixel of the generic tables
+	 * @return the looked up value, <code>-1</code> if the value is out of the
+	 *         table
+	 */
+	private static int lookup(LookupTable table, int component, int value, int[] in, int[] out)
+	{
+		int index = value - table.getOffset();
+		if (table instanceof ByteLookupTable)
+		{
+			byte[] data = ((ByteLookupTable) table).getTable()[component];
+			return value < table.getOffset() || index >= data.length ? -1 : data[index] & 0xff;
+		}
+		if (table instanceof ShortLookupTable)
+		{
+			short[] data = ((ShortLookupTable) table).getTable()[component];
+			return value < table.getOffset() || index >= data.length ? -1 : data[index] & 0xffff;
+		}
+		Arrays.fill(in, value);
+		try
+		{
+			return table.lookupPixel(in, out)[component];
+		}
+		catch (ArrayIndexOutOfBoundsException e)
+		{
+			return -1;
+		}
+	}
+
+	/**
+	 * Convolve the source raster, the kernel is rotated by 180 degrees and
+	 * placed at the {@linkplain KernelUtils#getXOffset(Kernel) offsets} as
+	 * {@linkplain ConvolveOp} does. The separable kernels are convolved by
+	 * {@linkplain SeparableConvolveOp} and the large ones by
+	 * {@linkplain FFTConvolveOp} if it is preferred, the others directly.
+	 *
+	 * @param kernel the kernel
+	 * @param edgeCondition the edge condition, either
+	 *            {@linkplain ConvolveOp#EDGE_ZERO_FILL} or
+	 *            {@linkplain ConvolveOp#EDGE_NO_OP}
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 */
+	protected static void convolve(Kernel kernel, int edgeCondition, Raster src,
+			WritableRaster dst)
+	{
+		int w = Math.min(src.getWidth(), dst.getWidth());
+		int h = Math.min(src.getHeight(), dst.getHeight());
+		int kw = kernel.getWidth();
+		int kh = kernel.getHeight();
+		Kernel[] separated = kw > 1 && kh > 1 ? KernelUtils.separate(kernel) : null;
+		if (separated != null)
+		{
+			new SeparableConvolveOp(separated[0], separated[1], edgeCondition, null).filter(src,
+					dst);
+			return;
+		}
+		if (FFTConvolveOp.isPreferred(kernel, w, h))
+		{
+			new FFTConvolveOp(kernel, edgeCondition, null).filter(src, dst);
+			return;
+		}
+		int nb = src.getNumBands();
+		int xo = KernelUtils.getXOffset(kernel);
+		int yo = KernelUtils.getYOffset(kernel);
+		float[] data = kernel.getKernelData(null);
+		// rotate the kernel by 180 degrees
+		float[] k = new float[data.length];
+		for (int i = 0; i < data.length; i++)
+			k[i] = data[data.length - 1 - i];
+		int type = src.getTransferType();
+		boolean integral = type != DataBuffer.TYPE_FLOAT && type != DataBuffer.TYPE_DOUBLE;
+		float[] max = new float[nb];
+		for (int b = 0; b < nb; b++)
+		{
+			int size = src.getSampleModel().getSampleSize(b);
+			max[b] = size >= 31 ? Integer.MAX_VALUE : (1 << size) - 1;
+		}
+
+		int sx = src.getMinX(), sy = src.getMinY();
+		int dx = dst.getMinX(), dy = dst.getMinY();
+		// the edge pixels
+		if (edgeCondition == ConvolveOp.EDGE_NO_OP)
+			dst.setRect(dx - sx, dy - sy, src);
+		else
+		{
+			float[] zero = new float[w * nb];
+			for (int y = 0; y < h; y++)
+				dst.setPixels(dx, dy + y, w, 1, zero);
+		}
+		// the valid destination region
+		int x0 = xo, x1 = w - xo;
+		int y0 = yo, y1 = h - yo;
+		if (x0 >= x1 || y0 >= y1)
+			return;
+
+		float[][] rows = new float[kh][w * nb];
+		float[] out = new float[(x1 - x0) * nb];
+		float[] sum = new float[nb];
+		for (int y = y0; y < y1; y++)
+		{
+			// load the rows y - yo .. y - yo + kh - 1 into the ring
+			int first = y - yo;
+			for (int j = y == y0 ? 0 : kh - 1; j < kh; j++)
+			{
+				int r = first + j;
+				src.getPixels(sx, sy + r, w, 1, rows[r % kh]);
+			}
+			for (int x = x0; x < x1; x++)
+			{
+				Arrays.fill(sum, 0f);
+				int ki = 0;
+				for (int j = 0; j < kh; j++)
+				{
+					float[] row = rows[(first + j) % kh];
+					int offset = (x - xo) * nb;
+					for (int i = 0; i < kw; i++, ki++, offset += nb)
+					{
+						float kv = k[ki];
+						for (int b = 0; b < nb; b++)
+							sum[b] += kv * row[offset + b];
+					}
+				}
+				int offset = (x - x0) * nb;
+				for (int b = 0; b < nb; b++)
+				{
+					float v = sum[b];
+					if (integral)
+					{
+						v = (int) v;
+						v = v < 0 ? 0 : v > max[b] ? max[b] : v;
+					}
+					out[offset + b] = v;
+				}
+			}
+			dst.setPixels(dx + x0, dy + y, x1 - x0, 1, out);
+		}
+	}
+
+	/**
+	 * Transform the source raster with the affine transformation. The
+	 * destination pixel whose center is mapped out of the source is left
+	 * untouched.
+	 * <p>
+	 * The destination is traversed in scanlines as
+	 * {@linkplain ImagingLib#getSpan(double[], int, int, int, int, int[])}
+	 * bounds them, the source rows used by each scanline are read in a
+	 * {@linkplain RowWindow}. The source points are stepped along the
+	 * scanline in 16.16 fixed point with the truncated increments of the
+	 * inverse matrix, and the integral samples are interpolated in the fixed
+	 * point arithmetic of the platform: rounded linear weights for the
+	 * bilinear type and 14 bits cubic weights of 256 offsets for the bicubic
+	 * one, the pixels whose neighbors leave the source in double precision.
+	 * The nearest neighbors and the floating point samples are interpolated
+	 * by the {@linkplain InterpolationKernel}.
+	 * </p>
+	 *
+	 * @param xform the affine transformation
+	 * @param interpolationType the interpolation type defined in
+	 *            {@linkplain AffineTransformOp}
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 */
+	protected static void affine(AffineTransform xform, int interpolationType, Raster src,
+			WritableRaster dst)
+	{
+		// the inverse is derived from the forward matrix as the platform does,
+		// the rounding of its coefficients decides the boundary pixels
+		double[] m = new double[6];
+		xform.getMatrix(m);
+		double det = m[0] * m[3] - m[2] * m[1];
+		if (det == 0 || Double.isNaN(det) || Double.isInfinite(det))
+			throw new ImagingOpException("Unable to invert transform " + xform);
+		double[] inverse = { m[3] / det, -m[1] / det, -m[2] / det, m[0] / det,
+				(m[2] * m[5] - m[3] * m[4]) / det, (m[1] * m[4] - m[0] * m[5]) / det };
+		int sw = src.getWidth(), sh = src.getHeight();
+		int dw = dst.getWidth(), dh = dst.getHeight();
+		int dx = dst.getMinX(), dy = dst.getMinY();
+		int sx = src.getMinX(), sy = src.getMinY();
+		int nb = src.getNumBands();
+		int[] max = new int[nb];
+		for (int b = 0; b < nb; b++)
+		{
+			int size = src.getSampleModel().getSampleSize(b);
+			max[b] = size < 31 ? (1 << size) - 1 : Integer.MAX_VALUE;
+		}
+		// the source point of the destination pixel center (x, y) relative to
+		// the source, in the 9-elements layout of the inverse matrices
+		double[] matrix = { inverse[0], inverse[1], 0, inverse[2], inverse[3], 0,
+				inverse[0] * (dx + 0.5) + inverse[2] * (dy + 0.5) + inverse[4] - sx,
+				inverse[1] * (dx + 0.5) + inverse[3] * (dy + 0.5) + inverse[5] - sy, 1 };
+
+		InterpolationKernel kernel = InterpolationKernel.getInstance(interpolationType);
+		boolean nearest = interpolationType == AffineTransformOp.TYPE_NEAREST_NEIGHBOR;
+		boolean bicubic = interpolationType == AffineTransformOp.TYPE_BICUBIC;
+		// the pixels whose neighbors are not all in the source
+		double margin = bicubic ? 1 : 0, far = bicubic ? 2 : 1;
+		int bits = InterpolationKernel.FRACTION_BITS, mask = InterpolationKernel.FRACTION_ONE - 1;
+		// the points are stepped along the scanline in 16.16 fixed point by the
+		// truncated increments from the first pixel mapped into the source
+		long one = 1L << 16, half = nearest ? 0 : one / 2;
+		long du = (long) (inverse[0] * one), dv = (long) (inverse[1] * one);
+		int type = src.getTransferType();
+		boolean floating = type == DataBuffer.TYPE_FLOAT || type == DataBuffer.TYPE_DOUBLE;
+		RowWindow window = new RowWindow(src, kernel, floating);
+		int[] row = floating ? null : new int[dw * nb];
+		double[] samples = floating ? new double[dw * nb] : null;
+		int[] span = new int[2];
+		for (int y = 0; y < dh; y++)
+		{
+			ImagingLib.getSpan(matrix, y, dw, sw, sh, span);
+			int n = span[1] - span[0];
+			if (n <= 0)
+				continue;
+			if (floating)
+				dst.getPixels(dx + span[0], dy + y, n, 1, samples);
+			else
+				dst.getPixels(dx + span[0], dy + y, n, 1, row);
+			double first = matrix[1] * span[0] + matrix[4] * y + matrix[7];
+			double last = first + matrix[1] * (n - 1);
+			window.slide(Math.min(first, last) - 0.5, Math.max(first, last) - 0.5);
+			double py = dy + y + 0.5;
+			double ru = inverse[2] * py + inverse[4] - sx, rv = inverse[3] * py + inverse[5] - sy;
+			long fu = 0, fv = 0;
+			boolean started = false;
+			for (int x = 0, o = 0; x < n; x++, o += nb, fu += du, fv += dv)
+			{
+				double px = dx + span[0] + x + 0.5;
+				double u = inverse[0] * px + ru, v = inverse[1] * px + rv;
+				if (!(u >= 0 && u < sw && v >= 0 && v < sh))
+					continue;
+				if (!started)
+				{
+					fu = (long) (u * one);
+					fv = (long) (v * one);
+					started = true;
+				}
+				if (!nearest && !floating)
+				{
+					long pu = fu - half, pv = fv - half;
+					int[][] rows = window.getRows((int) (pv >> 16));
+					boolean edge = u - 0.5 < margin || v - 0.5 < margin || u - 0.5 >= sw - far
+							|| v - 0.5 >= sh - far;
+					if (bicubic)
+						JavaImagingBackend.bicubic(rows, sw, nb, pu, pv, edge, max, row, o);
+					else
+						JavaImagingBackend.bilinear(rows, sw, nb, pu, pv, edge, row, o);
+					continue;
+				}
+				// the nearest neighbor is the pixel containing the point, the
+				// others are interpolated between the pixel centers
+				int fx, fy;
+				if (nearest)
+				{
+					fx = Math.min(sw - 1, Math.max(0, (int) (fu >> 16))) << bits;
+					fy = Math.min(sh - 1, Math.max(0, (int) (fv >> 16))) << bits;
+				}
+				else
+				{
+					fx = (int) (fu - half >> 16 - bits);
+					fy = (int) (fv - half >> 16 - bits);
+				}
+				if (floating)
+				{
+					double[][] rows = window.getSamples(fy >> bits);
+					for (int b = 0; b < nb; b++)
+						samples[o + b] = kernel.interpolate(rows, sw, nb, b, fx >> bits,
+								fx & mask, fy & mask);
+				}
+				else
+				{
+					kernel.interpolate(window.getRows(fy >> bits), sw, nb, fx >> bits, fx & mask,
+							fy & mask, max, row, o);
+				}
+			}
+			if (floating)
+				dst.setPixels(dx + span[0], dy + y, n, 1, samples);
+			else
+				dst.setPixels(dx + span[0], dy + y, n, 1, row);
+		}
+	}
+
+	/**
+	 * Interpolate the interleaved integral samples bilinearly at the source
+	 * point in 16.16 fixed point as the platform does: the columns are
+	 * interpolated first and each step is rounded, the edge pixels are
+	 * interpolated in floating point and truncated.
+	 *
+	 * @param rows the source row of the top-left neighbor and the next one
+	 * @param width the source width
+	 * @param bands the number of the bands
+	 * @param x the fixed-point X coordinate relative to the pixel centers
+	 * @param y the fixed-point Y coordinate relative to the pixel centers
+	 * @param edge <code>true</code> if the point is at the edge of the source
+	 * @param pixel the destination samples
+	 * @param offset the index of the destination pixel in the samples
+	 */
+	private static void bilinear(int[][] rows, int width, int bands, long x, long y,
+			boolean edge, int[] pixel, int offset)
+	{
+		int ix = (int) (x >> 16);
+		int i0 = Math.max(0, Math.min(width - 1, ix)) * bands;
+		int i1 = Math.max(0, Math.min(width - 1, ix + 1)) * bands;
+		long fx = x & 0xffff, fy = y & 0xffff;
+		int[] r0 = rows[0], r1 = rows[1];
+		for (int b = 0; b < bands; b++)
+		{
+			long a00 = r0[i0 + b], a01 = r0[i1 + b], a10 = r1[i0 + b], a11 = r1[i1 + b];
+			if (edge)
+			{
+				double tx = fx / 65536.0, ty = fy / 65536.0;
+				pixel[offset + b] = (int) ((a00 * (1 - tx) + a01 * tx) * (1 - ty)
+						+ (a10 * (1 - tx) + a11 * tx) * ty);
+			}
+			else
+			{
+				long p0 = a00 + (fy * (a10 - a00) + 0x8000 >> 16);
+				long p1 = a01 + (fy * (a11 - a01) + 0x8000 >> 16);
+				pixel[offset + b] = (int) (p0 + (fx * (p1 - p0) + 0x8000 >> 16));
+			}
+		}
+	}
+
+	/**
+	 * Interpolate the interleaved integral samples by the cubic convolution at
+	 * the source point in 16.16 fixed point as the platform does: the offsets
+	 * are truncated to 8 bits, the rows are weighted by
+	 * {@linkplain #CUBIC_WEIGHTS} and truncated to 16 fractional bits, the
+	 * column is weighted and rounded, the edge pixels are weighted by
+	 * {@linkplain #CUBIC_EXACT} and rounded.
+	 *
+	 * @param rows the four neighboring source rows
+	 * @param width the source width
+	 * @param bands the number of the bands
+	 * @param x the fixed-point X coordinate relative to the pixel centers
+	 * @param y the fixed-point Y coordinate relative to the pixel centers
+	 * @param edge <code>true</code> if the point is at the edge of the source
+	 * @param max the maximum values of the bands
+	 * @param pixel the destination samples
+	 * @param offset the index of the destination pixel in the samples
+	 */
+	private static void bicubic(int[][] rows, int width, int bands, long x, long y,
+			boolean edge, int[] max, int[] pixel, int offset)
+	{
+		int ix = (int) (x >> 16);
+		int i0 = Math.max(0, Math.min(width - 1, ix - 1)) * bands;
+		int i1 = Math.max(0, Math.min(width - 1, ix)) * bands;
+		int i2 = Math.max(0, Math.min(width - 1, ix + 1)) * bands;
+		int i3 = Math.max(0, Math.min(width - 1, ix + 2)) * bands;
+		int wx = ((int) x >> 8 & 0xff) * 4, wy = ((int) y >> 8 & 0xff) * 4;
+		for (int b = 0; b < bands; b++)
+		{
+			long v;
+			if (edge)
+			{
+				double[] w = JavaImagingBackend.CUBIC_EXACT;
+				double sum = 0;
+				for (int j = 0; j < 4; j++)
+				{
+					int[] r = rows[j];
+					sum += (w[wx] * r[i0 + b] + w[wx + 1] * r[i1 + b] + w[wx + 2] * r[i2 + b]
+							+ w[wx + 3] * r[i3 + b]) * w[wy + j];
+				}
+				v = (long) Math.floor(sum + 0.5);
+			}
+			else
+			{
+				int[] w = JavaImagingBackend.CUBIC_WEIGHTS;
+				long sum = 0;
+				for (int j = 0; j < 4; j++)
+				{
+					int[] r = rows[j];
+					long s = (long) w[wx] * r[i0 + b] + (long) w[wx + 1] * r[i1 + b]
+							+ (long) w[wx + 2] * r[i2 + b] + (long) w[wx + 3] * r[i3 + b];
+					sum += (s >> 12) * w[wy + j];
+				}
+				v = sum + 0x8000 >> 16;
+			}
+			pixel[offset + b] = (int) (v < 0 ? 0 : v > max[b] ? max[b] : v);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the samples of the raster are integral of
+	 * at most 16 bits, so that all their values can be tabulated.
+	 *
+	 * @param raster the raster
+	 * @return <code>true</code> if the samples are short
+	 */
+	private static boolean isShort(Raster raster)
+	{
+		int type = raster.getTransferType();
+		if (type == DataBuffer.TYPE_FLOAT || type == DataBuffer.TYPE_DOUBLE)
+			return false;
+		for (int size : raster.getSampleModel().getSampleSize())
+			if (size > 16)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Expand the indexed image to a direct color image if required.
+	 *
+	 * @param image the image
+	 * @param required <code>true</code> if the expansion is required
+	 * @return the expanded image, or the image itself
+	 */
+	private static BufferedImage expand(BufferedImage image, boolean required)
+	{
+		ColorModel cm = image.getColorModel();
+		if (required && cm instanceof IndexColorModel)
+			return ((IndexColorModel) cm).convertToIntDiscrete(image.getRaster(), false);
+		return image;
+	}
+
+	/**
+	 * Returns the destination image if its layout is compatible with the
+	 * source image, otherwise creates a compatible temporary destination.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @return the target image
+	 */
+	private static BufferedImage compatible(BufferedImage src, BufferedImage dst)
+	{
+		ColorModel cm = src.getColorModel();
+		if (cm.equals(dst.getColorModel())
+				&& src.getRaster().getNumBands() == dst.getRaster().getNumBands())
+			return dst;
+		WritableRaster raster = src.getRaster().createCompatibleWritableRaster(dst.getWidth(),
+				dst.getHeight());
+		return new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null);
+	}
+
+	/**
+	 * Convert the image to the specified color model.
+	 *
+	 * @param image the image
+	 * @param cm the color model
+	 * @return the converted image
+	 */
+	private static BufferedImage convert(BufferedImage image, ColorModel cm)
+	{
+		BufferedImage result = new BufferedImage(cm,
+				cm.createCompatibleWritableRaster(image.getWidth(), image.getHeight()),
+				cm.isAlphaPremultiplied(), null);
+		draw(image, result);
+		return result;
+	}
+
+	/**
+	 * Draw the target image into the destination if they are different.
+	 *
+	 * @param target the target image
+	 * @param dst the destination image
+	 * @return the destination image
+	 */
+	private static BufferedImage restore(BufferedImage target, BufferedImage dst)
+	{
+		if (target != dst)
+			draw(target, dst);
+		return dst;
+	}
+
+	/**
+	 * Copy the pixels of the source image into the destination image.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	private static void draw(BufferedImage src, BufferedImage dst)
+	{
+		Graphics2D g = dst.createGraphics();
+		try
+		{
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(src, 0, 0, null);
+		}
+		finally
+		{
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Returns a copy of the image with the same layout.
+	 *
+	 * @param image the image
+	 * @return the copy
+	 */
+	private static BufferedImage copy(BufferedImage image)
+	{
+		ColorModel cm = image.getColorModel();
+		WritableRaster raster = image.getRaster().createCompatibleWritableRaster();
+		raster.setRect(image.getRaster());
+		return new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null);
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * NativeImagingBackend.java is PROPRIETARY/CONFIDENTIAL built in 12:18:02 AM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ByteLookupTable;
+import java.awt.image.ConvolveOp;
+import java.awt.image.LookupOp;
+import java.awt.image.LookupTable;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.WritableRaster;
+
+import sun.awt.image.SunWritableRaster;
+
+/**
+ * The imaging backend using the platform-specific imaging code of the JDK (
+ * <code>sun.awt.image.ImagingLib</code>).
+ * <p>
+ * The platform code may be inaccessible, e.g. the package is not exported to
+ * this module or the native library is not loaded. In this case the first
+ * failed call disables this backend and the other backends are used.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class NativeImagingBackend implements ImagingBackend
+{
+	/**
+	 * The priority of this backend.
+	 */
+	public static final int	PRIORITY	= 100;
+
+	/**
+	 * <code>true</code> if the platform code is accessible.
+	 */
+	private volatile boolean	available	= true;
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingBackend#getName()
+	 */
+	@Override
+	public String getName()
+	{
+		return "native";
+	}
+
+	/**
+	 * Returns <code>true</code> if the platform code has not failed to link.
+	 *
+	 * @return <code>true</code> if available
+	 */
+	public boolean isAvailable()
+	{
+		return this.available;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingBackend#getPriority(java.lang.Object,
+	 *      java.awt.image.Raster, java.awt.image.Raster)
+	 */
+	@Override
+	public int getPriority(Object op, Raster src, Raster dst)
+	{
+		if (!this.available)
+			return -1;
+		// the platform code does not handle the packed binary layouts
+		if (src.getSampleModel() instanceof MultiPixelPackedSampleModel
+				|| dst.getSampleModel() instanceof MultiPixelPackedSampleModel)
+			return -1;
+		switch (ImagingLib.getOpIndex(op))
+		{
+		case ImagingLib.LOOKUP_OP:
+		{
+			LookupTable table = ((LookupOp) op).getTable();
+			return table.getOffset() == 0 && table instanceof ByteLookupTable ? PRIORITY : -1;
+		}
+		case ImagingLib.AFFINE_OP:
+		case ImagingLib.CONVOLVE_OP:
+			return PRIORITY;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingBackend#filter(java.awt.image.BufferedImageOp,
+	 *      java.awt.image.BufferedImage, java.awt.image.BufferedImage)
+	 */
+	@Override
+	public BufferedImage filter(BufferedImageOp op, BufferedImage src, BufferedImage dst)
+	{
+		int status = 0;
+		try
+		{
+			switch (ImagingLib.getOpIndex(op))
+			{
+			case ImagingLib.LOOKUP_OP:
+				status = sun.awt.image.ImagingLib.lookupByteBI(src, dst,
+						((ByteLookupTable) ((LookupOp) op).getTable()).getTable());
+				break;
+			case ImagingLib.AFFINE_OP:
+			{
+				AffineTransformOp bOp = (AffineTransformOp) op;
+				double[] matrix = new double[6];
+				bOp.getTransform().getMatrix(matrix);
+				status = sun.awt.image.ImagingLib.transformBI(src, dst, matrix,
+						bOp.getInterpolationType());
+			}
+				break;
+			case ImagingLib.CONVOLVE_OP:
+			{
+				ConvolveOp cOp = (ConvolveOp) op;
+				status = sun.awt.image.ImagingLib.convolveBI(src, dst, cOp.getKernel(),
+						cOp.getEdgeCondition());
+			}
+				break;
+			default:
+				break;
+			}
+			if (status > 0)
+			{
+				SunWritableRaster.markDirty(dst);
+				return dst;
+			}
+		}
+		catch (LinkageError e)
+		{
+			this.available = false;
+		}
+		return null;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingBackend#filter(java.awt.image.RasterOp,
+	 *      java.awt.image.Raster, java.awt.image.WritableRaster)
+	 */
+	@Override
+	public WritableRaster filter(RasterOp op, Raster src, WritableRaster dst)
+	{
+		int status = 0;
+		try
+		{
+			switch (ImagingLib.getOpIndex(op))
+			{
+			case ImagingLib.LOOKUP_OP:
+				status = sun.awt.image.ImagingLib.lookupByteRaster(src, dst,
+						((ByteLookupTable) ((LookupOp) op).getTable()).getTable());
+				break;
+			case ImagingLib.AFFINE_OP:
+			{
+				AffineTransformOp bOp = (AffineTransformOp) op;
+				double[] matrix = new double[6];
+				bOp.getTransform().getMatrix(matrix);
+				status = sun.awt.image.ImagingLib.transformRaster(src, dst, matrix,
+						bOp.getInterpolationType());
+			}
+				break;
+			case ImagingLib.CONVOLVE_OP:
+			{
+				ConvolveOp cOp = (ConvolveOp) op;
+				status = sun.awt.image.ImagingLib.convolveRaster(src, dst, cOp.getKernel(),
+						cOp.getEdgeCondition());
+			}
+				break;
+			default:
+				break;
+			}
+			if (status > 0)
+			{
+				SunWritableRaster.markDirty(dst);
+				return dst;
+			}
+		}
+		catch (LinkageError e)
+		{
+			this.available = false;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * OpChain.java is PROPRIETARY/CONFIDENTIAL built in 10:52:47 PM, Oct 16, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorModel;
+import java.awt.image.RasterFormatException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The fused chain of image operations.
+ * <p>
+ * The chain performs its operations in order without allocating an
+ * intermediate image for each of them. The consecutive
+ * {@linkplain PointOp point operations} are fused into one pass over the
+ * pixels, and the {@linkplain StreamableOp streamable operations} are streamed
+ * through rolling row buffers by a {@linkplain RowPipeline}. Any other
+ * operation breaks the stream: the pixels streamed so far are materialized in
+ * an <code>TYPE_INT_ARGB</code> image and filtered by the operation as usual.
+ * </p>
+ * <p>
+ * The pixels are streamed as packed ARGB values. The operations are expected
+ * to preserve the image size. The destination is created by the last
+ * operation, so that its type is the one the operation produces alone, as the
+ * <code>TYPE_BYTE_BINARY</code> of the thresholding.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class OpChain implements BufferedImageOp
+{
+	/**
+	 * The operations in the order of performing.
+	 */
+	protected List<BufferedImageOp>	ops;
+
+	/**
+	 * The rendering hints.
+	 */
+	protected RenderingHints		hints;
+
+	/**
+	 * Construct an instance of <tt>OpChain</tt>.
+	 *
+	 * @param ops the operations in the order of performing
+	 */
+	public OpChain(BufferedImageOp... ops)
+	{
+		this.ops = new ArrayList<>(Arrays.asList(ops));
+	}
+
+	/**
+	 * Append the operation to the end of this chain.
+	 *
+	 * @param op the operation
+	 * @return this chain
+	 */
+	public OpChain append(BufferedImageOp op)
+	{
+		if (op == null)
+			throw new NullPointerException("The operation is null.");
+		this.ops.add(op);
+		return this;
+	}
+
+	/**
+	 * Returns the operations in the order of performing.
+	 *
+	 * @return the operations
+	 */
+	public List<BufferedImageOp> getOps()
+	{
+		return this.ops;
+	}
+
+	/**
+	 * @see java.awt.image.BufferedImageOp#filter(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, BufferedImage dst)
+	{
+		if (src == null)
+			throw new NullPointerException("src image is null");
+		if (dst == null)
+			dst = this.createCompatibleDestImage(src, null);
+		BufferedImage image = src;
+		RowPipeline pipeline = new RowPipeline(src.getWidth(), src.getHeight());
+		for (BufferedImageOp op : this.ops)
+			if (op instanceof PointOp && ((PointOp) op).isPointwise())
+				pipeline.add((PointOp) op);
+			else if (op instanceof StreamableOp)
+				pipeline.add(((StreamableOp) op).getRowOps());
+			else
+			{
+				if (!pipeline.isEmpty())
+				{
+					BufferedImage tmp = new BufferedImage(image.getWidth(), image.getHeight(),
+							BufferedImage.TYPE_INT_ARGB);
+					pipeline.run(image, tmp);
+					image = tmp;
+				}
+				image = op.filter(image, null);
+				pipeline = new RowPipeline(image.getWidth(), image.getHeight());
+			}
+		pipeline.run(image, dst);
+		return dst;
+	}
+
+	/**
+	 * Returns the bounding box of the filtered destination image, which is the
+	 * bounding box of the source image.
+	 *
+	 * @see java.awt.image.BufferedImageOp#getBounds2D(java.awt.image.BufferedImage)
+	 */
+	@Override
+	public Rectangle2D getBounds2D(BufferedImage src)
+	{
+		return src.getRaster().getBounds();
+	}
+
+	/**
+	 * Returns the destination image created by the last operation if
+	 * <code>destCM</code> is <code>null</code>, otherwise the image of the
+	 * specified color model.
+	 *
+	 * @see java.awt.image.BufferedImageOp#createCompatibleDestImage(java.awt.image.BufferedImage,
+	 *      java.awt.image.ColorModel)
+	 */
+	@Override
+	public BufferedImage createCompatibleDestImage(BufferedImage src, ColorModel destCM)
+	{
+		if (destCM == null && !this.ops.isEmpty())
+			return this.ops.get(this.ops.size() - 1).createCompatibleDestImage(src, null);
+		Rectangle r = this.getBounds2D(src).getBounds();
+		if (r.width <= 0 || r.height <= 0)
+			throw new RasterFormatException("The destination size is less than or equal to 0.");
+		if (destCM == null)
+			destCM = src.getColorModel();
+		return new BufferedImage(destCM, destCM.createCompatibleWritableRaster(r.width, r.height),
+				destCM.isAlphaPremultiplied(), null);
+	}
+
+	/**
+	 * @see java.awt.image.BufferedImageOp#getPoint2D(java.awt.geom.Point2D,
+	 *      java.awt.geom.Point2D)
+	 */
+	@Override
+	public Point2D getPoint2D(Point2D srcPt, Point2D dstPt)
+	{
+		if (dstPt == null)
+			dstPt = srcPt instanceof Point2D.Double ? new Point2D.Double() : new Point2D.Float();
+		dstPt.setLocation(srcPt);
+		return dstPt;
+	}
+
+	/**
+	 * @see java.awt.image.BufferedImageOp#getRenderingHints()
+	 */
+	@Override
+	public RenderingHints getRenderingHints()
+	{
+		return this.hints;
+	}
+}
@@ -0,0 +1,1062 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * PixelAccessor.java is PROPRIETARY/CONFIDENTIAL built in 9:12:40 PM, Oct 16,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * The direct pixel accessor of a {@linkplain BufferedImage}.
+ * <p>
+ * The accessor unwraps the backing arrays of the common image types (
+ * <code>TYPE_INT_RGB</code>, <code>TYPE_INT_ARGB</code>,
+ * <code>TYPE_3BYTE_BGR</code>, <code>TYPE_4BYTE_ABGR</code>,
+ * <code>TYPE_BYTE_GRAY</code> and the 1-bit <code>TYPE_BYTE_BINARY</code>) and
+ * reads or writes the pixels without allocating a data element array for each
+ * pixel. Any other image falls back to the generic
+ * <code>Raster</code>/<code>ColorModel</code> path.
+ * </p>
+ * <p>
+ * The packed ARGB values returned and accepted by this accessor are the same
+ * as the ones of {@linkplain BufferedImage#getRGB(int, int)} and
+ * {@linkplain BufferedImage#setRGB(int, int, int)}. The samples are the raw
+ * band values of the image raster in the band order of the raster.
+ * </p>
+ * <p>
+ * The instances are not thread safe, create one accessor for each thread.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class PixelAccessor
+{
+	/**
+	 * Returns the best pixel accessor for the specified image.
+	 *
+	 * @param image the specified image
+	 * @return the pixel accessor
+	 */
+	public static PixelAccessor getAccessor(BufferedImage image)
+	{
+		WritableRaster raster = image.getRaster();
+		SampleModel model = raster.getSampleModel();
+		DataBuffer buffer = raster.getDataBuffer();
+		if (buffer.getNumBanks() == 1)
+			switch (image.getType())
+			{
+			case BufferedImage.TYPE_INT_RGB:
+			case BufferedImage.TYPE_INT_ARGB:
+				if (model instanceof SinglePixelPackedSampleModel
+						&& buffer instanceof DataBufferInt)
+					return new IntPacked(image);
+				break;
+			case BufferedImage.TYPE_3BYTE_BGR:
+			case BufferedImage.TYPE_4BYTE_ABGR:
+				if (model instanceof ComponentSampleModel && buffer instanceof DataBufferByte)
+					return new ByteInterleaved(image);
+				break;
+			case BufferedImage.TYPE_BYTE_GRAY:
+				if (model instanceof ComponentSampleModel && buffer instanceof DataBufferByte)
+					return new ByteGray(image);
+				break;
+			case BufferedImage.TYPE_BYTE_BINARY:
+				if (model instanceof MultiPixelPackedSampleModel
+						&& ((MultiPixelPackedSampleModel) model).getPixelBitStride() == 1
+						&& buffer instanceof DataBufferByte)
+					return new ByteBinary(image);
+				break;
+			default:
+				break;
+			}
+		return new Generic(image);
+	}
+
+	/**
+	 * The accessed image.
+	 */
+	protected final BufferedImage	image;
+	/**
+	 * The raster of the accessed image.
+	 */
+	protected final WritableRaster	raster;
+	/**
+	 * The width of the accessed image.
+	 */
+	protected final int				width;
+	/**
+	 * The height of the accessed image.
+	 */
+	protected final int				height;
+	/**
+	 * The number of bands in the raster.
+	 */
+	protected final int				numBands;
+	/**
+	 * The X translation from the image coordinates to the sample model
+	 * coordinates.
+	 */
+	protected final int				translateX;
+	/**
+	 * The Y translation from the image coordinates to the sample model
+	 * coordinates.
+	 */
+	protected final int				translateY;
+
+	/**
+	 * Construct an instance of <tt>PixelAccessor</tt>.
+	 *
+	 * @param image the accessed image
+	 */
+	protected PixelAccessor(BufferedImage image)
+	{
+		this.image = image;
+		this.raster = image.getRaster();
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		this.numBands = this.raster.getNumBands();
+		this.translateX = -this.raster.getSampleModelTranslateX();
+		this.translateY = -this.raster.getSampleModelTranslateY();
+	}
+
+	/**
+	 * Returns the accessed image.
+	 *
+	 * @return the accessed image
+	 */
+	public BufferedImage getImage()
+	{
+		return this.image;
+	}
+
+	/**
+	 * Returns the width of the accessed image.
+	 *
+	 * @return the width
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	/**
+	 * Returns the height of the accessed image.
+	 *
+	 * @return the height
+	 */
+	public int getHeight()
+	{
+		return this.height;
+	}
+
+	/**
+	 * Returns the number of bands of the accessed image raster.
+	 *
+	 * @return the number of bands
+	 */
+	public int getNumBands()
+	{
+		return this.numBands;
+	}
+
+	/**
+	 * Returns <code>true</code> if this accessor reads the backing array of the
+	 * image directly, <code>false</code> if it uses the generic
+	 * <code>Raster</code>/<code>ColorModel</code> path.
+	 *
+	 * @return <code>true</code> if direct
+	 */
+	public boolean isDirect()
+	{
+		return true;
+	}
+
+	/**
+	 * Returns the packed ARGB value of the specified pixel in the default RGB
+	 * color model.
+	 *
+	 * @param x the X coordinate
+	 * @param y the Y coordinate
+	 * @return the packed ARGB value
+	 * @see BufferedImage#getRGB(int, int)
+	 */
+	public abstract int getRGB(int x, int y);
+
+	/**
+	 * Set the packed ARGB value of the specified pixel in the default RGB
+	 * color model.
+	 *
+	 * @param x the X coordinate
+	 * @param y the Y coordinate
+	 * @param argb the packed ARGB value
+	 * @see BufferedImage#setRGB(int, int, int)
+	 */
+	public abstract void setRGB(int x, int y, int argb);
+
+	/**
+	 * Reads <code>w</code> packed ARGB values of row <code>y</code> starting
+	 * from column <code>x</code> into the specified array.
+	 *
+	 * @param x the X coordinate of the first pixel
+	 * @param y the Y coordinate of the row
+	 * @param w the number of pixels
+	 * @param argb the array to store the result, if <code>null</code> a new
+	 *            array is allocated
+	 * @param offset the offset of the first pixel in the array
+	 * @return the array of packed ARGB values
+	 */
+	public int[] getRGB(int x, int y, int w, int[] argb, int offset)
+	{
+		if (argb == null)
+			argb = new int[offset + w];
+		for (int i = 0; i < w; i++)
+			argb[offset + i] = this.getRGB(x + i, y);
+		return argb;
+	}
+
+	/**
+	 * Writes <code>w</code> packed ARGB values to row <code>y</code> starting
+	 * from column <code>x</code>.
+	 *
+	 * @param x the X coordinate of the first pixel
+	 * @param y the Y coordinate of the row
+	 * @param w the number of pixels
+	 * @param argb the packed ARGB values
+	 * @param offset the offset of the first pixel in the array
+	 */
+	public void setRGB(int x, int y, int w, int[] argb, int offset)
+	{
+		for (int i = 0; i < w; i++)
+			this.setRGB(x + i, y, argb[offset + i]);
+	}
+
+	/**
+	 * Reads the raw samples of <code>w</code> pixels of row <code>y</code>
+	 * starting from column <code>x</code>. The samples are interleaved in the
+	 * band order of the raster.
+	 *
+	 * @param x the X coordinate of the first pixel
+	 * @param y the Y coordinate of the row
+	 * @param w the number of pixels
+	 * @param samples the array to store the result, if <code>null</code> a new
+	 *            array is allocated
+	 * @return the array of samples
+	 * @see java.awt.image.Raster#getPixels(int, int, int, int, int[])
+	 */
+	public int[] getPixels(int x, int y, int w, int[] samples)
+	{
+		return this.raster.getPixels(x, y, w, 1, samples);
+	}
+
+	/**
+	 * Writes the raw samples of <code>w</code> pixels to row <code>y</code>
+	 * starting from column <code>x</code>. The samples are interleaved in the
+	 * band order of the raster.
+	 *
+	 * @param x the X coordinate of the first pixel
+	 * @param y the Y coordinate of the row
+	 * @param w the number of pixels
+	 * @param samples the samples
+	 * @see WritableRaster#setPixels(int, int, int, int, int[])
+	 */
+	public void setPixels(int x, int y, int w, int[] samples)
+	{
+		this.raster.setPixels(x, y, w, 1, samples);
+	}
+
+	/**
+	 * The accessor for <code>TYPE_INT_RGB</code> and <code>TYPE_INT_ARGB</code>
+	 * images.
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class IntPacked extends PixelAccessor
+	{
+		/**
+		 * The backing array.
+		 */
+		private final int[]		data;
+		/**
+		 * The offset of pixel (0, 0) in the backing array.
+		 */
+		private final int		offset;
+		/**
+		 * The scanline stride of the backing array.
+		 */
+		private final int		stride;
+		/**
+		 * If <code>true</code> the alpha channel is stored.
+		 */
+		private final boolean	hasAlpha;
+
+		/**
+		 * Construct an instance of <tt>IntPacked</tt>.
+		 *
+		 * @param image the accessed image
+		 */
+		IntPacked(BufferedImage image)
+		{
+			super(image);
+			SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) this.raster
+					.getSampleModel();
+			DataBufferInt buffer = (DataBufferInt) this.raster.getDataBuffer();
+			this.data = buffer.getData();
+			this.stride = model.getScanlineStride();
+			this.offset = buffer.getOffset() + this.translateY * this.stride + this.translateX;
+			this.hasAlpha = image.getType() == BufferedImage.TYPE_INT_ARGB;
+		}
+
+		/**
+		 * Returns the backing array.
+		 *
+		 * @return the backing array
+		 */
+		public int[] getData()
+		{
+			return this.data;
+		}
+
+		/**
+		 * Returns the index of the specified pixel in the backing array.
+		 *
+		 * @param x the X coordinate
+		 * @param y the Y coordinate
+		 * @return the index
+		 */
+		public int getIndex(int x, int y)
+		{
+			return this.offset + y * this.stride + x;
+		}
+
+		/**
+		 * Returns the scanline stride of the backing array.
+		 *
+		 * @return the scanline stride
+		 */
+		public int getScanlineStride()
+		{
+			return this.stride;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getRGB(int, int)
+		 */
+		@Override
+		public int getRGB(int x, int y)
+		{
+			int p = this.data[this.offset + y * this.stride + x];
+			return this.hasAlpha ? p : 0xff000000 | p;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setRGB(int, int,
+		 *      int)
+		 */
+		@Override
+		public void setRGB(int x, int y, int argb)
+		{
+			this.data[this.offset + y * this.stride + x] = this.hasAlpha ? argb
+					: argb & 0x00ffffff;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getRGB(int, int,
+		 *      int, int[], int)
+		 */
+		@Override
+		public int[] getRGB(int x, int y, int w, int[] argb, int offset)
+		{
+			if (argb == null)
+				argb = new int[offset + w];
+			int index = this.offset + y * this.stride + x;
+			if (this.hasAlpha)
+				System.arraycopy(this.data, index, argb, offset, w);
+			else
+				for (int i = 0; i < w; i++)
+					argb[offset + i] = 0xff000000 | this.data[index + i];
+			return argb;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setRGB(int, int,
+		 *      int, int[], int)
+		 */
+		@Override
+		public void setRGB(int x, int y, int w, int[] argb, int offset)
+		{
+			int index = this.offset + y * this.stride + x;
+			if (this.hasAlpha)
+				System.arraycopy(argb, offset, this.data, index, w);
+			else
+				for (int i = 0; i < w; i++)
+					this.data[index + i] = argb[offset + i] & 0x00ffffff;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getPixels(int, int,
+		 *      int, int[])
+		 */
+		@Override
+		public int[] getPixels(int x, int y, int w, int[] samples)
+		{
+			int bands = this.numBands;
+			if (samples == null)
+				samples = new int[w * bands];
+			int index = this.offset + y * this.stride + x;
+			for (int i = 0, j = 0; i < w; i++, j += bands)
+			{
+				int p = this.data[index + i];
+				samples[j] = p >> 16 & 0xff;
+				samples[j + 1] = p >> 8 & 0xff;
+				samples[j + 2] = p & 0xff;
+				if (this.hasAlpha)
+					samples[j + 3] = p >>> 24;
+			}
+			return samples;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setPixels(int, int,
+		 *      int, int[])
+		 */
+		@Override
+		public void setPixels(int x, int y, int w, int[] samples)
+		{
+			int bands = this.numBands;
+			int index = this.offset + y * this.stride + x;
+			for (int i = 0, j = 0; i < w; i++, j += bands)
+			{
+				int p = (samples[j] & 0xff) << 16 | (samples[j + 1] & 0xff) << 8
+						| samples[j + 2] & 0xff;
+				if (this.hasAlpha)
+					p |= samples[j + 3] << 24;
+				this.data[index + i] = p;
+			}
+		}
+	}
+
+	/**
+	 * The accessor for <code>TYPE_3BYTE_BGR</code> and
+	 * <code>TYPE_4BYTE_ABGR</code> images.
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class ByteInterleaved extends PixelAccessor
+	{
+		/**
+		 * The backing array.
+		 */
+		private final byte[]	data;
+		/**
+		 * The offset of pixel (0, 0) in the backing array.
+		 */
+		private final int		offset;
+		/**
+		 * The scanline stride of the backing array.
+		 */
+		private final int		stride;
+		/**
+		 * The pixel stride of the backing array.
+		 */
+		private final int		pixelStride;
+		/**
+		 * The offsets of the red, green, blue and alpha bands.
+		 */
+		private final int		red, green, blue, alpha;
+
+		/**
+		 * Construct an instance of <tt>ByteInterleaved</tt>.
+		 *
+		 * @param image the accessed image
+		 */
+		ByteInterleaved(BufferedImage image)
+		{
+			super(image);
+			ComponentSampleModel model = (ComponentSampleModel) this.raster.getSampleModel();
+			DataBufferByte buffer = (DataBufferByte) this.raster.getDataBuffer();
+			int[] bandOffsets = model.getBandOffsets();
+			this.data = buffer.getData();
+			this.stride = model.getScanlineStride();
+			this.pixelStride = model.getPixelStride();
+			this.offset = buffer.getOffset() + this.translateY * this.stride
+					+ this.translateX * this.pixelStride;
+			this.red = bandOffsets[0];
+			this.green = bandOffsets[1];
+			this.blue = bandOffsets[2];
+			this.alpha = this.numBands > 3 ? bandOffsets[3] : -1;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getRGB(int, int)
+		 */
+		@Override
+		public int getRGB(int x, int y)
+		{
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			byte[] d = this.data;
+			int a = this.alpha < 0 ? 0xff : d[i + this.alpha] & 0xff;
+			return a << 24 | (d[i + this.red] & 0xff) << 16 | (d[i + this.green] & 0xff) << 8
+					| d[i + this.blue] & 0xff;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setRGB(int, int,
+		 *      int)
+		 */
+		@Override
+		public void setRGB(int x, int y, int argb)
+		{
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			byte[] d = this.data;
+			d[i + this.red] = (byte) (argb >> 16);
+			d[i + this.green] = (byte) (argb >> 8);
+			d[i + this.blue] = (byte) argb;
+			if (this.alpha >= 0)
+				d[i + this.alpha] = (byte) (argb >>> 24);
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getRGB(int, int,
+		 *      int, int[], int)
+		 */
+		@Override
+		public int[] getRGB(int x, int y, int w, int[] argb, int offset)
+		{
+			if (argb == null)
+				argb = new int[offset + w];
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			byte[] d = this.data;
+			for (int k = 0; k < w; k++, i += this.pixelStride)
+			{
+				int a = this.alpha < 0 ? 0xff : d[i + this.alpha] & 0xff;
+				argb[offset + k] = a << 24 | (d[i + this.red] & 0xff) << 16
+						| (d[i + this.green] & 0xff) << 8 | d[i + this.blue] & 0xff;
+			}
+			return argb;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setRGB(int, int,
+		 *      int, int[], int)
+		 */
+		@Override
+		public void setRGB(int x, int y, int w, int[] argb, int offset)
+		{
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			byte[] d = this.data;
+			for (int k = 0; k < w; k++, i += this.pixelStride)
+			{
+				int p = argb[offset + k];
+				d[i + this.red] = (byte) (p >> 16);
+				d[i + this.green] = (byte) (p >> 8);
+				d[i + this.blue] = (byte) p;
+				if (this.alpha >= 0)
+					d[i + this.alpha] = (byte) (p >>> 24);
+			}
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getPixels(int, int,
+		 *      int, int[])
+		 */
+		@Override
+		public int[] getPixels(int x, int y, int w, int[] samples)
+		{
+			int bands = this.numBands;
+			if (samples == null)
+				samples = new int[w * bands];
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			byte[] d = this.data;
+			for (int k = 0, j = 0; k < w; k++, j += bands, i += this.pixelStride)
+			{
+				samples[j] = d[i + this.red] & 0xff;
+				samples[j + 1] = d[i + this.green] & 0xff;
+				samples[j + 2] = d[i + this.blue] & 0xff;
+				if (this.alpha >= 0)
+					samples[j + 3] = d[i + this.alpha] & 0xff;
+			}
+			return samples;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setPixels(int, int,
+		 *      int, int[])
+		 */
+		@Override
+		public void setPixels(int x, int y, int w, int[] samples)
+		{
+			int bands = this.numBands;
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			byte[] d = this.data;
+			for (int k = 0, j = 0; k < w; k++, j += bands, i += this.pixelStride)
+			{
+				d[i + this.red] = (byte) samples[j];
+				d[i + this.green] = (byte) samples[j + 1];
+				d[i + this.blue] = (byte) samples[j + 2];
+				if (this.alpha >= 0)
+					d[i + this.alpha] = (byte) samples[j + 3];
+			}
+		}
+	}
+
+	/**
+	 * The accessor for <code>TYPE_BYTE_GRAY</code> images.
+	 * <p>
+	 * The gray samples are linear, the packed ARGB values are converted with
+	 * the color model of the image exactly as
+	 * {@linkplain BufferedImage#getRGB(int, int)} does.
+	 * </p>
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class ByteGray extends PixelAccessor
+	{
+		/**
+		 * The backing array.
+		 */
+		private final byte[]		data;
+		/**
+		 * The offset of pixel (0, 0) in the backing array.
+		 */
+		private final int			offset;
+		/**
+		 * The scanline stride of the backing array.
+		 */
+		private final int			stride;
+		/**
+		 * The pixel stride of the backing array.
+		 */
+		private final int			pixelStride;
+		/**
+		 * The gray to ARGB lookup table.
+		 */
+		private final int[]			lut;
+		/**
+		 * The color model of the image.
+		 */
+		private final ColorModel	model;
+		/**
+		 * The data element used to convert ARGB values.
+		 */
+		private final byte[]		element	= new byte[1];
+
+		/**
+		 * Construct an instance of <tt>ByteGray</tt>.
+		 *
+		 * @param image the accessed image
+		 */
+		ByteGray(BufferedImage image)
+		{
+			super(image);
+			ComponentSampleModel sm = (ComponentSampleModel) this.raster.getSampleModel();
+			DataBufferByte buffer = (DataBufferByte) this.raster.getDataBuffer();
+			this.data = buffer.getData();
+			this.stride = sm.getScanlineStride();
+			this.pixelStride = sm.getPixelStride();
+			this.offset = buffer.getOffset() + sm.getBandOffsets()[0]
+					+ this.translateY * this.stride + this.translateX * this.pixelStride;
+			this.model = image.getColorModel();
+			this.lut = new int[256];
+			byte[] pixel = new byte[1];
+			for (int i = 0; i < 256; i++)
+			{
+				pixel[0] = (byte) i;
+				this.lut[i] = this.model.getRGB(pixel);
+			}
+		}
+
+		/**
+		 * Returns the backing array.
+		 *
+		 * @return the backing array
+		 */
+		public byte[] getData()
+		{
+			return this.data;
+		}
+
+		/**
+		 * Returns the index of the specified pixel in the backing array.
+		 *
+		 * @param x the X coordinate
+		 * @param y the Y coordinate
+		 * @return the index
+		 */
+		public int getIndex(int x, int y)
+		{
+			return this.offset + y * this.stride + x * this.pixelStride;
+		}
+
+		/**
+		 * Returns the pixel stride of the backing array.
+		 *
+		 * @return the pixel stride
+		 */
+		public int getPixelStride()
+		{
+			return this.pixelStride;
+		}
+
+		/**
+		 * Returns the gray sample of the specified pixel.
+		 *
+		 * @param x the X coordinate
+		 * @param y the Y coordinate
+		 * @return the gray sample in 0-255
+		 */
+		public int getGray(int x, int y)
+		{
+			return this.data[this.offset + y * this.stride + x * this.pixelStride] & 0xff;
+		}
+
+		/**
+		 * Set the gray sample of the specified pixel.
+		 *
+		 * @param x the X coordinate
+		 * @param y the Y coordinate
+		 * @param gray the gray sample in 0-255
+		 */
+		public void setGray(int x, int y, int gray)
+		{
+			this.data[this.offset + y * this.stride + x * this.pixelStride] = (byte) gray;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getRGB(int, int)
+		 */
+		@Override
+		public int getRGB(int x, int y)
+		{
+			return this.lut[this.data[this.offset + y * this.stride + x * this.pixelStride]
+					& 0xff];
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setRGB(int, int,
+		 *      int)
+		 */
+		@Override
+		public void setRGB(int x, int y, int argb)
+		{
+			this.model.getDataElements(argb, this.element);
+			this.data[this.offset + y * this.stride + x * this.pixelStride] = this.element[0];
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getRGB(int, int,
+		 *      int, int[], int)
+		 */
+		@Override
+		public int[] getRGB(int x, int y, int w, int[] argb, int offset)
+		{
+			if (argb == null)
+				argb = new int[offset + w];
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			for (int k = 0; k < w; k++, i += this.pixelStride)
+				argb[offset + k] = this.lut[this.data[i] & 0xff];
+			return argb;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getPixels(int, int,
+		 *      int, int[])
+		 */
+		@Override
+		public int[] getPixels(int x, int y, int w, int[] samples)
+		{
+			if (samples == null)
+				samples = new int[w];
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			for (int k = 0; k < w; k++, i += this.pixelStride)
+				samples[k] = this.data[i] & 0xff;
+			return samples;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setPixels(int, int,
+		 *      int, int[])
+		 */
+		@Override
+		public void setPixels(int x, int y, int w, int[] samples)
+		{
+			int i = this.offset + y * this.stride + x * this.pixelStride;
+			for (int k = 0; k < w; k++, i += this.pixelStride)
+				this.data[i] = (byte) samples[k];
+		}
+	}
+
+	/**
+	 * The accessor for the 1-bit <code>TYPE_BYTE_BINARY</code> images.
+	 * <p>
+	 * The samples are the bits of the pixels, the packed ARGB values are the
+	 * palette entries of the image color model.
+	 * </p>
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class ByteBinary extends PixelAccessor
+	{
+		/**
+		 * The backing array.
+		 */
+		private final byte[]		data;
+		/**
+		 * The byte offset of row 0 in the backing array.
+		 */
+		private final int			offset;
+		/**
+		 * The scanline stride of the backing array in bytes.
+		 */
+		private final int			stride;
+		/**
+		 * The bit offset of column 0 in each row.
+		 */
+		private final int			bitOffset;
+		/**
+		 * The palette.
+		 */
+		private final int[]			palette;
+		/**
+		 * The color model of the image.
+		 */
+		private final ColorModel	model;
+		/**
+		 * The data element used to convert ARGB values.
+		 */
+		private final byte[]		element	= new byte[1];
+
+		/**
+		 * Construct an instance of <tt>ByteBinary</tt>.
+		 *
+		 * @param image the accessed image
+		 */
+		ByteBinary(BufferedImage image)
+		{
+			super(image);
+			MultiPixelPackedSampleModel sm = (MultiPixelPackedSampleModel) this.raster
+					.getSampleModel();
+			DataBufferByte buffer = (DataBufferByte) this.raster.getDataBuffer();
+			this.data = buffer.getData();
+			this.stride = sm.getScanlineStride();
+			this.offset = buffer.getOffset() + this.translateY * this.stride;
+			this.bitOffset = sm.getDataBitOffset() + this.translateX;
+			this.model = image.getColorModel();
+			this.palette = new int[2];
+			if (this.model instanceof IndexColorModel)
+				for (int i = 0; i < 2; i++)
+					this.palette[i] = ((IndexColorModel) this.model).getRGB(i);
+			else
+				for (int i = 0; i < 2; i++)
+					this.palette[i] = this.model.getRGB(i);
+		}
+
+		/**
+		 * Returns the backing array.
+		 *
+		 * @return the backing array
+		 */
+		public byte[] getData()
+		{
+			return this.data;
+		}
+
+		/**
+		 * Returns the index of the first byte of the specified row in the
+		 * backing array.
+		 *
+		 * @param y the Y coordinate
+		 * @return the index
+		 */
+		public int getRowIndex(int y)
+		{
+			return this.offset + y * this.stride;
+		}
+
+		/**
+		 * Returns the bit offset of column 0 inside each row, the most
+		 * significant bit of a byte is bit 0.
+		 *
+		 * @return the bit offset
+		 */
+		public int getBitOffset()
+		{
+			return this.bitOffset;
+		}
+
+		/**
+		 * Returns the scanline stride of the backing array in bytes.
+		 *
+		 * @return the scanline stride
+		 */
+		public int getScanlineStride()
+		{
+			return this.stride;
+		}
+
+		/**
+		 * Returns the bit of the specified pixel.
+		 *
+		 * @param x the X coordinate
+		 * @param y the Y coordinate
+		 * @return the bit in 0 or 1
+		 */
+		public int getBit(int x, int y)
+		{
+			int bit = this.bitOffset + x;
+			return this.data[this.offset + y * this.stride + (bit >> 3)] >> (7 - (bit & 7)) & 1;
+		}
+
+		/**
+		 * Set the bit of the specified pixel.
+		 *
+		 * @param x the X coordinate
+		 * @param y the Y coordinate
+		 * @param value the bit in 0 or 1
+		 */
+		public void setBit(int x, int y, int value)
+		{
+			int bit = this.bitOffset + x;
+			int index = this.offset + y * this.stride + (bit >> 3);
+			int mask = 1 << (7 - (bit & 7));
+			if (value == 0)
+				this.data[index] &= ~mask;
+			else
+				this.data[index] |= mask;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getRGB(int, int)
+		 */
+		@Override
+		public int getRGB(int x, int y)
+		{
+			return this.palette[this.getBit(x, y)];
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setRGB(int, int,
+		 *      int)
+		 */
+		@Override
+		public void setRGB(int x, int y, int argb)
+		{
+			int value;
+			if (argb == this.palette[0])
+				value = 0;
+			else if (argb == this.palette[1])
+				value = 1;
+			else
+			{
+				this.model.getDataElements(argb, this.element);
+				value = this.element[0];
+			}
+			this.setBit(x, y, value);
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getPixels(int, int,
+		 *      int, int[])
+		 */
+		@Override
+		public int[] getPixels(int x, int y, int w, int[] samples)
+		{
+			if (samples == null)
+				samples = new int[w];
+			int row = this.offset + y * this.stride;
+			int bit = this.bitOffset + x;
+			for (int k = 0; k < w; k++, bit++)
+				samples[k] = this.data[row + (bit >> 3)] >> (7 - (bit & 7)) & 1;
+			return samples;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setPixels(int, int,
+		 *      int, int[])
+		 */
+		@Override
+		public void setPixels(int x, int y, int w, int[] samples)
+		{
+			for (int k = 0; k < w; k++)
+				this.setBit(x + k, y, samples[k] & 1);
+		}
+	}
+
+	/**
+	 * The generic accessor using the <code>Raster</code> and
+	 * <code>ColorModel</code> of the image.
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static final class Generic extends PixelAccessor
+	{
+		/**
+		 * The color model of the image.
+		 */
+		private final ColorModel	model;
+		/**
+		 * The data element used to read pixels.
+		 */
+		private Object				element;
+
+		/**
+		 * Construct an instance of <tt>Generic</tt>.
+		 *
+		 * @param image the accessed image
+		 */
+		Generic(BufferedImage image)
+		{
+			super(image);
+			this.model = image.getColorModel();
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#isDirect()
+		 */
+		@Override
+		public boolean isDirect()
+		{
+			return false;
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#getRGB(int, int)
+		 */
+		@Override
+		public int getRGB(int x, int y)
+		{
+			this.element = this.raster.getDataElements(x, y, this.element);
+			return this.model.getRGB(this.element);
+		}
+
+		/**
+		 * @see com.github.frankjiang.image4j.PixelAccessor#setRGB(int, int,
+		 *      int)
+		 */
+		@Override
+		public void setRGB(int x, int y, int argb)
+		{
+			this.element = this.model.getDataElements(argb, this.element);
+			this.raster.setDataElements(x, y, this.element);
+		}
+	}
+}
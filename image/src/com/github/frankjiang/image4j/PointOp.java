@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * PointOp.java is PROPRIETARY/CONFIDENTIAL built in 10:21:36 PM, Oct 16, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+/**
+ * The point operation, whose destination pixel depends only on the source
+ * pixel at the same position.
+ * <p>
+ * The consecutive point operations in an {@linkplain OpChain} are fused into
+ * one pass over the pixels. The implementations must be thread safe.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public interface PointOp
+{
+	/**
+	 * Filter the specified pixel.
+	 *
+	 * @param x the X coordinate of the pixel
+	 * @param y the Y coordinate of the pixel
+	 * @param argb the packed ARGB value of the source pixel
+	 * @return the packed ARGB value of the destination pixel
+	 */
+	public int filterRGB(int x, int y, int argb);
+
+	/**
+	 * Returns <code>true</code> if {@linkplain #filterRGB(int, int, int)}
+	 * performs this operation, <code>false</code> if the operation depends on
+	 * the whole image currently, as a threshold found from the histogram, and
+	 * cannot be fused.
+	 * <p>
+	 * The default implementation returns <code>true</code>.
+	 * </p>
+	 *
+	 * @return <code>true</code> if pointwise
+	 */
+	public default boolean isPointwise()
+	{
+		return true;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RowOp.java is PROPRIETARY/CONFIDENTIAL built in 10:21:36 PM, Oct 16, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+/**
+ * The row operation, whose destination row depends on the source rows within
+ * a vertical halo around it.
+ * <p>
+ * The row operations are streamed by the {@linkplain RowPipeline} through
+ * rolling row buffers, only <code>2 * halo + 1</code> source rows are kept in
+ * memory. The implementations must be thread safe, the scratch buffers of a
+ * run are kept by the operation {@linkplain #open(int) opened} for it.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public interface RowOp
+{
+	/**
+	 * Returns the vertical halo size, the maximum distance between a
+	 * destination row and the source rows it depends on.
+	 *
+	 * @return the halo size
+	 */
+	public int getHalo();
+
+	/**
+	 * Filter one row.
+	 *
+	 * @param rows the <code>2 * halo + 1</code> source rows of packed ARGB
+	 *            values from <code>y - halo</code> to <code>y + halo</code>,
+	 *            the rows out of the image are <code>null</code>
+	 * @param y the Y coordinate of the destination row
+	 * @param width the row width
+	 * @param out the destination row of packed ARGB values
+	 */
+	public void filterRow(int[][] rows, int y, int width, int[] out);
+
+	/**
+	 * Returns the operation filtering the rows of one run, which may keep its
+	 * scratch buffers of the row width between the rows. The returned
+	 * operation is not thread safe, it is used by one run only.
+	 * <p>
+	 * The default implementation returns this operation.
+	 * </p>
+	 *
+	 * @param width the row width
+	 * @return the operation of the run
+	 */
+	public default RowOp open(int width)
+	{
+		return this;
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RowPipeline.java is PROPRIETARY/CONFIDENTIAL built in 10:34:10 PM, Oct 16,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The streaming pipeline of point operations and row operations.
+ * <p>
+ * The source rows are pushed through the stages one by one. The consecutive
+ * point operations are fused into one stage, each row operation keeps only the
+ * rolling buffer of <code>2 * halo + 1</code> rows it needs, so that no
+ * intermediate image is allocated.
+ * </p>
+ * <p>
+ * The pipeline is not thread safe, but it can be run several times.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ * @see PointOp
+ * @see RowOp
+ */
+public class RowPipeline
+{
+	/**
+	 * The stage of the pipeline.
+	 */
+	private static abstract class Stage
+	{
+		/**
+		 * The next stage.
+		 */
+		Stage next;
+
+		/**
+		 * Push the row <code>y</code> into this stage.
+		 *
+		 * @param y the Y coordinate of the row
+		 * @param row the packed ARGB values of the row
+		 */
+		abstract void push(int y, int[] row);
+
+		/**
+		 * Flush the remaining rows after the last row is pushed.
+		 */
+		void finish()
+		{
+			if (this.next != null)
+				this.next.finish();
+		}
+	}
+
+	/**
+	 * The fused point operations.
+	 */
+	private static class PointStage extends Stage
+	{
+		final PointOp[]	ops;
+		final int		width;
+
+		PointStage(PointOp[] ops, int width)
+		{
+			this.ops = ops;
+			this.width = width;
+		}
+
+		@Override
+		void push(int y, int[] row)
+		{
+			for (int x = 0; x < this.width; x++)
+			{
+				int argb = row[x];
+				for (PointOp op : this.ops)
+					argb = op.filterRGB(x, y, argb);
+				row[x] = argb;
+			}
+			this.next.push(y, row);
+		}
+	}
+
+	/**
+	 * The row operation with its rolling buffer.
+	 */
+	private static class RowStage extends Stage
+	{
+		final RowOp		op;
+		final int		width, height, halo;
+		final int[][]	ring, window;
+		final int[]		out;
+		int				emitted;
+
+		RowStage(RowOp op, int width, int height)
+		{
+			this.op = op.open(width);
+			this.width = width;
+			this.height = height;
+			this.halo = op.getHalo();
+			this.ring = new int[2 * this.halo + 1][width];
+			this.window = new int[2 * this.halo + 1][];
+			this.out = new int[width];
+		}
+
+		@Override
+		void push(int y, int[] row)
+		{
+			System.arraycopy(row, 0, this.ring[y % this.ring.length], 0, this.width);
+			if (y >= this.halo)
+				this.emit(y - this.halo);
+		}
+
+		@Override
+		void finish()
+		{
+			while (this.emitted < this.height)
+				this.emit(this.emitted);
+			super.finish();
+		}
+
+		/**
+		 * Filter and emit the row <code>y</code>.
+		 *
+		 * @param y the Y coordinate of the row
+		 */
+		private void emit(int y)
+		{
+			for (int k = 0, py = y - this.halo; k < this.window.length; k++, py++)
+				this.window[k] = py < 0 || py >= this.height ? null
+						: this.ring[py % this.ring.length];
+			this.op.filterRow(this.window, y, this.width, this.out);
+			this.emitted = y + 1;
+			this.next.push(y, this.out);
+		}
+	}
+
+	/**
+	 * The sink writing the rows to the destination.
+	 */
+	private static class SinkStage extends Stage
+	{
+		final int		width;
+		PixelAccessor	dst;
+
+		SinkStage(int width)
+		{
+			this.width = width;
+		}
+
+		@Override
+		void push(int y, int[] row)
+		{
+			this.dst.setRGB(0, y, this.width, row, 0);
+		}
+	}
+
+	/**
+	 * The width of the images.
+	 */
+	protected final int		width;
+	/**
+	 * The height of the images.
+	 */
+	protected final int		height;
+	/**
+	 * The operations in the order of performing, each is either a
+	 * {@linkplain PointOp} or a {@linkplain RowOp}.
+	 */
+	protected List<Object>	ops	= new ArrayList<>();
+
+	/**
+	 * Construct an instance of <tt>RowPipeline</tt>.
+	 *
+	 * @param width the width of the images
+	 * @param height the height of the images
+	 */
+	public RowPipeline(int width, int height)
+	{
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Append the point operation to this pipeline.
+	 *
+	 * @param op the point operation
+	 * @return this pipeline
+	 */
+	public RowPipeline add(PointOp op)
+	{
+		this.ops.add(op);
+		return this;
+	}
+
+	/**
+	 * Append the row operations to this pipeline.
+	 *
+	 * @param ops the row operations
+	 * @return this pipeline
+	 */
+	public RowPipeline add(RowOp... ops)
+	{
+		for (RowOp op : ops)
+			this.ops.add(op);
+		return this;
+	}
+
+	/**
+	 * Returns <code>true</code> if no operation is appended.
+	 *
+	 * @return <code>true</code> if empty
+	 */
+	public boolean isEmpty()
+	{
+		return this.ops.isEmpty();
+	}
+
+	/**
+	 * Stream the source image through the operations into the destination
+	 * image. The images must have the size of this pipeline. Since the rows are
+	 * written only after they are read, the images can be the same image.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	public void run(BufferedImage src, BufferedImage dst)
+	{
+		if (src.getWidth() != this.width || src.getHeight() != this.height
+				|| dst.getWidth() != this.width || dst.getHeight() != this.height)
+			throw new IllegalArgumentException("The image size does not match the pipeline.");
+		SinkStage sink = new SinkStage(this.width);
+		sink.dst = PixelAccessor.getAccessor(dst);
+		Stage head = this.build(sink);
+		PixelAccessor in = PixelAccessor.getAccessor(src);
+		int[] row = new int[this.width];
+		for (int y = 0; y < this.height; y++)
+		{
+			in.getRGB(0, y, this.width, row, 0);
+			head.push(y, row);
+		}
+		head.finish();
+	}
+
+	/**
+	 * Build the stages ending with the specified sink.
+	 *
+	 * @param sink the sink
+	 * @return the first stage
+	 */
+	private Stage build(Stage sink)
+	{
+		List<Stage> stages = new ArrayList<>();
+		List<PointOp> points = new ArrayList<>();
+		for (Object op : this.ops)
+			if (op instanceof PointOp)
+				points.add((PointOp) op);
+			else
+			{
+				if (!points.isEmpty())
+				{
+					stages.add(new PointStage(points.toArray(new PointOp[points.size()]),
+							this.width));
+					points.clear();
+				}
+				stages.add(new RowStage((RowOp) op, this.width, this.height));
+			}
+		if (!points.isEmpty())
+			stages.add(new PointStage(points.toArray(new PointOp[points.size()]), this.width));
+		stages.add(sink);
+		for (int i = 0; i < stages.size() - 1; i++)
+			stages.get(i).next = stages.get(i + 1);
+		return stages.get(0);
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RowWindow.java is PROPRIETARY/CONFIDENTIAL built in 4:05:12 PM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.frankjiang.image4j.math.InterpolationKernel;
+
+/**
+ * The sliding window of the source rows read by a warp.
+ * <p>
+ * The rows are either converted to packed ARGB pixels or read as interleaved
+ * integral or floating point samples, and are handed to the row methods of the
+ * {@linkplain InterpolationKernel}. The window slides with the range of the
+ * source rows used by each destination scanline, the rows leaving it are
+ * recycled, so only the rows around the mapped scanline are held instead of
+ * the whole source.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public final class RowWindow
+{
+	/**
+	 * The accessor of the source pixels, <code>null</code> if the
+	 * samples of the raster are read.
+	 */
+	private final PixelAccessor	src;
+	/**
+	 * The source raster, <code>null</code> if the pixels are read.
+	 */
+	private final Raster		raster;
+	/**
+	 * <code>true</code> if the samples of the raster are read as doubles.
+	 */
+	private final boolean		floating;
+	/**
+	 * The converted rows of the window indexed by the source row, either
+	 * <code>int[]</code> or <code>double[]</code>, <code>null</code> out of
+	 * the window.
+	 */
+	private final Object[]		table;
+	/**
+	 * The neighboring integral rows of the last interpolated point.
+	 */
+	private final int[][]		rows;
+	/**
+	 * The neighboring floating point rows of the last interpolated point.
+	 */
+	private final double[][]	samples;
+	/**
+	 * The recycled rows.
+	 */
+	private final List<Object>	free	= new ArrayList<>();
+	/**
+	 * The offset of the first neighbor.
+	 */
+	private final int			origin;
+	/**
+	 * The range [low, high) of the rows held.
+	 */
+	private int					low, high;
+	/**
+	 * The row of the top-left neighbor of the last interpolated point.
+	 */
+	private int					last	= Integer.MIN_VALUE;
+
+	/**
+	 * Construct an instance of <tt>RowWindow</tt> of the packed ARGB
+	 * pixels.
+	 *
+	 * @param src the accessor of the source
+	 * @param kernel the interpolation kernel
+	 */
+	public RowWindow(PixelAccessor src, InterpolationKernel kernel)
+	{
+		this.src = src;
+		this.raster = null;
+		this.floating = false;
+		this.table = new Object[src.getHeight()];
+		this.rows = new int[kernel.getTaps()][];
+		this.samples = null;
+		this.origin = kernel.getOrigin();
+	}
+
+	/**
+	 * Construct an instance of <tt>RowWindow</tt> of the interleaved
+	 * integral samples.
+	 *
+	 * @param raster the source raster
+	 * @param kernel the interpolation kernel
+	 */
+	public RowWindow(Raster raster, InterpolationKernel kernel)
+	{
+		this(raster, kernel, false);
+	}
+
+	/**
+	 * Construct an instance of <tt>RowWindow</tt> of the interleaved
+	 * samples.
+	 *
+	 * @param raster the source raster
+	 * @param kernel the interpolation kernel
+	 * @param floating <code>true</code> if the samples are read as doubles by
+	 *            {@linkplain #getSamples(int)}, otherwise as integers by
+	 *            {@linkplain #getRows(int)}
+	 */
+	public RowWindow(Raster raster, InterpolationKernel kernel, boolean floating)
+	{
+		this.src = null;
+		this.raster = raster;
+		this.floating = floating;
+		this.table = new Object[raster.getHeight()];
+		this.rows = floating ? null : new int[kernel.getTaps()][];
+		this.samples = floating ? new double[kernel.getTaps()][] : null;
+		this.origin = kernel.getOrigin();
+	}
+
+	/**
+	 * Slide the window to the rows used by the source points with the Y
+	 * coordinates in [y0, y1], the rows out of it are recycled.
+	 *
+	 * @param y0 the lowest source Y coordinate
+	 * @param y1 the highest source Y coordinate
+	 */
+	public void slide(double y0, double y1)
+	{
+		int height = this.table.length;
+		// one more row at both ends for the rounding of the coordinates
+		int taps = this.floating ? this.samples.length : this.rows.length;
+		int low = (int) Math.max(0, Math.min(height, Math.floor(y0) + this.origin - 1));
+		int high = (int) Math.max(low,
+				Math.min(height, Math.floor(y1) + this.origin + taps + 2));
+		for (int y = this.low; y < this.high; y++)
+			if ((y < low || y >= high) && this.table[y] != null)
+			{
+				this.free.add(this.table[y]);
+				this.table[y] = null;
+			}
+		this.low = low;
+		this.high = high;
+		this.last = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Returns the neighboring rows of the source points whose top-left
+	 * neighbor is in the specified row, clamped into the source.
+	 *
+	 * @param y the row of the top-left neighbor
+	 * @return the neighboring rows
+	 */
+	public int[][] getRows(int y)
+	{
+		if (y == this.last)
+			return this.rows;
+		this.last = y;
+		for (int j = 0; j < this.rows.length; j++)
+			this.rows[j] = (int[]) this.getRow(y + this.origin + j);
+		return this.rows;
+	}
+
+	/**
+	 * Returns the neighboring floating point rows of the source points whose
+	 * top-left neighbor is in the specified row, clamped into the source.
+	 *
+	 * @param y the row of the top-left neighbor
+	 * @return the neighboring rows
+	 */
+	public double[][] getSamples(int y)
+	{
+		if (y == this.last)
+			return this.samples;
+		this.last = y;
+		for (int j = 0; j < this.samples.length; j++)
+			this.samples[j] = (double[]) this.getRow(y + this.origin + j);
+		return this.samples;
+	}
+
+	/**
+	 * Returns the source row clamped into the source, it is loaded into a
+	 * recycled row if it is not held.
+	 *
+	 * @param y the source row
+	 * @return the row
+	 */
+	private Object getRow(int y)
+	{
+		int r = Math.min(Math.max(y, 0), this.table.length - 1);
+		Object row = this.table[r];
+		if (row == null)
+		{
+			int n = this.free.size();
+			row = n == 0 ? null : this.free.remove(n - 1);
+			if (this.src != null)
+				row = this.src.getRGB(0, r, this.src.getWidth(), (int[]) row, 0);
+			else if (this.floating)
+				row = this.raster.getPixels(this.raster.getMinX(), this.raster.getMinY() + r,
+						this.raster.getWidth(), 1, (double[]) row);
+			else
+				row = this.raster.getPixels(this.raster.getMinX(), this.raster.getMinY() + r,
+						this.raster.getWidth(), 1, (int[]) row);
+			this.table[r] = row;
+			// the rows loaded out of the window are recycled with it
+			this.low = Math.min(this.low, r);
+			this.high = Math.max(this.high, r + 1);
+		}
+		return row;
+	}
+}
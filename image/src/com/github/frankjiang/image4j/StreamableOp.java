@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * StreamableOp.java is PROPRIETARY/CONFIDENTIAL built in 10:21:36 PM, Oct 16,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+/**
+ * The operation which can be streamed as a sequence of row operations.
+ * <p>
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ * @see RowPipeline
+ */
+public interface StreamableOp
+{
+	/**
+	 * Returns the row operations equivalent to this operation, performed in
+	 * the array order.
+	 *
+	 * @return the row operations
+	 */
+	public RowOp[] getRowOps();
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * TileExecutor.java is PROPRIETARY/CONFIDENTIAL built in 9:48:21 PM, Oct 16,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The tile-parallel executor of the {@linkplain ImagingOp}.
+ * <p>
+ * The executor splits the destination image into tiles (or row bands if the
+ * tile width is not positive) and operates each tile on a
+ * {@linkplain ForkJoinPool}. A tile of a neighborhood operation reads the
+ * source tile extended by a halo on each side, so that every destination pixel
+ * sees exactly the same neighbors as in the serial operation and the result is
+ * bit-identical to it. The halo used is the maximum of the halo of the
+ * executor and the halo required by the operation ( see
+ * {@linkplain ImagingOp#getHalo()}).
+ * </p>
+ * <p>
+ * Only the operations declared tileable ( see
+ * {@linkplain ImagingOp#isTileable()}) are split, other operations are
+ * performed serially. The images whose pixels are packed into shared bytes are
+ * always split into full-width row bands.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TileExecutor
+{
+	/**
+	 * The default tile width.
+	 */
+	public static final int	DEFAULT_TILE_WIDTH	= 512;
+	/**
+	 * The default tile height.
+	 */
+	public static final int	DEFAULT_TILE_HEIGHT	= 512;
+
+	/**
+	 * The thread pool.
+	 */
+	protected ForkJoinPool	pool;
+	/**
+	 * The tile width, not positive for full-width row bands.
+	 */
+	protected int			tileWidth;
+	/**
+	 * The tile height.
+	 */
+	protected int			tileHeight;
+	/**
+	 * The minimum halo size.
+	 */
+	protected int			halo;
+
+	/**
+	 * Construct an instance of <tt>TileExecutor</tt> with the common pool and
+	 * the default tile size.
+	 */
+	public TileExecutor()
+	{
+		this(ForkJoinPool.commonPool(), DEFAULT_TILE_WIDTH, DEFAULT_TILE_HEIGHT, 0);
+	}
+
+	/**
+	 * Construct an instance of <tt>TileExecutor</tt>.
+	 *
+	 * @param pool the thread pool
+	 * @param tileWidth the tile width, not positive for full-width row bands
+	 * @param tileHeight the tile height
+	 * @param halo the minimum halo size
+	 */
+	public TileExecutor(ForkJoinPool pool, int tileWidth, int tileHeight, int halo)
+	{
+		this.setPool(pool);
+		this.setTileWidth(tileWidth);
+		this.setTileHeight(tileHeight);
+		this.setHalo(halo);
+	}
+
+	/**
+	 * Operates the source image with the specified operation and stores the
+	 * result in the destination image tile by tile. The source and
+	 * destination images must have the same size.
+	 *
+	 * @param op the operation
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	public void execute(final ImagingOp op, final BufferedImage src, final BufferedImage dst)
+	{
+		final int width = dst.getWidth();
+		final int height = dst.getHeight();
+		if (src.getWidth() != width || src.getHeight() != height)
+			throw new IllegalArgumentException(String.format(
+					"The source size %dx%d does not match the destination size %dx%d.",
+					src.getWidth(), src.getHeight(), width, height));
+		final int halo = Math.max(this.halo, op.getHalo());
+		int tw = this.tileWidth <= 0
+				|| dst.getSampleModel() instanceof MultiPixelPackedSampleModel ? width
+						: this.tileWidth;
+		int th = this.tileHeight;
+		if (tw >= width && th >= height)
+		{
+			op.operate(src, dst);
+			return;
+		}
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int y = 0; y < height; y += th)
+			for (int x = 0; x < width; x += tw)
+			{
+				final int tx = x, ty = y;
+				final int w = Math.min(tw, width - x), h = Math.min(th, height - y);
+				tasks.add(new RecursiveAction()
+				{
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute()
+					{
+						TileExecutor.this.operate(op, src, dst, tx, ty, w, h, halo);
+					}
+				});
+			}
+		this.pool.invoke(new RecursiveAction()
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute()
+			{
+				ForkJoinTask.invokeAll(tasks);
+			}
+		});
+	}
+
+	/**
+	 * Operates one tile.
+	 *
+	 * @param op the operation
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @param x the X coordinate of the tile
+	 * @param y the Y coordinate of the tile
+	 * @param w the tile width
+	 * @param h the tile height
+	 * @param halo the halo size
+	 */
+	protected void operate(ImagingOp op, BufferedImage src, BufferedImage dst, int x, int y,
+			int w, int h, int halo)
+	{
+		if (halo <= 0)
+		{
+			op.operate(src.getSubimage(x, y, w, h), dst.getSubimage(x, y, w, h));
+			return;
+		}
+		int x0 = Math.max(0, x - halo);
+		int y0 = Math.max(0, y - halo);
+		int x1 = Math.min(src.getWidth(), x + w + halo);
+		int y1 = Math.min(src.getHeight(), y + h + halo);
+		ColorModel cm = dst.getColorModel();
+		WritableRaster raster = dst.getRaster().createCompatibleWritableRaster(x1 - x0, y1 - y0);
+		BufferedImage tmp = new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null);
+		op.operate(src.getSubimage(x0, y0, x1 - x0, y1 - y0), tmp);
+		dst.getRaster().setDataElements(x, y,
+				raster.createChild(x - x0, y - y0, w, h, 0, 0, null));
+	}
+
+	/**
+	 * Returns the minimum halo size.
+	 *
+	 * @return the halo size
+	 */
+	public int getHalo()
+	{
+		return this.halo;
+	}
+
+	/**
+	 * Returns the thread pool.
+	 *
+	 * @return the thread pool
+	 */
+	public ForkJoinPool getPool()
+	{
+		return this.pool;
+	}
+
+	/**
+	 * Returns the tile height.
+	 *
+	 * @return the tile height
+	 */
+	public int getTileHeight()
+	{
+		return this.tileHeight;
+	}
+
+	/**
+	 * Returns the tile width, not positive for full-width row bands.
+	 *
+	 * @return the tile width
+	 */
+	public int getTileWidth()
+	{
+		return this.tileWidth;
+	}
+
+	/**
+	 * Set the minimum halo size.
+	 *
+	 * @param halo the value of halo size
+	 */
+	public void setHalo(int halo)
+	{
+		if (halo < 0)
+			throw new IllegalArgumentException("The halo size cannot be negative.");
+		this.halo = halo;
+	}
+
+	/**
+	 * Set the thread pool.
+	 *
+	 * @param pool the value of thread pool
+	 */
+	public void setPool(ForkJoinPool pool)
+	{
+		if (pool == null)
+			throw new NullPointerException("The thread pool is null.");
+		this.pool = pool;
+	}
+
+	/**
+	 * Set the tile height.
+	 *
+	 * @param tileHeight the value of tile height
+	 */
+	public void setTileHeight(int tileHeight)
+	{
+		if (tileHeight <= 0)
+			throw new IllegalArgumentException("The tile height must be positive.");
+		this.tileHeight = tileHeight;
+	}
+
+	/**
+	 * Set the tile width, not positive for full-width row bands.
+	 *
+	 * @param tileWidth the value of tile width
+	 */
+	public void setTileWidth(int tileWidth)
+	{
+		this.tileWidth = tileWidth;
+	}
+}
@@ -12,6 +12,9 @@ import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorConvertOp;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferByte;
+
+import com.github.frankjiang.image4j.PixelAccessor;
 
 /**
  * The color space convert utilities.
@@ -23,6 +26,67 @@ import java.awt.image.ColorModel;
  */
 public class ColorConvertUtils
 {
+	/**
+	 * The sRGB to linear RGB lookup table.
+	 */
+	private static final float[] LINEAR_RGB = new float[256];
+
+	static
+	{
+		for (int i = 0; i < LINEAR_RGB.length; i++)
+		{
+			double c = i / 255.0;
+			LINEAR_RGB[i] = (float) (c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+		}
+	}
+
+	/**
+	 * Returns the 8-bit linear gray value of the specified packed sRGB value,
+	 * the same luminance stored by the color model of
+	 * <code>TYPE_BYTE_GRAY</code> images.
+	 * <p>
+	 * The result may differ slightly from the one of
+	 * {@linkplain #getGrayImage(BufferedImage)}, which uses the color
+	 * management module.
+	 * </p>
+	 *
+	 * @param rgb the packed sRGB value
+	 * @return the gray value in 0-255
+	 */
+	public static int getGray(int rgb)
+	{
+		float gray = 0.2125f * LINEAR_RGB[rgb >> 16 & 0xff] + 0.7154f * LINEAR_RGB[rgb >> 8 & 0xff]
+				+ 0.0721f * LINEAR_RGB[rgb & 0xff];
+		return (int) (gray * 255f + 0.5f);
+	}
+
+	/**
+	 * Returns the <code>TYPE_BYTE_GRAY</code> version of the specified image,
+	 * whose gray values are computed by {@linkplain #getGray(int)}, so that
+	 * they equal the ones of the point operations on the packed sRGB values.
+	 * If the source image is a grayscale image, then returns itself.
+	 *
+	 * @param image the source image
+	 * @return the grayscale image
+	 */
+	public static BufferedImage getLuminanceImage(BufferedImage image)
+	{
+		if (image.getColorModel().getColorSpace().getType() == ColorSpace.TYPE_GRAY)
+			return image;
+		int width = image.getWidth(), height = image.getHeight();
+		BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+		byte[] data = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+		PixelAccessor in = PixelAccessor.getAccessor(image);
+		int[] row = new int[width];
+		for (int y = 0, i = 0; y < height; y++)
+		{
+			in.getRGB(0, y, width, row, 0);
+			for (int x = 0; x < width; x++)
+				data[i++] = (byte) ColorConvertUtils.getGray(row[x]);
+		}
+		return gray;
+	}
+
 	/**
 	 * Returns the grayscale version of the specified image.
 	 * If the source image is a grayscale image, then returns itself; otherwise
@@ -34,7 +98,7 @@ public class ColorConvertUtils
 	public static BufferedImage getGrayImage(BufferedImage image)
 	{
 		ColorModel colorModel = image.getColorModel();
-		if (colorModel.getColorSpace().getType() != ColorSpace.CS_GRAY)
+		if (colorModel.getColorSpace().getType() != ColorSpace.TYPE_GRAY)
 			return new ColorConvertOp(ColorSpace.getInstance(ColorSpace.CS_GRAY), null)
 					.filter(image, null);
 		else
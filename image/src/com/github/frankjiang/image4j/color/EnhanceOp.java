@@ -7,7 +7,6 @@ package com.github.frankjiang.image4j.color;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
 import java.awt.image.ImagingOpException;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
@@ -15,6 +14,8 @@ import java.awt.image.WritableRaster;
 import org.apache.commons.math3.util.FastMath;
 
 import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.PixelAccessor;
+import com.github.frankjiang.image4j.PointOp;
 import com.github.frankjiang.image4j.math.func.Transform;
 import com.github.frankjiang.image4j.math.mask.Mask;
 
@@ -39,7 +40,7 @@ import com.github.frankjiang.image4j.math.mask.Mask;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public abstract class EnhanceOp extends ImagingOp
+public abstract class EnhanceOp extends ImagingOp implements PointOp
 {
 	/**
 	 * Flag for enhancing the Alpha channel only.
@@ -151,105 +152,79 @@ public abstract class EnhanceOp extends ImagingOp
 	@Override
 	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
 	{
-		int channel_num = 3;
 		int width = src.getWidth();
 		int height = src.getHeight();
-		int rgb, rgbs[] = new int[channel_num];
+		PixelAccessor in = PixelAccessor.getAccessor(src);
+		PixelAccessor out = PixelAccessor.getAccessor(dst);
+		int[] row = new int[width];
+		for (int y = 0; y < height; y++)
+		{
+			in.getRGB(0, y, width, row, 0);
+			for (int x = 0; x < width; x++)
+				row[x] = this.filterRGB(x, y, row[x]);
+			out.setRGB(0, y, width, row, 0);
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.PointOp#filterRGB(int, int, int)
+	 */
+	@Override
+	public int filterRGB(int x, int y, int rgb)
+	{
+		int channel_num = 3;
 		if (this.channels == 0)
 		// Enhance the Alpha channel
 		{
-			int alpha;
-			ColorModel model = src.getColorModel();
-			WritableRaster raster = src.getRaster();
+			int alpha = rgb >>> 24;
 			if (this.mask == null)
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-					{
-						alpha = model.getAlpha(raster.getDataElements(x, y, null));
-						truncate(perform(alpha));
-						rgb = src.getRGB(x, y);
-						dst.setRGB(x, y, (alpha << 24) | (rgb & 0x00ffffff));
-					}
+				truncate(perform(alpha));
 			else
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-					{
-						float coef = this.mask.mask(x, y);
-						alpha = model.getAlpha(raster.getDataElements(x, y, null));
-						alpha = truncate(alpha + FastMath.round(coef * (perform(alpha) - alpha)));
-						rgb = src.getRGB(x, y);
-						dst.setRGB(x, y, (alpha << 24) | (rgb & 0x00ffffff));
-					}
+			{
+				float coef = this.mask.mask(x, y);
+				alpha = truncate(alpha + FastMath.round(coef * (perform(alpha) - alpha)));
+			}
+			return (alpha << 24) | (rgb & 0x00ffffff);
 		}
-		else if ((this.channels & 0x7) != 0)
+		int rgbs[] = new int[channel_num];
+		for (int z = 0; z < channel_num; z++)
+			rgbs[z] = rgb >> (channel_num - z - 1 << 3) & 0xff;
+		if ((this.channels & 0x7) != 0)
 		// Ehance the R, G, B channels
 		{
-			boolean[] flags = { (this.channels & 0x1) == 1, (this.channels >> 1 & 0x1) == 1,
-					(this.channels >> 2 & 0x1) == 1 };
 			if (this.mask == null)
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-					{
-						rgb = src.getRGB(x, y);
-						for (int z = 0; z < channel_num; z++)
-							rgbs[z] = rgb >> (channel_num - z - 1 << 3) & 0xff;
-						for (int z = 0; z < channel_num; z++)
-							if (flags[z])
-								rgbs[z] = truncate(perform(rgbs[z]));
-						dst.setRGB(x, y, 0xff000000 | rgbs[0] << 16 | rgbs[1] << 8 | rgbs[2]);
-					}
+			{
+				for (int z = 0; z < channel_num; z++)
+					if ((this.channels >> z & 0x1) == 1)
+						rgbs[z] = truncate(perform(rgbs[z]));
+			}
 			else
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-					{
-						float coef = this.mask.mask(x, y);
-						rgb = src.getRGB(x, y);
-						for (int z = 0; z < channel_num; z++)
-							rgbs[z] = rgb >> (channel_num - z - 1 << 3) & 0xff;
-						for (int z = 0; z < channel_num; z++)
-							if (flags[z])
-								rgbs[z] = truncate(rgbs[z]
-										+ FastMath.round(coef * (perform(rgbs[z]) - rgbs[z])));
-						dst.setRGB(x, y, 0xff000000 | rgbs[0] << 16 | rgbs[1] << 8 | rgbs[2]);
-					}
+			{
+				float coef = this.mask.mask(x, y);
+				for (int z = 0; z < channel_num; z++)
+					if ((this.channels >> z & 0x1) == 1)
+						rgbs[z] = truncate(rgbs[z]
+								+ FastMath.round(coef * (perform(rgbs[z]) - rgbs[z])));
+			}
+			return 0xff000000 | rgbs[0] << 16 | rgbs[1] << 8 | rgbs[2];
 		}
-		else
 		// Enhance the H, S, B channels
+		float[] hsb = Color.RGBtoHSB(rgbs[0], rgbs[1], rgbs[2], null);
+		if (this.mask == null)
 		{
-			boolean[] flags = { (this.channels >> 3 & 0x1) == 1, (this.channels >> 4 & 0x1) == 1,
-					(this.channels >> 5 & 0x1) == 1 };
-			float[] hsb = new float[3];
-			if (this.mask == null)
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-					{
-						rgb = src.getRGB(x, y);
-						for (int z = 0; z < channel_num; z++)
-							rgbs[z] = rgb >> (channel_num - z - 1 << 3) & 0xff;
-						Color.RGBtoHSB(rgbs[0], rgbs[1], rgbs[2], hsb);
-						for (int z = 0; z < 3; z++)
-							if (flags[z])
-								hsb[z] = truncate(perform(FastMath.round(hsb[z] * 256))) / 256f;
-						rgb = Color.HSBtoRGB(hsb[0], hsb[1], hsb[2]);
-						dst.setRGB(x, y, rgb);
-					}
-			else
-				for (int y = 0; y < height; y++)
-					for (int x = 0; x < width; x++)
-					{
-						rgb = src.getRGB(x, y);
-						for (int z = 0; z < channel_num; z++)
-							rgbs[z] = rgb >> (channel_num - z - 1 << 3) & 0xff;
-						Color.RGBtoHSB(rgbs[0], rgbs[1], rgbs[2], hsb);
-						float coef = this.mask.mask(x, y);
-						for (int z = 0; z < 3; z++)
-							if (flags[z])
-								hsb[z] = truncate(hsb[z] + coef
-										* (perform(FastMath.round(hsb[z] * 256)) / 256f - hsb[z]));
-						rgb = Color.HSBtoRGB(hsb[0], hsb[1], hsb[2]);
-						dst.setRGB(x, y, rgb);
-					}
+			for (int z = 0; z < 3; z++)
+				if ((this.channels >> z + 3 & 0x1) == 1)
+					hsb[z] = truncate(perform(FastMath.round(hsb[z] * 256))) / 256f;
+		}
+		else
+		{
+			float coef = this.mask.mask(x, y);
+			for (int z = 0; z < 3; z++)
+				if ((this.channels >> z + 3 & 0x1) == 1)
+					hsb[z] = truncate(hsb[z]
+							+ coef * (perform(FastMath.round(hsb[z] * 256)) / 256f - hsb[z]));
 		}
+		return Color.HSBtoRGB(hsb[0], hsb[1], hsb[2]);
 	}
 
 	/**
@@ -304,6 +279,15 @@ public abstract class EnhanceOp extends ImagingOp
 		}
 	}
 
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return this.mask == null;
+	}
+
 	/**
 	 * Perform the enhancement to the specified rgb value.
 	 *
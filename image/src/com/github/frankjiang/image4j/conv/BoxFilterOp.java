@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * BoxFilterOp.java is PROPRIETARY/CONFIDENTIAL built in 4:41:07 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.conv;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.ImagingOpException;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+import com.github.frankjiang.image4j.ImagingOp;
+
+/**
+ * The box filter operation, which replaces each sample with the mean of the
+ * samples in the window around it.
+ * <p>
+ * The window sums are maintained with running sums: the column sums of the
+ * window rows are updated by one row entering and one row leaving for each
+ * destination row, and the window sum by one column entering and one column
+ * leaving for each destination pixel. So the cost per sample is constant at
+ * any window size, e.g. a 51&times;51 mean costs the same as a 3&times;3
+ * one.
+ * </p>
+ * <p>
+ * Each band is filtered independently, including the alpha band, which is
+ * the per-channel mean of the packed ARGB images. The sums are exact and the
+ * means are rounded to the nearest integer. The windows are clipped to the
+ * image, the mean near the edges is taken over the samples inside the image.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ * @see KernelUtils#getHarmonicMeanKernel9()
+ */
+public class BoxFilterOp extends ImagingOp implements RasterOp
+{
+	/**
+	 * The window width.
+	 */
+	protected int	width;
+	/**
+	 * The window height.
+	 */
+	protected int	height;
+
+	/**
+	 * Construct an instance of <tt>BoxFilterOp</tt> with a square window of
+	 * <code>2 * radius + 1</code> pixels.
+	 *
+	 * @param radius the radius of the window
+	 */
+	public BoxFilterOp(int radius)
+	{
+		this(radius * 2 + 1, radius * 2 + 1, null);
+	}
+
+	/**
+	 * Construct an instance of <tt>BoxFilterOp</tt>. The window origin is
+	 * <code>((width - 1) / 2, (height - 1) / 2)</code> as the origin of a
+	 * {@linkplain java.awt.image.Kernel}.
+	 *
+	 * @param width the window width
+	 * @param height the window height
+	 * @param hints the rendering hints, may be <code>null</code>
+	 * @throws IllegalArgumentException if the window size is not positive
+	 */
+	public BoxFilterOp(int width, int height, RenderingHints hints)
+	{
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("Width and height must be possitive.");
+		this.width = width;
+		this.height = height;
+		this.hints = hints;
+	}
+
+	/**
+	 * Returns the mean of the source image. The images with an
+	 * {@linkplain IndexColorModel} or of different layouts are filtered in
+	 * packed ARGB.
+	 *
+	 * @see com.github.frankjiang.image4j.ImagingOp#filter(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 * @throws IllegalArgumentException if <code>src</code> equals
+	 *             <code>dst</code>
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, BufferedImage dst)
+	{
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		return super.filter(src, dst);
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#filter(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	public WritableRaster filter(Raster src, WritableRaster dst)
+	{
+		if (src == null)
+			throw new NullPointerException("src image is null");
+		if (dst == null)
+			dst = this.createCompatibleDestRaster(src);
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		if (src.getNumBands() != dst.getNumBands())
+			throw new ImagingOpException("Different number of bands in src " + " and dst Rasters");
+
+		this.operate(src, dst);
+		return dst;
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#createCompatibleDestRaster(java.awt.image.Raster)
+	 */
+	@Override
+	public WritableRaster createCompatibleDestRaster(Raster src)
+	{
+		return src.createCompatibleWritableRaster();
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#getBounds2D(java.awt.image.Raster)
+	 */
+	@Override
+	public Rectangle2D getBounds2D(Raster src)
+	{
+		return src.getBounds();
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		if (!(src.getColorModel() instanceof IndexColorModel)
+				&& src.getRaster().getNumBands() == dst.getRaster().getNumBands())
+		{
+			this.operate(src.getRaster(), dst.getRaster());
+			return;
+		}
+		// filter the channels of the packed ARGB pixels
+		BufferedImage in = new BufferedImage(src.getWidth(), src.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+		BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+		BoxFilterOp.draw(src, in);
+		this.operate(in.getRaster(), out.getRaster());
+		BoxFilterOp.draw(out, dst);
+	}
+
+	/**
+	 * Draw the source image into the destination image.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	private static void draw(BufferedImage src, BufferedImage dst)
+	{
+		Graphics2D g = dst.createGraphics();
+		try
+		{
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(src, 0, 0, null);
+		}
+		finally
+		{
+			g.dispose();
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	protected void operate(Raster src, WritableRaster dst)
+	{
+		int type = src.getSampleModel().getDataType();
+		if (type == DataBuffer.TYPE_FLOAT || type == DataBuffer.TYPE_DOUBLE)
+			throw new ImagingOpException("Unable to filter the non-integral samples.");
+		int w = Math.min(src.getWidth(), dst.getWidth());
+		int h = Math.min(src.getHeight(), dst.getHeight());
+		int nb = src.getNumBands();
+		int xo = (this.width - 1) / 2, yo = (this.height - 1) / 2;
+		// the window of (x, y) covers [x - left, x + right] and [y - top, y + bottom]
+		int left = xo, right = this.width - 1 - xo;
+		int top = yo, bottom = this.height - 1 - yo;
+
+		int sx = src.getMinX(), sy = src.getMinY();
+		int dx = dst.getMinX(), dy = dst.getMinY();
+		long[] columns = new long[w * nb];
+		int[] in = new int[w * nb];
+		int[] out = new int[w * nb];
+		long[] sums = new long[nb];
+		// prime the column sums with the rows [0, bottom - 1]
+		for (int r = 0; r < Math.min(bottom, h); r++)
+			BoxFilterOp.accumulate(src, sx, sy + r, w, in, columns, 1);
+		for (int y = 0; y < h; y++)
+		{
+			// the row y + bottom enters and the row y - top - 1 leaves
+			if (y + bottom < h)
+				BoxFilterOp.accumulate(src, sx, sy + y + bottom, w, in, columns, 1);
+			if (y - top - 1 >= 0)
+				BoxFilterOp.accumulate(src, sx, sy + y - top - 1, w, in, columns, -1);
+			long rows = Math.min(h - 1, y + bottom) - Math.max(0, y - top) + 1;
+
+			Arrays.fill(sums, 0L);
+			for (int x = 0; x < Math.min(right, w); x++)
+				for (int b = 0; b < nb; b++)
+					sums[b] += columns[x * nb + b];
+			for (int x = 0; x < w; x++)
+			{
+				// the column x + right enters and the column x - left - 1 leaves
+				if (x + right < w)
+					for (int b = 0, o = (x + right) * nb; b < nb; b++, o++)
+						sums[b] += columns[o];
+				if (x - left - 1 >= 0)
+					for (int b = 0, o = (x - left - 1) * nb; b < nb; b++, o++)
+						sums[b] -= columns[o];
+				long count = rows * (Math.min(w - 1, x + right) - Math.max(0, x - left) + 1);
+				long half = count >> 1;
+				for (int b = 0, o = x * nb; b < nb; b++, o++)
+					out[o] = (int) ((sums[b] + half) / count);
+			}
+			dst.setPixels(dx, dy + y, w, 1, out);
+		}
+	}
+
+	/**
+	 * Add or subtract a source row to the column sums.
+	 *
+	 * @param src the source raster
+	 * @param x the X coordinate of the row
+	 * @param y the Y coordinate of the row
+	 * @param w the row width
+	 * @param row the row buffer
+	 * @param columns the column sums
+	 * @param sign <code>1</code> to add, <code>-1</code> to subtract
+	 */
+	private static void accumulate(Raster src, int x, int y, int w, int[] row, long[] columns,
+			int sign)
+	{
+		src.getPixels(x, y, w, 1, row);
+		if (sign > 0)
+			for (int i = 0; i < row.length; i++)
+				columns[i] += row[i];
+		else
+			for (int i = 0; i < row.length; i++)
+				columns[i] -= row[i];
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return true;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#getHalo()
+	 */
+	@Override
+	protected int getHalo()
+	{
+		return Math.max(this.width, this.height);
+	}
+
+	/**
+	 * Returns the window width.
+	 *
+	 * @return the window width
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	/**
+	 * Returns the window height.
+	 *
+	 * @return the window height
+	 */
+	public int getHeight()
+	{
+		return this.height;
+	}
+}
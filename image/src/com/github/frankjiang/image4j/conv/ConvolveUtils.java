@@ -28,7 +28,17 @@ public class ConvolveUtils
 		if (kernels.length == 0)
 			return src;
 		if (kernels.length == 1)
+		{
+			// the separable kernels are convolved in two 1-D passes
+			Kernel[] separated = KernelUtils.separate(kernels[0]);
+			if (separated != null && kernels[0].getWidth() > 1 && kernels[0].getHeight() > 1)
+				return new SeparableConvolveOp(separated[0], separated[1], edgeCondition, hints)
+						.filter(src, null);
+			// the large kernels are convolved in the frequency domain
+			if (FFTConvolveOp.isPreferred(kernels[0], src.getWidth(), src.getHeight()))
+				return new FFTConvolveOp(kernels[0], edgeCondition, hints).filter(src, null);
 			return new ConvolveOp(kernels[0], edgeCondition, hints).filter(src, null);
+		}
 		else
 			return new MultiKernelConvolveOp(edgeCondition, hints, kernels).filter(src, null);
 	}
@@ -0,0 +1,545 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * FFTConvolveOp.java is PROPRIETARY/CONFIDENTIAL built in 5:48:52 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.conv;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.ImagingOpException;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Kernel;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.math.FFT;
+
+/**
+ * The convolve operation in the frequency domain.
+ * <p>
+ * The source is convolved block by block with the overlap-add method: each
+ * block is zero padded, transformed by the {@linkplain FFT}, multiplied by the
+ * spectrum of the kernel and transformed back, and the results of the
+ * overlapping blocks are summed. Two blocks are transformed at once as the
+ * real and the imaginary parts of one complex block. The blocks are processed
+ * in strips, only the sums of one strip are kept in memory. The block size is
+ * chosen to minimize the estimated cost for the kernel and the image, see
+ * {@linkplain #isPreferred(Kernel, int, int)}.
+ * </p>
+ * <p>
+ * The result equals the one of {@linkplain ConvolveOp} up to the floating
+ * point rounding: each band is convolved including the alpha band, the
+ * results are truncated and clamped into the range of the samples, the
+ * kernel of an even size is placed at its
+ * {@linkplain KernelUtils#getXOffset(Kernel) offsets} as well, the edge
+ * pixels are zero filled or copied from the source according to the edge
+ * condition. A list of kernels, as the one of
+ * {@linkplain MultiKernelConvolveOp}, is combined into their composite
+ * kernel, without the intermediate clamping.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class FFTConvolveOp extends ImagingOp implements RasterOp
+{
+	/**
+	 * Pixels at the edge of the destination image are set to zero. This
+	 * is the default.
+	 */
+	public static final int							EDGE_ZERO_FILL	= ConvolveOp.EDGE_ZERO_FILL;
+	/**
+	 * Pixels at the edge of the source image are copied to
+	 * the corresponding pixels in the destination without modification.
+	 */
+	public static final int							EDGE_NO_OP		= ConvolveOp.EDGE_NO_OP;
+
+	/**
+	 * The maximum FFT length of the blocks, the longer transforms leave the
+	 * cache.
+	 */
+	private static final int						MAX_LENGTH		= 256;
+	/**
+	 * The cost of a floating point operation of the transforms relative to a
+	 * multiply-accumulate of the spatial convolution.
+	 */
+	private static final double						FLOP_COST		= 4.0;
+
+	/**
+	 * The kernel.
+	 */
+	protected Kernel								kernel;
+	/**
+	 * The edge condition.
+	 */
+	protected int									edgeCondition;
+
+	/**
+	 * The kernel spectra of the block sizes, the real parts followed by the
+	 * imaginary parts.
+	 */
+	private final ConcurrentMap<Long, double[][]>	spectra			= new ConcurrentHashMap<>();
+
+	/**
+	 * Construct an instance of <tt>FFTConvolveOp</tt> with the edge condition
+	 * {@linkplain #EDGE_ZERO_FILL}.
+	 *
+	 * @param kernel the kernel
+	 */
+	public FFTConvolveOp(Kernel kernel)
+	{
+		this(FFTConvolveOp.EDGE_ZERO_FILL, null, kernel);
+	}
+
+	/**
+	 * Construct an instance of <tt>FFTConvolveOp</tt>.
+	 *
+	 * @param kernel the kernel
+	 * @param edgeCondition the edge condition
+	 * @param hints the rendering hints, may be <code>null</code>
+	 */
+	public FFTConvolveOp(Kernel kernel, int edgeCondition, RenderingHints hints)
+	{
+		this(edgeCondition, hints, kernel);
+	}
+
+	/**
+	 * Construct an instance of <tt>FFTConvolveOp</tt> convolving with the
+	 * composite kernel of the kernels.
+	 *
+	 * @param edgeCondition the edge condition
+	 * @param hints the rendering hints, may be <code>null</code>
+	 * @param kernels the kernels applied in order
+	 * @throws IllegalArgumentException if the kernels are absent
+	 * @see #combine(Kernel...)
+	 */
+	public FFTConvolveOp(int edgeCondition, RenderingHints hints, Kernel... kernels)
+	{
+		this.kernel = FFTConvolveOp.combine(kernels);
+		this.edgeCondition = edgeCondition;
+		this.hints = hints;
+	}
+
+	/**
+	 * Returns the composite kernel of the kernels, whose convolution equals
+	 * the convolutions with the kernels in order, without the intermediate
+	 * clamping.
+	 *
+	 * @param kernels the kernels
+	 * @return the composite kernel
+	 * @throws IllegalArgumentException if the kernels are absent
+	 */
+	public static Kernel combine(Kernel... kernels)
+	{
+		if (kernels.length == 0)
+			throw new IllegalArgumentException("The kernels are absent.");
+		Kernel combined = kernels[0];
+		for (int k = 1; k < kernels.length; k++)
+		{
+			int aw = combined.getWidth(), ah = combined.getHeight();
+			int bw = kernels[k].getWidth(), bh = kernels[k].getHeight();
+			float[] a = combined.getKernelData(null);
+			float[] b = kernels[k].getKernelData(null);
+			int width = aw + bw - 1, height = ah + bh - 1;
+			float[] data = new float[width * height];
+			for (int ay = 0; ay < ah; ay++)
+				for (int ax = 0; ax < aw; ax++)
+				{
+					float v = a[ay * aw + ax];
+					if (v == 0)
+						continue;
+					for (int by = 0; by < bh; by++)
+						for (int bx = 0; bx < bw; bx++)
+							data[(ay + by) * width + ax + bx] += v * b[by * bw + bx];
+				}
+			combined = new Kernel(width, height, data);
+		}
+		return combined;
+	}
+
+	/**
+	 * Returns <code>true</code> if the convolution with the kernel is
+	 * estimated to be cheaper in the frequency domain than in the spatial
+	 * domain for an image of the specified size.
+	 * <p>
+	 * The spatial cost is the <code>w&times;h</code> multiply-accumulates per
+	 * sample of the kernel. The frequency cost is the cost of the transforms
+	 * and the product of a pair of blocks amortized over their samples, of the
+	 * cheapest block size, weighted by the measured cost of the transforms
+	 * relative to {@linkplain ConvolveOp}. So the kernels from about
+	 * 15&times;15 on are preferred on the large images.
+	 * </p>
+	 *
+	 * @param kernel the kernel
+	 * @param width the image width
+	 * @param height the image height
+	 * @return <code>true</code> if the FFT convolution is preferred
+	 */
+	public static boolean isPreferred(Kernel kernel, int width, int height)
+	{
+		int[] plan = FFTConvolveOp.plan(kernel.getWidth(), kernel.getHeight(), width, height);
+		return FFTConvolveOp.cost(kernel.getWidth(), kernel.getHeight(), plan[0],
+				plan[1]) < kernel.getWidth() * kernel.getHeight();
+	}
+
+	/**
+	 * Returns the cheapest FFT lengths of the blocks.
+	 *
+	 * @param kw the kernel width
+	 * @param kh the kernel height
+	 * @param width the image width
+	 * @param height the image height
+	 * @return the FFT width and height
+	 */
+	private static int[] plan(int kw, int kh, int width, int height)
+	{
+		int[] best = null;
+		double min = Double.MAX_VALUE;
+		// the blocks beyond the image only add padding
+		int maxWidth = Math.max(FFT.ceilPowerOf2(width + kw - 1), FFT.ceilPowerOf2(kw));
+		int maxHeight = Math.max(FFT.ceilPowerOf2(height + kh - 1), FFT.ceilPowerOf2(kh));
+		for (int nx = FFT.ceilPowerOf2(kw); nx <= Math.min(maxWidth,
+				FFTConvolveOp.MAX_LENGTH); nx <<= 1)
+			for (int ny = FFT.ceilPowerOf2(kh); ny <= Math.min(maxHeight,
+					FFTConvolveOp.MAX_LENGTH); ny <<= 1)
+			{
+				double cost = FFTConvolveOp.cost(kw, kh, nx, ny, width, height);
+				if (cost < min)
+				{
+					min = cost;
+					best = new int[] { nx, ny };
+				}
+			}
+		if (best == null)
+			best = new int[] { FFT.ceilPowerOf2(kw) * 2, FFT.ceilPowerOf2(kh) * 2 };
+		return best;
+	}
+
+	/**
+	 * Returns the estimated cost per sample of the blocks of the FFT lengths.
+	 *
+	 * @param kw the kernel width
+	 * @param kh the kernel height
+	 * @param nx the FFT width
+	 * @param ny the FFT height
+	 * @return the cost
+	 */
+	private static double cost(int kw, int kh, int nx, int ny)
+	{
+		return FFTConvolveOp.cost(kw, kh, nx, ny, Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the estimated cost per sample of the blocks of the FFT lengths
+	 * on the image of the specified size.
+	 *
+	 * @param kw the kernel width
+	 * @param kh the kernel height
+	 * @param nx the FFT width
+	 * @param ny the FFT height
+	 * @param width the image width
+	 * @param height the image height
+	 * @return the cost
+	 */
+	private static double cost(int kw, int kh, int nx, int ny, int width, int height)
+	{
+		int bx = nx - kw + 1, by = ny - kh + 1;
+		if (bx <= 0 || by <= 0)
+			return Double.MAX_VALUE;
+		// the samples really covered by the blocks
+		double samples = 2.0 * Math.min(bx, width) * Math.min(by, height);
+		double n = (double) nx * ny;
+		double log = Math.log(n) / Math.log(2);
+		// a forward and an inverse complex transform and the spectral product
+		return FFTConvolveOp.FLOP_COST * (2 * 2.5 * n * log + 4 * n) / samples;
+	}
+
+	/**
+	 * Returns the kernel spectrum of the FFT lengths.
+	 *
+	 * @param nx the FFT width
+	 * @param ny the FFT height
+	 * @return the real parts and the imaginary parts
+	 */
+	private double[][] getSpectrum(int nx, int ny)
+	{
+		Long key = (long) nx << 32 | ny;
+		double[][] spectrum = this.spectra.get(key);
+		if (spectrum == null)
+		{
+			int kw = this.kernel.getWidth(), kh = this.kernel.getHeight();
+			float[] data = this.kernel.getKernelData(null);
+			double[] re = new double[nx * ny], im = new double[nx * ny];
+			for (int y = 0; y < kh; y++)
+				for (int x = 0; x < kw; x++)
+					re[y * nx + x] = data[y * kw + x];
+			FFT.transform(re, im, nx, ny, false);
+			spectrum = new double[][] { re, im };
+			this.spectra.putIfAbsent(key, spectrum);
+		}
+		return spectrum;
+	}
+
+	/**
+	 * Convolves the source image. The images with an
+	 * {@linkplain IndexColorModel} or of different layouts are convolved in
+	 * packed ARGB.
+	 *
+	 * @see com.github.frankjiang.image4j.ImagingOp#filter(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 * @throws IllegalArgumentException if <code>src</code> equals
+	 *             <code>dst</code>
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, BufferedImage dst)
+	{
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		return super.filter(src, dst);
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#filter(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	public WritableRaster filter(Raster src, WritableRaster dst)
+	{
+		if (src == null)
+			throw new NullPointerException("src image is null");
+		if (dst == null)
+			dst = this.createCompatibleDestRaster(src);
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		if (src.getNumBands() != dst.getNumBands())
+			throw new ImagingOpException("Different number of bands in src " + " and dst Rasters");
+
+		this.operate(src, dst);
+		return dst;
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#createCompatibleDestRaster(java.awt.image.Raster)
+	 */
+	@Override
+	public WritableRaster createCompatibleDestRaster(Raster src)
+	{
+		return src.createCompatibleWritableRaster();
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#getBounds2D(java.awt.image.Raster)
+	 */
+	@Override
+	public Rectangle2D getBounds2D(Raster src)
+	{
+		return src.getBounds();
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		if (!(src.getColorModel() instanceof IndexColorModel)
+				&& src.getRaster().getNumBands() == dst.getRaster().getNumBands())
+		{
+			this.operate(src.getRaster(), dst.getRaster());
+			return;
+		}
+		// convolve the channels of the packed ARGB pixels
+		BufferedImage in = new BufferedImage(src.getWidth(), src.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+		BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+		FFTConvolveOp.draw(src, in);
+		this.operate(in.getRaster(), out.getRaster());
+		FFTConvolveOp.draw(out, dst);
+	}
+
+	/**
+	 * Draw the source image into the destination image.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	private static void draw(BufferedImage src, BufferedImage dst)
+	{
+		Graphics2D g = dst.createGraphics();
+		try
+		{
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(src, 0, 0, null);
+		}
+		finally
+		{
+			g.dispose();
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	protected void operate(Raster src, WritableRaster dst)
+	{
+		int w = Math.min(src.getWidth(), dst.getWidth());
+		int h = Math.min(src.getHeight(), dst.getHeight());
+		int nb = src.getNumBands();
+		int kw = this.kernel.getWidth(), kh = this.kernel.getHeight();
+		int xo = KernelUtils.getXOffset(this.kernel), yo = KernelUtils.getYOffset(this.kernel);
+		int sx = src.getMinX(), sy = src.getMinY();
+		int dx = dst.getMinX(), dy = dst.getMinY();
+
+		// the edge pixels
+		if (this.edgeCondition == FFTConvolveOp.EDGE_NO_OP)
+			dst.setRect(dx - sx, dy - sy, src);
+		else
+		{
+			double[] zero = new double[w * nb];
+			for (int y = 0; y < h; y++)
+				dst.setPixels(dx, dy + y, w, 1, zero);
+		}
+		// the valid destination region
+		int x0 = xo, x1 = w - xo;
+		int y0 = yo, y1 = h - yo;
+		if (x0 >= x1 || y0 >= y1)
+			return;
+
+		int type = src.getSampleModel().getDataType();
+		boolean integral = type != DataBuffer.TYPE_FLOAT && type != DataBuffer.TYPE_DOUBLE;
+		int[] plan = FFTConvolveOp.plan(kw, kh, w, h);
+		int nx = plan[0], ny = plan[1];
+		int bx = nx - kw + 1, by = ny - kh + 1;
+		double[][] spectrum = this.getSpectrum(nx, ny);
+		double[] kr = spectrum[0], ki = spectrum[1];
+		// the destination pixel (x, y) is the full convolution at (x + cx, y + cy)
+		int cx = kw - 1 - xo, cy = kh - 1 - yo;
+		int fullWidth = w + kw - 1;
+		int rows = by + kh - 1;
+		double[] sums = new double[rows * fullWidth];
+		double[] re = new double[nx * ny], im = new double[nx * ny];
+		double[] samples = new double[w * by];
+		double[] out = new double[x1 - x0];
+		for (int b = 0; b < nb; b++)
+		{
+			int size = src.getSampleModel().getSampleSize(b);
+			double max = !integral ? Double.MAX_VALUE
+					: size >= 31 ? Integer.MAX_VALUE : (1 << size) - 1;
+			Arrays.fill(sums, 0);
+			for (int top = 0; top < h; top += by)
+			{
+				int height = Math.min(by, h - top);
+				src.getSamples(sx, sy + top, w, height, b, samples);
+				// transform the blocks of the strip in pairs
+				for (int left = 0; left < w; left += 2 * bx)
+				{
+					Arrays.fill(re, 0);
+					Arrays.fill(im, 0);
+					int second = left + bx;
+					for (int y = 0; y < height; y++)
+					{
+						for (int x = left; x < Math.min(left + bx, w); x++)
+							re[y * nx + x - left] = samples[y * w + x];
+						for (int x = second; x < Math.min(second + bx, w); x++)
+							im[y * nx + x - second] = samples[y * w + x];
+					}
+					FFT.transform(re, im, nx, ny, false);
+					for (int i = 0; i < re.length; i++)
+					{
+						double r = re[i] * kr[i] - im[i] * ki[i];
+						im[i] = re[i] * ki[i] + im[i] * kr[i];
+						re[i] = r;
+					}
+					FFT.transform(re, im, nx, ny, true);
+					FFTConvolveOp.add(re, nx, ny, sums, fullWidth, rows, left);
+					if (second < w)
+						FFTConvolveOp.add(im, nx, ny, sums, fullWidth, rows, second);
+				}
+				// the full rows [top, top + by) are complete
+				for (int r = 0; r < height; r++)
+				{
+					int y = top + r - cy;
+					if (y < y0 || y >= y1)
+						continue;
+					int offset = r * fullWidth + cx;
+					for (int x = x0; x < x1; x++)
+					{
+						double v = sums[offset + x];
+						if (integral)
+						{
+							v = (long) v;
+							v = v < 0 ? 0 : v > max ? max : v;
+						}
+						out[x - x0] = v;
+					}
+					dst.setSamples(dx + x0, dy + y, x1 - x0, 1, b, out);
+				}
+				// carry the overlapping rows to the next strip
+				System.arraycopy(sums, by * fullWidth, sums, 0, (kh - 1) * fullWidth);
+				Arrays.fill(sums, (kh - 1) * fullWidth, sums.length, 0);
+			}
+		}
+	}
+
+	/**
+	 * Add the convolved block to the sums of the strip.
+	 *
+	 * @param block the convolved block
+	 * @param nx the block width
+	 * @param ny the block height
+	 * @param sums the sums of the strip
+	 * @param width the width of the sums
+	 * @param height the height of the sums
+	 * @param left the X coordinate of the block in the sums
+	 */
+	private static void add(double[] block, int nx, int ny, double[] sums, int width, int height,
+			int left)
+	{
+		int columns = Math.min(nx, width - left);
+		for (int y = 0; y < Math.min(ny, height); y++)
+			for (int x = 0, i = y * nx, o = y * width + left; x < columns; x++)
+				sums[o++] += block[i++];
+	}
+
+	/**
+	 * Returns the kernel.
+	 *
+	 * @return the kernel
+	 */
+	public Kernel getKernel()
+	{
+		return this.kernel;
+	}
+
+	/**
+	 * Returns the edge condition.
+	 *
+	 * @return the edge condition
+	 * @see #EDGE_NO_OP
+	 * @see #EDGE_ZERO_FILL
+	 */
+	public int getEdgeCondition()
+	{
+		return this.edgeCondition;
+	}
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * FrequencyFilterOp.java is PROPRIETARY/CONFIDENTIAL built in 6:37:15 AM, Oct
+ * 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.conv;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.ImagingOpException;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.math.FFT;
+import com.github.frankjiang.image4j.math.func.ScalableFunction;
+
+/**
+ * The frequency domain filter operation with a radial transfer function.
+ * <p>
+ * Each band is transformed by the {@linkplain FFT}, multiplied by the
+ * transfer function <code>H(D(u,v))</code> of the distance
+ * <code>D(u,v)</code> to the zero frequency and transformed back. The
+ * transfer function is any of the {@linkplain ScalableFunction} filters, e.g.
+ * the {@linkplain com.github.frankjiang.image4j.math.func.ButternworthFunction},
+ * the {@linkplain com.github.frankjiang.image4j.math.func.GaussFunction} or the
+ * {@linkplain com.github.frankjiang.image4j.math.func.HomomorphicEnhanceFilterFunction}.
+ * Its transfer value is applied, the scale is not.
+ * </p>
+ * <p>
+ * The homomorphic mode filters <code>ln(1 + f)</code> and returns
+ * <code>exp(g) - 1</code> of the result <code>g</code>, so the illumination
+ * and the reflectance, multiplied in the image, are filtered apart.
+ * </p>
+ * <p>
+ * The bands are mirrored to a power-of-2 size at least 25% larger than the
+ * image, so the transform sees no edges, and the distances are measured in
+ * the frequency samples of that size. Two bands are transformed at once as
+ * the real and the imaginary parts. The FFT plans and the transfer values of
+ * each padded size are computed once and cached, so filtering a batch of
+ * images of one size pays the setup only for the first image. Therefore the
+ * function must not be changed after the first filtering.
+ * </p>
+ * <p>
+ * The alpha band of the images is copied from the source, the other bands
+ * are rounded and clamped into the range of the samples.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class FrequencyFilterOp extends ImagingOp implements RasterOp
+{
+	/**
+	 * The transfer function.
+	 */
+	protected ScalableFunction						function;
+	/**
+	 * If <tt>true</tt>, the logarithm of the samples is filtered.
+	 */
+	protected boolean								homomorphic;
+
+	/**
+	 * The transfer values of the padded sizes.
+	 */
+	private final ConcurrentMap<Long, double[]>	transfers	= new ConcurrentHashMap<>();
+
+	/**
+	 * Construct an instance of <tt>FrequencyFilterOp</tt>.
+	 *
+	 * @param function the transfer function
+	 */
+	public FrequencyFilterOp(ScalableFunction function)
+	{
+		this(function, false, null);
+	}
+
+	/**
+	 * Construct an instance of <tt>FrequencyFilterOp</tt>.
+	 *
+	 * @param function the transfer function
+	 * @param homomorphic if <tt>true</tt>, the logarithm of the samples is
+	 *            filtered
+	 * @param hints the rendering hints, may be <code>null</code>
+	 */
+	public FrequencyFilterOp(ScalableFunction function, boolean homomorphic,
+			RenderingHints hints)
+	{
+		if (function == null)
+			throw new NullPointerException("The transfer function is null.");
+		this.function = function;
+		this.homomorphic = homomorphic;
+		this.hints = hints;
+	}
+
+	/**
+	 * Returns the padded length of an image length.
+	 *
+	 * @param length the image length
+	 * @return the padded length, a power of 2
+	 */
+	private static int pad(int length)
+	{
+		return FFT.ceilPowerOf2(length + (length + 3) / 4);
+	}
+
+	/**
+	 * Returns the transfer values of the padded size.
+	 *
+	 * @param width the padded width
+	 * @param height the padded height
+	 * @return the transfer values in rows of <code>width</code>
+	 */
+	private double[] getTransfer(int width, int height)
+	{
+		Long key = (long) width << 32 | height;
+		double[] transfer = this.transfers.get(key);
+		if (transfer == null)
+		{
+			// the function of the quadrant mirrored to the others
+			transfer = new double[width * height];
+			for (int v = 0; v <= height / 2; v++)
+				for (int u = 0; u <= width / 2; u++)
+				{
+					double h = this.function.value(Math.sqrt((double) u * u + (double) v * v));
+					int mu = (width - u) % width, mv = (height - v) % height;
+					transfer[v * width + u] = h;
+					transfer[v * width + mu] = h;
+					transfer[mv * width + u] = h;
+					transfer[mv * width + mu] = h;
+				}
+			this.transfers.putIfAbsent(key, transfer);
+		}
+		return transfer;
+	}
+
+	/**
+	 * Filter the source image. The images with an {@linkplain IndexColorModel}
+	 * or of different layouts are filtered in packed ARGB.
+	 *
+	 * @see com.github.frankjiang.image4j.ImagingOp#filter(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 * @throws IllegalArgumentException if <code>src</code> equals
+	 *             <code>dst</code>
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, BufferedImage dst)
+	{
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		return super.filter(src, dst);
+	}
+
+	/**
+	 * Filter all the bands of the source raster.
+	 *
+	 * @see java.awt.image.RasterOp#filter(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	public WritableRaster filter(Raster src, WritableRaster dst)
+	{
+		if (src == null)
+			throw new NullPointerException("src image is null");
+		if (dst == null)
+			dst = this.createCompatibleDestRaster(src);
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		if (src.getNumBands() != dst.getNumBands())
+			throw new ImagingOpException("Different number of bands in src " + " and dst Rasters");
+
+		this.operate(src, dst);
+		return dst;
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#createCompatibleDestRaster(java.awt.image.Raster)
+	 */
+	@Override
+	public WritableRaster createCompatibleDestRaster(Raster src)
+	{
+		return src.createCompatibleWritableRaster();
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#getBounds2D(java.awt.image.Raster)
+	 */
+	@Override
+	public Rectangle2D getBounds2D(Raster src)
+	{
+		return src.getBounds();
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		if (!(src.getColorModel() instanceof IndexColorModel)
+				&& src.getRaster().getNumBands() == dst.getRaster().getNumBands())
+		{
+			this.filter(src.getRaster(), dst.getRaster(), src.getColorModel().hasAlpha());
+			return;
+		}
+		// filter the channels of the packed ARGB pixels
+		BufferedImage in = new BufferedImage(src.getWidth(), src.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+		BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+		FrequencyFilterOp.draw(src, in);
+		this.filter(in.getRaster(), out.getRaster(), true);
+		FrequencyFilterOp.draw(out, dst);
+	}
+
+	/**
+	 * Draw the source image into the destination image.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	private static void draw(BufferedImage src, BufferedImage dst)
+	{
+		Graphics2D g = dst.createGraphics();
+		try
+		{
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(src, 0, 0, null);
+		}
+		finally
+		{
+			g.dispose();
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	protected void operate(Raster src, WritableRaster dst)
+	{
+		this.filter(src, dst, false);
+	}
+
+	/**
+	 * Filter the bands of the source raster.
+	 *
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 * @param alpha if <tt>true</tt>, the last band is the alpha band copied
+	 *            from the source
+	 */
+	private void filter(Raster src, WritableRaster dst, boolean alpha)
+	{
+		int w = Math.min(src.getWidth(), dst.getWidth());
+		int h = Math.min(src.getHeight(), dst.getHeight());
+		int nb = src.getNumBands();
+		int sx = src.getMinX(), sy = src.getMinY();
+		int dx = dst.getMinX(), dy = dst.getMinY();
+		int type = src.getSampleModel().getDataType();
+		boolean integral = type != DataBuffer.TYPE_FLOAT && type != DataBuffer.TYPE_DOUBLE;
+		int bands = alpha ? nb - 1 : nb;
+		if (alpha)
+			dst.setSamples(dx, dy, w, h, nb - 1, src.getSamples(sx, sy, w, h, nb - 1,
+					(double[]) null));
+		if (w == 0 || h == 0 || bands <= 0)
+			return;
+
+		int width = FrequencyFilterOp.pad(w), height = FrequencyFilterOp.pad(h);
+		double[] transfer = this.getTransfer(width, height);
+		// the padded coordinates mirrored into the image
+		int[] columns = FrequencyFilterOp.mirror(w, width);
+		int[] rows = FrequencyFilterOp.mirror(h, height);
+		double[] re = new double[width * height], im = new double[width * height];
+		double[] samples = new double[w * h];
+		for (int b = 0; b < bands; b += 2)
+		{
+			this.load(src, sx, sy, w, h, b, samples, re, width, height, columns, rows);
+			if (b + 1 < bands)
+				this.load(src, sx, sy, w, h, b + 1, samples, im, width, height, columns, rows);
+			else
+				Arrays.fill(im, 0);
+			FFT.transform(re, im, width, height, false);
+			for (int i = 0; i < transfer.length; i++)
+			{
+				re[i] *= transfer[i];
+				im[i] *= transfer[i];
+			}
+			FFT.transform(re, im, width, height, true);
+			this.store(dst, dx, dy, w, h, b, samples, re, width, integral);
+			if (b + 1 < bands)
+				this.store(dst, dx, dy, w, h, b + 1, samples, im, width, integral);
+		}
+	}
+
+	/**
+	 * Returns the image coordinates of the padded coordinates. The padding is
+	 * mirrored from both the ends, so the periodic signal is continuous.
+	 *
+	 * @param length the image length
+	 * @param padded the padded length
+	 * @return the image coordinates
+	 */
+	private static int[] mirror(int length, int padded)
+	{
+		int[] indices = new int[padded];
+		for (int i = 0; i < padded; i++)
+		{
+			int index;
+			if (i < length)
+				index = i;
+			else if (i - length < padded - i)
+				index = 2 * length - 1 - i;
+			else
+				index = padded - 1 - i;
+			indices[i] = Math.max(0, Math.min(length - 1, index));
+		}
+		return indices;
+	}
+
+	/**
+	 * Load a band into the padded buffer.
+	 *
+	 * @param src the source raster
+	 * @param x the X coordinate of the source
+	 * @param y the Y coordinate of the source
+	 * @param w the image width
+	 * @param h the image height
+	 * @param band the band
+	 * @param samples the sample buffer
+	 * @param buffer the padded buffer
+	 * @param width the padded width
+	 * @param height the padded height
+	 * @param columns the image columns of the padded columns
+	 * @param rows the image rows of the padded rows
+	 */
+	private void load(Raster src, int x, int y, int w, int h, int band, double[] samples,
+			double[] buffer, int width, int height, int[] columns, int[] rows)
+	{
+		src.getSamples(x, y, w, h, band, samples);
+		if (this.homomorphic)
+			for (int i = 0; i < samples.length; i++)
+				samples[i] = Math.log1p(Math.max(0, samples[i]));
+		for (int v = 0, i = 0; v < height; v++)
+		{
+			int offset = rows[v] * w;
+			for (int u = 0; u < width; u++)
+				buffer[i++] = samples[offset + columns[u]];
+		}
+	}
+
+	/**
+	 * Store a filtered band from the padded buffer.
+	 *
+	 * @param dst the destination raster
+	 * @param x the X coordinate of the destination
+	 * @param y the Y coordinate of the destination
+	 * @param w the image width
+	 * @param h the image height
+	 * @param band the band
+	 * @param samples the sample buffer
+	 * @param buffer the padded buffer
+	 * @param width the padded width
+	 * @param integral <tt>true</tt> if the samples are integral
+	 */
+	private void store(WritableRaster dst, int x, int y, int w, int h, int band,
+			double[] samples, double[] buffer, int width, boolean integral)
+	{
+		double max = integral ? (1L << dst.getSampleModel().getSampleSize(band)) - 1
+				: Double.MAX_VALUE;
+		for (int v = 0, i = 0; v < h; v++)
+			for (int u = 0, o = v * width; u < w; u++, o++)
+			{
+				double value = this.homomorphic ? Math.expm1(buffer[o]) : buffer[o];
+				if (integral)
+				{
+					value = Math.floor(value + 0.5);
+					value = value < 0 ? 0 : value > max ? max : value;
+				}
+				samples[i++] = value;
+			}
+		dst.setSamples(x, y, w, h, band, samples);
+	}
+
+	/**
+	 * Returns the transfer function.
+	 *
+	 * @return the transfer function
+	 */
+	public ScalableFunction getFunction()
+	{
+		return this.function;
+	}
+
+	/**
+	 * Returns <code>true</code> if the logarithm of the samples is filtered.
+	 *
+	 * @return <code>true</code> if homomorphic
+	 */
+	public boolean isHomomorphic()
+	{
+		return this.homomorphic;
+	}
+}
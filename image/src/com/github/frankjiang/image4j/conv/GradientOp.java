@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * GradientOp.java is PROPRIETARY/CONFIDENTIAL built in 4:05:12 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.conv;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ConvolveOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.ImagingOpException;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Kernel;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+import com.github.frankjiang.image4j.ImagingOp;
+
+/**
+ * The gradient operation evaluating a set of kernels, e.g.
+ * {@linkplain KernelUtils#getSobelKernel()},
+ * {@linkplain KernelUtils#getPrewittKernel()},
+ * {@linkplain KernelUtils#getKirschKernel()} or
+ * {@linkplain KernelUtils#getRobertKernel()}, in a single pass.
+ * <p>
+ * For each sample the neighborhood is read once and the responses of all the
+ * kernels are computed on it, as {@linkplain ConvolveOp} would compute them,
+ * and combined by the reducer:
+ * <ul>
+ * <li>{@linkplain #REDUCE_L1}: the sum of the absolute responses,</li>
+ * <li>{@linkplain #REDUCE_L2}: the square root of the sum of the squared
+ * responses,</li>
+ * <li>{@linkplain #REDUCE_MAX}: the maximum absolute response,</li>
+ * <li>{@linkplain #REDUCE_DIRECTION}: the index of the maximum response, e.g.
+ * the compass direction of the Kirsch kernels.</li>
+ * </ul>
+ * The results are truncated and clamped into the range of the samples.
+ * </p>
+ * <p>
+ * If the orientation is enabled, the raster filter emits the orientation of
+ * band <code>b</code> into the band <code>b + n</code> of the destination,
+ * where <code>n</code> is the number of the source bands. The orientation of
+ * two kernels is the angle <code>atan2(r<sub>1</sub>, r<sub>0</sub>)</code>
+ * of their responses mapped from [0, 2&pi;) to the range of the samples, the
+ * orientation of more kernels is the index of the maximum response. The image
+ * filter cannot hold the extra bands, it emits the reduced color bands only
+ * and keeps the alpha band of the source.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class GradientOp extends ImagingOp implements RasterOp
+{
+	/**
+	 * The reducer of the sum of the absolute responses.
+	 */
+	public static final int	REDUCE_L1			= 0;
+	/**
+	 * The reducer of the Euclidean norm of the responses.
+	 */
+	public static final int	REDUCE_L2			= 1;
+	/**
+	 * The reducer of the maximum absolute response.
+	 */
+	public static final int	REDUCE_MAX			= 2;
+	/**
+	 * The reducer of the index of the maximum response.
+	 */
+	public static final int	REDUCE_DIRECTION	= 3;
+
+	/**
+	 * Pixels at the edge of the destination image are set to zero. This
+	 * is the default.
+	 */
+	public static final int	EDGE_ZERO_FILL		= ConvolveOp.EDGE_ZERO_FILL;
+	/**
+	 * Pixels at the edge of the source image are copied to
+	 * the corresponding pixels in the destination without modification.
+	 */
+	public static final int	EDGE_NO_OP			= ConvolveOp.EDGE_NO_OP;
+
+	/**
+	 * The kernels.
+	 */
+	protected Kernel[]		kernels;
+	/**
+	 * The reducer.
+	 */
+	protected int			reducer;
+	/**
+	 * The edge condition.
+	 */
+	protected int			edgeCondition;
+	/**
+	 * <code>true</code> if the orientation is emitted.
+	 */
+	protected boolean		orientation;
+
+	/**
+	 * The neighbor indices of the non-zero weights of each kernel, in the
+	 * rotated kernel window.
+	 */
+	private final int[][]	indices;
+	/**
+	 * The non-zero weights of each kernel.
+	 */
+	private final float[][]	weights;
+
+	/**
+	 * Construct an instance of <tt>GradientOp</tt> with the edge condition
+	 * {@linkplain #EDGE_ZERO_FILL} and no orientation.
+	 *
+	 * @param reducer the reducer
+	 * @param kernels the kernels of the same size
+	 */
+	public GradientOp(int reducer, Kernel... kernels)
+	{
+		this(reducer, false, GradientOp.EDGE_ZERO_FILL, null, kernels);
+	}
+
+	/**
+	 * Construct an instance of <tt>GradientOp</tt>.
+	 *
+	 * @param reducer the reducer
+	 * @param orientation <code>true</code> if the orientation is emitted
+	 * @param edgeCondition the edge condition
+	 * @param hints the rendering hints, may be <code>null</code>
+	 * @param kernels the kernels of the same size
+	 * @throws IllegalArgumentException if the kernels are absent or of
+	 *             different sizes, or the reducer is unknown
+	 */
+	public GradientOp(int reducer, boolean orientation, int edgeCondition, RenderingHints hints,
+			Kernel... kernels)
+	{
+		if (kernels.length == 0)
+			throw new IllegalArgumentException("The kernels are absent.");
+		if (reducer < GradientOp.REDUCE_L1 || reducer > GradientOp.REDUCE_DIRECTION)
+			throw new IllegalArgumentException("Unknown reducer: " + reducer);
+		for (Kernel kernel : kernels)
+			if (kernel.getWidth() != kernels[0].getWidth()
+					|| kernel.getHeight() != kernels[0].getHeight())
+				throw new IllegalArgumentException("The kernels must be of the same size.");
+		this.reducer = reducer;
+		this.orientation = orientation;
+		this.edgeCondition = edgeCondition;
+		this.hints = hints;
+		this.kernels = kernels;
+		this.indices = new int[kernels.length][];
+		this.weights = new float[kernels.length][];
+		for (int k = 0; k < kernels.length; k++)
+		{
+			float[] data = kernels[k].getKernelData(null);
+			int count = 0;
+			for (float v : data)
+				if (v != 0)
+					count++;
+			this.indices[k] = new int[count];
+			this.weights[k] = new float[count];
+			// rotate the kernel by 180 degrees as ConvolveOp does
+			for (int i = 0, n = 0; i < data.length; i++)
+			{
+				float v = data[data.length - 1 - i];
+				if (v != 0)
+				{
+					this.indices[k][n] = i;
+					this.weights[k][n++] = v;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the gradient of the source image. The source image with an
+	 * {@linkplain IndexColorModel} is expanded before filtered.
+	 *
+	 * @see com.github.frankjiang.image4j.ImagingOp#filter(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 * @throws IllegalArgumentException if <code>src</code> equals
+	 *             <code>dst</code>
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, BufferedImage dst)
+	{
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		if (src != null && src.getColorModel() instanceof IndexColorModel)
+			src = ((IndexColorModel) src.getColorModel()).convertToIntDiscrete(src.getRaster(),
+					false);
+		return super.filter(src, dst);
+	}
+
+	/**
+	 * Returns the gradient of the source raster. The destination holds twice
+	 * the source bands if the orientation is enabled.
+	 *
+	 * @see java.awt.image.RasterOp#filter(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	public WritableRaster filter(Raster src, WritableRaster dst)
+	{
+		if (src == null)
+			throw new NullPointerException("src image is null");
+		if (dst == null)
+			dst = this.createCompatibleDestRaster(src);
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		int bands = src.getNumBands() * (this.orientation ? 2 : 1);
+		if (dst.getNumBands() != bands)
+			throw new ImagingOpException("The dst Raster must have " + bands + " bands");
+
+		this.operate(src, dst, src.getNumBands(), this.orientation);
+		return dst;
+	}
+
+	/**
+	 * Creates a zeroed destination raster of the source samples, with twice
+	 * the source bands if the orientation is enabled.
+	 *
+	 * @see java.awt.image.RasterOp#createCompatibleDestRaster(java.awt.image.Raster)
+	 */
+	@Override
+	public WritableRaster createCompatibleDestRaster(Raster src)
+	{
+		if (!this.orientation)
+			return src.createCompatibleWritableRaster();
+		int type = src.getSampleModel().getDataType();
+		if (type != DataBuffer.TYPE_BYTE && type != DataBuffer.TYPE_USHORT)
+			type = src.getSampleModel().getSampleSize(0) <= 8 ? DataBuffer.TYPE_BYTE
+					: DataBuffer.TYPE_USHORT;
+		return Raster.createInterleavedRaster(type, src.getWidth(), src.getHeight(),
+				src.getNumBands() * 2, null);
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#getBounds2D(java.awt.image.Raster)
+	 */
+	@Override
+	public Rectangle2D getBounds2D(Raster src)
+	{
+		return src.getBounds();
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		ColorModel cm = src.getColorModel();
+		int colors = cm.getNumColorComponents();
+		BufferedImage target = dst;
+		if (src.getRaster().getNumBands() != dst.getRaster().getNumBands())
+			target = this.createCompatibleDestImage(src, null);
+		this.operate(src.getRaster(), target.getRaster(), colors, false);
+		// keep the alpha band of the source
+		if (cm.hasAlpha())
+		{
+			WritableRaster alpha = target.getAlphaRaster();
+			alpha.setRect(src.getAlphaRaster());
+		}
+		if (target != dst)
+		{
+			Graphics2D g = dst.createGraphics();
+			try
+			{
+				g.setComposite(AlphaComposite.Src);
+				g.drawImage(target, 0, 0, null);
+			}
+			finally
+			{
+				g.dispose();
+			}
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	protected void operate(Raster src, WritableRaster dst)
+	{
+		this.operate(src, dst, src.getNumBands(), false);
+	}
+
+	/**
+	 * Filter the first bands of the source raster.
+	 *
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 * @param bands the number of the bands to filter
+	 * @param orientation <code>true</code> if the orientation is emitted into
+	 *            the bands following the filtered bands
+	 */
+	private void operate(Raster src, WritableRaster dst, int bands, boolean orientation)
+	{
+		int w = Math.min(src.getWidth(), dst.getWidth());
+		int h = Math.min(src.getHeight(), dst.getHeight());
+		int nb = src.getNumBands();
+		int db = dst.getNumBands();
+		int kw = this.kernels[0].getWidth();
+		int kh = this.kernels[0].getHeight();
+		int xo = KernelUtils.getXOffset(this.kernels[0]);
+		int yo = KernelUtils.getYOffset(this.kernels[0]);
+		int count = this.kernels.length;
+		float[] max = new float[db];
+		for (int b = 0; b < db; b++)
+		{
+			int size = dst.getSampleModel().getSampleSize(b);
+			max[b] = size >= 31 ? Integer.MAX_VALUE : (1 << size) - 1;
+		}
+
+		// the valid destination region, the kernels are placed at the offsets
+		// as ConvolveOp places them
+		int x0 = xo, x1 = w - xo;
+		int y0 = yo, y1 = h - yo;
+
+		int sx = src.getMinX(), sy = src.getMinY();
+		int dx = dst.getMinX(), dy = dst.getMinY();
+		int[][] rows = new int[kh][w * nb];
+		int[] in = new int[w * nb];
+		int[] out = new int[w * db];
+		int[] window = new int[kw * kh];
+		float[] responses = new float[count];
+		for (int y = 0; y < h; y++)
+		{
+			if (this.edgeCondition == GradientOp.EDGE_NO_OP && db == nb)
+				src.getPixels(sx, sy + y, w, 1, out);
+			else
+				Arrays.fill(out, 0);
+			if (y < y0 || y >= y1 || x0 >= x1)
+			{
+				dst.setPixels(dx, dy + y, w, 1, out);
+				continue;
+			}
+			// load the rows y - yo .. y - yo + kh - 1 into the ring
+			int first = y - yo;
+			for (int j = y == y0 ? 0 : kh - 1; j < kh; j++)
+				src.getPixels(sx, sy + first + j, w, 1, rows[(first + j) % kh]);
+			for (int x = x0; x < x1; x++)
+				for (int b = 0; b < bands; b++)
+				{
+					// read the neighborhood once for all the kernels
+					for (int j = 0, i = 0; j < kh; j++)
+					{
+						int[] row = rows[(first + j) % kh];
+						for (int k = 0, o = (x - xo) * nb + b; k < kw; k++, i++, o += nb)
+							window[i] = row[o];
+					}
+					for (int k = 0; k < count; k++)
+					{
+						int[] index = this.indices[k];
+						float[] weight = this.weights[k];
+						float sum = 0f;
+						for (int i = 0; i < index.length; i++)
+							sum += weight[i] * window[index[i]];
+						responses[k] = sum;
+					}
+					out[x * db + b] = GradientOp.clamp(this.reduce(responses), max[b]);
+					if (orientation)
+						out[x * db + bands + b] = GradientOp.clamp(
+								GradientOp.orient(responses, max[bands + b]), max[bands + b]);
+				}
+			dst.setPixels(dx, dy + y, w, 1, out);
+		}
+	}
+
+	/**
+	 * Reduce the responses of the kernels.
+	 *
+	 * @param responses the responses
+	 * @return the reduced value
+	 */
+	private float reduce(float[] responses)
+	{
+		float value = 0f;
+		switch (this.reducer)
+		{
+		case REDUCE_L1:
+			for (float r : responses)
+				value += Math.abs(r);
+			return value;
+		case REDUCE_L2:
+			for (float r : responses)
+				value += r * r;
+			return (float) Math.sqrt(value);
+		case REDUCE_MAX:
+			for (float r : responses)
+				value = Math.max(value, Math.abs(r));
+			return value;
+		default:
+			return GradientOp.argmax(responses);
+		}
+	}
+
+	/**
+	 * Returns the orientation of the responses.
+	 *
+	 * @param responses the responses
+	 * @param max the maximum sample value
+	 * @return the orientation
+	 */
+	private static float orient(float[] responses, float max)
+	{
+		if (responses.length != 2)
+			return GradientOp.argmax(responses);
+		double angle = Math.atan2(responses[1], responses[0]);
+		if (angle < 0)
+			angle += 2 * Math.PI;
+		return (float) (angle / (2 * Math.PI) * (max + 1));
+	}
+
+	/**
+	 * Returns the index of the maximum response.
+	 *
+	 * @param responses the responses
+	 * @return the index
+	 */
+	private static int argmax(float[] responses)
+	{
+		int index = 0;
+		for (int i = 1; i < responses.length; i++)
+			if (responses[i] > responses[index])
+				index = i;
+		return index;
+	}
+
+	/**
+	 * Truncate and clamp the value into [0, max].
+	 *
+	 * @param value the value
+	 * @param max the maximum sample value
+	 * @return the sample
+	 */
+	private static int clamp(float value, float max)
+	{
+		value = (int) value;
+		return (int) (value < 0 ? 0 : value > max ? max : value);
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return true;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#getHalo()
+	 */
+	@Override
+	protected int getHalo()
+	{
+		return Math.max(this.kernels[0].getWidth(), this.kernels[0].getHeight());
+	}
+
+	/**
+	 * Returns the kernels.
+	 *
+	 * @return the kernels
+	 */
+	public Kernel[] getKernels()
+	{
+		return this.kernels;
+	}
+
+	/**
+	 * Returns the reducer.
+	 *
+	 * @return the reducer
+	 */
+	public int getReducer()
+	{
+		return this.reducer;
+	}
+
+	/**
+	 * Returns the edge condition.
+	 *
+	 * @return the edge condition
+	 */
+	public int getEdgeCondition()
+	{
+		return this.edgeCondition;
+	}
+
+	/**
+	 * Returns <code>true</code> if the orientation is emitted.
+	 *
+	 * @return <code>true</code> if the orientation is emitted
+	 */
+	public boolean isOrientation()
+	{
+		return this.orientation;
+	}
+}
@@ -19,6 +19,11 @@ import java.awt.image.Kernel;
  */
 public class KernelUtils
 {
+	/**
+	 * The relative tolerance of the separable kernels.
+	 */
+	private static final float	SEPARABLE_TOLERANCE	= 1e-5f;
+
 	/**
 	 * The guassian function.
 	 *
@@ -77,6 +82,135 @@ public class KernelUtils
 		return new Kernel(width, height, kernel);
 	}
 
+	/**
+	 * Returns the separated Gaussian kernels with the specified parameters, a
+	 * row kernel and a column kernel whose outer product is the kernel of
+	 * {@linkplain #getGaussianKernel(int, int, float)}.
+	 *
+	 * @param width the width of the kernel
+	 * @param height the height of the kernel
+	 * @param sigma the standard deviation of the kernel, which is usually
+	 *            called the <code>&sigma;</code>
+	 * @return the row kernel and the column kernel
+	 * @see SeparableConvolveOp
+	 */
+	public static Kernel[] getGaussianKernels(int width, int height, float sigma)
+	{
+		if (sigma <= 0 || width <= 0 || height <= 0)
+			throw new IllegalArgumentException("Sigma value, width and height must be possitive.");
+		return new Kernel[] { new Kernel(width, 1, KernelUtils.getGaussian(width, sigma)),
+				new Kernel(1, height, KernelUtils.getGaussian(height, sigma)) };
+	}
+
+	/**
+	 * Returns the normalized 1-D Gaussian kernel data.
+	 *
+	 * @param length the length of the kernel
+	 * @param sigma the standard deviation
+	 * @return the kernel data
+	 */
+	private static float[] getGaussian(int length, float sigma)
+	{
+		float[] kernel = new float[length];
+		float center = (length % 2 != 0 ? length - 1 : length) / 2.0f;
+		float u, summary = 0.0f;
+		for (int x = 0; x < length; x++)
+		{
+			u = center - x;
+			kernel[x] = KernelUtils.gaussian(u * u, sigma);
+			summary += kernel[x];
+		}
+		for (int i = 0; i < kernel.length; i++)
+			kernel[i] /= summary;
+		return kernel;
+	}
+
+	/**
+	 * Returns the horizontal offset of the kernel as {@linkplain
+	 * java.awt.image.ConvolveOp} applies it, i.e. the column of the rotated
+	 * kernel lying on the destination pixel.
+	 * <p>
+	 * The offset is <code>width / 2</code>, which equals
+	 * {@linkplain Kernel#getXOrigin()} for the odd widths but is one more for
+	 * the even ones. The destination columns closer than the offset to either
+	 * edge are the edge pixels.
+	 * </p>
+	 *
+	 * @param kernel the kernel
+	 * @return the horizontal offset
+	 */
+	public static int getXOffset(Kernel kernel)
+	{
+		return kernel.getWidth() / 2;
+	}
+
+	/**
+	 * Returns the vertical offset of the kernel as {@linkplain
+	 * java.awt.image.ConvolveOp} applies it, i.e. <code>height / 2</code>.
+	 *
+	 * @param kernel the kernel
+	 * @return the vertical offset
+	 * @see #getXOffset(Kernel)
+	 */
+	public static int getYOffset(Kernel kernel)
+	{
+		return kernel.getHeight() / 2;
+	}
+
+	/**
+	 * Returns <code>true</code> if the kernel is separable, i.e. of rank 1.
+	 *
+	 * @param kernel the kernel
+	 * @return <code>true</code> if separable
+	 * @see #separate(Kernel)
+	 */
+	public static boolean isSeparable(Kernel kernel)
+	{
+		return KernelUtils.separate(kernel) != null;
+	}
+
+	/**
+	 * Separate the rank 1 kernel into a row kernel and a column kernel whose
+	 * outer product equals the kernel within the float precision.
+	 * <p>
+	 * The row kernel is the row through the element of the largest magnitude,
+	 * the column kernel is the column through it divided by the element. The
+	 * kernel is separable if every element equals the product of its column
+	 * factor and its row factor within a relative tolerance of the largest
+	 * magnitude, e.g. the Gaussian, the box and the Sobel or Prewitt kernels.
+	 * </p>
+	 *
+	 * @param kernel the kernel
+	 * @return the row kernel and the column kernel, <code>null</code> if the
+	 *         kernel is not separable
+	 * @see SeparableConvolveOp
+	 */
+	public static Kernel[] separate(Kernel kernel)
+	{
+		int width = kernel.getWidth();
+		int height = kernel.getHeight();
+		float[] data = kernel.getKernelData(null);
+		int pivot = 0;
+		for (int i = 1; i < data.length; i++)
+			if (Math.abs(data[i]) > Math.abs(data[pivot]))
+				pivot = i;
+		float scale = data[pivot];
+		if (scale == 0)
+			return null;
+		int px = pivot % width, py = pivot / width;
+		float[] row = new float[width];
+		float[] column = new float[height];
+		System.arraycopy(data, py * width, row, 0, width);
+		for (int y = 0; y < height; y++)
+			column[y] = data[y * width + px] / scale;
+		float tolerance = Math.abs(scale) * KernelUtils.SEPARABLE_TOLERANCE;
+		for (int y = 0, i = 0; y < height; y++)
+			for (int x = 0; x < width; x++, i++)
+				if (Math.abs(data[i] - column[y] * row[x]) > tolerance)
+					return null;
+		return new Kernel[] { new Kernel(width, 1, row), new Kernel(1, height, column) };
+	}
+
 	/**
 	 * Returns a harmonic mean kernel in type 16.
 	 * <table>
@@ -511,7 +645,7 @@ public class KernelUtils
 	public static Kernel[] getPrewittKernel()
 	{
 		return new Kernel[] { KernelUtils.getSingleKernel(3, 3, -1, 0, 1, -1, 0, 1, -1, 0, 1),
-				KernelUtils.getSingleKernel(3, 3, 1, 1, 1, 0, 0, 0, -1, -1 - 1) };
+				KernelUtils.getSingleKernel(3, 3, 1, 1, 1, 0, 0, 0, -1, -1, -1) };
 	}
 
 	/**
@@ -231,9 +231,16 @@ public class MultiKernelConvolveOp implements BufferedImageOp, RasterOp
 
 		if (ImagingLib.filter(this.ops[0], src, dst) == null)
 			throw new ImagingOpException("Unable to convolve src image");
+		// the intermediate result is reused for each of the following kernels
+		BufferedImage tmp = null;
 		for (int i = 1; i < this.kernels.length; i++)
-			if ((dst = ImagingLib.filter(this.ops[i], dst, null)) == null)
+		{
+			if (tmp == null)
+				tmp = this.createCompatibleDestImage(dst, null);
+			tmp.getRaster().setRect(dst.getRaster());
+			if (ImagingLib.filter(this.ops[i], tmp, dst) == null)
 				throw new ImagingOpException("Unable to convolve src image");
+		}
 
 		if (needToConvert)
 		{
@@ -286,8 +293,17 @@ public class MultiKernelConvolveOp implements BufferedImageOp, RasterOp
 		else if (src.getNumBands() != dst.getNumBands())
 			throw new ImagingOpException("Different number of bands in src " + " and dst Rasters");
 
-		if (ImagingLib.filter(this, src, dst) == null)
+		if (ImagingLib.filter(this.ops[0], src, dst) == null)
 			throw new ImagingOpException("Unable to convolve src image");
+		WritableRaster tmp = null;
+		for (int i = 1; i < this.ops.length; i++)
+		{
+			if (tmp == null)
+				tmp = dst.createCompatibleWritableRaster();
+			tmp.setRect(dst);
+			if (ImagingLib.filter(this.ops[i], tmp, dst) == null)
+				throw new ImagingOpException("Unable to convolve src image");
+		}
 
 		return dst;
 	}
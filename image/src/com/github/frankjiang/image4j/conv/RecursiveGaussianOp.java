@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RecursiveGaussianOp.java is PROPRIETARY/CONFIDENTIAL built in 5:02:44 AM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.conv;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.ImagingOpException;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.WritableRaster;
+
+import com.github.frankjiang.image4j.ImagingOp;
+
+/**
+ * The recursive Gaussian blur operation.
+ * <p>
+ * The Gaussian is approximated by the third-order recursive filter of Young
+ * and van Vliet, applied forward and backward along the rows and then along
+ * the columns. So the cost per sample is constant at any &sigma;, which makes
+ * the large blurs, e.g. &sigma; of 40 for the illumination estimation,
+ * affordable where the kernels of
+ * {@linkplain KernelUtils#getGaussianKernel(int, float)} are not. The
+ * approximation is accurate for &sigma; not less than 0.5.
+ * </p>
+ * <p>
+ * Each band is filtered independently, including the alpha band, which is
+ * the per-channel blur of the packed ARGB images. The results are rounded to
+ * the nearest integer. The samples beyond the edges are either the edge
+ * samples ({@linkplain #BOUNDARY_CLAMP}) or zero ({@linkplain #BOUNDARY_ZERO}
+ * ).
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class RecursiveGaussianOp extends ImagingOp implements RasterOp
+{
+	/**
+	 * The samples beyond the edges repeat the edge samples. This is the
+	 * default.
+	 */
+	public static final int	BOUNDARY_CLAMP	= 0;
+	/**
+	 * The samples beyond the edges are zero.
+	 */
+	public static final int	BOUNDARY_ZERO	= 1;
+
+	/**
+	 * The standard deviation.
+	 */
+	protected float			sigma;
+	/**
+	 * The boundary condition.
+	 */
+	protected int			boundary;
+
+	/**
+	 * The normalized gain of the input.
+	 */
+	private final float		b;
+	/**
+	 * The normalized feedback coefficients.
+	 */
+	private final float		b1, b2, b3;
+
+	/**
+	 * Construct an instance of <tt>RecursiveGaussianOp</tt> with the boundary
+	 * condition {@linkplain #BOUNDARY_CLAMP}.
+	 *
+	 * @param sigma the standard deviation, which is usually called the
+	 *            <code>&sigma;</code>
+	 */
+	public RecursiveGaussianOp(float sigma)
+	{
+		this(sigma, RecursiveGaussianOp.BOUNDARY_CLAMP, null);
+	}
+
+	/**
+	 * Construct an instance of <tt>RecursiveGaussianOp</tt>.
+	 *
+	 * @param sigma the standard deviation, which is usually called the
+	 *            <code>&sigma;</code>
+	 * @param boundary the boundary condition
+	 * @param hints the rendering hints, may be <code>null</code>
+	 * @throws IllegalArgumentException if sigma is less than 0.5 or the
+	 *             boundary condition is unknown
+	 */
+	public RecursiveGaussianOp(float sigma, int boundary, RenderingHints hints)
+	{
+		if (!(sigma >= 0.5f))
+			throw new IllegalArgumentException("Sigma value must not be less than 0.5: " + sigma);
+		if (boundary != RecursiveGaussianOp.BOUNDARY_CLAMP
+				&& boundary != RecursiveGaussianOp.BOUNDARY_ZERO)
+			throw new IllegalArgumentException("Unknown boundary condition: " + boundary);
+		this.sigma = sigma;
+		this.boundary = boundary;
+		this.hints = hints;
+		// Young & van Vliet, Recursive implementation of the Gaussian filter, 1995
+		double q = sigma >= 2.5 ? 0.98711 * sigma - 0.96330
+				: 3.97156 - 4.14554 * Math.sqrt(1 - 0.26891 * sigma);
+		double q2 = q * q, q3 = q2 * q;
+		double b0 = 1.57825 + 2.44413 * q + 1.4281 * q2 + 0.422205 * q3;
+		double b1 = 2.44413 * q + 2.85619 * q2 + 1.26661 * q3;
+		double b2 = -(1.4281 * q2 + 1.26661 * q3);
+		double b3 = 0.422205 * q3;
+		this.b1 = (float) (b1 / b0);
+		this.b2 = (float) (b2 / b0);
+		this.b3 = (float) (b3 / b0);
+		this.b = 1 - this.b1 - this.b2 - this.b3;
+	}
+
+	/**
+	 * Returns the blurred source image. The images with an
+	 * {@linkplain IndexColorModel} or of different layouts are filtered in
+	 * packed ARGB.
+	 *
+	 * @see com.github.frankjiang.image4j.ImagingOp#filter(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, BufferedImage dst)
+	{
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		return super.filter(src, dst);
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#filter(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	public WritableRaster filter(Raster src, WritableRaster dst)
+	{
+		if (src == null)
+			throw new NullPointerException("src image is null");
+		if (dst == null)
+			dst = this.createCompatibleDestRaster(src);
+		if (src.getNumBands() != dst.getNumBands())
+			throw new ImagingOpException("Different number of bands in src " + " and dst Rasters");
+
+		this.operate(src, dst);
+		return dst;
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#createCompatibleDestRaster(java.awt.image.Raster)
+	 */
+	@Override
+	public WritableRaster createCompatibleDestRaster(Raster src)
+	{
+		return src.createCompatibleWritableRaster();
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#getBounds2D(java.awt.image.Raster)
+	 */
+	@Override
+	public Rectangle2D getBounds2D(Raster src)
+	{
+		return src.getBounds();
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		if (!(src.getColorModel() instanceof IndexColorModel)
+				&& src.getRaster().getNumBands() == dst.getRaster().getNumBands())
+		{
+			this.operate(src.getRaster(), dst.getRaster());
+			return;
+		}
+		// filter the channels of the packed ARGB pixels
+		BufferedImage in = new BufferedImage(src.getWidth(), src.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+		BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(),
+				BufferedImage.TYPE_INT_ARGB);
+		RecursiveGaussianOp.draw(src, in);
+		this.operate(in.getRaster(), out.getRaster());
+		RecursiveGaussianOp.draw(out, dst);
+	}
+
+	/**
+	 * Draw the source image into the destination image.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	private static void draw(BufferedImage src, BufferedImage dst)
+	{
+		Graphics2D g = dst.createGraphics();
+		try
+		{
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(src, 0, 0, null);
+		}
+		finally
+		{
+			g.dispose();
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	protected void operate(Raster src, WritableRaster dst)
+	{
+		int w = Math.min(src.getWidth(), dst.getWidth());
+		int h = Math.min(src.getHeight(), dst.getHeight());
+		int nb = src.getNumBands();
+		int type = src.getSampleModel().getDataType();
+		boolean integral = type != DataBuffer.TYPE_FLOAT && type != DataBuffer.TYPE_DOUBLE;
+		int stride = w * nb;
+		float[] data = src.getPixels(src.getMinX(), src.getMinY(), w, h, new float[stride * h]);
+
+		// filter the rows
+		for (int y = 0; y < h; y++)
+			for (int b = 0; b < nb; b++)
+				this.filter(data, y * stride + b, w, nb);
+		// filter the columns row by row, all the columns at once
+		this.filterColumns(data, stride, h);
+
+		float[] max = new float[nb];
+		for (int b = 0; b < nb; b++)
+		{
+			int size = dst.getSampleModel().getSampleSize(b);
+			max[b] = size >= 31 ? Integer.MAX_VALUE : (1 << size) - 1;
+		}
+		if (integral)
+			for (int i = 0; i < data.length; i++)
+			{
+				float v = (float) Math.floor(data[i] + 0.5f);
+				float m = max[i % nb];
+				data[i] = v < 0 ? 0 : v > m ? m : v;
+			}
+		dst.setPixels(dst.getMinX(), dst.getMinY(), w, h, data);
+	}
+
+	/**
+	 * Filter a sequence forward and backward in place.
+	 *
+	 * @param data the data
+	 * @param offset the offset of the first element
+	 * @param length the number of the elements
+	 * @param step the distance between the elements
+	 */
+	private void filter(float[] data, int offset, int length, int step)
+	{
+		if (length == 0)
+			return;
+		float first = data[offset], last = data[offset + (length - 1) * step];
+		float w1, w2, w3;
+		w1 = w2 = w3 = this.boundary == RecursiveGaussianOp.BOUNDARY_CLAMP ? first : 0f;
+		for (int i = 0, o = offset; i < length; i++, o += step)
+		{
+			float v = this.b * data[o] + this.b1 * w1 + this.b2 * w2 + this.b3 * w3;
+			data[o] = v;
+			w3 = w2;
+			w2 = w1;
+			w1 = v;
+		}
+		w1 = w2 = w3 = this.boundary == RecursiveGaussianOp.BOUNDARY_CLAMP ? last : 0f;
+		for (int i = length - 1, o = offset + i * step; i >= 0; i--, o -= step)
+		{
+			float v = this.b * data[o] + this.b1 * w1 + this.b2 * w2 + this.b3 * w3;
+			data[o] = v;
+			w3 = w2;
+			w2 = w1;
+			w1 = v;
+		}
+	}
+
+	/**
+	 * Filter the columns forward and backward in place, one row of all the
+	 * columns at a time.
+	 *
+	 * @param data the data
+	 * @param stride the row length
+	 * @param height the number of the rows
+	 */
+	private void filterColumns(float[] data, int stride, int height)
+	{
+		if (height == 0)
+			return;
+		boolean clamp = this.boundary == RecursiveGaussianOp.BOUNDARY_CLAMP;
+		// the first and the last source rows are kept for the boundaries
+		float[] first = new float[stride], last = new float[stride];
+		if (clamp)
+		{
+			System.arraycopy(data, 0, first, 0, stride);
+			System.arraycopy(data, (height - 1) * stride, last, 0, stride);
+		}
+		// the forward pass
+		for (int y = 0; y < height; y++)
+		{
+			int o = y * stride;
+			int o1 = y >= 1 ? o - stride : -1;
+			int o2 = y >= 2 ? o - 2 * stride : -1;
+			int o3 = y >= 3 ? o - 3 * stride : -1;
+			for (int i = 0; i < stride; i++)
+			{
+				float w1 = o1 < 0 ? first[i] : data[o1 + i];
+				float w2 = o2 < 0 ? first[i] : data[o2 + i];
+				float w3 = o3 < 0 ? first[i] : data[o3 + i];
+				data[o + i] = this.b * data[o + i] + this.b1 * w1 + this.b2 * w2 + this.b3 * w3;
+			}
+		}
+		// the backward pass
+		for (int y = height - 1; y >= 0; y--)
+		{
+			int o = y * stride;
+			int o1 = y + 1 < height ? o + stride : -1;
+			int o2 = y + 2 < height ? o + 2 * stride : -1;
+			int o3 = y + 3 < height ? o + 3 * stride : -1;
+			for (int i = 0; i < stride; i++)
+			{
+				float w1 = o1 < 0 ? last[i] : data[o1 + i];
+				float w2 = o2 < 0 ? last[i] : data[o2 + i];
+				float w3 = o3 < 0 ? last[i] : data[o3 + i];
+				data[o + i] = this.b * data[o + i] + this.b1 * w1 + this.b2 * w2 + this.b3 * w3;
+			}
+		}
+	}
+
+	/**
+	 * Returns the standard deviation.
+	 *
+	 * @return the standard deviation
+	 */
+	public float getSigma()
+	{
+		return this.sigma;
+	}
+
+	/**
+	 * Returns the boundary condition.
+	 *
+	 * @return the boundary condition
+	 * @see #BOUNDARY_CLAMP
+	 * @see #BOUNDARY_ZERO
+	 */
+	public int getBoundary()
+	{
+		return this.boundary;
+	}
+}
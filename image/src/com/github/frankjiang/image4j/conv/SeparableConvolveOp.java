@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * SeparableConvolveOp.java is PROPRIETARY/CONFIDENTIAL built in 3:12:26 AM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.conv;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.ImagingOpException;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Kernel;
+import java.awt.image.Raster;
+import java.awt.image.RasterOp;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+import com.github.frankjiang.image4j.ImagingOp;
+
+/**
+ * The separable convolve operation.
+ * <p>
+ * The 2-D kernel is given as the outer product of a row kernel and a column
+ * kernel, the source is convolved with the row kernel and then with the column
+ * kernel, so that a <code>w&times;h</code> kernel costs <code>w + h</code>
+ * multiply-accumulates per sample instead of <code>w&times;h</code>. The
+ * horizontally convolved rows are kept in a ring of <code>h</code> rows, the
+ * intermediate image is never allocated.
+ * </p>
+ * <p>
+ * The result equals the one of {@linkplain ConvolveOp} with the kernel
+ * <code>column<sup>T</sup>&times;row</code> up to the float rounding: each
+ * band is convolved including the alpha band, the results are truncated and
+ * clamped into the range of the samples, the kernels are placed at the
+ * offsets of {@linkplain KernelUtils#getXOffset(Kernel)} for the even sizes
+ * too, and the edge pixels are zero filled or copied from the source
+ * according to the edge condition.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ * @see KernelUtils#separate(Kernel)
+ */
+public class SeparableConvolveOp extends ImagingOp implements RasterOp
+{
+	/**
+	 * Pixels at the edge of the destination image are set to zero. This
+	 * is the default.
+	 */
+	public static final int	EDGE_ZERO_FILL	= ConvolveOp.EDGE_ZERO_FILL;
+	/**
+	 * Pixels at the edge of the source image are copied to
+	 * the corresponding pixels in the destination without modification.
+	 */
+	public static final int	EDGE_NO_OP		= ConvolveOp.EDGE_NO_OP;
+
+	/**
+	 * The row kernel, whose height is 1.
+	 */
+	protected Kernel		rowKernel;
+	/**
+	 * The column kernel, whose width is 1.
+	 */
+	protected Kernel		columnKernel;
+	/**
+	 * The edge condition.
+	 */
+	protected int			edgeCondition;
+
+	/**
+	 * Construct an instance of <tt>SeparableConvolveOp</tt> with the edge
+	 * condition {@linkplain #EDGE_ZERO_FILL}.
+	 *
+	 * @param rowKernel the row kernel, whose height must be 1
+	 * @param columnKernel the column kernel, whose width must be 1
+	 */
+	public SeparableConvolveOp(Kernel rowKernel, Kernel columnKernel)
+	{
+		this(rowKernel, columnKernel, SeparableConvolveOp.EDGE_ZERO_FILL, null);
+	}
+
+	/**
+	 * Construct an instance of <tt>SeparableConvolveOp</tt>.
+	 *
+	 * @param rowKernel the row kernel, whose height must be 1
+	 * @param columnKernel the column kernel, whose width must be 1
+	 * @param edgeCondition the edge condition
+	 * @param hints the rendering hints, may be <code>null</code>
+	 * @throws IllegalArgumentException if the row kernel is not a single row or
+	 *             the column kernel is not a single column
+	 */
+	public SeparableConvolveOp(Kernel rowKernel, Kernel columnKernel, int edgeCondition,
+			RenderingHints hints)
+	{
+		if (rowKernel.getHeight() != 1)
+			throw new IllegalArgumentException(
+					"The height of the row kernel must be 1: " + rowKernel.getHeight());
+		if (columnKernel.getWidth() != 1)
+			throw new IllegalArgumentException(
+					"The width of the column kernel must be 1: " + columnKernel.getWidth());
+		this.rowKernel = rowKernel;
+		this.columnKernel = columnKernel;
+		this.edgeCondition = edgeCondition;
+		this.hints = hints;
+	}
+
+	/**
+	 * Construct an instance of <tt>SeparableConvolveOp</tt> with the separated
+	 * 2-D kernel.
+	 *
+	 * @param kernel the separable 2-D kernel
+	 * @param edgeCondition the edge condition
+	 * @param hints the rendering hints, may be <code>null</code>
+	 * @throws IllegalArgumentException if the kernel is not separable
+	 * @see KernelUtils#separate(Kernel)
+	 */
+	public SeparableConvolveOp(Kernel kernel, int edgeCondition, RenderingHints hints)
+	{
+		this(SeparableConvolveOp.separate(kernel), edgeCondition, hints);
+	}
+
+	/**
+	 * Construct an instance of <tt>SeparableConvolveOp</tt>.
+	 *
+	 * @param kernels the row kernel and the column kernel
+	 * @param edgeCondition the edge condition
+	 * @param hints the rendering hints
+	 */
+	private SeparableConvolveOp(Kernel[] kernels, int edgeCondition, RenderingHints hints)
+	{
+		this(kernels[0], kernels[1], edgeCondition, hints);
+	}
+
+	/**
+	 * Separate the kernel.
+	 *
+	 * @param kernel the kernel
+	 * @return the row kernel and the column kernel
+	 * @throws IllegalArgumentException if the kernel is not separable
+	 */
+	private static Kernel[] separate(Kernel kernel)
+	{
+		Kernel[] kernels = KernelUtils.separate(kernel);
+		if (kernels == null)
+			throw new IllegalArgumentException("The kernel is not separable.");
+		return kernels;
+	}
+
+	/**
+	 * Convolves the source image. The source image with an
+	 * {@linkplain IndexColorModel} is expanded before convolved.
+	 *
+	 * @see com.github.frankjiang.image4j.ImagingOp#filter(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 * @throws IllegalArgumentException if <code>src</code> equals
+	 *             <code>dst</code>
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, BufferedImage dst)
+	{
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		if (src != null && src.getColorModel() instanceof IndexColorModel)
+			src = ((IndexColorModel) src.getColorModel()).convertToIntDiscrete(src.getRaster(),
+					false);
+		return super.filter(src, dst);
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#filter(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	public WritableRaster filter(Raster src, WritableRaster dst)
+	{
+		if (src == null)
+			throw new NullPointerException("src image is null");
+		if (dst == null)
+			dst = this.createCompatibleDestRaster(src);
+		if (src == dst)
+			throw new IllegalArgumentException(
+					"src image cannot be the " + "same as the dst image");
+		if (src.getNumBands() != dst.getNumBands())
+			throw new ImagingOpException("Different number of bands in src " + " and dst Rasters");
+
+		this.operate(src, dst);
+		return dst;
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#createCompatibleDestRaster(java.awt.image.Raster)
+	 */
+	@Override
+	public WritableRaster createCompatibleDestRaster(Raster src)
+	{
+		return src.createCompatibleWritableRaster();
+	}
+
+	/**
+	 * @see java.awt.image.RasterOp#getBounds2D(java.awt.image.Raster)
+	 */
+	@Override
+	public Rectangle2D getBounds2D(Raster src)
+	{
+		return src.getBounds();
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		if (src.getRaster().getNumBands() == dst.getRaster().getNumBands())
+		{
+			this.operate(src.getRaster(), dst.getRaster());
+			return;
+		}
+		// convolve in the source layout, and convert into the destination
+		BufferedImage tmp = this.createCompatibleDestImage(src, null);
+		this.operate(src.getRaster(), tmp.getRaster());
+		Graphics2D g = dst.createGraphics();
+		try
+		{
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(tmp, 0, 0, null);
+		}
+		finally
+		{
+			g.dispose();
+		}
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.Raster,
+	 *      java.awt.image.WritableRaster)
+	 */
+	@Override
+	protected void operate(Raster src, WritableRaster dst)
+	{
+		int w = Math.min(src.getWidth(), dst.getWidth());
+		int h = Math.min(src.getHeight(), dst.getHeight());
+		int nb = src.getNumBands();
+		int kw = this.rowKernel.getWidth();
+		int kh = this.columnKernel.getHeight();
+		int xo = KernelUtils.getXOffset(this.rowKernel);
+		int yo = KernelUtils.getYOffset(this.columnKernel);
+		// rotate the kernels by 180 degrees as ConvolveOp does
+		float[] kr = SeparableConvolveOp.reverse(this.rowKernel.getKernelData(null));
+		float[] kc = SeparableConvolveOp.reverse(this.columnKernel.getKernelData(null));
+		int type = src.getSampleModel().getDataType();
+		boolean integral = type != DataBuffer.TYPE_FLOAT && type != DataBuffer.TYPE_DOUBLE;
+		float[] max = new float[nb];
+		for (int b = 0; b < nb; b++)
+		{
+			int size = src.getSampleModel().getSampleSize(b);
+			max[b] = size >= 31 ? Integer.MAX_VALUE : (1 << size) - 1;
+		}
+
+		// the valid destination region
+		int x0 = xo, x1 = w - xo;
+		int y0 = yo, y1 = h - yo;
+		int start = Math.max(0, x0) * nb, end = Math.min(w, x1) * nb;
+
+		int sx = src.getMinX(), sy = src.getMinY();
+		int dx = dst.getMinX(), dy = dst.getMinY();
+		int[] ints = integral ? new int[w * nb] : null;
+		float[] in = new float[w * nb];
+		float[] out = new float[w * nb];
+		float[][] rows = new float[kh][w * nb];
+		for (int y = 0; y < h; y++)
+		{
+			if (y < y0 || y >= y1 || start >= end)
+			{
+				if (this.edgeCondition == SeparableConvolveOp.EDGE_NO_OP)
+					SeparableConvolveOp.copy(src, sx, sy + y, dst, dx, dy + y, w, ints, in);
+				else
+				{
+					Arrays.fill(out, 0f);
+					dst.setPixels(dx, dy + y, w, 1, out);
+				}
+				continue;
+			}
+			// convolve the rows y - yo .. y - yo + kh - 1 horizontally into the ring
+			int first = y - yo;
+			for (int j = y == y0 ? 0 : kh - 1; j < kh; j++)
+			{
+				int r = first + j;
+				SeparableConvolveOp.load(src, sx, sy + r, w, ints, in);
+				float[] row = rows[r % kh];
+				for (int i = start, s = start - xo * nb; i < end; i++, s++)
+				{
+					float sum = 0f;
+					for (int k = 0, o = s; k < kw; k++, o += nb)
+						sum += kr[k] * in[o];
+					row[i] = sum;
+				}
+			}
+			if (this.edgeCondition == SeparableConvolveOp.EDGE_NO_OP)
+				SeparableConvolveOp.load(src, sx, sy + y, w, ints, out);
+			else
+				Arrays.fill(out, 0f);
+			// convolve the ring vertically
+			for (int i = start, b = start % nb; i < end; i++, b = b + 1 == nb ? 0 : b + 1)
+			{
+				float sum = 0f;
+				for (int k = 0; k < kh; k++)
+					sum += kc[k] * rows[(first + k) % kh][i];
+				if (integral)
+				{
+					sum = (int) sum;
+					out[i] = sum < 0 ? 0 : sum > max[b] ? max[b] : sum;
+				}
+				else
+					out[i] = sum;
+			}
+			dst.setPixels(dx, dy + y, w, 1, out);
+		}
+	}
+
+	/**
+	 * Load a source row into the float buffer.
+	 *
+	 * @param src the source raster
+	 * @param x the X coordinate of the row
+	 * @param y the Y coordinate of the row
+	 * @param w the row width
+	 * @param ints the integral buffer, <code>null</code> if the samples are
+	 *            not integral
+	 * @param row the float buffer
+	 */
+	private static void load(Raster src, int x, int y, int w, int[] ints, float[] row)
+	{
+		if (ints == null)
+			src.getPixels(x, y, w, 1, row);
+		else
+		{
+			src.getPixels(x, y, w, 1, ints);
+			for (int i = 0; i < ints.length; i++)
+				row[i] = ints[i];
+		}
+	}
+
+	/**
+	 * Copy a source row to the destination.
+	 *
+	 * @param src the source raster
+	 * @param sx the X coordinate of the source row
+	 * @param sy the Y coordinate of the source row
+	 * @param dst the destination raster
+	 * @param dx the X coordinate of the destination row
+	 * @param dy the Y coordinate of the destination row
+	 * @param w the row width
+	 * @param ints the integral buffer, <code>null</code> if the samples are
+	 *            not integral
+	 * @param row the float buffer
+	 */
+	private static void copy(Raster src, int sx, int sy, WritableRaster dst, int dx, int dy,
+			int w, int[] ints, float[] row)
+	{
+		if (ints == null)
+			dst.setPixels(dx, dy, w, 1, src.getPixels(sx, sy, w, 1, row));
+		else
+			dst.setPixels(dx, dy, w, 1, src.getPixels(sx, sy, w, 1, ints));
+	}
+
+	/**
+	 * Returns the reversed copy of the array.
+	 *
+	 * @param data the array
+	 * @return the reversed array
+	 */
+	private static float[] reverse(float[] data)
+	{
+		float[] reversed = new float[data.length];
+		for (int i = 0; i < data.length; i++)
+			reversed[i] = data[data.length - 1 - i];
+		return reversed;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return true;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#getHalo()
+	 */
+	@Override
+	protected int getHalo()
+	{
+		return Math.max(this.rowKernel.getWidth(), this.columnKernel.getHeight());
+	}
+
+	/**
+	 * Returns the edge condition.
+	 *
+	 * @return the edge condition
+	 * @see #EDGE_NO_OP
+	 * @see #EDGE_ZERO_FILL
+	 */
+	public int getEdgeCondition()
+	{
+		return this.edgeCondition;
+	}
+
+	/**
+	 * Returns the row kernel.
+	 *
+	 * @return the row kernel
+	 */
+	public Kernel getRowKernel()
+	{
+		return this.rowKernel;
+	}
+
+	/**
+	 * Returns the column kernel.
+	 *
+	 * @return the column kernel
+	 */
+	public Kernel getColumnKernel()
+	{
+		return this.columnKernel;
+	}
+
+	/**
+	 * Returns the equivalent 2-D kernel.
+	 *
+	 * @return the 2-D kernel
+	 */
+	public Kernel getKernel()
+	{
+		float[] row = this.rowKernel.getKernelData(null);
+		float[] column = this.columnKernel.getKernelData(null);
+		float[] data = new float[row.length * column.length];
+		for (int j = 0, i = 0; j < column.length; j++)
+			for (int k = 0; k < row.length; k++, i++)
+				data[i] = column[j] * row[k];
+		return new Kernel(row.length, column.length, data);
+	}
+}
@@ -8,15 +8,14 @@
 package com.github.frankjiang.image4j.effect;
 
 import java.awt.Color;
-import java.awt.Point;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
 import java.awt.image.ImagingOpException;
-import java.awt.image.WritableRaster;
-import java.util.ArrayList;
-import java.util.Collections;
 
 import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.RowOp;
+import com.github.frankjiang.image4j.RowPipeline;
+import com.github.frankjiang.image4j.StreamableOp;
+import com.github.frankjiang.image4j.morph.ColorMorphOp;
 import com.github.frankjiang.image4j.morph.MorphKernel;
 
 /**
@@ -27,7 +26,7 @@ import com.github.frankjiang.image4j.morph.MorphKernel;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class ContourOp extends ImagingOp
+public class ContourOp extends ImagingOp implements StreamableOp
 {
 	protected Color			color;
 
@@ -46,61 +45,74 @@ public class ContourOp extends ImagingOp
 	@Override
 	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
 	{
-		int width = src.getWidth();
-		int height = src.getHeight();
-		int[][] alpha = new int[height][width];
-		int[][] red = new int[height][width];
-		int[][] green = new int[height][width];
-		int[][] blue = new int[height][width];
-		// Ehance the full sRGB color space
-		ColorModel model = src.getColorModel();
-		WritableRaster raster = src.isAlphaPremultiplied() ? src.getAlphaRaster() : src.getRaster();
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
+		new RowPipeline(src.getWidth(), src.getHeight()).add(this.getRowOps()).run(src, dst);
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.StreamableOp#getRowOps()
+	 */
+	@Override
+	public RowOp[] getRowOps()
+	{
+		// the maximum of the neighbors by the runs of the kernel
+		RowOp dilate = new ColorMorphOp(this.kernel, ColorMorphOp.TYPE_DILATE).getRowOps()[0];
+		return new RowOp[] { ContourOp.paint(dilate, this.color.getRGB() & 0x00ffffff) };
+	}
+
+	/**
+	 * Returns the row operation painting the transparent pixels of the dilated
+	 * rows with the contour color.
+	 *
+	 * @param dilate the dilation
+	 * @param rgb the packed RGB value of the contour color
+	 * @return the row operation
+	 */
+	private static RowOp paint(final RowOp dilate, final int rgb)
+	{
+		return new RowOp()
+		{
+			@Override
+			public int getHalo()
+			{
+				return dilate.getHalo();
+			}
+
+			@Override
+			public void filterRow(int[][] rows, int y, int width, int[] out)
 			{
-				Object pixel = raster.getDataElements(x, y, null);
-				alpha[y][x] = model.getAlpha(pixel);
-				red[y][x] = model.getRed(pixel);
-				green[y][x] = model.getGreen(pixel);
-				blue[y][x] = model.getBlue(pixel);
+				dilate.filterRow(rows, y, width, out);
+				int[] center = rows[dilate.getHalo()];
+				for (int x = 0; x < width; x++)
+					if ((center[x] >>> 24) == 0)
+						out[x] = out[x] & 0xff000000 | rgb;
 			}
-		int[][][] data = { alpha, red, green, blue };
-		Point[] offsets = this.kernel.getOffsets();
-		ArrayList<Integer>[] lists = new ArrayList[data.length];
-		for (int i = 0; i < lists.length; i++)
-			lists[i] = new ArrayList<>(offsets.length);
-		int px, py;
-		int a, r, g, b;
-		// float pInner, pOuter;
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
+
+			@Override
+			public RowOp open(int width)
 			{
-				for (ArrayList<Integer> list : lists)
-					list.clear();
-				for (Point p : offsets)
-				{
-					px = p.x + x;
-					if (px < 0 || px >= width)
-						continue;
-					py = p.y + y;
-					if (py < 0 || py >= height)
-						continue;
-					for (int z = 0; z < lists.length; z++)
-						lists[z].add(data[z][py][px]);
-				}
-				a = Collections.max(lists[0]);
-				if (alpha[y][x] != 0)
-				{
-					r = Collections.max(lists[1]);
-					g = Collections.max(lists[2]);
-					b = Collections.max(lists[3]);
-					dst.setRGB(x, y, a << 24 | r << 16 | g << 8 | b);
-				}
-				else
-					dst.setRGB(x, y, (a << 24) | (color.getRGB() & 0x00ffffff));
+				return ContourOp.paint(dilate.open(width), rgb);
 			}
+		};
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return true;
 	}
-	
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#getHalo()
+	 */
+	@Override
+	protected int getHalo()
+	{
+		return this.kernel.getExtent();
+	}
+
 	/**
 	 * Returns color.
 	 * @return the color
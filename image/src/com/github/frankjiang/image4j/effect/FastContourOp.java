@@ -10,12 +10,11 @@ package com.github.frankjiang.image4j.effect;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Point;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
 import java.awt.image.ImagingOpException;
-import java.awt.image.WritableRaster;
 
+import com.github.frankjiang.image4j.PixelAccessor;
+import com.github.frankjiang.image4j.RowOp;
 import com.github.frankjiang.image4j.morph.MorphKernel;
 
 /**
@@ -44,37 +43,101 @@ public class FastContourOp extends ContourOp
 		int width = src.getWidth();
 		int height = src.getHeight();
 		// Ehance the full sRGB color space
-		ColorModel model = src.getColorModel();
-		WritableRaster raster = src.getRaster();
 		Graphics2D g = dst.createGraphics();
 		g.drawImage(src, 0, 0, null);
 
-		int px, py;
 		int rgb = color.getRGB();
-		Point[] offsets = this.kernel.getOffsets();
-		Boolean[][] map = new Boolean[height][width];
+		int[][] runs = this.kernel.getRuns();
+		// the numbers of the opaque pixels before each pixel of the rows
+		int[] counts = new int[(width + 1) * height];
+		PixelAccessor in = PixelAccessor.getAccessor(src);
+		int[] row = new int[width];
 		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				map[y][x] = (model.getAlpha(raster.getDataElements(x, y, null)) == 0);
+		{
+			in.getRGB(0, y, width, row, 0);
+			for (int x = 0, o = y * (width + 1); x < width; x++)
+				counts[o + x + 1] = counts[o + x] + ((row[x] >>> 24) == 0 ? 0 : 1);
+		}
 
+		// the transparent pixels covered by the kernel moved onto an opaque one
+		PixelAccessor out = PixelAccessor.getAccessor(dst);
 		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				if (map[y][x] != null && !map[y][x])
-					for (Point p : offsets)
+			for (int x = 0, o = y * (width + 1); x < width; x++)
+				if (counts[o + x + 1] == counts[o + x])
+					for (int[] run : runs)
 					{
-						px = p.x + x;
-						if (px < 0 || px >= width)
-							continue;
-						py = p.y + y;
+						int py = y - run[0];
 						if (py < 0 || py >= height)
 							continue;
-						if (map[py][px] != null && map[py][px])
+						int from = Math.max(0, x - run[2]);
+						int to = Math.min(width - 1, x - run[1]);
+						int p = py * (width + 1);
+						if (from <= to && counts[p + to + 1] > counts[p + from])
 						{
-							map[py][px] = null;
-							dst.setRGB(px, py, rgb);
+							out.setRGB(x, y, rgb);
+							break;
 						}
 					}
 		g.dispose();
 	}
 
+	/**
+	 * Returns the row operation equivalent to this operation performed on a
+	 * transparent destination image: the transparent pixels covered by the
+	 * kernel moved onto an opaque pixel are painted with the contour color,
+	 * the other pixels are copied.
+	 *
+	 * @see com.github.frankjiang.image4j.effect.ContourOp#getRowOps()
+	 */
+	@Override
+	public RowOp[] getRowOps()
+	{
+		final int[][] runs = this.kernel.getRuns();
+		final int rgb = this.color.getRGB();
+		final int halo = this.kernel.getExtent();
+		return new RowOp[] { new RowOp()
+		{
+			@Override
+			public int getHalo()
+			{
+				return halo;
+			}
+
+			@Override
+			public void filterRow(int[][] rows, int y, int width, int[] out)
+			{
+				int[] center = rows[halo];
+				// the numbers of the opaque pixels before each pixel of the rows
+				int[][] counts = new int[rows.length][];
+				for (int x = 0; x < width; x++)
+				{
+					if ((center[x] >>> 24) != 0)
+					{
+						out[x] = center[x];
+						continue;
+					}
+					out[x] = 0;
+					for (int[] run : runs)
+					{
+						int r = halo - run[0];
+						int from = Math.max(0, x - run[2]);
+						int to = Math.min(width - 1, x - run[1]);
+						if (rows[r] == null || from > to)
+							continue;
+						if (counts[r] == null)
+						{
+							counts[r] = new int[width + 1];
+							for (int i = 0; i < width; i++)
+								counts[r][i + 1] = counts[r][i] + ((rows[r][i] >>> 24) == 0 ? 0 : 1);
+						}
+						if (counts[r][to + 1] > counts[r][from])
+						{
+							out[x] = rgb;
+							break;
+						}
+					}
+				}
+			}
+		} };
+	}
 }
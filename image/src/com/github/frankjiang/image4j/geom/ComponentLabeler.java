@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ComponentLabeler.java is PROPRIETARY/CONFIDENTIAL built in 3:12:55 PM, Oct
+ * 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+
+import com.github.frankjiang.image4j.PixelAccessor;
+
+/**
+ * The two-pass connected component labeling.
+ * <p>
+ * The first raster scan gives each foreground pixel the provisional label of
+ * its scanned neighbors, or a new one, and records the equivalences of the
+ * labels met at the same pixel in a {@linkplain UnionFind union-find} table.
+ * The table is flattened into the final labels, which the second scan writes
+ * back. With the 8-connectivity the neighbors are visited in the decision
+ * tree order, so the north neighbor alone decides most pixels.
+ * </p>
+ * <p>
+ * The {@linkplain #measure(BufferedImage, boolean, ComponentStatistics.Filter)
+ * measurement} keeps the labels of two rows only and accumulates the
+ * {@linkplain ComponentStatistics statistics} of the components instead of
+ * the label map.
+ * </p>
+ * <p>
+ * A pixel is foreground if the blue value of its color is not less than 127,
+ * or less than 127 in the reverse mode, like
+ * {@linkplain ConnectedComponentDetector}.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class ComponentLabeler
+{
+	/**
+	 * The 4-connectivity, the pixels sharing an edge are connected.
+	 */
+	public static final int	CONNECTIVITY_4	= 4;
+	/**
+	 * The 8-connectivity, the pixels sharing an edge or a corner are
+	 * connected.
+	 */
+	public static final int	CONNECTIVITY_8	= 8;
+
+	/**
+	 * The connectivity.
+	 */
+	protected final int		connectivity;
+
+	/**
+	 * Construct an instance of <tt>ComponentLabeler</tt>.
+	 *
+	 * @param connectivity the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 */
+	public ComponentLabeler(int connectivity)
+	{
+		if (connectivity != CONNECTIVITY_4 && connectivity != CONNECTIVITY_8)
+			throw new IllegalArgumentException("Unknown connectivity: " + connectivity);
+		this.connectivity = connectivity;
+	}
+
+	/**
+	 * Returns the connectivity.
+	 *
+	 * @return the connectivity
+	 */
+	public int getConnectivity()
+	{
+		return this.connectivity;
+	}
+
+	/**
+	 * Returns the labels of the connected foreground pixels of the image.
+	 *
+	 * @param image the image
+	 * @param reverse <code>true</code> if the dark pixels are foreground
+	 * @return the label map
+	 */
+	public LabelMap label(BufferedImage image, boolean reverse)
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] labels = new int[width * height];
+		UnionFind table = new UnionFind(width);
+		PixelAccessor accessor = PixelAccessor.getAccessor(image);
+		byte[] foreground = ComponentLabeler.getForegroundTable(image, reverse);
+		int[] buffer = new int[width];
+		byte[] row = new byte[width];
+		for (int y = 0; y < height; y++)
+		{
+			ComponentLabeler.getForeground(accessor, foreground, reverse, y, buffer, row);
+			this.scan(row, labels, y * width, y * width - width, width, table);
+		}
+		int count = table.flatten();
+		ComponentLabeler.resolve(labels, 0, labels.length, table.parent);
+		return new LabelMap(width, height, labels, count);
+	}
+
+	/**
+	 * Returns the labels of the connected foreground pixels of the mask.
+	 *
+	 * @param mask the mask row by row, the nonzero values are foreground
+	 * @param width the mask width
+	 * @param height the mask height
+	 * @return the label map
+	 */
+	public LabelMap label(byte[] mask, int width, int height)
+	{
+		int[] labels = new int[width * height];
+		UnionFind table = new UnionFind(width);
+		byte[] row = new byte[width];
+		for (int y = 0, o = 0; y < height; y++, o += width)
+		{
+			System.arraycopy(mask, o, row, 0, width);
+			this.scan(row, labels, o, o - width, width, table);
+		}
+		int count = table.flatten();
+		ComponentLabeler.resolve(labels, 0, labels.length, table.parent);
+		return new LabelMap(width, height, labels, count);
+	}
+
+	/**
+	 * Returns the statistics of the connected foreground pixels of the image,
+	 * without the label map.
+	 * <p>
+	 * Only the labels of two rows are kept, and the statistics are
+	 * accumulated for the provisional labels while scanning, so the memory
+	 * depends on the width and the number of the labels only.
+	 * </p>
+	 *
+	 * @param image the image
+	 * @param reverse <code>true</code> if the dark pixels are foreground
+	 * @param filter the filter of the components, <code>null</code> to keep
+	 *            all
+	 * @return the statistics of the components
+	 */
+	public ComponentStatistics measure(BufferedImage image, boolean reverse,
+			ComponentStatistics.Filter filter)
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] labels = new int[width * 2];
+		UnionFind table = new UnionFind(width);
+		ComponentStatistics statistics = new ComponentStatistics(width);
+		PixelAccessor accessor = PixelAccessor.getAccessor(image);
+		byte[] foreground = ComponentLabeler.getForegroundTable(image, reverse);
+		int[] buffer = new int[width];
+		byte[] row = new byte[width];
+		for (int y = 0; y < height; y++)
+		{
+			ComponentLabeler.getForeground(accessor, foreground, reverse, y, buffer, row);
+			int o = (y & 1) * width, p = y > 0 ? width - o : -1;
+			this.scan(row, labels, o, p, width, table);
+			statistics.ensureCapacity(table.size);
+			statistics.accumulate(labels, o, p, y, width);
+		}
+		int count = table.flatten();
+		return statistics.resolve(table.parent, table.size, count, filter);
+	}
+
+	/**
+	 * Returns the statistics of the connected foreground pixels of the mask,
+	 * without the label map.
+	 *
+	 * @param mask the mask row by row, the nonzero values are foreground
+	 * @param width the mask width
+	 * @param height the mask height
+	 * @param filter the filter of the components, <code>null</code> to keep
+	 *            all
+	 * @return the statistics of the components
+	 */
+	public ComponentStatistics measure(byte[] mask, int width, int height,
+			ComponentStatistics.Filter filter)
+	{
+		int[] labels = new int[width * 2];
+		UnionFind table = new UnionFind(width);
+		ComponentStatistics statistics = new ComponentStatistics(width);
+		byte[] row = new byte[width];
+		for (int y = 0; y < height; y++)
+		{
+			System.arraycopy(mask, y * width, row, 0, width);
+			int o = (y & 1) * width, p = y > 0 ? width - o : -1;
+			this.scan(row, labels, o, p, width, table);
+			statistics.ensureCapacity(table.size);
+			statistics.accumulate(labels, o, p, y, width);
+		}
+		int count = table.flatten();
+		return statistics.resolve(table.parent, table.size, count, filter);
+	}
+
+	/**
+	 * Gives the provisional labels to a row.
+	 *
+	 * @param row the foreground flags of the row, nonzero for the foreground
+	 * @param labels the labels
+	 * @param o the index of the row in the labels
+	 * @param p the index of the row above in the labels, negative if none
+	 * @param width the row width
+	 * @param table the equivalence table
+	 */
+	void scan(byte[] row, int[] labels, int o, int p, int width, UnionFind table)
+	{
+		boolean above = p >= 0;
+		if (this.connectivity == CONNECTIVITY_4)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				if (row[x] == 0)
+				{
+					labels[o + x] = 0;
+					continue;
+				}
+				int north = above ? labels[p + x] : 0;
+				int west = x > 0 ? labels[o + x - 1] : 0;
+				int label;
+				if (north != 0)
+					label = west != 0 && west != north ? table.union(north, west) : north;
+				else
+					label = west != 0 ? west : table.add();
+				labels[o + x] = label;
+			}
+			return;
+		}
+		for (int x = 0; x < width; x++)
+		{
+			if (row[x] == 0)
+			{
+				labels[o + x] = 0;
+				continue;
+			}
+			int label = above ? labels[p + x] : 0;
+			// the north pixel is connected to all the other scanned neighbors
+			if (label == 0)
+			{
+				int east = above && x + 1 < width ? labels[p + x + 1] : 0;
+				int west = x > 0 ? labels[o + x - 1] : 0;
+				int corner = above && x > 0 ? labels[p + x - 1] : 0;
+				if (east != 0)
+				{
+					if (corner != 0)
+						label = table.union(east, corner);
+					else if (west != 0)
+						label = table.union(east, west);
+					else
+						label = east;
+				}
+				else if (corner != 0)
+					label = corner;
+				else if (west != 0)
+					label = west;
+				else
+					label = table.add();
+			}
+			labels[o + x] = label;
+		}
+	}
+
+	/**
+	 * Replaces the provisional labels by the final ones.
+	 *
+	 * @param labels the labels
+	 * @param from the first index
+	 * @param to the index after the last
+	 * @param finals the final labels of the provisional ones
+	 */
+	static void resolve(int[] labels, int from, int to, int[] finals)
+	{
+		for (int i = from; i < to; i++)
+			labels[i] = finals[labels[i]];
+	}
+
+	/**
+	 * Returns the foreground flags of the samples of the gray and the binary
+	 * images, which are read without the color conversion.
+	 *
+	 * @param image the image
+	 * @param reverse <code>true</code> if the dark pixels are foreground
+	 * @return the flags of the samples, <code>null</code> for the other images
+	 */
+	static byte[] getForegroundTable(BufferedImage image, boolean reverse)
+	{
+		int type = image.getType();
+		if (type != BufferedImage.TYPE_BYTE_GRAY && type != BufferedImage.TYPE_BYTE_BINARY)
+			return null;
+		ColorModel model = image.getColorModel();
+		byte[] table = new byte[1 << model.getPixelSize()];
+		for (int s = 0; s < table.length; s++)
+			table[s] = (byte) ((model.getRGB(s) & 0xff) >= 127 != reverse ? 1 : 0);
+		return table;
+	}
+
+	/**
+	 * Reads the foreground flags of a row.
+	 *
+	 * @param accessor the accessor of the image
+	 * @param foreground the flags of the samples, <code>null</code> to test
+	 *            the colors
+	 * @param reverse <code>true</code> if the dark pixels are foreground
+	 * @param y the Y coordinate of the row
+	 * @param buffer the buffer of a row of the samples or the colors
+	 * @param row the flags of the row, 1 for the foreground
+	 */
+	static void getForeground(PixelAccessor accessor, byte[] foreground, boolean reverse, int y,
+			int[] buffer, byte[] row)
+	{
+		int width = row.length;
+		if (foreground != null)
+		{
+			accessor.getPixels(0, y, width, buffer);
+			for (int x = 0; x < width; x++)
+				row[x] = foreground[buffer[x]];
+			return;
+		}
+		accessor.getRGB(0, y, width, buffer, 0);
+		for (int x = 0; x < width; x++)
+			row[x] = (byte) ((buffer[x] & 0xff) >= 127 != reverse ? 1 : 0);
+	}
+}
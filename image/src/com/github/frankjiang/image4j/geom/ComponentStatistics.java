@@ -0,0 +1,501 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ComponentStatistics.java is PROPRIETARY/CONFIDENTIAL built in 4:02:18 PM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+/**
+ * The statistics of the connected components, accumulated during the
+ * labeling without building the point sets.
+ * <p>
+ * Each statistic is a column of a primitive array indexed by the component,
+ * the components are indexed from 0 in the raster order of their first
+ * pixels. The columns are accumulated run by run for the provisional labels,
+ * and merged into the components when the labeling ends.
+ * </p>
+ * <p>
+ * The perimeter is the number of the pixel edges between the component and
+ * the background or the image border.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class ComponentStatistics
+{
+	/**
+	 * The filter of the components.
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static interface Filter
+	{
+		/**
+		 * Returns <code>true</code> if the component is kept.
+		 *
+		 * @param statistics the statistics of the components
+		 * @param index the index of the component
+		 * @return <code>true</code> if kept
+		 */
+		boolean accept(ComponentStatistics statistics, int index);
+	}
+
+	/**
+	 * The number of the components.
+	 */
+	protected int		count;
+	/**
+	 * The numbers of the pixels.
+	 */
+	protected long[]	area;
+	/**
+	 * The bounds.
+	 */
+	protected int[]		minX, minY, maxX, maxY;
+	/**
+	 * The sums of the coordinates.
+	 */
+	protected long[]	sumX, sumY;
+	/**
+	 * The sums of the products of the coordinates.
+	 */
+	protected long[]	sumXX, sumYY, sumXY;
+	/**
+	 * The numbers of the boundary edges.
+	 */
+	protected long[]	perimeter;
+
+	/**
+	 * Construct an instance of <tt>ComponentStatistics</tt> with the empty
+	 * columns.
+	 *
+	 * @param capacity the number of the rows of the columns
+	 */
+	ComponentStatistics(int capacity)
+	{
+		this.area = new long[capacity];
+		this.minX = new int[capacity];
+		this.minY = new int[capacity];
+		this.maxX = new int[capacity];
+		this.maxY = new int[capacity];
+		this.sumX = new long[capacity];
+		this.sumY = new long[capacity];
+		this.sumXX = new long[capacity];
+		this.sumYY = new long[capacity];
+		this.sumXY = new long[capacity];
+		this.perimeter = new long[capacity];
+		Arrays.fill(this.minX, Integer.MAX_VALUE);
+		Arrays.fill(this.minY, Integer.MAX_VALUE);
+		Arrays.fill(this.maxX, Integer.MIN_VALUE);
+		Arrays.fill(this.maxY, Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Returns the filter of the components whose area is in the range.
+	 *
+	 * @param min the minimum area
+	 * @param max the maximum area
+	 * @return the filter
+	 */
+	public static Filter getAreaFilter(long min, long max)
+	{
+		return (statistics, index) -> statistics.area[index] >= min
+				&& statistics.area[index] <= max;
+	}
+
+	/**
+	 * Returns the filter of the components whose aspect ratio of the bounds,
+	 * the width divided by the height, is in the range.
+	 *
+	 * @param min the minimum aspect ratio
+	 * @param max the maximum aspect ratio
+	 * @return the filter
+	 */
+	public static Filter getAspectFilter(double min, double max)
+	{
+		return (statistics, index) ->
+		{
+			double aspect = statistics.getWidth(index) / (double) statistics.getHeight(index);
+			return aspect >= min && aspect <= max;
+		};
+	}
+
+	/**
+	 * Makes the columns hold at least the specified number of the rows.
+	 *
+	 * @param capacity the number of the rows
+	 */
+	void ensureCapacity(int capacity)
+	{
+		int length = this.area.length;
+		if (capacity <= length)
+			return;
+		int size = Math.max(capacity, length * 2);
+		this.area = Arrays.copyOf(this.area, size);
+		this.minX = ComponentStatistics.grow(this.minX, size, Integer.MAX_VALUE);
+		this.minY = ComponentStatistics.grow(this.minY, size, Integer.MAX_VALUE);
+		this.maxX = ComponentStatistics.grow(this.maxX, size, Integer.MIN_VALUE);
+		this.maxY = ComponentStatistics.grow(this.maxY, size, Integer.MIN_VALUE);
+		this.sumX = Arrays.copyOf(this.sumX, size);
+		this.sumY = Arrays.copyOf(this.sumY, size);
+		this.sumXX = Arrays.copyOf(this.sumXX, size);
+		this.sumYY = Arrays.copyOf(this.sumYY, size);
+		this.sumXY = Arrays.copyOf(this.sumXY, size);
+		this.perimeter = Arrays.copyOf(this.perimeter, size);
+	}
+
+	/**
+	 * Returns the grown copy of the column.
+	 *
+	 * @param column the column
+	 * @param size the new size
+	 * @param identity the value of the new rows
+	 * @return the grown column
+	 */
+	private static int[] grow(int[] column, int size, int identity)
+	{
+		int length = column.length;
+		column = Arrays.copyOf(column, size);
+		Arrays.fill(column, length, size, identity);
+		return column;
+	}
+
+	/**
+	 * Accumulates the labeled runs of a row, the runs are split where the
+	 * label changes.
+	 *
+	 * @param labels the labels
+	 * @param o the index of the row in the labels
+	 * @param p the index of the row above in the labels, negative if none
+	 * @param y the Y coordinate of the row
+	 * @param width the row width
+	 */
+	void accumulate(int[] labels, int o, int p, int y, int width)
+	{
+		for (int x = 0; x < width;)
+		{
+			int label = labels[o + x];
+			if (label == 0)
+			{
+				x++;
+				continue;
+			}
+			int start = x, up = 0;
+			for (; x < width && labels[o + x] == label; x++)
+				if (p >= 0 && labels[p + x] != 0)
+					up++;
+			// the edges shared with the foreground on the left and above
+			int shared = x - start - 1 + (start > 0 && labels[o + start - 1] != 0 ? 1 : 0) + up;
+			this.add(label, y, start, x - 1, 4L * (x - start) - 2L * shared);
+		}
+	}
+
+	/**
+	 * Adds a run to a row of the columns.
+	 *
+	 * @param i the row of the columns
+	 * @param y the Y coordinate of the run
+	 * @param x0 the first X coordinate of the run
+	 * @param x1 the last X coordinate of the run
+	 * @param edges the boundary edges of the run
+	 */
+	void add(int i, int y, int x0, int x1, long edges)
+	{
+		long n = x1 - x0 + 1;
+		long sx = n * (x0 + x1) / 2;
+		this.area[i] += n;
+		if (x0 < this.minX[i])
+			this.minX[i] = x0;
+		if (x1 > this.maxX[i])
+			this.maxX[i] = x1;
+		if (y < this.minY[i])
+			this.minY[i] = y;
+		if (y > this.maxY[i])
+			this.maxY[i] = y;
+		this.sumX[i] += sx;
+		this.sumY[i] += n * y;
+		this.sumXX[i] += ComponentStatistics.squares(x1) - ComponentStatistics.squares(x0 - 1);
+		this.sumYY[i] += n * y * y;
+		this.sumXY[i] += sx * y;
+		this.perimeter[i] += edges;
+	}
+
+	/**
+	 * Returns the sum of the squares of <code>[0, k]</code>.
+	 *
+	 * @param k the last integer
+	 * @return the sum
+	 */
+	private static long squares(long k)
+	{
+		return k < 1 ? 0 : k * (k + 1) * (2 * k + 1) / 6;
+	}
+
+	/**
+	 * Merges a row of another statistics into a row of this one.
+	 *
+	 * @param i the row of this statistics
+	 * @param other the other statistics
+	 * @param j the row of the other statistics
+	 */
+	void merge(int i, ComponentStatistics other, int j)
+	{
+		this.area[i] += other.area[j];
+		this.minX[i] = Math.min(this.minX[i], other.minX[j]);
+		this.minY[i] = Math.min(this.minY[i], other.minY[j]);
+		this.maxX[i] = Math.max(this.maxX[i], other.maxX[j]);
+		this.maxY[i] = Math.max(this.maxY[i], other.maxY[j]);
+		this.sumX[i] += other.sumX[j];
+		this.sumY[i] += other.sumY[j];
+		this.sumXX[i] += other.sumXX[j];
+		this.sumYY[i] += other.sumYY[j];
+		this.sumXY[i] += other.sumXY[j];
+		this.perimeter[i] += other.perimeter[j];
+	}
+
+	/**
+	 * Returns the statistics of the components merged from the provisional
+	 * labels, dropping the ones rejected by the filter.
+	 *
+	 * @param finals the final labels from 1 of the provisional labels
+	 * @param size the number of the provisional labels, including 0
+	 * @param count the number of the final labels
+	 * @param filter the filter, <code>null</code> to keep all
+	 * @return the statistics of the components
+	 */
+	ComponentStatistics resolve(int[] finals, int size, int count, Filter filter)
+	{
+		ComponentStatistics components = new ComponentStatistics(count);
+		for (int label = 1; label < size; label++)
+			components.merge(finals[label] - 1, this, label);
+		components.count = count;
+		if (filter != null)
+			components.retain(filter);
+		return components;
+	}
+
+	/**
+	 * Keeps the components accepted by the filter, in their order.
+	 *
+	 * @param filter the filter
+	 */
+	void retain(Filter filter)
+	{
+		int kept = 0;
+		for (int i = 0; i < this.count; i++)
+			if (filter.accept(this, i))
+			{
+				if (kept != i)
+				{
+					this.area[kept] = this.area[i];
+					this.minX[kept] = this.minX[i];
+					this.minY[kept] = this.minY[i];
+					this.maxX[kept] = this.maxX[i];
+					this.maxY[kept] = this.maxY[i];
+					this.sumX[kept] = this.sumX[i];
+					this.sumY[kept] = this.sumY[i];
+					this.sumXX[kept] = this.sumXX[i];
+					this.sumYY[kept] = this.sumYY[i];
+					this.sumXY[kept] = this.sumXY[i];
+					this.perimeter[kept] = this.perimeter[i];
+				}
+				kept++;
+			}
+		this.count = kept;
+	}
+
+	/**
+	 * Returns the number of the components.
+	 *
+	 * @return the number of the components
+	 */
+	public int getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Returns the number of the pixels of the component.
+	 *
+	 * @param index the index of the component
+	 * @return the area
+	 */
+	public long getArea(int index)
+	{
+		return this.area[index];
+	}
+
+	/**
+	 * Returns the minimum X coordinate of the component.
+	 *
+	 * @param index the index of the component
+	 * @return the minimum X coordinate
+	 */
+	public int getMinX(int index)
+	{
+		return this.minX[index];
+	}
+
+	/**
+	 * Returns the minimum Y coordinate of the component.
+	 *
+	 * @param index the index of the component
+	 * @return the minimum Y coordinate
+	 */
+	public int getMinY(int index)
+	{
+		return this.minY[index];
+	}
+
+	/**
+	 * Returns the maximum X coordinate of the component.
+	 *
+	 * @param index the index of the component
+	 * @return the maximum X coordinate
+	 */
+	public int getMaxX(int index)
+	{
+		return this.maxX[index];
+	}
+
+	/**
+	 * Returns the maximum Y coordinate of the component.
+	 *
+	 * @param index the index of the component
+	 * @return the maximum Y coordinate
+	 */
+	public int getMaxY(int index)
+	{
+		return this.maxY[index];
+	}
+
+	/**
+	 * Returns the width of the bounds of the component.
+	 *
+	 * @param index the index of the component
+	 * @return the width
+	 */
+	public int getWidth(int index)
+	{
+		return this.maxX[index] - this.minX[index] + 1;
+	}
+
+	/**
+	 * Returns the height of the bounds of the component.
+	 *
+	 * @param index the index of the component
+	 * @return the height
+	 */
+	public int getHeight(int index)
+	{
+		return this.maxY[index] - this.minY[index] + 1;
+	}
+
+	/**
+	 * Returns the bounds of the component, which covers all its pixels.
+	 *
+	 * @param index the index of the component
+	 * @return the bounds
+	 */
+	public Rectangle getBounds(int index)
+	{
+		return new Rectangle(this.minX[index], this.minY[index], this.getWidth(index),
+				this.getHeight(index));
+	}
+
+	/**
+	 * Returns the centroid of the component.
+	 *
+	 * @param index the index of the component
+	 * @return the centroid
+	 */
+	public Point2D getCentroid(int index)
+	{
+		double n = this.area[index];
+		return new Point2D.Double(this.sumX[index] / n, this.sumY[index] / n);
+	}
+
+	/**
+	 * Returns the second central moment of the X coordinates of the
+	 * component, divided by the area.
+	 *
+	 * @param index the index of the component
+	 * @return the variance of the X coordinates
+	 */
+	public double getVarianceX(int index)
+	{
+		double n = this.area[index], mean = this.sumX[index] / n;
+		return this.sumXX[index] / n - mean * mean;
+	}
+
+	/**
+	 * Returns the second central moment of the Y coordinates of the
+	 * component, divided by the area.
+	 *
+	 * @param index the index of the component
+	 * @return the variance of the Y coordinates
+	 */
+	public double getVarianceY(int index)
+	{
+		double n = this.area[index], mean = this.sumY[index] / n;
+		return this.sumYY[index] / n - mean * mean;
+	}
+
+	/**
+	 * Returns the mixed second central moment of the component, divided by
+	 * the area.
+	 *
+	 * @param index the index of the component
+	 * @return the covariance of the coordinates
+	 */
+	public double getCovariance(int index)
+	{
+		double n = this.area[index];
+		return this.sumXY[index] / n - this.sumX[index] / n * (this.sumY[index] / n);
+	}
+
+	/**
+	 * Returns the angle of the major axis of the component, counterclockwise
+	 * from the X axis with the Y axis downward.
+	 *
+	 * @param index the index of the component
+	 * @return the angle in radians in <code>[-PI/2, PI/2]</code>
+	 */
+	public double getOrientation(int index)
+	{
+		return -0.5 * Math.atan2(2 * this.getCovariance(index),
+				this.getVarianceX(index) - this.getVarianceY(index));
+	}
+
+	/**
+	 * Returns the number of the pixel edges between the component and the
+	 * background or the image border.
+	 *
+	 * @param index the index of the component
+	 * @return the perimeter
+	 */
+	public long getPerimeter(int index)
+	{
+		return this.perimeter[index];
+	}
+
+	/**
+	 * Returns the column of the areas, the array is not copied and may be
+	 * longer than the number of the components.
+	 *
+	 * @return the areas
+	 */
+	public long[] getAreas()
+	{
+		return this.area;
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ConcurrentUnionFind.java is PROPRIETARY/CONFIDENTIAL built in 5:26:03 PM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The equivalence table of the labels merged by several threads.
+ * <p>
+ * Like {@linkplain UnionFind}, each set is linked to its smallest label. A
+ * root is linked by a compare-and-set on its own entry, which fails and
+ * retries if another thread linked it first, and the paths are halved by
+ * the compare-and-set too, so a parent only moves to a smaller ancestor and
+ * the table is flattened in one pass when the merges end.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+class ConcurrentUnionFind
+{
+	/**
+	 * The parents of the labels.
+	 */
+	private final AtomicIntegerArray parent;
+
+	/**
+	 * Construct an instance of <tt>ConcurrentUnionFind</tt> whose labels are
+	 * in sets of their own.
+	 *
+	 * @param size the number of the labels, including the background 0
+	 */
+	ConcurrentUnionFind(int size)
+	{
+		this.parent = new AtomicIntegerArray(size);
+		for (int i = 0; i < size; i++)
+			this.parent.lazySet(i, i);
+	}
+
+	/**
+	 * Returns the root of the label.
+	 *
+	 * @param label the label
+	 * @return the root
+	 */
+	int find(int label)
+	{
+		AtomicIntegerArray parent = this.parent;
+		int p = parent.get(label);
+		while (p != label)
+		{
+			int grand = parent.get(p);
+			if (grand != p)
+				parent.compareAndSet(label, p, grand);
+			label = p;
+			p = grand;
+		}
+		return label;
+	}
+
+	/**
+	 * Merges the sets of the labels.
+	 *
+	 * @param a a label
+	 * @param b another label
+	 */
+	void union(int a, int b)
+	{
+		while (true)
+		{
+			a = this.find(a);
+			b = this.find(b);
+			if (a == b)
+				return;
+			if (a > b)
+			{
+				int t = a;
+				a = b;
+				b = t;
+			}
+			if (this.parent.compareAndSet(b, b, a))
+				return;
+		}
+	}
+
+	/**
+	 * Stores the consecutive final labels from 1 of the labels, in the order
+	 * of the roots. It is called after all the merges end.
+	 *
+	 * @param finals the array to store the final labels, 0 for the
+	 *            background
+	 * @return the number of the sets
+	 */
+	int flatten(int[] finals)
+	{
+		int count = 0;
+		for (int i = 1; i < finals.length; i++)
+		{
+			int p = this.parent.get(i);
+			finals[i] = p < i ? finals[p] : ++count;
+		}
+		return count;
+	}
+}
@@ -8,16 +8,16 @@
 
 package com.github.frankjiang.image4j.geom;
 
-import java.awt.Point;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
-import java.awt.image.Raster;
 import java.util.LinkedList;
-import java.util.Stack;
 
 /**
  * The connected components detector.
  * <p>
+ * The components are found by {@linkplain ComponentLabeler} in two raster
+ * scans, and listed in the raster order of their first pixels. The
+ * {@linkplain RunLengthComponent run-length components} are much smaller than
+ * the point sets of {@linkplain ConnectedComponent} for the large blobs.
  * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
@@ -25,70 +25,60 @@ import java.util.Stack;
  */
 public class ConnectedComponentDetector
 {
-	// @formatter:off
-	/**
-	 * The direction of detection.
-	 */
-	private static final int[][]				DIRECTIONS	= new int[][] 
-	{
-		{0, +1},
-		{0, -1},
-		{+1, 0},
-		{-1, 0}
-	};
-	// @formatter:on
-
 	protected BufferedImage					image;
-	private Match							match;
-	private ColorModel						model;
-	private Raster							raster;
+	private boolean							reverse;
+	private ComponentLabeler				labeler;
 	private LinkedList<ConnectedComponent>	list;
 
 	public ConnectedComponentDetector(BufferedImage image)
 	{
 		this(image, false);
 	}
+
 	public ConnectedComponentDetector(BufferedImage image, boolean reverse)
 	{
-		this.image = image;
-		this.model = image.getColorModel();
-		this.raster = image.getRaster();
-		this.list = new LinkedList<>();
-		match = reverse ? new MatchBlack() : new MatchWhite();
+		this(image, reverse, ComponentLabeler.CONNECTIVITY_4);
 	}
 
-	private interface Match
+	/**
+	 * Construct an instance of <tt>ConnectedComponentDetector</tt>.
+	 *
+	 * @param image the image
+	 * @param reverse <code>true</code> if the dark pixels are foreground
+	 * @param connectivity the connectivity,
+	 *            {@linkplain ComponentLabeler#CONNECTIVITY_4} or
+	 *            {@linkplain ComponentLabeler#CONNECTIVITY_8}
+	 */
+	public ConnectedComponentDetector(BufferedImage image, boolean reverse, int connectivity)
 	{
-		boolean match(int x, int y);
+		this(image, reverse, new ComponentLabeler(connectivity));
 	}
 
-	private class MatchWhite implements Match
+	/**
+	 * Construct an instance of <tt>ConnectedComponentDetector</tt>.
+	 *
+	 * @param image the image
+	 * @param reverse <code>true</code> if the dark pixels are foreground
+	 * @param labeler the labeler, such as a
+	 *            {@linkplain ParallelComponentLabeler} for the large images
+	 */
+	public ConnectedComponentDetector(BufferedImage image, boolean reverse,
+			ComponentLabeler labeler)
 	{
-		/**
-		 * @see com.github.frankjiang.image4j.geom.ConnectedComponentDetector.Match#match(int,
-		 *      int)
-		 */
-		@Override
-		public boolean match(int x, int y)
-		{
-			return model.getBlue(raster.getDataElements(x, y, null)) >= 127;
-		}
-
+		this.image = image;
+		this.reverse = reverse;
+		this.labeler = labeler;
+		this.list = new LinkedList<>();
 	}
 
-	private class MatchBlack implements Match
+	/**
+	 * Returns the label map of the image.
+	 *
+	 * @return the label map
+	 */
+	public LabelMap label()
 	{
-
-		/**
-		 * @see com.github.frankjiang.image4j.geom.ConnectedComponentDetector.Match#match(int,
-		 *      int)
-		 */
-		@Override
-		public boolean match(int x, int y)
-		{
-			return model.getBlue(raster.getDataElements(x, y, null)) < 127;
-		}
-
+		return this.labeler.label(this.image, this.reverse);
 	}
 
 	/**
@@ -98,36 +88,49 @@ public class ConnectedComponentDetector
 	 */
 	public LinkedList<ConnectedComponent> detect()
 	{
-		int width = image.getWidth();
-		int height = image.getHeight();
-		boolean[][] map = new boolean[height][width];
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				if (!map[y][x] && match.match(x, y))
-				{
-					ConnectedComponent comp = new ConnectedComponent();
-					Point pt = new Point(x, y);
-					Stack<Point> stack = new Stack<>();
-					stack.add(pt);
-					map[y][x] = true;
-					while (!stack.isEmpty())
-					{
-						pt = stack.pop();
-						comp.addPoint(pt);
-						for (int d = 0; d < DIRECTIONS.length; d++)
-						{
-							int xt = pt.x + DIRECTIONS[d][0];
-							int yt = pt.y + DIRECTIONS[d][1];
-							if (xt > -1 && yt > -1 && xt < width && yt < height && !map[yt][xt])
-							{
-								map[yt][xt] = true;
-								if (match.match(xt, yt))
-									stack.push(new Point(xt, yt));
-							}
-						}
-					}
-					list.add(comp);
-				}
+		LabelMap map = this.label();
+		int width = map.getWidth();
+		int[] labels = map.getLabels();
+		ConnectedComponent[] components = new ConnectedComponent[map.getCount()];
+		for (int c = 0; c < components.length; c++)
+			components[c] = new ConnectedComponent();
+		for (int i = 0; i < labels.length; i++)
+			if (labels[i] != 0)
+				components[labels[i] - 1].addPoint(i % width, i / width);
+		for (ConnectedComponent component : components)
+			this.list.add(component);
+		return this.list;
+	}
+
+	/**
+	 * Returns the detected connected components stored as their runs.
+	 *
+	 * @return the detected connected components
+	 */
+	public LinkedList<RunLengthComponent> detectRuns()
+	{
+		LabelMap map = this.label();
+		int width = map.getWidth();
+		int[] labels = map.getLabels();
+		RunLengthComponent[] components = new RunLengthComponent[map.getCount()];
+		for (int c = 0; c < components.length; c++)
+			components[c] = new RunLengthComponent();
+		for (int y = 0, o = 0; y < map.getHeight(); y++, o += width)
+			for (int x = 0; x < width;)
+			{
+				int label = labels[o + x];
+				int start = x;
+				while (x < width && labels[o + x] == label)
+					x++;
+				if (label != 0)
+					components[label - 1].addRun(y, start, x - 1);
+			}
+		LinkedList<RunLengthComponent> list = new LinkedList<>();
+		for (RunLengthComponent component : components)
+		{
+			component.trimToSize();
+			list.add(component);
+		}
 		return list;
 	}
 }
@@ -11,12 +11,17 @@ package com.github.frankjiang.image4j.geom;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
-import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.geom.AffineTransform;
-import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.RasterFormatException;
 import java.lang.annotation.Native;
+import java.util.Arrays;
 
+import com.github.frankjiang.image4j.PixelAccessor;
+import com.github.frankjiang.image4j.math.InterpolationKernel;
 import com.github.frankjiang.image4j.math.Quadrangle;
 
 /**
@@ -58,24 +63,56 @@ public class GeometryUtils
 	public static BufferedImage scale(BufferedImage image, float sx, float sy,
 			int interploationType)
 	{
-		AffineTransform xform = AffineTransform.getScaleInstance(sx, sy);
-		Object value;
-		switch (interploationType)
+		int width = image.getWidth(), height = image.getHeight();
+		int dstWidth = (int) (width * (double) sx), dstHeight = (int) (height * (double) sy);
+		if (dstWidth <= 0 || dstHeight <= 0)
+			throw new RasterFormatException("Transformed width (" + dstWidth
+					+ ") and height (" + dstHeight + ") cannot be <= 0");
+		// the same destination as AffineTransformOp#createCompatibleDestImage
+		BufferedImage scaled;
+		ColorModel model = image.getColorModel();
+		if (interploationType != GeometryUtils.TYPE_NEAREST_NEIGHBOR
+				&& (model instanceof IndexColorModel
+						|| model.getTransparency() == Transparency.OPAQUE))
+			scaled = new BufferedImage(dstWidth, dstHeight, BufferedImage.TYPE_INT_ARGB);
+		else
+			scaled = new BufferedImage(model,
+					image.getRaster().createCompatibleWritableRaster(dstWidth, dstHeight),
+					model.isAlphaPremultiplied(), null);
+		// the fixed-point source coordinates of the pixel centers of each column and row
+		int[] xs = new int[dstWidth], ys = new int[dstHeight];
+		for (int x = 0; x < dstWidth; x++)
+			xs[x] = InterpolationKernel.quantize((x + 0.5) / sx - 0.5);
+		for (int y = 0; y < dstHeight; y++)
+			ys[y] = InterpolationKernel.quantize((y + 0.5) / sy - 0.5);
+		InterpolationKernel kernel = InterpolationKernel.getInstance(interploationType);
+		int bits = InterpolationKernel.FRACTION_BITS, mask = InterpolationKernel.FRACTION_ONE - 1;
+		int taps = kernel.getTaps(), origin = kernel.getOrigin();
+		PixelAccessor in = PixelAccessor.getAccessor(image);
+		PixelAccessor out = PixelAccessor.getAccessor(scaled);
+		// the consecutive source rows are kept in slots indexed by the row modulo taps
+		int[][] buffer = new int[taps][width], rows = new int[taps][];
+		int[] loaded = new int[taps];
+		Arrays.fill(loaded, -1);
+		int[] row = new int[dstWidth];
+		for (int y = 0; y < dstHeight; y++)
 		{
-		case TYPE_NEAREST_NEIGHBOR:
-			value = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
-			break;
-		default:
-		case TYPE_BILINEAR:
-			value = RenderingHints.VALUE_INTERPOLATION_BILINEAR;
-			break;
-		case TYPE_BICUBIC:
-			value = RenderingHints.VALUE_INTERPOLATION_BICUBIC;
-			break;
+			int y0 = ys[y] >> bits, fy = ys[y] & mask;
+			for (int j = 0; j < taps; j++)
+			{
+				int sy0 = Math.min(Math.max(y0 + origin + j, 0), height - 1), slot = sy0 % taps;
+				if (loaded[slot] != sy0)
+				{
+					in.getRGB(0, sy0, width, buffer[slot], 0);
+					loaded[slot] = sy0;
+				}
+				rows[j] = buffer[slot];
+			}
+			for (int x = 0; x < dstWidth; x++)
+				row[x] = kernel.interpolate(rows, width, xs[x] >> bits, xs[x] & mask, fy);
+			out.setRGB(0, y, dstWidth, row, 0);
 		}
-		RenderingHints hints = new RenderingHints(RenderingHints.KEY_INTERPOLATION, value);
-		AffineTransformOp op = new AffineTransformOp(xform, hints);
-		return op.filter(image, null);
+		return scaled;
 	}
 
 	public static BufferedImage scale(BufferedImage image, int size, int interploationType)
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * LabelMap.java is PROPRIETARY/CONFIDENTIAL built in 3:07:40 PM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+/**
+ * The label image of the connected components.
+ * <p>
+ * The labels are kept row by row in an <code>int</code> array, 0 is the
+ * background and the components are labeled from 1 in the raster order of
+ * their first pixels.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class LabelMap
+{
+	/**
+	 * The image width.
+	 */
+	protected final int		width;
+	/**
+	 * The image height.
+	 */
+	protected final int		height;
+	/**
+	 * The labels of the pixels.
+	 */
+	protected final int[]	labels;
+	/**
+	 * The number of the components.
+	 */
+	protected final int		count;
+
+	/**
+	 * Construct an instance of <tt>LabelMap</tt>.
+	 *
+	 * @param width the image width
+	 * @param height the image height
+	 * @param labels the labels of the pixels row by row
+	 * @param count the number of the components
+	 */
+	public LabelMap(int width, int height, int[] labels, int count)
+	{
+		if (labels.length != width * height)
+			throw new IllegalArgumentException(String.format(
+					"The %d labels do not match the size %dx%d.", labels.length, width, height));
+		this.width = width;
+		this.height = height;
+		this.labels = labels;
+		this.count = count;
+	}
+
+	/**
+	 * Returns the label of the pixel.
+	 *
+	 * @param x the X coordinate
+	 * @param y the Y coordinate
+	 * @return the label, 0 for the background
+	 */
+	public int getLabel(int x, int y)
+	{
+		return this.labels[y * this.width + x];
+	}
+
+	/**
+	 * Returns the labels of the pixels row by row, the array is not copied.
+	 *
+	 * @return the labels
+	 */
+	public int[] getLabels()
+	{
+		return this.labels;
+	}
+
+	/**
+	 * Returns the number of the components.
+	 *
+	 * @return the number of the components
+	 */
+	public int getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Returns the image width.
+	 *
+	 * @return the width
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	/**
+	 * Returns the image height.
+	 *
+	 * @return the height
+	 */
+	public int getHeight()
+	{
+		return this.height;
+	}
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * ParallelComponentLabeler.java is PROPRIETARY/CONFIDENTIAL built in 5:41:50
+ * PM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import com.github.frankjiang.image4j.PixelAccessor;
+
+/**
+ * The connected component labeling of the horizontal stripes in parallel.
+ * <p>
+ * Each stripe is labeled by the two-pass labeling of
+ * {@linkplain ComponentLabeler} on a {@linkplain ForkJoinPool}, as if the
+ * rows above it were background. The local labels of the stripes are shifted
+ * into one range, the labels met across each stripe border are merged in a
+ * {@linkplain ConcurrentUnionFind concurrent union-find} table, and the
+ * stripes are relabeled in parallel again.
+ * </p>
+ * <p>
+ * The local labels follow the raster order of the first pixels in each
+ * stripe, so the smallest label of a component belongs to its first pixel in
+ * the image, and the final labels and the statistics are the same as the
+ * sequential ones.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class ParallelComponentLabeler extends ComponentLabeler
+{
+	/**
+	 * The minimum number of the pixels of a stripe.
+	 */
+	private static final int	GRAIN	= 1 << 16;
+
+	/**
+	 * The thread pool.
+	 */
+	protected final ForkJoinPool	pool;
+	/**
+	 * The number of the rows of a stripe, 0 to choose from the parallelism.
+	 */
+	protected int					stripeHeight;
+
+	/**
+	 * Construct an instance of <tt>ParallelComponentLabeler</tt> on the
+	 * common pool.
+	 *
+	 * @param connectivity the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 */
+	public ParallelComponentLabeler(int connectivity)
+	{
+		this(connectivity, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Construct an instance of <tt>ParallelComponentLabeler</tt>.
+	 *
+	 * @param connectivity the connectivity, {@linkplain #CONNECTIVITY_4} or
+	 *            {@linkplain #CONNECTIVITY_8}
+	 * @param pool the thread pool
+	 */
+	public ParallelComponentLabeler(int connectivity, ForkJoinPool pool)
+	{
+		super(connectivity);
+		if (pool == null)
+			throw new NullPointerException("The thread pool is null.");
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the thread pool.
+	 *
+	 * @return the thread pool
+	 */
+	public ForkJoinPool getPool()
+	{
+		return this.pool;
+	}
+
+	/**
+	 * Returns the number of the rows of a stripe.
+	 *
+	 * @return the stripe height, 0 if chosen from the parallelism
+	 */
+	public int getStripeHeight()
+	{
+		return this.stripeHeight;
+	}
+
+	/**
+	 * Set the number of the rows of a stripe.
+	 *
+	 * @param stripeHeight the value of stripeHeight, 0 to choose from the
+	 *            parallelism
+	 */
+	public void setStripeHeight(int stripeHeight)
+	{
+		if (stripeHeight < 0)
+			throw new IllegalArgumentException("The stripe height is negative.");
+		this.stripeHeight = stripeHeight;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.geom.ComponentLabeler#label(java.awt.image.BufferedImage,
+	 *      boolean)
+	 */
+	@Override
+	public LabelMap label(BufferedImage image, boolean reverse)
+	{
+		int width = image.getWidth(), height = image.getHeight();
+		int[] labels = new int[width * height];
+		int count = this.run(new Source(image, reverse), width, height, labels, null);
+		return new LabelMap(width, height, labels, count);
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.geom.ComponentLabeler#label(byte[],
+	 *      int, int)
+	 */
+	@Override
+	public LabelMap label(byte[] mask, int width, int height)
+	{
+		int[] labels = new int[width * height];
+		int count = this.run(new Source(mask), width, height, labels, null);
+		return new LabelMap(width, height, labels, count);
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.geom.ComponentLabeler#measure(java.awt.image.BufferedImage,
+	 *      boolean, com.github.frankjiang.image4j.geom.ComponentStatistics.Filter)
+	 */
+	@Override
+	public ComponentStatistics measure(BufferedImage image, boolean reverse,
+			ComponentStatistics.Filter filter)
+	{
+		ComponentStatistics[] statistics = new ComponentStatistics[1];
+		this.run(new Source(image, reverse), image.getWidth(), image.getHeight(), null,
+				statistics);
+		if (filter != null)
+			statistics[0].retain(filter);
+		return statistics[0];
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.geom.ComponentLabeler#measure(byte[],
+	 *      int, int,
+	 *      com.github.frankjiang.image4j.geom.ComponentStatistics.Filter)
+	 */
+	@Override
+	public ComponentStatistics measure(byte[] mask, int width, int height,
+			ComponentStatistics.Filter filter)
+	{
+		ComponentStatistics[] statistics = new ComponentStatistics[1];
+		this.run(new Source(mask), width, height, null, statistics);
+		if (filter != null)
+			statistics[0].retain(filter);
+		return statistics[0];
+	}
+
+	/**
+	 * Labels the stripes in parallel and merges them.
+	 *
+	 * @param source the source of the foreground rows
+	 * @param width the image width
+	 * @param height the image height
+	 * @param labels the labels to fill, <code>null</code> to measure only
+	 * @param statistics the holder of the merged statistics,
+	 *            <code>null</code> to label only
+	 * @return the number of the components
+	 */
+	private int run(Source source, int width, int height, int[] labels,
+			ComponentStatistics[] statistics)
+	{
+		int rows = this.stripeHeight;
+		if (rows == 0)
+			rows = Math.max(GRAIN / Math.max(1, width),
+					-Math.floorDiv(-height, this.pool.getParallelism() * 4));
+		int n = -Math.floorDiv(-height, rows);
+		Stripe[] stripes = new Stripe[n];
+		for (int s = 0; s < n; s++)
+			stripes[s] = new Stripe(source, width, s * rows, Math.min(height, (s + 1) * rows),
+					labels, statistics != null);
+		this.invokeAll(Arrays.asList(stripes));
+		// the labels of the stripes are shifted one after another
+		int[] offsets = new int[n];
+		int total = 0;
+		for (int s = 0; s < n; s++)
+		{
+			offsets[s] = total;
+			total += stripes[s].count;
+		}
+		ConcurrentUnionFind table = new ConcurrentUnionFind(total + 1);
+		List<ForkJoinTask<?>> borders = new ArrayList<>();
+		for (int s = 1; s < n; s++)
+		{
+			Stripe upper = stripes[s - 1], lower = stripes[s];
+			int a = offsets[s - 1], b = offsets[s];
+			borders.add(ForkJoinTask.adapt(() -> this.merge(upper.last, a, lower.first, b,
+					table)));
+		}
+		this.invokeAll(borders);
+		int[] finals = new int[total + 1];
+		int count = table.flatten(finals);
+		if (labels != null)
+		{
+			List<ForkJoinTask<?>> relabels = new ArrayList<>();
+			for (int s = 0; s < n; s++)
+			{
+				int from = stripes[s].from * width, to = stripes[s].to * width;
+				int offset = offsets[s];
+				relabels.add(ForkJoinTask.adapt(() ->
+				{
+					for (int i = from; i < to; i++)
+						if (labels[i] != 0)
+							labels[i] = finals[offset + labels[i]];
+				}));
+			}
+			this.invokeAll(relabels);
+		}
+		if (statistics != null)
+		{
+			ComponentStatistics merged = new ComponentStatistics(count);
+			for (int s = 0; s < n; s++)
+			{
+				ComponentStatistics local = stripes[s].statistics;
+				for (int j = 0; j < stripes[s].count; j++)
+					merged.merge(finals[offsets[s] + j + 1] - 1, local, j);
+			}
+			// the edges across the borders were counted as the boundary twice
+			for (int s = 1; s < n; s++)
+			{
+				int[] upper = stripes[s - 1].last, lower = stripes[s].first;
+				for (int x = 0; x < width; x++)
+					if (upper[x] != 0 && lower[x] != 0)
+						merged.perimeter[finals[offsets[s] + lower[x]] - 1] -= 2;
+			}
+			merged.count = count;
+			statistics[0] = merged;
+		}
+		return count;
+	}
+
+	/**
+	 * Merges the labels met across a stripe border.
+	 *
+	 * @param upper the local labels of the last row of the upper stripe
+	 * @param a the offset of the labels of the upper stripe
+	 * @param lower the local labels of the first row of the lower stripe
+	 * @param b the offset of the labels of the lower stripe
+	 * @param table the equivalence table
+	 */
+	private void merge(int[] upper, int a, int[] lower, int b, ConcurrentUnionFind table)
+	{
+		int width = lower.length;
+		boolean corners = this.connectivity == CONNECTIVITY_8;
+		for (int x = 0; x < width; x++)
+		{
+			if (lower[x] == 0)
+				continue;
+			int label = b + lower[x];
+			if (upper[x] != 0)
+				table.union(label, a + upper[x]);
+			else if (corners)
+			{
+				// the north pixel is connected to the corners already
+				if (x > 0 && upper[x - 1] != 0)
+					table.union(label, a + upper[x - 1]);
+				if (x + 1 < width && upper[x + 1] != 0)
+					table.union(label, a + upper[x + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Runs the tasks on the pool and waits for them.
+	 *
+	 * @param tasks the tasks
+	 */
+	private void invokeAll(List<? extends ForkJoinTask<?>> tasks)
+	{
+		this.pool.invoke(new RecursiveAction()
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute()
+			{
+				ForkJoinTask.invokeAll(tasks);
+			}
+		});
+	}
+
+	/**
+	 * The source of the foreground rows, an image or a mask.
+	 */
+	private static class Source
+	{
+		private final BufferedImage	image;
+		private final boolean		reverse;
+		private final byte[]		mask;
+
+		Source(BufferedImage image, boolean reverse)
+		{
+			this.image = image;
+			this.reverse = reverse;
+			this.mask = null;
+		}
+
+		Source(byte[] mask)
+		{
+			this.image = null;
+			this.reverse = false;
+			this.mask = mask;
+		}
+	}
+
+	/**
+	 * The task labeling a stripe.
+	 */
+	private class Stripe extends RecursiveAction
+	{
+		private static final long	serialVersionUID	= 1L;
+
+		private final Source		source;
+		private final int			width, from, to;
+		private final int[]			labels;
+		private final boolean		measuring;
+		/**
+		 * The number of the local components.
+		 */
+		int							count;
+		/**
+		 * The local labels of the first and the last rows.
+		 */
+		int[]						first, last;
+		/**
+		 * The statistics of the local components.
+		 */
+		ComponentStatistics			statistics;
+
+		Stripe(Source source, int width, int from, int to, int[] labels, boolean measuring)
+		{
+			this.source = source;
+			this.width = width;
+			this.from = from;
+			this.to = to;
+			this.labels = labels;
+			this.measuring = measuring;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int width = this.width;
+			UnionFind table = new UnionFind(width);
+			// the whole stripe is labeled in the label map, or two rows only
+			int[] rows = this.labels != null ? this.labels : new int[width * 2];
+			ComponentStatistics statistics = this.measuring ? new ComponentStatistics(width)
+					: null;
+			PixelAccessor accessor = null;
+			byte[] foreground = null;
+			int[] buffer = null;
+			if (this.source.image != null)
+			{
+				accessor = PixelAccessor.getAccessor(this.source.image);
+				foreground = ComponentLabeler.getForegroundTable(this.source.image,
+						this.source.reverse);
+				buffer = new int[width];
+			}
+			byte[] row = new byte[width];
+			for (int y = this.from; y < this.to; y++)
+			{
+				if (accessor != null)
+					ComponentLabeler.getForeground(accessor, foreground, this.source.reverse, y,
+							buffer, row);
+				else
+					System.arraycopy(this.source.mask, y * width, row, 0, width);
+				int o, p;
+				if (this.labels != null)
+				{
+					o = y * width;
+					p = y > this.from ? o - width : -1;
+				}
+				else
+				{
+					o = (y - this.from & 1) * width;
+					p = y > this.from ? width - o : -1;
+				}
+				ParallelComponentLabeler.this.scan(row, rows, o, p, width, table);
+				if (statistics != null)
+				{
+					statistics.ensureCapacity(table.size);
+					statistics.accumulate(rows, o, p, y, width);
+				}
+				if (y == this.from)
+					this.first = Arrays.copyOfRange(rows, o, o + width);
+				if (y == this.to - 1)
+					this.last = Arrays.copyOfRange(rows, o, o + width);
+			}
+			this.count = table.flatten();
+			ComponentLabeler.resolve(this.first, 0, width, table.parent);
+			ComponentLabeler.resolve(this.last, 0, width, table.parent);
+			if (this.labels != null)
+				ComponentLabeler.resolve(this.labels, this.from * width, this.to * width,
+						table.parent);
+			if (statistics != null)
+				this.statistics = statistics.resolve(table.parent, table.size, this.count, null);
+		}
+	}
+}
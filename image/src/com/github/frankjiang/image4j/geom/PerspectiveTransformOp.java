@@ -25,6 +25,7 @@ import java.awt.image.RasterFormatException;
 import java.awt.image.RasterOp;
 import java.awt.image.WritableRaster;
 import java.lang.annotation.Native;
+import java.util.Arrays;
 
 import org.apache.commons.math3.util.FastMath;
 
@@ -98,6 +99,29 @@ public class PerspectiveTransformOp extends ImagingOp implements RasterOp
 	 * The transformation.
 	 */
 	protected PerspectiveTransform	xform;
+	/**
+	 * The cache of the remap tables, <code>null</code> if the coordinates are
+	 * computed for each warp.
+	 */
+	protected RemapCache			remapCache;
+	/**
+	 * The maximum error of the approximated source coordinates in pixels,
+	 * <code>0</code> if the coordinates are exact.
+	 */
+	protected double				maxError;
+	/**
+	 * The cell size of the approximating grid used by the last warp.
+	 */
+	protected volatile int			gridSize				= 1;
+	/**
+	 * The estimated error of the source coordinates of the last warp.
+	 */
+	protected volatile double		gridError;
+	/**
+	 * The last chosen cell size: the matrix, the image sizes and the maximum
+	 * error it was chosen for, followed by the cell size and its error.
+	 */
+	private volatile double[]		cellSizeKey;
 
 	/**
 	 * Construct an instance of <tt>PerspectiveTransformOp</tt> with bilinear
@@ -536,14 +560,193 @@ public class PerspectiveTransformOp extends ImagingOp implements RasterOp
 	}
 
 	/**
+	 * Returns the cache of the remap tables.
+	 *
+	 * @return the cache, <code>null</code> if the coordinates are computed for
+	 *         each warp
+	 */
+	public RemapCache getRemapCache()
+	{
+		return this.remapCache;
+	}
+
+	/**
+	 * Set the cache of the remap tables. With a cache the source coordinates
+	 * are computed once for each combination of the transformation, the image
+	 * sizes and the interpolation type, the later warps only gather the
+	 * source pixels. The cached coordinates are rounded to
+	 * {@value RemapTable#FRACTION_BITS} fractional bits.
+	 *
+	 * @param remapCache the cache, e.g. {@linkplain RemapCache#getSharedCache()}
+	 *            , <code>null</code> to compute the coordinates for each warp
+	 */
+	public void setRemapCache(RemapCache remapCache)
+	{
+		this.remapCache = remapCache;
+	}
+
+	/**
+	 * Returns the maximum error of the approximated source coordinates.
+	 *
+	 * @return the maximum error in source pixels, <code>0</code> if the
+	 *         coordinates are exact
+	 */
+	public double getMaxError()
+	{
+		return this.maxError;
+	}
+
+	/**
+	 * Set the maximum error of the approximated source coordinates. With a
+	 * positive error the transformation is evaluated exactly only on a coarse
+	 * grid and the source coordinates are interpolated inside its cells, the
+	 * cell size is adapted to the error once for each transformation and image
+	 * sizes. Without a {@linkplain #setRemapCache(RemapCache) cache} the
+	 * coordinates are computed row by row straight into the destination. The
+	 * chosen cell size and the estimated error are reported by
+	 * {@linkplain #getGridSize()} and {@linkplain #getGridError()}.
+	 *
+	 * @param maxError the maximum error in source pixels, <code>0</code> for
+	 *            the exact source coordinates
+	 */
+	public void setMaxError(double maxError)
+	{
+		if (maxError < 0)
+			throw new IllegalArgumentException("The maximum error cannot be negative: " + maxError);
+		this.maxError = maxError;
+	}
+
+	/**
+	 * Returns the cell size of the approximating grid used by the last warp.
+	 *
+	 * @return the cell size, <code>1</code> if the coordinates were exact
+	 */
+	public int getGridSize()
+	{
+		return this.gridSize;
+	}
+
+	/**
+	 * Returns the estimated error of the source coordinates of the last warp.
+	 *
+	 * @return the error in source pixels, <code>0</code> if the coordinates
+	 *         were exact
+	 */
+	public double getGridError()
+	{
+		return this.gridError;
+	}
+
+	/**
+	 * Returns the cell size of the approximating grid of the images of the
+	 * specified sizes, and report it by {@linkplain #getGridSize()} and
+	 * {@linkplain #getGridError()}. The cell size is chosen once for each
+	 * transformation, image sizes and maximum error and reused by the
+	 * following warps.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @return the cell size, <code>1</code> if the coordinates are exact
+	 */
+	protected int getCellSize(double[] matrix, int srcWidth, int srcHeight, int dstWidth,
+			int dstHeight)
+	{
+		if (this.maxError <= 0)
+		{
+			this.gridSize = 1;
+			this.gridError = 0;
+			return 1;
+		}
+		double[] key = Arrays.copyOf(matrix, 16);
+		key[9] = srcWidth;
+		key[10] = srcHeight;
+		key[11] = dstWidth;
+		key[12] = dstHeight;
+		key[13] = this.maxError;
+		double[] last = this.cellSizeKey;
+		if (last != null && Arrays.equals(Arrays.copyOf(last, 14), Arrays.copyOf(key, 14)))
+			key = last;
+		else
+		{
+			int cellSize = RemapTable.getCellSize(matrix, srcWidth, srcHeight, dstWidth,
+					dstHeight, this.maxError);
+			key[14] = cellSize;
+			key[15] = RemapTable.getError(matrix, srcWidth, srcHeight, dstWidth, dstHeight,
+					cellSize);
+			this.cellSizeKey = key;
+		}
+		this.gridSize = (int) key[14];
+		this.gridError = key[15];
+		return this.gridSize;
+	}
+
+	/**
+	 * Returns the cached remap table of the images of the specified sizes, or
+	 * <code>null</code> if the cache is not set or the source is larger than
+	 * {@value RemapTable#MAX_SOURCE_SIZE} pixels along an axis.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @return the remap table
+	 */
+	protected RemapTable getRemapTable(double[] matrix, int srcWidth, int srcHeight,
+			int dstWidth, int dstHeight)
+	{
+		if (this.remapCache == null || !this.isRemappable(srcWidth, srcHeight))
+			return null;
+		int cellSize = this.getCellSize(matrix, srcWidth, srcHeight, dstWidth, dstHeight);
+		return this.remapCache.getTable(this.xform, srcWidth, srcHeight, dstWidth, dstHeight,
+				this.interpolationType, cellSize);
+	}
+
+	/**
+	 * Returns <code>true</code> if the source of the specified size can be
+	 * mapped by a {@linkplain RemapTable}.
+	 *
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @return <code>true</code> if remappable
+	 */
+	private boolean isRemappable(int srcWidth, int srcHeight)
+	{
+		return srcWidth <= RemapTable.MAX_SOURCE_SIZE && srcHeight <= RemapTable.MAX_SOURCE_SIZE;
+	}
+
+	/**
+	 * Warp the source through the cached remap table if the cache is set,
+	 * computes the approximated source coordinates row by row into the
+	 * destination if only the approximation is enabled, or transforms it
+	 * exactly otherwise.
+	 *
 	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
 	 *      java.awt.image.BufferedImage)
 	 */
 	@Override
 	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
 	{
-		if (ImagingLib.filter(this, src, dst) == null)
-			throw new ImagingOpException("Unable to transform src image");
+		int srcWidth = src.getWidth(), srcHeight = src.getHeight();
+		double[] matrix = new double[9];
+		this.xform.getMatrix(matrix);
+		RemapTable table = this.getRemapTable(matrix, srcWidth, srcHeight, dst.getWidth(),
+				dst.getHeight());
+		if (table != null)
+			table.apply(src, dst);
+		else if (this.maxError > 0 && this.isRemappable(srcWidth, srcHeight))
+			RemapTable.warp(matrix, this.interpolationType, this.getCellSize(matrix, srcWidth,
+					srcHeight, dst.getWidth(), dst.getHeight()), src, dst);
+		else
+		{
+			this.gridSize = 1;
+			this.gridError = 0;
+			if (ImagingLib.filter(this, src, dst) == null)
+				throw new ImagingOpException("Unable to transform src image");
+		}
 	}
 
 	/**
@@ -553,8 +756,23 @@ public class PerspectiveTransformOp extends ImagingOp implements RasterOp
 	@Override
 	protected void operate(Raster src, WritableRaster dst)
 	{
-		if (ImagingLib.filter(this, src, dst) == null)
-			throw new ImagingOpException("Unable to transform src image");
+		int srcWidth = src.getWidth(), srcHeight = src.getHeight();
+		double[] matrix = new double[9];
+		this.xform.getMatrix(matrix);
+		RemapTable table = this.getRemapTable(matrix, srcWidth, srcHeight, dst.getWidth(),
+				dst.getHeight());
+		if (table != null)
+			table.apply(src, dst);
+		else if (this.maxError > 0 && this.isRemappable(srcWidth, srcHeight))
+			RemapTable.warp(matrix, this.interpolationType, this.getCellSize(matrix, srcWidth,
+					srcHeight, dst.getWidth(), dst.getHeight()), src, dst);
+		else
+		{
+			this.gridSize = 1;
+			this.gridError = 0;
+			if (ImagingLib.filter(this, src, dst) == null)
+				throw new ImagingOpException("Unable to transform src image");
+		}
 	}
 
 	// We need to be able to invert the transform if we want to
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RemapCache.java is PROPRIETARY/CONFIDENTIAL built in 1:58:44 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The least-recently-used cache of {@linkplain RemapTable remap tables}.
+ * <p>
+ * The tables are keyed by the transformation matrix, the source size, the
+ * destination size, the interpolation type and the cell size of the
+ * approximating grid. The total memory of the cached tables is bounded by the
+ * capacity, the least recently used tables are evicted first. A table larger
+ * than the capacity is never cached, it is created again for each frame.
+ * </p>
+ * <p>
+ * A table takes about 6 bytes for each destination pixel (see
+ * {@linkplain RemapTable#getMemory()}), so the
+ * {@linkplain #DEFAULT_CAPACITY default capacity} holds the table of a
+ * destination up to about 11 megapixels. Use
+ * {@linkplain #isCacheable(int, int)} to check a destination size, and a
+ * larger capacity for larger frames.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class RemapCache
+{
+	/**
+	 * The default capacity in bytes, 64 MB.
+	 */
+	public static final long			DEFAULT_CAPACITY	= 64L << 20;
+
+	/**
+	 * The shared cache.
+	 */
+	private static final RemapCache		shared				= new RemapCache(
+			RemapCache.DEFAULT_CAPACITY);
+
+	/**
+	 * Returns the cache shared by the operations.
+	 *
+	 * @return the shared cache
+	 */
+	public static RemapCache getSharedCache()
+	{
+		return RemapCache.shared;
+	}
+
+	/**
+	 * The capacity in bytes.
+	 */
+	protected final long				capacity;
+	/**
+	 * The memory of the cached tables in bytes.
+	 */
+	protected long						memory;
+	/**
+	 * The cached tables in the access order.
+	 */
+	protected final Map<Key, RemapTable>	tables				= new LinkedHashMap<>(16, 0.75f,
+			true);
+
+	/**
+	 * Construct an instance of <tt>RemapCache</tt>.
+	 *
+	 * @param capacity the capacity in bytes
+	 */
+	public RemapCache(long capacity)
+	{
+		if (capacity < 0)
+			throw new IllegalArgumentException("The capacity cannot be negative: " + capacity);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the remap table of the specified transformation, creates and
+	 * caches it if absent.
+	 *
+	 * @param xform the transformation
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @param interpolationType the interpolation type defined in
+	 *            {@linkplain PerspectiveTransformOp}
+	 * @return the remap table
+	 */
+	public RemapTable getTable(PerspectiveTransform xform, int srcWidth, int srcHeight,
+			int dstWidth, int dstHeight, int interpolationType)
+	{
+		return this.getTable(xform, srcWidth, srcHeight, dstWidth, dstHeight, interpolationType,
+				1);
+	}
+
+	/**
+	 * Returns the remap table of the specified transformation approximated on
+	 * the grid of the specified cell size, creates and caches it if absent.
+	 *
+	 * @param xform the transformation
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @param interpolationType the interpolation type defined in
+	 *            {@linkplain PerspectiveTransformOp}
+	 * @param cellSize the cell size of the approximating grid, <code>1</code>
+	 *            for the exact source coordinates
+	 * @return the remap table
+	 */
+	public RemapTable getTable(PerspectiveTransform xform, int srcWidth, int srcHeight,
+			int dstWidth, int dstHeight, int interpolationType, int cellSize)
+	{
+		double[] matrix = new double[9];
+		xform.getMatrix(matrix);
+		Key key = new Key(matrix, srcWidth, srcHeight, dstWidth, dstHeight, interpolationType,
+				cellSize);
+		RemapTable table;
+		synchronized (this)
+		{
+			table = this.tables.get(key);
+		}
+		if (table != null)
+			return table;
+		// create the table out of the lock, the concurrent duplicates are harmless
+		table = new RemapTable(matrix, srcWidth, srcHeight, dstWidth, dstHeight,
+				interpolationType, cellSize);
+		this.put(key, table);
+		return table;
+	}
+
+	/**
+	 * Returns <code>true</code> if the table of the specified destination size
+	 * fits in the capacity of this cache.
+	 *
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @return <code>true</code> if the table can be cached
+	 */
+	public boolean isCacheable(int dstWidth, int dstHeight)
+	{
+		return RemapTable.getMemory(dstWidth, dstHeight) <= this.capacity;
+	}
+
+	/**
+	 * Cache the table and evict the least recently used tables beyond the
+	 * capacity.
+	 *
+	 * @param key the key
+	 * @param table the table
+	 */
+	private synchronized void put(Key key, RemapTable table)
+	{
+		if (table.getMemory() > this.capacity)
+			return;
+		RemapTable old = this.tables.put(key, table);
+		if (old != null)
+			this.memory -= old.getMemory();
+		this.memory += table.getMemory();
+		Iterator<RemapTable> it = this.tables.values().iterator();
+		while (this.memory > this.capacity && it.hasNext())
+		{
+			this.memory -= it.next().getMemory();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Remove all the cached tables.
+	 */
+	public synchronized void clear()
+	{
+		this.tables.clear();
+		this.memory = 0;
+	}
+
+	/**
+	 * Returns the number of the cached tables.
+	 *
+	 * @return the number of tables
+	 */
+	public synchronized int size()
+	{
+		return this.tables.size();
+	}
+
+	/**
+	 * Returns the memory of the cached tables in bytes.
+	 *
+	 * @return the memory
+	 */
+	public synchronized long getMemory()
+	{
+		return this.memory;
+	}
+
+	/**
+	 * Returns the capacity in bytes.
+	 *
+	 * @return the capacity
+	 */
+	public long getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * The key of the remap tables.
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	protected static final class Key
+	{
+		private final double[]	matrix;
+		private final int		srcWidth, srcHeight, dstWidth, dstHeight, interpolationType,
+				cellSize;
+
+		/**
+		 * Construct an instance of <tt>Key</tt>.
+		 */
+		Key(double[] matrix, int srcWidth, int srcHeight, int dstWidth, int dstHeight,
+				int interpolationType, int cellSize)
+		{
+			this.matrix = matrix;
+			this.srcWidth = srcWidth;
+			this.srcHeight = srcHeight;
+			this.dstWidth = dstWidth;
+			this.dstHeight = dstHeight;
+			this.interpolationType = interpolationType;
+			this.cellSize = cellSize;
+		}
+
+		/**
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode()
+		{
+			int hash = Arrays.hashCode(this.matrix);
+			hash = hash * 31 + this.srcWidth;
+			hash = hash * 31 + this.srcHeight;
+			hash = hash * 31 + this.dstWidth;
+			hash = hash * 31 + this.dstHeight;
+			hash = hash * 31 + this.interpolationType;
+			return hash * 31 + this.cellSize;
+		}
+
+		/**
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key key = (Key) obj;
+			return this.srcWidth == key.srcWidth && this.srcHeight == key.srcHeight
+					&& this.dstWidth == key.dstWidth && this.dstHeight == key.dstHeight
+					&& this.interpolationType == key.interpolationType
+					&& this.cellSize == key.cellSize
+					&& Arrays.equals(this.matrix, key.matrix);
+		}
+	}
+}
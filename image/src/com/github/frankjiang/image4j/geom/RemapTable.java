@@ -0,0 +1,966 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RemapTable.java is PROPRIETARY/CONFIDENTIAL built in 1:42:10 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ImagingOpException;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+import com.github.frankjiang.image4j.ImagingLib;
+import com.github.frankjiang.image4j.PixelAccessor;
+import com.github.frankjiang.image4j.RowWindow;
+import com.github.frankjiang.image4j.math.InterpolationKernel;
+
+/**
+ * The precomputed coordinate map of a perspective warp.
+ * <p>
+ * For each destination pixel the table holds the source coordinates in
+ * fixed-point with {@value #FRACTION_BITS} fractional bits, so that warping a
+ * frame only gathers the source neighbors and interpolates them with the
+ * weights of the {@linkplain InterpolationKernel}. The destination pixels
+ * mapped out of the source are left untouched, as the uncached warp of
+ * {@linkplain PerspectiveTransformOp} does.
+ * </p>
+ * <p>
+ * Each source point is packed in 6 bytes: the coordinates of its top-left
+ * neighbor in the two 16-bit halves of an <code>int</code> and the two
+ * fractions in a <code>short</code>, so the sources are limited to
+ * {@value #MAX_SOURCE_SIZE} pixels along each axis. The source pixels of the
+ * packed <code>int</code> layouts are gathered straight from their backing
+ * array, the others from a {@linkplain RowWindow} of the source rows.
+ * </p>
+ * <p>
+ * With a cell size greater than 1 the transformation is evaluated exactly only
+ * on the nodes of a grid of square cells, and the source coordinates inside
+ * each cell are interpolated bilinearly from its corners. This avoids the
+ * projective division for each pixel at the cost of a sub-pixel error, which
+ * can be bounded by {@linkplain #getCellSize(double[], int, int, int, int, double)}
+ * . The cells crossed by the vanishing line of the transformation are
+ * always evaluated exactly.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ * @see RemapCache
+ */
+public class RemapTable
+{
+	/**
+	 * The number of the fractional bits of the source coordinates.
+	 */
+	public static final int		FRACTION_BITS	= InterpolationKernel.FRACTION_BITS;
+
+	/**
+	 * The maximum source width and height.
+	 */
+	public static final int		MAX_SOURCE_SIZE	= Short.MAX_VALUE;
+
+	/**
+	 * The packed source point of the destination pixels not mapped.
+	 */
+	private static final int	UNMAPPED		= Integer.MIN_VALUE;
+
+	/**
+	 * The maximum cell size of the approximating grid.
+	 */
+	public static final int		MAX_CELL_SIZE	= 64;
+
+	/**
+	 * The source width.
+	 */
+	protected final int		srcWidth;
+	/**
+	 * The source height.
+	 */
+	protected final int		srcHeight;
+	/**
+	 * The destination width.
+	 */
+	protected final int		dstWidth;
+	/**
+	 * The destination height.
+	 */
+	protected final int		dstHeight;
+	/**
+	 * The interpolation type.
+	 */
+	protected final int		interpolationType;
+	/**
+	 * The visited span [start, end) of each destination row.
+	 */
+	protected final int[]	spans;
+	/**
+	 * The top-left neighbor of the source point of each destination pixel,
+	 * packed as <code>y &lt;&lt; 16 | x &amp; 0xffff</code>,
+	 * <code>Integer.MIN_VALUE</code> if not mapped.
+	 */
+	protected final int[]	offsets;
+	/**
+	 * The quantized fractions of the source point of each destination pixel,
+	 * packed as <code>fx &lt;&lt; 8 | fy</code>.
+	 */
+	protected final short[]	fractions;
+	/**
+	 * The cell size of the approximating grid, <code>1</code> if exact.
+	 */
+	protected final int		cellSize;
+	/**
+	 * The estimated maximum error of the source coordinates in pixels.
+	 */
+	protected final double	error;
+
+	/**
+	 * Construct an instance of <tt>RemapTable</tt> with the exact source
+	 * coordinates.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @param interpolationType the interpolation type defined in
+	 *            {@linkplain PerspectiveTransformOp}
+	 * @throws ImagingOpException if the transformation cannot be inverted on
+	 *             the destination
+	 * @throws IllegalArgumentException if the source is larger than
+	 *             {@value #MAX_SOURCE_SIZE} pixels along an axis
+	 */
+	public RemapTable(double[] matrix, int srcWidth, int srcHeight, int dstWidth, int dstHeight,
+			int interpolationType)
+	{
+		this(matrix, srcWidth, srcHeight, dstWidth, dstHeight, interpolationType, 1);
+	}
+
+	/**
+	 * Construct an instance of <tt>RemapTable</tt>.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @param interpolationType the interpolation type defined in
+	 *            {@linkplain PerspectiveTransformOp}
+	 * @param cellSize the cell size of the approximating grid, <code>1</code>
+	 *            for the exact source coordinates
+	 * @throws ImagingOpException if the transformation cannot be inverted on
+	 *             the destination
+	 * @throws IllegalArgumentException if the source is larger than
+	 *             {@value #MAX_SOURCE_SIZE} pixels along an axis
+	 */
+	public RemapTable(double[] matrix, int srcWidth, int srcHeight, int dstWidth, int dstHeight,
+			int interpolationType, int cellSize)
+	{
+		if (srcWidth > RemapTable.MAX_SOURCE_SIZE || srcHeight > RemapTable.MAX_SOURCE_SIZE)
+			throw new IllegalArgumentException("The source " + srcWidth + "x" + srcHeight
+					+ " is larger than " + RemapTable.MAX_SOURCE_SIZE + " pixels.");
+		this.srcWidth = srcWidth;
+		this.srcHeight = srcHeight;
+		this.dstWidth = dstWidth;
+		this.dstHeight = dstHeight;
+		this.interpolationType = interpolationType;
+		this.spans = new int[dstHeight * 2];
+		this.offsets = new int[dstWidth * dstHeight];
+		this.fractions = new short[dstWidth * dstHeight];
+		this.cellSize = Math.max(1, cellSize);
+
+		double[] inverse = ImagingLib.adjoint(matrix);
+		Grid grid = null;
+		if (this.cellSize > 1)
+		{
+			grid = new Grid(inverse, this.cellSize, dstWidth, dstHeight);
+			this.error = grid.estimateError(srcWidth, srcHeight);
+		}
+		else
+			this.error = 0;
+		Mapper mapper = new Mapper(inverse, grid, srcWidth, srcHeight, dstWidth);
+		for (int y = 0; y < dstHeight; y++)
+		{
+			mapper.map(y, this.offsets, this.fractions, y * dstWidth);
+			this.spans[y * 2] = mapper.span[0];
+			this.spans[y * 2 + 1] = mapper.span[1];
+		}
+	}
+
+	/**
+	 * Warp the source image into the destination image with the source
+	 * coordinates computed row by row, without storing a table.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param interpolationType the interpolation type defined in
+	 *            {@linkplain PerspectiveTransformOp}
+	 * @param cellSize the cell size of the approximating grid, <code>1</code>
+	 *            for the exact source coordinates
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @throws ImagingOpException if the transformation cannot be inverted on
+	 *             the destination
+	 * @throws IllegalArgumentException if the source is larger than
+	 *             {@value #MAX_SOURCE_SIZE} pixels along an axis
+	 */
+	public static void warp(double[] matrix, int interpolationType, int cellSize,
+			BufferedImage src, BufferedImage dst)
+	{
+		Mapper mapper = RemapTable.getMapper(matrix, cellSize, src.getWidth(), src.getHeight(),
+				dst.getWidth(), dst.getHeight());
+		Warp warp = new Warp(src, dst, interpolationType);
+		int[] offsets = new int[dst.getWidth()];
+		short[] fractions = new short[dst.getWidth()];
+		for (int y = 0; y < dst.getHeight(); y++)
+		{
+			mapper.map(y, offsets, fractions, 0);
+			warp.row(y, mapper.span[0], mapper.span[1], offsets, fractions, 0);
+		}
+	}
+
+	/**
+	 * Warp the source raster into the destination raster band by band with
+	 * the source coordinates computed row by row, without storing a table.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param interpolationType the interpolation type defined in
+	 *            {@linkplain PerspectiveTransformOp}
+	 * @param cellSize the cell size of the approximating grid, <code>1</code>
+	 *            for the exact source coordinates
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 * @throws ImagingOpException if the transformation cannot be inverted on
+	 *             the destination
+	 * @throws IllegalArgumentException if the source is larger than
+	 *             {@value #MAX_SOURCE_SIZE} pixels along an axis
+	 */
+	public static void warp(double[] matrix, int interpolationType, int cellSize, Raster src,
+			WritableRaster dst)
+	{
+		Mapper mapper = RemapTable.getMapper(matrix, cellSize, src.getWidth(), src.getHeight(),
+				dst.getWidth(), dst.getHeight());
+		Warp warp = new Warp(src, dst, interpolationType);
+		int[] offsets = new int[dst.getWidth()];
+		short[] fractions = new short[dst.getWidth()];
+		for (int y = 0; y < dst.getHeight(); y++)
+		{
+			mapper.map(y, offsets, fractions, 0);
+			warp.row(y, mapper.span[0], mapper.span[1], offsets, fractions, 0);
+		}
+	}
+
+	/**
+	 * Returns the mapper of the destination rows.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param cellSize the cell size of the approximating grid
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @return the mapper
+	 */
+	private static Mapper getMapper(double[] matrix, int cellSize, int srcWidth, int srcHeight,
+			int dstWidth, int dstHeight)
+	{
+		if (srcWidth > RemapTable.MAX_SOURCE_SIZE || srcHeight > RemapTable.MAX_SOURCE_SIZE)
+			throw new IllegalArgumentException("The source " + srcWidth + "x" + srcHeight
+					+ " is larger than " + RemapTable.MAX_SOURCE_SIZE + " pixels.");
+		double[] inverse = ImagingLib.adjoint(matrix);
+		Grid grid = cellSize > 1 ? new Grid(inverse, cellSize, dstWidth, dstHeight) : null;
+		return new Mapper(inverse, grid, srcWidth, srcHeight, dstWidth);
+	}
+
+	/**
+	 * Returns <code>true</code> if this table maps the images of the specified
+	 * sizes.
+	 *
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @return <code>true</code> if applicable
+	 */
+	public boolean isApplicable(int srcWidth, int srcHeight, int dstWidth, int dstHeight)
+	{
+		return this.srcWidth == srcWidth && this.srcHeight == srcHeight
+				&& this.dstWidth == dstWidth && this.dstHeight == dstHeight;
+	}
+
+	/**
+	 * Warp the source image into the destination image.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	public void apply(BufferedImage src, BufferedImage dst)
+	{
+		this.check(src.getWidth(), src.getHeight(), dst.getWidth(), dst.getHeight());
+		Warp warp = new Warp(src, dst, this.interpolationType);
+		for (int y = 0; y < this.dstHeight; y++)
+			warp.row(y, this.spans[y * 2], this.spans[y * 2 + 1], this.offsets, this.fractions,
+					y * this.dstWidth);
+	}
+
+	/**
+	 * Warp the source raster into the destination raster band by band.
+	 *
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 */
+	public void apply(Raster src, WritableRaster dst)
+	{
+		this.check(src.getWidth(), src.getHeight(), dst.getWidth(), dst.getHeight());
+		Warp warp = new Warp(src, dst, this.interpolationType);
+		for (int y = 0; y < this.dstHeight; y++)
+			warp.row(y, this.spans[y * 2], this.spans[y * 2 + 1], this.offsets, this.fractions,
+					y * this.dstWidth);
+	}
+
+	/**
+	 * Check the image sizes.
+	 *
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 */
+	private void check(int srcWidth, int srcHeight, int dstWidth, int dstHeight)
+	{
+		if (!this.isApplicable(srcWidth, srcHeight, dstWidth, dstHeight))
+			throw new IllegalArgumentException("The remap table of " + this.srcWidth + "x"
+					+ this.srcHeight + " to " + this.dstWidth + "x" + this.dstHeight
+					+ " cannot map " + srcWidth + "x" + srcHeight + " to " + dstWidth + "x"
+					+ dstHeight + ".");
+	}
+
+	/**
+	 * Returns the approximate memory size of this table in bytes.
+	 *
+	 * @return the memory size
+	 */
+	public long getMemory()
+	{
+		return RemapTable.getMemory(this.dstWidth, this.dstHeight);
+	}
+
+	/**
+	 * Returns the approximate memory size of the table of the specified
+	 * destination size in bytes.
+	 *
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @return the memory size
+	 */
+	public static long getMemory(int dstWidth, int dstHeight)
+	{
+		return 8L * dstHeight + 6L * dstWidth * dstHeight;
+	}
+
+	/**
+	 * Returns the interpolation type.
+	 *
+	 * @return the interpolation type
+	 */
+	public int getInterpolationType()
+	{
+		return this.interpolationType;
+	}
+
+	/**
+	 * Returns the cell size of the approximating grid.
+	 *
+	 * @return the cell size, <code>1</code> if the source coordinates are exact
+	 */
+	public int getCellSize()
+	{
+		return this.cellSize;
+	}
+
+	/**
+	 * Returns the estimated maximum error of the source coordinates, which is
+	 * sampled at the centers and the edge midpoints of the cells mapped into
+	 * the source.
+	 *
+	 * @return the error in source pixels, <code>0</code> if exact
+	 */
+	public double getError()
+	{
+		return this.error;
+	}
+
+	/**
+	 * Returns the largest cell size, a power of 2 not greater than
+	 * {@value #MAX_CELL_SIZE}, whose estimated error does not exceed the
+	 * specified maximum error.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @param maxError the maximum error in source pixels
+	 * @return the cell size, <code>1</code> if no grid meets the error
+	 */
+	public static int getCellSize(double[] matrix, int srcWidth, int srcHeight, int dstWidth,
+			int dstHeight, double maxError)
+	{
+		double[] inverse = ImagingLib.adjoint(matrix);
+		for (int size = RemapTable.MAX_CELL_SIZE; size > 1; size >>= 1)
+			if (new Grid(inverse, size, dstWidth, dstHeight).estimateError(srcWidth,
+					srcHeight) <= maxError)
+				return size;
+		return 1;
+	}
+
+	/**
+	 * Returns the estimated maximum error of the source coordinates
+	 * approximated on the grid of the specified cell size.
+	 *
+	 * @param matrix the 9-elements transformation matrix
+	 * @param srcWidth the source width
+	 * @param srcHeight the source height
+	 * @param dstWidth the destination width
+	 * @param dstHeight the destination height
+	 * @param cellSize the cell size of the approximating grid
+	 * @return the error in source pixels, <code>0</code> if exact
+	 * @see #getError()
+	 */
+	public static double getError(double[] matrix, int srcWidth, int srcHeight, int dstWidth,
+			int dstHeight, int cellSize)
+	{
+		if (cellSize <= 1)
+			return 0;
+		return new Grid(ImagingLib.adjoint(matrix), cellSize, dstWidth, dstHeight)
+				.estimateError(srcWidth, srcHeight);
+	}
+
+	/**
+	 * The mapper of the destination rows into the packed source points.
+	 * <p>
+	 * Along a row the homogeneous source coordinates of the exact mapping and
+	 * the source coordinates inside a cell of the grid are both linear, so
+	 * they are stepped by forward differences from the start of the span or
+	 * from the left edge of the cell, which is interpolated from the nodes of
+	 * the cell. Inside the cells the steps are added in fixed-point, so the
+	 * approximated coordinates cost no division nor rounding of a
+	 * floating-point value for each pixel, and stay exact on the nodes.
+	 * </p>
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private static final class Mapper
+	{
+		/**
+		 * The number of the fractional bits of the stepped source
+		 * coordinates.
+		 */
+		private static final int	STEP_BITS	= 16;
+
+		/**
+		 * The inverse matrix.
+		 */
+		private final double[]		inverse;
+		/**
+		 * The approximating grid, <code>null</code> if exact.
+		 */
+		private final Grid			grid;
+		/**
+		 * The source width and height, the destination width.
+		 */
+		private final int			srcWidth, srcHeight, dstWidth;
+		/**
+		 * The visited span [start, end) of the last mapped row.
+		 */
+		final int[]					span		= new int[2];
+
+		/**
+		 * Construct an instance of <tt>Mapper</tt>.
+		 *
+		 * @param inverse the inverse matrix
+		 * @param grid the approximating grid, <code>null</code> if exact
+		 * @param srcWidth the source width
+		 * @param srcHeight the source height
+		 * @param dstWidth the destination width
+		 */
+		Mapper(double[] inverse, Grid grid, int srcWidth, int srcHeight, int dstWidth)
+		{
+			this.inverse = inverse;
+			this.grid = grid;
+			this.srcWidth = srcWidth;
+			this.srcHeight = srcHeight;
+			this.dstWidth = dstWidth;
+		}
+
+		/**
+		 * Map the span of the destination row, the packed source point of the
+		 * pixel <code>x</code> is stored at <code>base + x</code>.
+		 *
+		 * @param y the destination row
+		 * @param offsets the packed top-left neighbors
+		 * @param fractions the packed fractions
+		 * @param base the index of the pixel 0 of the row
+		 */
+		void map(int y, int[] offsets, short[] fractions, int base)
+		{
+			ImagingLib.getSpan(this.inverse, y, this.dstWidth, this.srcWidth, this.srcHeight,
+					this.span);
+			int start = this.span[0], end = this.span[1];
+			Grid grid = this.grid;
+			if (grid == null)
+			{
+				this.exact(y, start, end, offsets, fractions, base);
+				return;
+			}
+			int size = grid.size, j = y / size;
+			double fy = (y - j * size) / (double) size;
+			for (int x0 = start; x0 < end;)
+			{
+				int k = x0 / size, x1 = Math.min(end, (k + 1) * size);
+				if (!grid.valid[j * (grid.columns - 1) + k])
+					this.exact(y, x0, x1, offsets, fractions, base);
+				else
+				{
+					// the left and the right edges of the cell on the row
+					int i = j * grid.columns + k, c = i + grid.columns;
+					double lx = grid.xs[i] + (grid.xs[c] - grid.xs[i]) * fy;
+					double ly = grid.ys[i] + (grid.ys[c] - grid.ys[i]) * fy;
+					double rx = grid.xs[i + 1] + (grid.xs[c + 1] - grid.xs[i + 1]) * fy;
+					double ry = grid.ys[i + 1] + (grid.ys[c + 1] - grid.ys[i + 1]) * fy;
+					this.step(lx + (rx - lx) * (x0 - k * size) / size,
+							ly + (ry - ly) * (x0 - k * size) / size, (rx - lx) / size,
+							(ry - ly) / size, offsets, fractions, base + x0, base + x1);
+				}
+				x0 = x1;
+			}
+		}
+
+		/**
+		 * Map the destination pixels [start, end) of the linear source
+		 * coordinates, stepped in fixed-point with {@value #STEP_BITS}
+		 * fractional bits.
+		 *
+		 * @param x the source X coordinate of the first pixel
+		 * @param y the source Y coordinate of the first pixel
+		 * @param dx the step of the source X coordinate
+		 * @param dy the step of the source Y coordinate
+		 * @param offsets the packed top-left neighbors
+		 * @param fractions the packed fractions
+		 * @param start the index of the first pixel
+		 * @param end the index after the last pixel
+		 */
+		private void step(double x, double y, double dx, double dy, int[] offsets,
+				short[] fractions, int start, int end)
+		{
+			double one = 1L << Mapper.STEP_BITS;
+			long px = Math.round(x * one), py = Math.round(y * one);
+			long sx = Math.round(dx * one), sy = Math.round(dy * one);
+			// the source points in (-2, width) x (-2, height) are mapped
+			long minX = -2L << Mapper.STEP_BITS, maxX = (long) this.srcWidth << Mapper.STEP_BITS;
+			long minY = -2L << Mapper.STEP_BITS, maxY = (long) this.srcHeight << Mapper.STEP_BITS;
+			int shift = Mapper.STEP_BITS - RemapTable.FRACTION_BITS, half = 1 << shift - 1;
+			int bits = RemapTable.FRACTION_BITS, mask = InterpolationKernel.FRACTION_ONE - 1;
+			for (int i = start; i < end; i++, px += sx, py += sy)
+			{
+				if (px <= minX || px >= maxX || py <= minY || py >= maxY)
+				{
+					offsets[i] = RemapTable.UNMAPPED;
+					continue;
+				}
+				int qx = (int) (px + half >> shift), qy = (int) (py + half >> shift);
+				offsets[i] = (qy >> bits) << 16 | (qx >> bits) & 0xffff;
+				fractions[i] = (short) ((qx & mask) << 8 | qy & mask);
+			}
+		}
+
+		/**
+		 * Map the pixels [start, end) of the destination row exactly.
+		 *
+		 * @param y the destination row
+		 * @param start the first pixel
+		 * @param end the pixel after the last one
+		 * @param offsets the packed top-left neighbors
+		 * @param fractions the packed fractions
+		 * @param base the index of the pixel 0 of the row
+		 */
+		private void exact(int y, int start, int end, int[] offsets, short[] fractions, int base)
+		{
+			double[] inverse = this.inverse;
+			double nx = inverse[0] * start + inverse[3] * y + inverse[6];
+			double ny = inverse[1] * start + inverse[4] * y + inverse[7];
+			double w = inverse[2] * start + inverse[5] * y + inverse[8];
+			for (int x = start; x < end; x++, nx += inverse[0], ny += inverse[1], w += inverse[2])
+			{
+				if (Math.abs(w) < PerspectiveTransform.PERSPECTIVE_DIVIDE_EPSILON)
+					throw new ImagingOpException("Unable to transform src image");
+				this.store((float) (nx / w), (float) (ny / w), offsets, fractions, base + x);
+			}
+		}
+
+		/**
+		 * Store the packed source point, or mark the destination pixel as not
+		 * mapped if the point is out of the source.
+		 *
+		 * @param dx the source X coordinate
+		 * @param dy the source Y coordinate
+		 * @param offsets the packed top-left neighbors
+		 * @param fractions the packed fractions
+		 * @param index the index of the destination pixel
+		 */
+		private void store(float dx, float dy, int[] offsets, short[] fractions, int index)
+		{
+			if ((int) dx > this.srcWidth - 1 || (int) dx < -1 || (int) dy > this.srcHeight - 1
+					|| (int) dy < -1)
+			{
+				offsets[index] = RemapTable.UNMAPPED;
+				return;
+			}
+			int bits = RemapTable.FRACTION_BITS, mask = InterpolationKernel.FRACTION_ONE - 1;
+			int sx = InterpolationKernel.quantize(dx), sy = InterpolationKernel.quantize(dy);
+			offsets[index] = (sy >> bits) << 16 | (sx >> bits) & 0xffff;
+			fractions[index] = (short) ((sx & mask) << 8 | sy & mask);
+		}
+	}
+
+	/**
+	 * The gathering of the source pixels of the packed source points into the
+	 * destination rows. The pixels of the packed <code>int</code> layouts are
+	 * interpolated in their backing array, the others in a
+	 * {@linkplain RowWindow} of the source rows.
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private static final class Warp
+	{
+		/**
+		 * The interpolation kernel.
+		 */
+		private final InterpolationKernel	kernel;
+		/**
+		 * The source width and height.
+		 */
+		private final int					srcWidth, srcHeight;
+		/**
+		 * The window of the source rows, <code>null</code> if the backing
+		 * array is gathered.
+		 */
+		private final RowWindow				window;
+		/**
+		 * The backing array of the packed source pixels.
+		 */
+		private int[]						pixels;
+		/**
+		 * The index of the source pixel (0, 0), the scanline stride and the
+		 * alpha of the opaque sources in the backing array.
+		 */
+		private int							base, stride, opaque;
+		/**
+		 * The accessor of the destination image, <code>null</code> if the
+		 * raster is warped.
+		 */
+		private final PixelAccessor			out;
+		/**
+		 * The destination raster, <code>null</code> if the image is warped.
+		 */
+		private final WritableRaster		dst;
+		/**
+		 * The number of the bands of the raster.
+		 */
+		private final int					bands;
+		/**
+		 * The maximum sample of each band of the raster.
+		 */
+		private final int[]					max;
+		/**
+		 * The destination row.
+		 */
+		private final int[]					row;
+
+		/**
+		 * Construct an instance of <tt>Warp</tt> of the images.
+		 *
+		 * @param src the source image
+		 * @param dst the destination image
+		 * @param interpolationType the interpolation type
+		 */
+		Warp(BufferedImage src, BufferedImage dst, int interpolationType)
+		{
+			this.kernel = InterpolationKernel.getInstance(interpolationType);
+			this.srcWidth = src.getWidth();
+			this.srcHeight = src.getHeight();
+			PixelAccessor in = PixelAccessor.getAccessor(src);
+			if (in instanceof PixelAccessor.IntPacked)
+			{
+				PixelAccessor.IntPacked packed = (PixelAccessor.IntPacked) in;
+				this.pixels = packed.getData();
+				this.base = packed.getIndex(0, 0);
+				this.stride = packed.getScanlineStride();
+				this.opaque = src.getColorModel().hasAlpha() ? 0 : 0xff000000;
+				this.window = null;
+			}
+			else
+				this.window = new RowWindow(in, this.kernel);
+			this.out = PixelAccessor.getAccessor(dst);
+			this.dst = null;
+			this.bands = 1;
+			this.max = null;
+			this.row = new int[dst.getWidth()];
+		}
+
+		/**
+		 * Construct an instance of <tt>Warp</tt> of the rasters.
+		 *
+		 * @param src the source raster
+		 * @param dst the destination raster
+		 * @param interpolationType the interpolation type
+		 */
+		Warp(Raster src, WritableRaster dst, int interpolationType)
+		{
+			this.kernel = InterpolationKernel.getInstance(interpolationType);
+			this.srcWidth = src.getWidth();
+			this.srcHeight = src.getHeight();
+			this.window = new RowWindow(src, this.kernel);
+			this.out = null;
+			this.dst = dst;
+			this.bands = src.getNumBands();
+			this.max = new int[this.bands];
+			for (int b = 0; b < this.bands; b++)
+			{
+				int size = src.getSampleModel().getSampleSize(b);
+				this.max[b] = size < 31 ? (1 << size) - 1 : Integer.MAX_VALUE;
+			}
+			this.row = new int[dst.getWidth() * this.bands];
+		}
+
+		/**
+		 * Warp the span of the destination row, the packed source point of the
+		 * pixel <code>x</code> is stored at <code>base + x</code>.
+		 *
+		 * @param y the destination row
+		 * @param start the first pixel
+		 * @param end the pixel after the last one
+		 * @param offsets the packed top-left neighbors
+		 * @param fractions the packed fractions
+		 * @param base the index of the pixel 0 of the row
+		 */
+		void row(int y, int start, int end, int[] offsets, short[] fractions, int base)
+		{
+			if (start >= end)
+				return;
+			if (this.window != null)
+				this.slide(offsets, base + start, base + end);
+			int[] row = this.row;
+			InterpolationKernel kernel = this.kernel;
+			if (this.dst == null)
+			{
+				this.out.getRGB(start, y, end - start, row, start);
+				for (int x = start, i = base + start; x < end; x++, i++)
+				{
+					int p = offsets[i];
+					if (p == RemapTable.UNMAPPED)
+						continue;
+					int f = fractions[i];
+					int sx = (short) p, sy = p >> 16, fx = f >> 8 & 0xff, fy = f & 0xff;
+					row[x] = this.window != null
+							? kernel.interpolate(this.window.getRows(sy), this.srcWidth, sx, fx, fy)
+							: this.opaque | kernel.interpolate(this.pixels, this.base, this.stride,
+									this.srcWidth, this.srcHeight, sx, sy, fx, fy);
+				}
+				this.out.setRGB(start, y, end - start, row, start);
+				return;
+			}
+			int nb = this.bands, minX = this.dst.getMinX(), minY = this.dst.getMinY();
+			this.dst.getPixels(minX + start, minY + y, end - start, 1, row);
+			for (int i = base + start, o = 0; i < base + end; i++, o += nb)
+			{
+				int p = offsets[i];
+				if (p == RemapTable.UNMAPPED)
+					continue;
+				int f = fractions[i];
+				int sx = (short) p, fx = f >> 8 & 0xff, fy = f & 0xff;
+				int[][] rows = this.window.getRows(p >> 16);
+				for (int b = 0; b < nb; b++)
+					row[o + b] = kernel.interpolate(rows, this.srcWidth, nb, b, sx, fx, fy,
+							this.max[b]);
+			}
+			this.dst.setPixels(minX + start, minY + y, end - start, 1, row);
+		}
+
+		/**
+		 * Slide the window of the source rows to the rows used by the
+		 * specified destination pixels.
+		 *
+		 * @param offsets the packed top-left neighbors
+		 * @param start the index of the first destination pixel
+		 * @param end the index after the last destination pixel
+		 */
+		private void slide(int[] offsets, int start, int end)
+		{
+			int low = Integer.MAX_VALUE, high = Integer.MIN_VALUE;
+			for (int i = start; i < end; i++)
+			{
+				int p = offsets[i];
+				if (p == RemapTable.UNMAPPED)
+					continue;
+				int y = p >> 16;
+				if (y < low)
+					low = y;
+				if (y > high)
+					high = y;
+			}
+			if (low <= high)
+				this.window.slide(low, high);
+		}
+	}
+
+	/**
+	 * The grid of the exact source coordinates.
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	private static final class Grid
+	{
+		/**
+		 * The inverse matrix.
+		 */
+		private final double[]	inverse;
+		/**
+		 * The cell size.
+		 */
+		private final int		size;
+		/**
+		 * The number of the nodes in a row.
+		 */
+		private final int		columns;
+		/**
+		 * The number of the node rows.
+		 */
+		private final int		rows;
+		/**
+		 * The source coordinates of the nodes.
+		 */
+		private final double[]	xs, ys;
+		/**
+		 * <code>true</code> if the corners of the cell are on the same side of
+		 * the vanishing line.
+		 */
+		private final boolean[]	valid;
+
+		/**
+		 * Construct an instance of <tt>Grid</tt>.
+		 *
+		 * @param inverse the inverse matrix
+		 * @param size the cell size
+		 * @param width the destination width
+		 * @param height the destination height
+		 */
+		Grid(double[] inverse, int size, int width, int height)
+		{
+			this.inverse = inverse;
+			this.size = size;
+			this.columns = (width - 1) / size + 2;
+			this.rows = (height - 1) / size + 2;
+			this.xs = new double[this.columns * this.rows];
+			this.ys = new double[this.xs.length];
+			double[] ws = new double[this.xs.length];
+			for (int j = 0, i = 0; j < this.rows; j++)
+				for (int k = 0; k < this.columns; k++, i++)
+				{
+					double x = k * size, y = j * size;
+					ws[i] = inverse[2] * x + inverse[5] * y + inverse[8];
+					this.xs[i] = (inverse[0] * x + inverse[3] * y + inverse[6]) / ws[i];
+					this.ys[i] = (inverse[1] * x + inverse[4] * y + inverse[7]) / ws[i];
+				}
+			this.valid = new boolean[(this.columns - 1) * (this.rows - 1)];
+			for (int j = 0; j < this.rows - 1; j++)
+				for (int k = 0; k < this.columns - 1; k++)
+				{
+					int i = j * this.columns + k;
+					boolean positive = ws[i] > 0;
+					boolean valid = true;
+					for (int corner : new int[] { i, i + 1, i + this.columns, i + this.columns + 1 })
+						valid &= (ws[corner] > 0) == positive
+								&& Math.abs(ws[corner]) >= PerspectiveTransform.PERSPECTIVE_DIVIDE_EPSILON;
+					this.valid[j * (this.columns - 1) + k] = valid;
+				}
+		}
+
+		/**
+		 * Interpolate the source coordinates of the destination point.
+		 *
+		 * @param x the X coordinate of the destination point
+		 * @param y the Y coordinate of the destination point
+		 * @param point the interpolated source coordinates
+		 * @return <code>false</code> if the point lies in a cell crossed by the
+		 *         vanishing line
+		 */
+		boolean locate(double x, double y, double[] point)
+		{
+			int k = (int) (x / this.size), j = (int) (y / this.size);
+			if (!this.valid[j * (this.columns - 1) + k])
+				return false;
+			double fx = x / this.size - k, fy = y / this.size - j;
+			int i = j * this.columns + k;
+			int c = i + this.columns;
+			point[0] = (this.xs[i] * (1 - fx) + this.xs[i + 1] * fx) * (1 - fy)
+					+ (this.xs[c] * (1 - fx) + this.xs[c + 1] * fx) * fy;
+			point[1] = (this.ys[i] * (1 - fx) + this.ys[i + 1] * fx) * (1 - fy)
+					+ (this.ys[c] * (1 - fx) + this.ys[c + 1] * fx) * fy;
+			return true;
+		}
+
+		/**
+		 * Estimate the maximum error of the interpolated source coordinates on
+		 * the destination by sampling the center and the midpoints of the top
+		 * and the left edges of each cell, the samples mapped out of the source
+		 * are ignored.
+		 *
+		 * @param srcWidth the source width
+		 * @param srcHeight the source height
+		 * @return the estimated maximum error
+		 */
+		double estimateError(int srcWidth, int srcHeight)
+		{
+			double max = 0, half = this.size / 2.0;
+			double[] point = new double[2];
+			for (int j = 0; j < this.rows - 1; j++)
+				for (int k = 0; k < this.columns - 1; k++)
+				{
+					double x0 = k * this.size, y0 = j * this.size;
+					max = Math.max(max, this.sample(x0 + half, y0 + half, srcWidth, srcHeight, point));
+					max = Math.max(max, this.sample(x0 + half, y0, srcWidth, srcHeight, point));
+					max = Math.max(max, this.sample(x0, y0 + half, srcWidth, srcHeight, point));
+				}
+			return max;
+		}
+
+		/**
+		 * Returns the error of the interpolated source coordinates at the
+		 * destination point.
+		 *
+		 * @param x the X coordinate of the destination point
+		 * @param y the Y coordinate of the destination point
+		 * @param srcWidth the source width
+		 * @param srcHeight the source height
+		 * @param point the buffer of the interpolated source coordinates
+		 * @return the error, <code>0</code> if the point is mapped out of the
+		 *         source or evaluated exactly
+		 */
+		private double sample(double x, double y, int srcWidth, int srcHeight, double[] point)
+		{
+			if (!this.locate(x, y, point))
+				return 0;
+			double w = this.inverse[2] * x + this.inverse[5] * y + this.inverse[8];
+			double sx = (this.inverse[0] * x + this.inverse[3] * y + this.inverse[6]) / w;
+			double sy = (this.inverse[1] * x + this.inverse[4] * y + this.inverse[7]) / w;
+			if (!(sx > -2 && sx < srcWidth + 1 && sy > -2 && sy < srcHeight + 1))
+				return 0;
+			return Math.hypot(point[0] - sx, point[1] - sy);
+		}
+	}
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RunLengthComponent.java is PROPRIETARY/CONFIDENTIAL built in 4:48:36 PM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The connected component stored as its horizontal runs.
+ * <p>
+ * The runs <code>(y, xStart, xEnd)</code> are kept in the raster order in a
+ * primitive array, three values per run, so a solid blob costs 12 bytes per
+ * row instead of a boxed value per pixel, and the coordinates are not limited
+ * to 16 bits. The point test is a binary search over the runs, and the pixels
+ * are visited run by run without allocation.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class RunLengthComponent implements Iterable<Point>
+{
+	/**
+	 * The visitor of the pixels.
+	 *
+	 * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+	 * @version 1.0.0
+	 */
+	public static interface Visitor
+	{
+		/**
+		 * Visits a pixel.
+		 *
+		 * @param x the X coordinate
+		 * @param y the Y coordinate
+		 */
+		void visit(int x, int y);
+	}
+
+	/**
+	 * The runs, <code>y, xStart, xEnd</code> for each, both ends inclusive.
+	 */
+	protected int[]	runs;
+	/**
+	 * The number of the runs.
+	 */
+	protected int	count;
+	/**
+	 * The number of the pixels.
+	 */
+	protected int	size;
+	/**
+	 * The boundary.
+	 */
+	protected int	minX, minY, maxX, maxY;
+
+	/**
+	 * Construct an instance of <tt>RunLengthComponent</tt>.
+	 */
+	public RunLengthComponent()
+	{
+		this.runs = new int[12];
+		this.minX = Integer.MAX_VALUE;
+		this.maxX = Integer.MIN_VALUE;
+		this.minY = Integer.MAX_VALUE;
+		this.maxY = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Appends a run. The runs are appended in the raster order, a run
+	 * adjacent to the last one on the same row extends it.
+	 *
+	 * @param y the Y coordinate
+	 * @param xStart the first X coordinate
+	 * @param xEnd the last X coordinate
+	 * @throws IllegalArgumentException if the run is empty or not after the
+	 *             last one
+	 */
+	public void addRun(int y, int xStart, int xEnd)
+	{
+		if (xEnd < xStart)
+			throw new IllegalArgumentException(
+					String.format("The run [%d, %d] is empty.", xStart, xEnd));
+		int last = (this.count - 1) * 3;
+		if (this.count > 0)
+		{
+			int ly = this.runs[last], lx = this.runs[last + 2];
+			if (y < ly || y == ly && xStart <= lx)
+				throw new IllegalArgumentException(String.format(
+						"The run (%d, %d) is not after the last run (%d, %d).", xStart, y, lx, ly));
+			if (y == ly && xStart == lx + 1)
+			{
+				this.runs[last + 2] = xEnd;
+				this.include(y, xStart, xEnd);
+				return;
+			}
+		}
+		if (this.count * 3 == this.runs.length)
+			this.runs = Arrays.copyOf(this.runs, this.runs.length * 2);
+		int i = this.count++ * 3;
+		this.runs[i] = y;
+		this.runs[i + 1] = xStart;
+		this.runs[i + 2] = xEnd;
+		this.include(y, xStart, xEnd);
+	}
+
+	/**
+	 * Counts the pixels of a run and extends the boundary to it.
+	 *
+	 * @param y the Y coordinate
+	 * @param xStart the first X coordinate
+	 * @param xEnd the last X coordinate
+	 */
+	private void include(int y, int xStart, int xEnd)
+	{
+		this.size += xEnd - xStart + 1;
+		if (xStart < this.minX)
+			this.minX = xStart;
+		if (xEnd > this.maxX)
+			this.maxX = xEnd;
+		if (y < this.minY)
+			this.minY = y;
+		if (y > this.maxY)
+			this.maxY = y;
+	}
+
+	/**
+	 * Releases the unused capacity of the runs.
+	 */
+	public void trimToSize()
+	{
+		if (this.runs.length > this.count * 3)
+			this.runs = Arrays.copyOf(this.runs, this.count * 3);
+	}
+
+	/**
+	 * Returns the number of the pixels.
+	 *
+	 * @return the size of the connected component
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of the runs.
+	 *
+	 * @return the number of the runs
+	 */
+	public int getRunCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Returns the Y coordinate of the run.
+	 *
+	 * @param run the index of the run
+	 * @return the Y coordinate
+	 */
+	public int getRunY(int run)
+	{
+		return this.runs[run * 3];
+	}
+
+	/**
+	 * Returns the first X coordinate of the run.
+	 *
+	 * @param run the index of the run
+	 * @return the first X coordinate
+	 */
+	public int getRunStart(int run)
+	{
+		return this.runs[run * 3 + 1];
+	}
+
+	/**
+	 * Returns the last X coordinate of the run.
+	 *
+	 * @param run the index of the run
+	 * @return the last X coordinate, inclusive
+	 */
+	public int getRunEnd(int run)
+	{
+		return this.runs[run * 3 + 2];
+	}
+
+	/**
+	 * Returns <code>true</code> if the connected component contains the
+	 * specified point.
+	 *
+	 * @param x the X coordinate
+	 * @param y the Y coordinate
+	 * @return <code>true</code> if contains; otherwise, <code>false</code>
+	 */
+	public boolean contains(int x, int y)
+	{
+		if (x < this.minX || x > this.maxX || y < this.minY || y > this.maxY)
+			return false;
+		// the last run starting at or before the point
+		int low = 0, high = this.count - 1, found = -1;
+		while (low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			int ry = this.runs[middle * 3], rx = this.runs[middle * 3 + 1];
+			if (ry < y || ry == y && rx <= x)
+			{
+				found = middle;
+				low = middle + 1;
+			}
+			else
+				high = middle - 1;
+		}
+		return found >= 0 && this.runs[found * 3] == y && this.runs[found * 3 + 2] >= x;
+	}
+
+	/**
+	 * Returns <code>true</code> if the connected component contains the
+	 * specified point.
+	 *
+	 * @param p the specified point
+	 * @return <code>true</code> if contains; otherwise, <code>false</code>
+	 */
+	public boolean contains(Point p)
+	{
+		return this.contains(p.x, p.y);
+	}
+
+	/**
+	 * Returns the bounds of the connected component, which covers all its
+	 * pixels.
+	 *
+	 * @return the bounds, empty if there is no pixel
+	 */
+	public Rectangle getBounds()
+	{
+		if (this.count == 0)
+			return new Rectangle();
+		return new Rectangle(this.minX, this.minY, this.maxX - this.minX + 1,
+				this.maxY - this.minY + 1);
+	}
+
+	/**
+	 * Returns true if this connected component intersects with the specified
+	 * shape.
+	 *
+	 * @param shape the specified shape
+	 * @return <code>true</code> if intersects; otherwise, <code>false</code>
+	 */
+	public boolean intersects(Shape shape)
+	{
+		if (this.count == 0 || !shape.intersects(this.minX, this.minY,
+				this.maxX - this.minX + 1, this.maxY - this.minY + 1))
+			return false;
+		for (int i = 0; i < this.count * 3; i += 3)
+			for (int x = this.runs[i + 1]; x <= this.runs[i + 2]; x++)
+				if (shape.contains(x, this.runs[i]))
+					return true;
+		return false;
+	}
+
+	/**
+	 * Returns the intersection size.
+	 *
+	 * @param shape the shape to intersect
+	 * @return the intersection size
+	 */
+	public int intersection(Shape shape)
+	{
+		int size = 0;
+		for (int i = 0; i < this.count * 3; i += 3)
+			for (int x = this.runs[i + 1]; x <= this.runs[i + 2]; x++)
+				if (shape.contains(x, this.runs[i]))
+					size++;
+		return size;
+	}
+
+	/**
+	 * Returns the union size and the size of the shape.
+	 *
+	 * @param shape the specified shape to be measured
+	 * @return [the union size, size of shape]
+	 */
+	public int[] union(Shape shape)
+	{
+		Rectangle r = shape.getBounds();
+		int size = 0, shared = 0;
+		for (int y = 0; y < r.height; y++)
+			for (int x = 0; x < r.width; x++)
+				if (shape.contains(x + r.x, y + r.y))
+				{
+					size++;
+					if (this.contains(x + r.x, y + r.y))
+						shared++;
+				}
+		return new int[] { this.size + size - shared, size };
+	}
+
+	/**
+	 * Visits the pixels in the raster order without allocation.
+	 *
+	 * @param visitor the visitor
+	 */
+	public void visit(Visitor visitor)
+	{
+		for (int i = 0; i < this.count * 3; i += 3)
+			for (int x = this.runs[i + 1]; x <= this.runs[i + 2]; x++)
+				visitor.visit(x, this.runs[i]);
+	}
+
+	/**
+	 * Returns the 1-bit mask of the connected component clipped to its
+	 * {@linkplain #getBounds() bounds}, the pixel <code>(x, y)</code> of the
+	 * component is the sample <code>(x - minX, y - minY)</code> of the mask.
+	 *
+	 * @return the mask raster
+	 */
+	public WritableRaster getMask()
+	{
+		Rectangle bounds = this.getBounds();
+		int width = Math.max(1, bounds.width), height = Math.max(1, bounds.height);
+		WritableRaster mask = Raster.createPackedRaster(DataBuffer.TYPE_BYTE, width, height, 1, 1,
+				null);
+		byte[] data = ((DataBufferByte) mask.getDataBuffer()).getData();
+		int stride = ((MultiPixelPackedSampleModel) mask.getSampleModel()).getScanlineStride();
+		for (int i = 0; i < this.count * 3; i += 3)
+		{
+			int row = (this.runs[i] - this.minY) * stride;
+			int x0 = this.runs[i + 1] - this.minX, x1 = this.runs[i + 2] - this.minX;
+			int b0 = x0 >> 3, b1 = x1 >> 3;
+			int head = 0xff >> (x0 & 7), tail = 0xff << (7 - (x1 & 7)) & 0xff;
+			if (b0 == b1)
+				data[row + b0] |= head & tail;
+			else
+			{
+				data[row + b0] |= head;
+				Arrays.fill(data, row + b0 + 1, row + b1, (byte) 0xff);
+				data[row + b1] |= tail;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the iterator of the pixels in the raster order. The points are
+	 * allocated one by one; {@linkplain #visit(Visitor)} visits the pixels
+	 * without allocation.
+	 *
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<Point> iterator()
+	{
+		return new Iterator<Point>()
+		{
+			private int	run	= 0;
+			private int	x	= RunLengthComponent.this.count > 0
+					? RunLengthComponent.this.runs[1] : 0;
+
+			@Override
+			public boolean hasNext()
+			{
+				return this.run < RunLengthComponent.this.count;
+			}
+
+			@Override
+			public Point next()
+			{
+				if (!this.hasNext())
+					throw new NoSuchElementException();
+				int[] runs = RunLengthComponent.this.runs;
+				int i = this.run * 3;
+				Point p = new Point(this.x, runs[i]);
+				if (this.x++ == runs[i + 2] && ++this.run < RunLengthComponent.this.count)
+					this.x = runs[i + 4];
+				return p;
+			}
+		};
+	}
+}
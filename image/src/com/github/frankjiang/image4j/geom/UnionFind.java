@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * UnionFind.java is PROPRIETARY/CONFIDENTIAL built in 3:05:12 PM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.geom;
+
+import java.util.Arrays;
+
+/**
+ * The equivalence table of the provisional labels.
+ * <p>
+ * The label 0 is the background. Each set is linked to its smallest label,
+ * so the parent of a label is never greater than itself, and the table is
+ * flattened into the consecutive final labels in one pass.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+class UnionFind
+{
+	/**
+	 * The parents of the labels.
+	 */
+	int[]	parent;
+	/**
+	 * The number of the labels, including the background.
+	 */
+	int		size;
+
+	/**
+	 * Construct an instance of <tt>UnionFind</tt>.
+	 *
+	 * @param capacity the initial capacity
+	 */
+	UnionFind(int capacity)
+	{
+		this.parent = new int[Math.max(2, capacity)];
+		this.size = 1;
+	}
+
+	/**
+	 * Returns a new label in a set of its own.
+	 *
+	 * @return the label
+	 */
+	int add()
+	{
+		if (this.size == this.parent.length)
+			this.parent = Arrays.copyOf(this.parent, this.size * 2);
+		this.parent[this.size] = this.size;
+		return this.size++;
+	}
+
+	/**
+	 * Returns the root of the label, the smallest label of its set.
+	 *
+	 * @param label the label
+	 * @return the root
+	 */
+	int find(int label)
+	{
+		int[] parent = this.parent;
+		while (parent[label] != label)
+		{
+			// the path halving
+			parent[label] = parent[parent[label]];
+			label = parent[label];
+		}
+		return label;
+	}
+
+	/**
+	 * Merges the sets of the labels.
+	 *
+	 * @param a a label
+	 * @param b another label
+	 * @return the root of the merged set
+	 */
+	int union(int a, int b)
+	{
+		a = this.find(a);
+		b = this.find(b);
+		if (a < b)
+		{
+			this.parent[b] = a;
+			return a;
+		}
+		this.parent[a] = b;
+		return b;
+	}
+
+	/**
+	 * Replaces the parents by the consecutive final labels from 1, in the
+	 * order of the roots.
+	 *
+	 * @return the number of the sets
+	 */
+	int flatten()
+	{
+		int[] parent = this.parent;
+		int count = 0;
+		for (int i = 1; i < this.size; i++)
+			parent[i] = parent[i] < i ? parent[parent[i]] : ++count;
+		return count;
+	}
+}
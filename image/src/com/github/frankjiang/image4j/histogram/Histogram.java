@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * Histogram.java is PROPRIETARY/CONFIDENTIAL built in 10:06:12 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.histogram;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.github.frankjiang.image4j.PixelAccessor;
+import com.github.frankjiang.image4j.color.ColorConvertUtils;
+
+/**
+ * The 256-bin histogram of the 8-bit values of an image.
+ * <p>
+ * The histograms of several channels are computed in one pass over the
+ * image: the rows are split into bands on a {@linkplain ForkJoinPool}, each
+ * task counts its band into partial histograms of its own, and the partial
+ * histograms are merged when the tasks are joined, so the counting is never
+ * synchronized.
+ * </p>
+ * <p>
+ * The gray values of the <code>TYPE_BYTE_GRAY</code> images are their
+ * samples, which the thresholding compares, and the ones of the other images
+ * are computed by {@linkplain ColorConvertUtils#getGray(int)}. The HSB
+ * brightness is the maximum of the red, green and blue values.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class Histogram
+{
+	/**
+	 * The number of the bins.
+	 */
+	public static final int		BINS				= 256;
+	/**
+	 * The gray channel.
+	 */
+	public static final int		CHANNEL_GRAY		= 0;
+	/**
+	 * The red channel.
+	 */
+	public static final int		CHANNEL_RED			= 1;
+	/**
+	 * The green channel.
+	 */
+	public static final int		CHANNEL_GREEN		= 2;
+	/**
+	 * The blue channel.
+	 */
+	public static final int		CHANNEL_BLUE		= 3;
+	/**
+	 * The alpha channel.
+	 */
+	public static final int		CHANNEL_ALPHA		= 4;
+	/**
+	 * The brightness of the HSB color space.
+	 */
+	public static final int		CHANNEL_BRIGHTNESS	= 5;
+	/**
+	 * The number of the pixels counted by a task without splitting.
+	 */
+	private static final int	GRAIN				= 1 << 18;
+
+	/**
+	 * The counts of the values.
+	 */
+	protected final long[]		bins;
+	/**
+	 * The number of the counted pixels.
+	 */
+	protected final long		total;
+
+	/**
+	 * Construct an instance of <tt>Histogram</tt>.
+	 *
+	 * @param bins the counts of the 256 values
+	 */
+	public Histogram(long[] bins)
+	{
+		if (bins.length != BINS)
+			throw new IllegalArgumentException(
+					String.format("The number of the bins is %d, not %d.", bins.length, BINS));
+		this.bins = bins.clone();
+		long total = 0;
+		for (long count : bins)
+			total += count;
+		this.total = total;
+	}
+
+	/**
+	 * Returns the count of the value.
+	 *
+	 * @param value the value in 0-255
+	 * @return the count
+	 */
+	public long getCount(int value)
+	{
+		return this.bins[value];
+	}
+
+	/**
+	 * Returns a copy of the counts of the values.
+	 *
+	 * @return the counts
+	 */
+	public long[] getBins()
+	{
+		return this.bins.clone();
+	}
+
+	/**
+	 * Returns the number of the counted pixels.
+	 *
+	 * @return the number of the pixels
+	 */
+	public long getTotal()
+	{
+		return this.total;
+	}
+
+	/**
+	 * Returns the mean value.
+	 *
+	 * @return the mean value, 0 if no pixel is counted
+	 */
+	public double getMean()
+	{
+		if (this.total == 0)
+			return 0;
+		double sum = 0;
+		for (int i = 0; i < BINS; i++)
+			sum += (double) i * this.bins[i];
+		return sum / this.total;
+	}
+
+	/**
+	 * Returns the minimum counted value.
+	 *
+	 * @return the minimum value, -1 if no pixel is counted
+	 */
+	public int getMinValue()
+	{
+		for (int i = 0; i < BINS; i++)
+			if (this.bins[i] != 0)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Returns the maximum counted value.
+	 *
+	 * @return the maximum value, -1 if no pixel is counted
+	 */
+	public int getMaxValue()
+	{
+		for (int i = BINS - 1; i >= 0; i--)
+			if (this.bins[i] != 0)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Returns the histogram of the channel of the image computed on the
+	 * common pool.
+	 *
+	 * @param image the image
+	 * @param channel the channel, one of the <code>CHANNEL_*</code> constants
+	 * @return the histogram
+	 */
+	public static Histogram getHistogram(BufferedImage image, int channel)
+	{
+		return Histogram.compute(ForkJoinPool.commonPool(), image, channel)[0];
+	}
+
+	/**
+	 * Returns the histograms of the channels of the image computed in one
+	 * pass on the common pool.
+	 *
+	 * @param image the image
+	 * @param channels the channels, the <code>CHANNEL_*</code> constants
+	 * @return the histograms in the order of the channels
+	 */
+	public static Histogram[] compute(BufferedImage image, int... channels)
+	{
+		return Histogram.compute(ForkJoinPool.commonPool(), image, channels);
+	}
+
+	/**
+	 * Returns the histograms of the channels of the image computed in one
+	 * pass on the pool.
+	 *
+	 * @param pool the thread pool
+	 * @param image the image
+	 * @param channels the channels, the <code>CHANNEL_*</code> constants
+	 * @return the histograms in the order of the channels
+	 */
+	public static Histogram[] compute(ForkJoinPool pool, BufferedImage image, int... channels)
+	{
+		for (int channel : channels)
+			if (channel < CHANNEL_GRAY || channel > CHANNEL_BRIGHTNESS)
+				throw new IllegalArgumentException("Unknown histogram channel: " + channel);
+		PixelAccessor accessor = PixelAccessor.getAccessor(image);
+		int rows = Math.max(1, GRAIN / Math.max(1, image.getWidth()));
+		long[][] bins = pool.invoke(new Task(accessor, channels, 0, image.getHeight(), rows));
+		Histogram[] histograms = new Histogram[channels.length];
+		for (int c = 0; c < channels.length; c++)
+			histograms[c] = new Histogram(bins[c]);
+		return histograms;
+	}
+
+	/**
+	 * The task counting a band of rows.
+	 */
+	private static class Task extends RecursiveTask<long[][]>
+	{
+		private static final long		serialVersionUID	= 1L;
+
+		private final PixelAccessor		accessor;
+		private final int[]				channels;
+		private final int				from, to, rows;
+
+		Task(PixelAccessor accessor, int[] channels, int from, int to, int rows)
+		{
+			this.accessor = accessor;
+			this.channels = channels;
+			this.from = from;
+			this.to = to;
+			this.rows = rows;
+		}
+
+		@Override
+		protected long[][] compute()
+		{
+			if (this.to - this.from <= this.rows)
+				return this.count();
+			int middle = (this.from + this.to) >>> 1;
+			Task lower = new Task(this.accessor, this.channels, this.from, middle, this.rows);
+			lower.fork();
+			long[][] bins = new Task(this.accessor, this.channels, middle, this.to, this.rows)
+					.compute();
+			long[][] partial = lower.join();
+			for (int c = 0; c < bins.length; c++)
+				for (int i = 0; i < BINS; i++)
+					bins[c][i] += partial[c][i];
+			return bins;
+		}
+
+		/**
+		 * Count the rows of this task.
+		 *
+		 * @return the partial histograms
+		 */
+		private long[][] count()
+		{
+			long[][] bins = new long[this.channels.length][BINS];
+			int width = this.accessor.getWidth();
+			if (this.channels.length == 1 && this.channels[0] == CHANNEL_GRAY
+					&& this.accessor instanceof PixelAccessor.ByteGray)
+			{
+				PixelAccessor.ByteGray gray = (PixelAccessor.ByteGray) this.accessor;
+				byte[] data = gray.getData();
+				int stride = gray.getPixelStride();
+				// the interleaved counters avoid the stalls of the runs of a value
+				int[] c0 = new int[BINS], c1 = new int[BINS], c2 = new int[BINS],
+						c3 = new int[BINS];
+				for (int y = this.from; y < this.to; y++)
+				{
+					int i = gray.getIndex(0, y), x = 0;
+					for (; x + 4 <= width; x += 4, i += 4 * stride)
+					{
+						c0[data[i] & 0xff]++;
+						c1[data[i + stride] & 0xff]++;
+						c2[data[i + 2 * stride] & 0xff]++;
+						c3[data[i + 3 * stride] & 0xff]++;
+					}
+					for (; x < width; x++, i += stride)
+						c0[data[i] & 0xff]++;
+				}
+				for (int i = 0; i < BINS; i++)
+					bins[0][i] = (long) c0[i] + c1[i] + c2[i] + c3[i];
+				return bins;
+			}
+			boolean samples = this.accessor instanceof PixelAccessor.ByteGray;
+			int[] row = new int[width];
+			int[] gray = samples ? new int[width] : null;
+			for (int y = this.from; y < this.to; y++)
+			{
+				this.accessor.getRGB(0, y, width, row, 0);
+				if (samples)
+					this.accessor.getPixels(0, y, width, gray);
+				for (int c = 0; c < this.channels.length; c++)
+				{
+					long[] counts = bins[c];
+					switch (this.channels[c])
+					{
+					case CHANNEL_GRAY:
+						for (int x = 0; x < width; x++)
+							counts[samples ? gray[x] : ColorConvertUtils.getGray(row[x])]++;
+						break;
+					case CHANNEL_RED:
+						for (int x = 0; x < width; x++)
+							counts[row[x] >> 16 & 0xff]++;
+						break;
+					case CHANNEL_GREEN:
+						for (int x = 0; x < width; x++)
+							counts[row[x] >> 8 & 0xff]++;
+						break;
+					case CHANNEL_BLUE:
+						for (int x = 0; x < width; x++)
+							counts[row[x] & 0xff]++;
+						break;
+					case CHANNEL_ALPHA:
+						for (int x = 0; x < width; x++)
+							counts[row[x] >>> 24]++;
+						break;
+					default:
+						for (int x = 0; x < width; x++)
+						{
+							int argb = row[x];
+							int max = Math.max(argb >> 16 & 0xff, argb >> 8 & 0xff);
+							counts[Math.max(max, argb & 0xff)]++;
+						}
+					}
+				}
+			}
+			return bins;
+		}
+	}
+}
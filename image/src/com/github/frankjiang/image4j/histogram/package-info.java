@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * package-info.java is PROPRIETARY/CONFIDENTIAL built in 10:05:37 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+/**
+ * The package for the histograms of images.
+ * <p>
+ * </p>
+ * 
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+package com.github.frankjiang.image4j.histogram;
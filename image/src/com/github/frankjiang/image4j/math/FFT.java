@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * FFT.java is PROPRIETARY/CONFIDENTIAL built in 5:31:18 AM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.math;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The radix-2 fast Fourier transform of a power-of-2 length.
+ * <p>
+ * An instance is the plan of one length, holding the bit-reversal permutation
+ * and the twiddle factors. The plans are immutable and cached, see
+ * {@linkplain #getInstance(int)}, so they are computed once per length and
+ * shared by the threads.
+ * </p>
+ * <p>
+ * The real signals are transformed two at a time, as the real and the
+ * imaginary parts of one complex signal. Since the real filters keep the
+ * real and the imaginary parts apart, the filtered signals are the real and
+ * the imaginary parts of the inverse transform.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public final class FFT
+{
+	/**
+	 * The cached plans.
+	 */
+	private static final ConcurrentMap<Integer, FFT>	plans	= new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the plan of the specified length.
+	 *
+	 * @param length the length, a power of 2
+	 * @return the plan
+	 * @throws IllegalArgumentException if the length is not a power of 2
+	 */
+	public static FFT getInstance(int length)
+	{
+		FFT fft = FFT.plans.get(length);
+		if (fft == null)
+		{
+			FFT created = new FFT(length);
+			fft = FFT.plans.putIfAbsent(length, created);
+			if (fft == null)
+				fft = created;
+		}
+		return fft;
+	}
+
+	/**
+	 * Returns the smallest power of 2 not less than the value.
+	 *
+	 * @param value the value
+	 * @return the power of 2
+	 */
+	public static int ceilPowerOf2(int value)
+	{
+		return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+	}
+
+	/**
+	 * The length.
+	 */
+	private final int		length;
+	/**
+	 * The bit-reversed index of each index.
+	 */
+	private final int[]		reversed;
+	/**
+	 * The cosine and sine of the twiddle factors <code>2&pi;k/n</code> for
+	 * <code>k &lt; n/2</code>.
+	 */
+	private final double[]	cos, sin;
+
+	/**
+	 * Construct an instance of <tt>FFT</tt>.
+	 *
+	 * @param length the length, a power of 2
+	 */
+	private FFT(int length)
+	{
+		if (length <= 0 || (length & length - 1) != 0)
+			throw new IllegalArgumentException("The length must be a power of 2: " + length);
+		this.length = length;
+		this.reversed = new int[length];
+		int bits = Integer.numberOfTrailingZeros(length);
+		for (int i = 0; i < length; i++)
+			this.reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> 32 - bits;
+		this.cos = new double[length / 2];
+		this.sin = new double[length / 2];
+		for (int k = 0; k < length / 2; k++)
+		{
+			double angle = 2 * Math.PI * k / length;
+			this.cos[k] = Math.cos(angle);
+			this.sin[k] = Math.sin(angle);
+		}
+	}
+
+	/**
+	 * Returns the length.
+	 *
+	 * @return the length
+	 */
+	public int getLength()
+	{
+		return this.length;
+	}
+
+	/**
+	 * Transform the complex signal in place. The inverse transform is scaled
+	 * by <code>1/n</code>.
+	 *
+	 * @param re the real parts
+	 * @param im the imaginary parts
+	 * @param offset the index of the first element
+	 * @param inverse <code>true</code> for the inverse transform
+	 */
+	public void transform(double[] re, double[] im, int offset, boolean inverse)
+	{
+		int n = this.length;
+		for (int i = 0; i < n; i++)
+		{
+			int j = this.reversed[i];
+			if (j > i)
+			{
+				double t = re[offset + i];
+				re[offset + i] = re[offset + j];
+				re[offset + j] = t;
+				t = im[offset + i];
+				im[offset + i] = im[offset + j];
+				im[offset + j] = t;
+			}
+		}
+		double sign = inverse ? 1 : -1;
+		for (int size = 2; size <= n; size <<= 1)
+		{
+			int half = size >> 1, step = n / size;
+			// one twiddle factor for all the butterflies of the stage
+			for (int k = 0, t = 0; k < half; k++, t += step)
+			{
+				double wr = this.cos[t], wi = sign * this.sin[t];
+				for (int a = offset + k; a < offset + n; a += size)
+				{
+					int b = a + half;
+					double xr = re[b] * wr - im[b] * wi;
+					double xi = re[b] * wi + im[b] * wr;
+					re[b] = re[a] - xr;
+					im[b] = im[a] - xi;
+					re[a] += xr;
+					im[a] += xi;
+				}
+			}
+		}
+		if (inverse)
+		{
+			double scale = 1.0 / n;
+			for (int i = offset; i < offset + n; i++)
+			{
+				re[i] *= scale;
+				im[i] *= scale;
+			}
+		}
+	}
+
+	/**
+	 * Transform the complex 2-D signal in rows of <code>width</code> in
+	 * place, the rows first and then the columns.
+	 *
+	 * @param re the real parts
+	 * @param im the imaginary parts
+	 * @param width the width, a power of 2
+	 * @param height the height, a power of 2
+	 * @param inverse <code>true</code> for the inverse transform
+	 */
+	public static void transform(double[] re, double[] im, int width, int height,
+			boolean inverse)
+	{
+		FFT rows = FFT.getInstance(width);
+		FFT columns = FFT.getInstance(height);
+		for (int y = 0; y < height; y++)
+			rows.transform(re, im, y * width, inverse);
+		// transform the columns in contiguous buffers
+		double[] cr = new double[height], ci = new double[height];
+		for (int x = 0; x < width; x++)
+		{
+			for (int y = 0, i = x; y < height; y++, i += width)
+			{
+				cr[y] = re[i];
+				ci[y] = im[i];
+			}
+			columns.transform(cr, ci, 0, inverse);
+			for (int y = 0, i = x; y < height; y++, i += width)
+			{
+				re[i] = cr[y];
+				im[i] = ci[y];
+			}
+		}
+	}
+}
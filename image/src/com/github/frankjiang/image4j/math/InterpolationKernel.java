@@ -0,0 +1,610 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * InterpolationKernel.java is PROPRIETARY/CONFIDENTIAL built in 2:37:51 AM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.math;
+
+/**
+ * The fixed-point interpolation kernel.
+ * <p>
+ * The fractional offsets of the source point are quantized to
+ * 1/{@value #FRACTION_ONE} and the integer weights of the neighbors are looked
+ * up from the tables precomputed for each quantized offset. The packed ARGB
+ * pixels are interpolated in integer arithmetic: the bilinear kernel weights
+ * the red/blue and the alpha/green channel pairs of a pixel with one
+ * multiplication each, the bicubic kernel convolves the 4&times;4
+ * neighborhood separably. The neighbors out of the source are clamped to its
+ * edges.
+ * </p>
+ * <p>
+ * The source point is given as the integer coordinates of its top-left
+ * neighbor and the quantized fractions, see
+ * {@linkplain #interpolate(int[], int, int, int, int, int, int)}.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public final class InterpolationKernel
+{
+	/**
+	 * Nearest-neighbor interpolation type.
+	 */
+	public static final int						TYPE_NEAREST_NEIGHBOR	= 1;
+
+	/**
+	 * Bilinear interpolation type.
+	 */
+	public static final int						TYPE_BILINEAR			= 2;
+
+	/**
+	 * Bicubic interpolation type.
+	 */
+	public static final int						TYPE_BICUBIC			= 3;
+
+	/**
+	 * The number of the fractional bits of the offsets.
+	 */
+	public static final int						FRACTION_BITS			= 8;
+
+	/**
+	 * The quantized unit offset.
+	 */
+	public static final int						FRACTION_ONE			= 1 << InterpolationKernel.FRACTION_BITS;
+
+	/**
+	 * The coefficient of the cubic convolution.
+	 */
+	private static final double					CUBIC_A					= -0.5;
+
+	/**
+	 * The kernels of the interpolation types.
+	 */
+	private static final InterpolationKernel[]	kernels					= {
+			new InterpolationKernel(InterpolationKernel.TYPE_NEAREST_NEIGHBOR),
+			new InterpolationKernel(InterpolationKernel.TYPE_BILINEAR),
+			new InterpolationKernel(InterpolationKernel.TYPE_BICUBIC) };
+
+	/**
+	 * Returns the kernel of the specified interpolation type.
+	 *
+	 * @param interpolationType the interpolation type, unknown types are
+	 *            treated as bilinear
+	 * @return the kernel
+	 */
+	public static InterpolationKernel getInstance(int interpolationType)
+	{
+		switch (interpolationType)
+		{
+		case TYPE_NEAREST_NEIGHBOR:
+			return InterpolationKernel.kernels[0];
+		default:
+		case TYPE_BILINEAR:
+			return InterpolationKernel.kernels[1];
+		case TYPE_BICUBIC:
+			return InterpolationKernel.kernels[2];
+		}
+	}
+
+	/**
+	 * The interpolation type.
+	 */
+	private final int	type;
+	/**
+	 * The number of the neighbors along each axis.
+	 */
+	private final int	taps;
+	/**
+	 * The offset of the first neighbor from the top-left neighbor.
+	 */
+	private final int	origin;
+	/**
+	 * The weights of the neighbors of each quantized offset, summing to
+	 * {@value #FRACTION_ONE}.
+	 */
+	private final int[]	weights;
+
+	/**
+	 * Construct an instance of <tt>InterpolationKernel</tt>.
+	 *
+	 * @param type the interpolation type
+	 */
+	private InterpolationKernel(int type)
+	{
+		this.type = type;
+		int one = InterpolationKernel.FRACTION_ONE;
+		switch (type)
+		{
+		case TYPE_NEAREST_NEIGHBOR:
+			this.taps = 2;
+			this.origin = 0;
+			this.weights = new int[one * 2];
+			for (int f = 0; f < one; f++)
+				this.weights[f * 2 + (f < one / 2 ? 0 : 1)] = one;
+			break;
+		default:
+		case TYPE_BILINEAR:
+			this.taps = 2;
+			this.origin = 0;
+			this.weights = new int[one * 2];
+			for (int f = 0; f < one; f++)
+			{
+				this.weights[f * 2] = one - f;
+				this.weights[f * 2 + 1] = f;
+			}
+			break;
+		case TYPE_BICUBIC:
+			this.taps = 4;
+			this.origin = -1;
+			this.weights = new int[one * 4];
+			for (int f = 0; f < one; f++)
+			{
+				double t = f / (double) one;
+				int sum = 0, max = 1;
+				for (int i = 0; i < 4; i++)
+				{
+					int w = (int) Math.round(InterpolationKernel.cubic(t + 1 - i) * one);
+					this.weights[f * 4 + i] = w;
+					sum += w;
+					if (w > this.weights[f * 4 + max])
+						max = i;
+				}
+				// the rounded weights should keep the flat regions flat
+				this.weights[f * 4 + max] += one - sum;
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Returns the cubic convolution kernel at the specified distance.
+	 *
+	 * @param x the distance
+	 * @return the kernel value
+	 */
+	private static double cubic(double x)
+	{
+		double a = InterpolationKernel.CUBIC_A;
+		x = Math.abs(x);
+		if (x <= 1)
+			return ((a + 2) * x - (a + 3)) * x * x + 1;
+		if (x < 2)
+			return ((a * x - 5 * a) * x + 8 * a) * x - 4 * a;
+		return 0;
+	}
+
+	/**
+	 * Returns the interpolation type.
+	 *
+	 * @return the interpolation type
+	 */
+	public int getType()
+	{
+		return this.type;
+	}
+
+	/**
+	 * Returns the number of the neighbors along each axis.
+	 *
+	 * @return the number of the neighbors
+	 */
+	public int getTaps()
+	{
+		return this.taps;
+	}
+
+	/**
+	 * Returns the offset of the first neighbor from the top-left neighbor.
+	 *
+	 * @return the offset of the first neighbor
+	 */
+	public int getOrigin()
+	{
+		return this.origin;
+	}
+
+	/**
+	 * Returns the weights of the neighbors of the quantized offset.
+	 *
+	 * @param fraction the quantized offset in [0, {@value #FRACTION_ONE})
+	 * @param weights the weights of the neighbors from
+	 *            <code>origin</code> to <code>origin + taps - 1</code>
+	 * @return the weights
+	 */
+	public int[] getWeights(int fraction, int[] weights)
+	{
+		if (weights == null)
+			weights = new int[this.taps];
+		System.arraycopy(this.weights, fraction * this.taps, weights, 0, this.taps);
+		return weights;
+	}
+
+	/**
+	 * Quantize the coordinate to the fixed-point value with
+	 * {@value #FRACTION_BITS} fractional bits. The integer part of the value is
+	 * obtained by <code>value &gt;&gt; FRACTION_BITS</code> and the fraction by
+	 * <code>value &amp; (FRACTION_ONE - 1)</code>.
+	 *
+	 * @param coordinate the coordinate
+	 * @return the fixed-point coordinate
+	 */
+	public static int quantize(double coordinate)
+	{
+		return (int) Math.floor(coordinate * InterpolationKernel.FRACTION_ONE + 0.5);
+	}
+
+	/**
+	 * Interpolate the packed ARGB pixels at the source point
+	 * <code>(x + fx / FRACTION_ONE, y + fy / FRACTION_ONE)</code>.
+	 *
+	 * @param argb the source pixels in rows of <code>width</code>
+	 * @param width the source width
+	 * @param height the source height
+	 * @param x the X coordinate of the top-left neighbor
+	 * @param y the Y coordinate of the top-left neighbor
+	 * @param fx the quantized X offset in [0, {@value #FRACTION_ONE})
+	 * @param fy the quantized Y offset in [0, {@value #FRACTION_ONE})
+	 * @return the interpolated ARGB pixel
+	 */
+	public int interpolate(int[] argb, int width, int height, int x, int y, int fx, int fy)
+	{
+		return this.interpolate(argb, 0, width, width, height, x, y, fx, fy);
+	}
+
+	/**
+	 * Interpolate the packed ARGB pixels stored with the specified offset and
+	 * scanline stride at the source point
+	 * <code>(x + fx / FRACTION_ONE, y + fy / FRACTION_ONE)</code>, such as the
+	 * backing array of an <code>IntPacked</code> pixel accessor.
+	 *
+	 * @param argb the source pixels
+	 * @param offset the index of the source pixel (0, 0)
+	 * @param stride the scanline stride of the source pixels
+	 * @param width the source width
+	 * @param height the source height
+	 * @param x the X coordinate of the top-left neighbor
+	 * @param y the Y coordinate of the top-left neighbor
+	 * @param fx the quantized X offset in [0, {@value #FRACTION_ONE})
+	 * @param fy the quantized Y offset in [0, {@value #FRACTION_ONE})
+	 * @return the interpolated ARGB pixel
+	 */
+	public int interpolate(int[] argb, int offset, int stride, int width, int height, int x,
+			int y, int fx, int fy)
+	{
+		switch (this.type)
+		{
+		case TYPE_NEAREST_NEIGHBOR:
+			x = InterpolationKernel.clamp(x + (fx >> InterpolationKernel.FRACTION_BITS - 1), width);
+			y = InterpolationKernel.clamp(y + (fy >> InterpolationKernel.FRACTION_BITS - 1), height);
+			return argb[offset + y * stride + x];
+		default:
+		case TYPE_BILINEAR:
+		{
+			int x0 = InterpolationKernel.clamp(x, width), x1 = InterpolationKernel.clamp(x + 1, width);
+			int y0 = offset + InterpolationKernel.clamp(y, height) * stride;
+			int y1 = offset + InterpolationKernel.clamp(y + 1, height) * stride;
+			int one = InterpolationKernel.FRACTION_ONE, bits = InterpolationKernel.FRACTION_BITS;
+			// the products are reduced to 8 bits so that each 16-bit lane holds a channel
+			int w00 = (one - fx) * (one - fy) >> bits;
+			int w10 = fx * (one - fy) >> bits;
+			int w01 = (one - fx) * fy >> bits;
+			int w11 = one - w00 - w10 - w01;
+			int p00 = argb[y0 + x0], p10 = argb[y0 + x1], p01 = argb[y1 + x0], p11 = argb[y1 + x1];
+			int rb = (p00 & 0x00ff00ff) * w00 + (p10 & 0x00ff00ff) * w10
+					+ (p01 & 0x00ff00ff) * w01 + (p11 & 0x00ff00ff) * w11;
+			int ag = (p00 >>> 8 & 0x00ff00ff) * w00 + (p10 >>> 8 & 0x00ff00ff) * w10
+					+ (p01 >>> 8 & 0x00ff00ff) * w01 + (p11 >>> 8 & 0x00ff00ff) * w11;
+			return (rb + 0x00800080 >>> 8 & 0x00ff00ff) | (ag + 0x00800080 & 0xff00ff00);
+		}
+		case TYPE_BICUBIC:
+		{
+			int wx = fx * 4, wy = fy * 4;
+			int a = 0, r = 0, g = 0, b = 0;
+			for (int j = 0; j < 4; j++)
+			{
+				int row = offset + InterpolationKernel.clamp(y - 1 + j, height) * stride;
+				int ra = 0, rr = 0, rg = 0, rb = 0;
+				for (int i = 0; i < 4; i++)
+				{
+					int w = this.weights[wx + i];
+					int p = argb[row + InterpolationKernel.clamp(x - 1 + i, width)];
+					ra += (p >>> 24) * w;
+					rr += (p >> 16 & 0xff) * w;
+					rg += (p >> 8 & 0xff) * w;
+					rb += (p & 0xff) * w;
+				}
+				int w = this.weights[wy + j];
+				a += ra * w;
+				r += rr * w;
+				g += rg * w;
+				b += rb * w;
+			}
+			return InterpolationKernel.round8(a) << 24 | InterpolationKernel.round8(r) << 16
+					| InterpolationKernel.round8(g) << 8 | InterpolationKernel.round8(b);
+		}
+		}
+	}
+
+	/**
+	 * Interpolate the packed ARGB pixels at the source point
+	 * <code>(x + fx / FRACTION_ONE, y + fy / FRACTION_ONE)</code> from the
+	 * neighboring source rows only. The row <code>rows[j]</code> holds the
+	 * source row <code>y + origin + j</code> clamped into the source, for
+	 * <code>j</code> in <code>[0, taps)</code>; the result equals
+	 * {@linkplain #interpolate(int[], int, int, int, int, int, int)} of the
+	 * whole source.
+	 *
+	 * @param rows the neighboring source rows
+	 * @param width the source width
+	 * @param x the X coordinate of the top-left neighbor
+	 * @param fx the quantized X offset in [0, {@value #FRACTION_ONE})
+	 * @param fy the quantized Y offset in [0, {@value #FRACTION_ONE})
+	 * @return the interpolated ARGB pixel
+	 * @see #getOrigin()
+	 * @see #getTaps()
+	 */
+	public int interpolate(int[][] rows, int width, int x, int fx, int fy)
+	{
+		switch (this.type)
+		{
+		case TYPE_NEAREST_NEIGHBOR:
+			x = InterpolationKernel.clamp(x + (fx >> InterpolationKernel.FRACTION_BITS - 1), width);
+			return rows[fy >> InterpolationKernel.FRACTION_BITS - 1][x];
+		default:
+		case TYPE_BILINEAR:
+		{
+			int x0 = InterpolationKernel.clamp(x, width), x1 = InterpolationKernel.clamp(x + 1, width);
+			int one = InterpolationKernel.FRACTION_ONE, bits = InterpolationKernel.FRACTION_BITS;
+			int w00 = (one - fx) * (one - fy) >> bits;
+			int w10 = fx * (one - fy) >> bits;
+			int w01 = (one - fx) * fy >> bits;
+			int w11 = one - w00 - w10 - w01;
+			int[] r0 = rows[0], r1 = rows[1];
+			int p00 = r0[x0], p10 = r0[x1], p01 = r1[x0], p11 = r1[x1];
+			int rb = (p00 & 0x00ff00ff) * w00 + (p10 & 0x00ff00ff) * w10
+					+ (p01 & 0x00ff00ff) * w01 + (p11 & 0x00ff00ff) * w11;
+			int ag = (p00 >>> 8 & 0x00ff00ff) * w00 + (p10 >>> 8 & 0x00ff00ff) * w10
+					+ (p01 >>> 8 & 0x00ff00ff) * w01 + (p11 >>> 8 & 0x00ff00ff) * w11;
+			return (rb + 0x00800080 >>> 8 & 0x00ff00ff) | (ag + 0x00800080 & 0xff00ff00);
+		}
+		case TYPE_BICUBIC:
+		{
+			int wx = fx * 4, wy = fy * 4;
+			int a = 0, r = 0, g = 0, b = 0;
+			for (int j = 0; j < 4; j++)
+			{
+				int[] row = rows[j];
+				int ra = 0, rr = 0, rg = 0, rb = 0;
+				for (int i = 0; i < 4; i++)
+				{
+					int w = this.weights[wx + i];
+					int p = row[InterpolationKernel.clamp(x - 1 + i, width)];
+					ra += (p >>> 24) * w;
+					rr += (p >> 16 & 0xff) * w;
+					rg += (p >> 8 & 0xff) * w;
+					rb += (p & 0xff) * w;
+				}
+				int w = this.weights[wy + j];
+				a += ra * w;
+				r += rr * w;
+				g += rg * w;
+				b += rb * w;
+			}
+			return InterpolationKernel.round8(a) << 24 | InterpolationKernel.round8(r) << 16
+					| InterpolationKernel.round8(g) << 8 | InterpolationKernel.round8(b);
+		}
+		}
+	}
+
+	/**
+	 * Interpolate one band of the interleaved samples at the source point
+	 * <code>(x + fx / FRACTION_ONE, y + fy / FRACTION_ONE)</code>.
+	 *
+	 * @param samples the source samples in rows of <code>width</code> pixels
+	 * @param width the source width
+	 * @param height the source height
+	 * @param bands the number of the bands
+	 * @param band the band to interpolate
+	 * @param x the X coordinate of the top-left neighbor
+	 * @param y the Y coordinate of the top-left neighbor
+	 * @param fx the quantized X offset in [0, {@value #FRACTION_ONE})
+	 * @param fy the quantized Y offset in [0, {@value #FRACTION_ONE})
+	 * @param max the maximum sample value
+	 * @return the interpolated sample
+	 */
+	public int interpolate(int[] samples, int width, int height, int bands, int band, int x,
+			int y, int fx, int fy, int max)
+	{
+		long sum = 0;
+		int wx = fx * this.taps, wy = fy * this.taps;
+		for (int j = 0; j < this.taps; j++)
+		{
+			int wj = this.weights[wy + j];
+			if (wj == 0)
+				continue;
+			int row = InterpolationKernel.clamp(y + this.origin + j, height) * width;
+			long rowSum = 0;
+			for (int i = 0; i < this.taps; i++)
+			{
+				int wi = this.weights[wx + i];
+				if (wi != 0)
+					rowSum += (long) wi
+							* samples[(row + InterpolationKernel.clamp(x + this.origin + i, width))
+									* bands + band];
+			}
+			sum += rowSum * wj;
+		}
+		long v = sum + (1L << 2 * InterpolationKernel.FRACTION_BITS - 1) >> 2
+				* InterpolationKernel.FRACTION_BITS;
+		return v < 0 ? 0 : v > max ? max : (int) v;
+	}
+
+	/**
+	 * Interpolate one band of the interleaved samples at the source point
+	 * <code>(x + fx / FRACTION_ONE, y + fy / FRACTION_ONE)</code> from the
+	 * neighboring source rows only, stored as
+	 * {@linkplain #interpolate(int[][], int, int, int, int)} does.
+	 *
+	 * @param rows the neighboring source rows of <code>width</code> pixels
+	 * @param width the source width
+	 * @param bands the number of the bands
+	 * @param band the band to interpolate
+	 * @param x the X coordinate of the top-left neighbor
+	 * @param fx the quantized X offset in [0, {@value #FRACTION_ONE})
+	 * @param fy the quantized Y offset in [0, {@value #FRACTION_ONE})
+	 * @param max the maximum sample value
+	 * @return the interpolated sample
+	 */
+	public int interpolate(int[][] rows, int width, int bands, int band, int x, int fx, int fy,
+			int max)
+	{
+		long sum = 0;
+		int wx = fx * this.taps, wy = fy * this.taps;
+		for (int j = 0; j < this.taps; j++)
+		{
+			int wj = this.weights[wy + j];
+			if (wj == 0)
+				continue;
+			int[] row = rows[j];
+			long rowSum = 0;
+			for (int i = 0; i < this.taps; i++)
+			{
+				int wi = this.weights[wx + i];
+				if (wi != 0)
+					rowSum += (long) wi
+							* row[InterpolationKernel.clamp(x + this.origin + i, width) * bands
+									+ band];
+			}
+			sum += rowSum * wj;
+		}
+		long v = sum + (1L << 2 * InterpolationKernel.FRACTION_BITS - 1) >> 2
+				* InterpolationKernel.FRACTION_BITS;
+		return v < 0 ? 0 : v > max ? max : (int) v;
+	}
+
+	/**
+	 * Interpolate all the bands of the interleaved samples at the source point
+	 * <code>(x + fx / FRACTION_ONE, y + fy / FRACTION_ONE)</code> from the
+	 * neighboring source rows only, the results equal the ones of
+	 * {@linkplain #interpolate(int[][], int, int, int, int, int, int, int)} of
+	 * each band. The neighbors and the weights of the two-tap kernels are
+	 * computed once for all the bands, the nearest neighbor is copied.
+	 *
+	 * @param rows the neighboring source rows of <code>width</code> pixels
+	 * @param width the source width
+	 * @param bands the number of the bands
+	 * @param x the X coordinate of the top-left neighbor
+	 * @param fx the quantized X offset in [0, {@value #FRACTION_ONE})
+	 * @param fy the quantized Y offset in [0, {@value #FRACTION_ONE})
+	 * @param max the maximum sample values of the bands
+	 * @param pixel the array of the interpolated samples
+	 * @param offset the offset of the first interpolated sample
+	 */
+	public void interpolate(int[][] rows, int width, int bands, int x, int fx, int fy,
+			int[] max, int[] pixel, int offset)
+	{
+		if (this.taps != 2)
+		{
+			for (int b = 0; b < bands; b++)
+				pixel[offset + b] = this.interpolate(rows, width, bands, b, x, fx, fy, max[b]);
+			return;
+		}
+		int wx = fx * 2, wy = fy * 2;
+		int i0 = InterpolationKernel.clamp(x, width) * bands;
+		int i1 = InterpolationKernel.clamp(x + 1, width) * bands;
+		int[] r0 = rows[0], r1 = rows[1];
+		if (this.type == InterpolationKernel.TYPE_NEAREST_NEIGHBOR)
+		{
+			// the single neighbor of the whole weight is copied
+			int[] row = this.weights[wy] != 0 ? r0 : r1;
+			int index = this.weights[wx] != 0 ? i0 : i1;
+			for (int b = 0; b < bands; b++)
+			{
+				int v = row[index + b];
+				pixel[offset + b] = v < 0 ? 0 : v > max[b] ? max[b] : v;
+			}
+			return;
+		}
+		long w00 = this.weights[wx] * this.weights[wy];
+		long w10 = this.weights[wx + 1] * this.weights[wy];
+		long w01 = this.weights[wx] * this.weights[wy + 1];
+		long w11 = this.weights[wx + 1] * this.weights[wy + 1];
+		for (int b = 0; b < bands; b++)
+		{
+			long v = w00 * r0[i0 + b] + w10 * r0[i1 + b] + w01 * r1[i0 + b] + w11 * r1[i1 + b]
+					+ (1L << 2 * InterpolationKernel.FRACTION_BITS - 1) >> 2
+							* InterpolationKernel.FRACTION_BITS;
+			pixel[offset + b] = v < 0 ? 0 : v > max[b] ? max[b] : (int) v;
+		}
+	}
+
+	/**
+	 * Interpolate one band of the interleaved floating point samples at the
+	 * source point <code>(x + fx / FRACTION_ONE, y + fy / FRACTION_ONE)</code>
+	 * from the neighboring source rows only, as
+	 * {@linkplain #interpolate(int[][], int, int, int, int, int, int, int)}
+	 * does without rounding or clamping the result.
+	 *
+	 * @param rows the neighboring source rows of <code>width</code> pixels
+	 * @param width the source width
+	 * @param bands the number of the bands
+	 * @param band the band to interpolate
+	 * @param x the X coordinate of the top-left neighbor
+	 * @param fx the quantized X offset in [0, {@value #FRACTION_ONE})
+	 * @param fy the quantized Y offset in [0, {@value #FRACTION_ONE})
+	 * @return the interpolated sample
+	 */
+	public double interpolate(double[][] rows, int width, int bands, int band, int x, int fx,
+			int fy)
+	{
+		double sum = 0;
+		int wx = fx * this.taps, wy = fy * this.taps;
+		for (int j = 0; j < this.taps; j++)
+		{
+			int wj = this.weights[wy + j];
+			if (wj == 0)
+				continue;
+			double[] row = rows[j];
+			double rowSum = 0;
+			for (int i = 0; i < this.taps; i++)
+			{
+				int wi = this.weights[wx + i];
+				if (wi != 0)
+					rowSum += wi * row[InterpolationKernel.clamp(x + this.origin + i, width) * bands
+							+ band];
+			}
+			sum += rowSum * wj;
+		}
+		return sum / (InterpolationKernel.FRACTION_ONE * InterpolationKernel.FRACTION_ONE);
+	}
+
+	/**
+	 * Round the channel weighted twice by the fixed-point weights back to 8
+	 * bits, clamped into [0, 255].
+	 *
+	 * @param v the weighted channel
+	 * @return the channel
+	 */
+	private static int round8(int v)
+	{
+		v = v + (1 << 2 * InterpolationKernel.FRACTION_BITS - 1) >> 2
+				* InterpolationKernel.FRACTION_BITS;
+		return v < 0 ? 0 : v > 255 ? 255 : v;
+	}
+
+	/**
+	 * Clamp the index into [0, length).
+	 *
+	 * @param index the index
+	 * @param length the length
+	 * @return the clamped index
+	 */
+	private static int clamp(int index, int length)
+	{
+		return index < 0 ? 0 : index >= length ? length - 1 : index;
+	}
+}
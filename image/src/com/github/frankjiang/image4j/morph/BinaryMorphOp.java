@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * BinaryMorphOp.java is PROPRIETARY/CONFIDENTIAL built in 8:02:37 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.morph;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImagingOpException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.PixelAccessor;
+
+/**
+ * The morphology operation of the binary images, working on the packed bits.
+ * <p>
+ * The rows of the <code>TYPE_BYTE_BINARY</code> images are packed into
+ * <code>long</code> words, 64 pixels per word, and the kernel is applied with
+ * word-level shifts and AND/OR: the offsets of the kernel are grouped into
+ * horizontal runs, each distinct run filters every row once by the doubling
+ * shifts, and the destination row is the AND (erode) or OR (dilate) of the
+ * filtered rows of the runs. The foreground is the bit 1, the white pixels
+ * of {@linkplain com.github.frankjiang.image4j.thresholding.GlobalThresholding}.
+ * </p>
+ * <p>
+ * The semantics of the kernel equal the ones of {@linkplain ColorMorphOp}:
+ * the destination pixel <code>(x, y)</code> combines the source pixels at
+ * <code>(x + dx, y + dy)</code>, the neighbors out of the image are ignored.
+ * The hit-or-miss transform marks the pixels whose hit neighbors are all
+ * foreground and whose miss neighbors are all background.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class BinaryMorphOp extends ImagingOp
+{
+	/**
+	 * The erode operation.
+	 */
+	public static final int	TYPE_ERODE			= ColorMorphOp.TYPE_ERODE;
+	/**
+	 * The dilate operation.
+	 */
+	public static final int	TYPE_DILATE			= ColorMorphOp.TYPE_DILATE;
+	/**
+	 * The open operation, erode followed by dilate.
+	 */
+	public static final int	TYPE_OPEN			= ColorMorphOp.TYPE_OPEN;
+	/**
+	 * The close operation, dilate followed by erode.
+	 */
+	public static final int	TYPE_CLOSE			= ColorMorphOp.TYPE_CLOSE;
+	/**
+	 * The hit-or-miss transform.
+	 */
+	public static final int	TYPE_HIT_OR_MISS	= -1;
+
+	/**
+	 * The kernel, the hit kernel of the hit-or-miss transform.
+	 */
+	protected MorphKernel	kernel;
+	/**
+	 * The miss kernel of the hit-or-miss transform.
+	 */
+	protected MorphKernel	miss;
+	/**
+	 * The operation type.
+	 */
+	protected int			type;
+
+	/**
+	 * Construct an instance of <tt>BinaryMorphOp</tt>.
+	 *
+	 * @param kernel the kernel
+	 * @param type the operation type
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	public BinaryMorphOp(MorphKernel kernel, int type)
+	{
+		if (type < TYPE_ERODE || type > TYPE_CLOSE)
+			throw new IllegalArgumentException("Unknown morphology operation type.");
+		this.kernel = kernel;
+		this.type = type;
+	}
+
+	/**
+	 * Construct an instance of <tt>BinaryMorphOp</tt> of the hit-or-miss
+	 * transform.
+	 *
+	 * @param hit the offsets of the foreground neighbors
+	 * @param miss the offsets of the background neighbors
+	 */
+	public BinaryMorphOp(MorphKernel hit, MorphKernel miss)
+	{
+		this.kernel = hit;
+		this.miss = miss;
+		this.type = TYPE_HIT_OR_MISS;
+	}
+
+	/**
+	 * Filter the binary image. The destination is created as a binary image
+	 * of the source if absent.
+	 *
+	 * @see com.github.frankjiang.image4j.ImagingOp#filter(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 * @throws ImagingOpException if the source image is not a binary image
+	 */
+	@Override
+	public BufferedImage filter(BufferedImage src, BufferedImage dst)
+	{
+		if (src == null)
+			throw new NullPointerException("src image is null");
+		if (dst == null)
+			dst = this.createCompatibleDestImage(src, null);
+		this.operate(src, dst);
+		return dst;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		PixelAccessor in = PixelAccessor.getAccessor(src);
+		if (!(in instanceof PixelAccessor.ByteBinary))
+			throw new ImagingOpException("Unable to filter the non-binary image.");
+		int width = src.getWidth(), height = src.getHeight();
+		long[] bits = BinaryMorphOp.pack((PixelAccessor.ByteBinary) in, width, height);
+		long[] out;
+		switch (this.type)
+		{
+		case TYPE_ERODE:
+			out = this.rank(this.kernel, bits, width, height, false);
+			break;
+		case TYPE_DILATE:
+			out = this.rank(this.kernel, bits, width, height, true);
+			break;
+		case TYPE_OPEN:
+			out = this.rank(this.kernel, this.rank(this.kernel, bits, width, height, false),
+					width, height, true);
+			break;
+		case TYPE_CLOSE:
+			out = this.rank(this.kernel, this.rank(this.kernel, bits, width, height, true),
+					width, height, false);
+			break;
+		default:
+			out = this.rank(this.kernel, bits, width, height, false);
+			long[] complement = new long[bits.length];
+			for (int i = 0; i < bits.length; i++)
+				complement[i] = ~bits[i];
+			BinaryMorphOp.mask(complement, width, height, 0L);
+			long[] background = this.rank(this.miss, complement, width, height, false);
+			for (int i = 0; i < out.length; i++)
+				out[i] &= background[i];
+			break;
+		}
+		BinaryMorphOp.mask(out, width, height, 0L);
+
+		PixelAccessor accessor = PixelAccessor.getAccessor(dst);
+		if (accessor instanceof PixelAccessor.ByteBinary && dst.getWidth() == width
+				&& dst.getHeight() == height && dst.getColorModel().equals(src.getColorModel()))
+			BinaryMorphOp.unpack(out, (PixelAccessor.ByteBinary) accessor, width, height);
+		else
+		{
+			// the result in the binary image of the source drawn into the destination
+			BufferedImage tmp = this.createCompatibleDestImage(src, null);
+			BinaryMorphOp.unpack(out, (PixelAccessor.ByteBinary) PixelAccessor.getAccessor(tmp),
+					width, height);
+			Graphics2D g = dst.createGraphics();
+			try
+			{
+				g.setComposite(AlphaComposite.Src);
+				g.drawImage(tmp, 0, 0, null);
+			}
+			finally
+			{
+				g.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Returns the AND (erode) or OR (dilate) of the neighbors covered by the
+	 * kernel.
+	 *
+	 * @param kernel the kernel
+	 * @param bits the packed rows
+	 * @param width the image width
+	 * @param height the image height
+	 * @param max <code>true</code> for the OR (dilate), <code>false</code> for
+	 *            the AND (erode)
+	 * @return the packed result
+	 */
+	private long[] rank(MorphKernel kernel, long[] bits, int width, int height, boolean max)
+	{
+		int words = BinaryMorphOp.words(width);
+		long fill = max ? 0L : -1L;
+		// the neighbors out of the image are the identity
+		long[] src = bits.clone();
+		BinaryMorphOp.mask(src, width, height, fill);
+		// the horizontal runs of the offsets and the rows filtered by them
+		int[][] runs = kernel.getRuns();
+		List<Long> distinct = new ArrayList<>();
+		List<long[]> filtered = new ArrayList<>();
+		int[] indices = new int[runs.length];
+		for (int r = 0; r < runs.length; r++)
+		{
+			Long key = (long) runs[r][1] << 32 | runs[r][2] & 0xffffffffL;
+			int index = distinct.indexOf(key);
+			if (index < 0)
+			{
+				index = distinct.size();
+				distinct.add(key);
+				filtered.add(BinaryMorphOp.horizontal(src, words, height, runs[r][1],
+						runs[r][2], fill, max));
+			}
+			indices[r] = index;
+		}
+		long[] out = new long[words * height];
+		for (int y = 0; y < height; y++)
+		{
+			int o = y * words;
+			Arrays.fill(out, o, o + words, fill);
+			for (int r = 0; r < runs.length; r++)
+			{
+				int py = y + runs[r][0];
+				if (py < 0 || py >= height)
+					continue;
+				long[] rows = filtered.get(indices[r]);
+				if (max)
+					for (int i = 0, p = py * words; i < words; i++)
+						out[o + i] |= rows[p + i];
+				else
+					for (int i = 0, p = py * words; i < words; i++)
+						out[o + i] &= rows[p + i];
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the rows filtered by the horizontal run <code>[from, to]</code>,
+	 * with the doubling shifts.
+	 *
+	 * @param src the packed rows
+	 * @param words the words per row
+	 * @param height the number of rows
+	 * @param from the first offset
+	 * @param to the last offset
+	 * @param fill the identity
+	 * @param max <code>true</code> for the OR, <code>false</code> for the AND
+	 * @return the filtered rows
+	 */
+	private static long[] horizontal(long[] src, int words, int height, int from, int to,
+			long fill, boolean max)
+	{
+		int length = to - from + 1;
+		long[] out = new long[src.length];
+		long[] tmp = new long[words];
+		for (int y = 0, o = 0; y < height; y++, o += words)
+		{
+			BinaryMorphOp.shift(src, o, words, from, fill, out, o);
+			// the covered run doubles until the remainder
+			int covered = 1;
+			while (covered < length)
+			{
+				int step = Math.min(covered, length - covered);
+				BinaryMorphOp.shift(out, o, words, step, fill, tmp, 0);
+				if (max)
+					for (int i = 0; i < words; i++)
+						out[o + i] |= tmp[i];
+				else
+					for (int i = 0; i < words; i++)
+						out[o + i] &= tmp[i];
+				covered += step;
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Shift a packed row, the bit <code>x</code> of the destination is the
+	 * bit <code>x + d</code> of the source.
+	 *
+	 * @param src the source rows
+	 * @param from the offset of the source row
+	 * @param words the words per row
+	 * @param d the shift
+	 * @param fill the bits beyond the row
+	 * @param dst the destination rows
+	 * @param to the offset of the destination row
+	 */
+	static void shift(long[] src, int from, int words, int d, long fill, long[] dst, int to)
+	{
+		int q = Math.floorDiv(d, 64), r = Math.floorMod(d, 64);
+		for (int i = 0; i < words; i++)
+		{
+			int j = i + q;
+			long hi = j < 0 || j >= words ? fill : src[from + j];
+			if (r == 0)
+				dst[to + i] = hi;
+			else
+			{
+				long lo = j + 1 < 0 || j + 1 >= words ? fill : src[from + j + 1];
+				dst[to + i] = hi << r | lo >>> 64 - r;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of words of a row.
+	 *
+	 * @param width the row width
+	 * @return the number of words
+	 */
+	static int words(int width)
+	{
+		return (width + 63) >>> 6;
+	}
+
+	/**
+	 * Set the bits beyond the width in the last word of each row.
+	 *
+	 * @param bits the packed rows
+	 * @param width the row width
+	 * @param height the number of rows
+	 * @param fill the bits beyond the width
+	 */
+	static void mask(long[] bits, int width, int height, long fill)
+	{
+		int words = BinaryMorphOp.words(width);
+		int used = width & 63;
+		if (used == 0)
+			return;
+		long padding = -1L >>> used;
+		for (int y = 0, i = words - 1; y < height; y++, i += words)
+			bits[i] = bits[i] & ~padding | fill & padding;
+	}
+
+	/**
+	 * Returns the packed rows of the binary image, the pixel <code>x</code> at
+	 * the bit <code>63 - x % 64</code> of the word <code>x / 64</code>.
+	 *
+	 * @param accessor the accessor of the binary image
+	 * @param width the image width
+	 * @param height the image height
+	 * @return the packed rows
+	 */
+	static long[] pack(PixelAccessor.ByteBinary accessor, int width, int height)
+	{
+		int words = BinaryMorphOp.words(width);
+		long[] bits = new long[words * height];
+		byte[] data = accessor.getData();
+		int bitOffset = accessor.getBitOffset();
+		int bytes = (width + 7) >>> 3;
+		for (int y = 0; y < height; y++)
+		{
+			int o = y * words;
+			if ((bitOffset & 7) == 0)
+			{
+				int index = accessor.getRowIndex(y) + (bitOffset >>> 3);
+				for (int b = 0; b < bytes; b++)
+					bits[o + (b >>> 3)] |= (data[index + b] & 0xffL) << 56 - ((b & 7) << 3);
+			}
+			else
+				for (int x = 0; x < width; x++)
+					if (accessor.getBit(x, y) != 0)
+						bits[o + (x >>> 6)] |= 1L << 63 - (x & 63);
+		}
+		BinaryMorphOp.mask(bits, width, height, 0L);
+		return bits;
+	}
+
+	/**
+	 * Store the packed rows into the binary image.
+	 *
+	 * @param bits the packed rows
+	 * @param accessor the accessor of the binary image
+	 * @param width the image width
+	 * @param height the image height
+	 */
+	static void unpack(long[] bits, PixelAccessor.ByteBinary accessor, int width, int height)
+	{
+		int words = BinaryMorphOp.words(width);
+		byte[] data = accessor.getData();
+		int bitOffset = accessor.getBitOffset();
+		int bytes = width >>> 3;
+		for (int y = 0; y < height; y++)
+		{
+			int o = y * words;
+			if ((bitOffset & 7) == 0)
+			{
+				int index = accessor.getRowIndex(y) + (bitOffset >>> 3);
+				for (int b = 0; b < bytes; b++)
+					data[index + b] = (byte) (bits[o + (b >>> 3)] >>> 56 - ((b & 7) << 3));
+				// the bits beyond the width in the last byte are kept
+				if ((width & 7) != 0)
+				{
+					int keep = 0xff >>> (width & 7);
+					int value = (int) (bits[o + (bytes >>> 3)] >>> 56 - ((bytes & 7) << 3));
+					data[index + bytes] = (byte) (data[index + bytes] & keep | value & ~keep);
+				}
+			}
+			else
+				for (int x = 0; x < width; x++)
+					accessor.setBit(x, y, (int) (bits[o + (x >>> 6)] >>> 63 - (x & 63)) & 1);
+		}
+	}
+
+	/**
+	 * Returns the kernel, the hit kernel of the hit-or-miss transform.
+	 *
+	 * @return the kernel
+	 */
+	public MorphKernel getKernel()
+	{
+		return this.kernel;
+	}
+
+	/**
+	 * Returns the miss kernel of the hit-or-miss transform.
+	 *
+	 * @return the miss kernel, <code>null</code> for the other types
+	 */
+	public MorphKernel getMissKernel()
+	{
+		return this.miss;
+	}
+
+	/**
+	 * Returns the operation type.
+	 *
+	 * @return the operation type
+	 */
+	public int getType()
+	{
+		return this.type;
+	}
+}
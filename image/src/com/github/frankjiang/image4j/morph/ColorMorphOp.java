@@ -8,16 +8,16 @@
 
 package com.github.frankjiang.image4j.morph;
 
-import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.ImagingOpException;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 
-import com.github.frankjiang.image4j.ImagingLib;
 import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.RowOp;
+import com.github.frankjiang.image4j.StreamableOp;
 
 /**
  * TODO
@@ -27,20 +27,32 @@ import com.github.frankjiang.image4j.ImagingOp;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class ColorMorphOp extends ImagingOp
+public class ColorMorphOp extends ImagingOp implements StreamableOp
 {
 	/**
 	 * The erode operation.
 	 */
-	public static final int	TYPE_ERODE	= 0;
+	public static final int	TYPE_ERODE			= 0;
 	/**
 	 * The dilate operation.
 	 */
-	public static final int	TYPE_DILATE	= 1;
+	public static final int	TYPE_DILATE			= 1;
 
-	public static final int	TYPE_OPEN	= 2;
+	public static final int	TYPE_OPEN			= 2;
 
-	public static final int	TYPE_CLOSE	= 3;
+	public static final int	TYPE_CLOSE			= 3;
+	/**
+	 * The morphological gradient, the dilated minus the eroded.
+	 */
+	public static final int	TYPE_GRADIENT		= 4;
+	/**
+	 * The white top-hat transform, the source minus the opened.
+	 */
+	public static final int	TYPE_WHITE_TOP_HAT	= 5;
+	/**
+	 * The black top-hat transform, the closed minus the source.
+	 */
+	public static final int	TYPE_BLACK_TOP_HAT	= 6;
 
 	protected MorphKernel	kernel;
 
@@ -54,208 +66,172 @@ public class ColorMorphOp extends ImagingOp
 
 	protected void dilate(BufferedImage src, BufferedImage dst) throws ImagingOpException
 	{
-		int width = src.getWidth();
-		int height = src.getHeight();
-		int rgb;
-		int[][] alpha = new int[height][width];
-		int[][] red = new int[height][width];
-		int[][] green = new int[height][width];
-		int[][] blue = new int[height][width];
-		// ColorModel model = src.getColorModel();
-		// Ehance the full sRGB color space
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-			{
-				rgb = src.getRGB(x, y);
-				alpha[y][x] = rgb >> 24 & 0xff;
-				red[y][x] = rgb >> 16 & 0xff;
-				green[y][x] = rgb >> 8 & 0xff;
-				blue[y][x] = rgb & 0xff;
-			}
-		int[][][] data = { alpha, red, green, blue };
-		Point[] offsets = this.kernel.offsets;
-		ArrayList<Integer>[] lists = new ArrayList[data.length];
-		for (int i = 0; i < lists.length; i++)
-			lists[i] = new ArrayList<>(offsets.length);
-		int px, py;
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-			{
-				for (ArrayList<Integer> list : lists)
-					list.clear();
-				for (Point p : offsets)
-				{
-					px = p.x + x;
-					if (px < 0 || px >= width)
-						continue;
-					py = p.y + y;
-					if (py < 0 || py >= height)
-						continue;
-					for (int z = 0; z < lists.length; z++)
-						lists[z].add(data[z][py][px]);
-				}
-
-				dst.setRGB(x, y, Collections.max(lists[0]) << 24 | Collections.max(lists[1]) << 16
-						| Collections.max(lists[2]) << 8 | Collections.max(lists[3]));
-			}
+		this.rank(src, dst, true);
 	}
 
 	protected void dilate(Raster src, WritableRaster dst)
 	{
-		int width = src.getWidth();
-		int height = src.getHeight();
-		int[][][] data = new int[height][width][3];
-		// Ehance the full sRGB color space
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				src.getPixel(x, y, data[y][x]);
-		Point[] offsets = this.kernel.offsets;
-		ArrayList<Integer>[] lists = new ArrayList[3];
-		for (int i = 0; i < 3; i++)
-			lists[i] = new ArrayList<>(offsets.length);
-		int px, py;
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-			{
-				for (int z = 0; z < 3; z++)
-					lists[z].clear();
-				for (Point p : offsets)
-				{
-					px = p.x + x;
-					if (px < 0 || px > width)
-						continue;
-					py = p.y + y;
-					if (py < 0 || py > height)
-						continue;
-					for (int z = 0; z < 3; z++)
-						lists[z].add(data[py][px][z]);
-				}
-				for (int z = 0; z < 3; z++)
-					data[y][x][z] = Collections.max(lists[z]);
-				dst.setPixel(x, y, data[y][x]);
-			}
+		this.rank(src, dst, true);
 	}
 
 	protected void erode(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		this.rank(src, dst, false);
+	}
+
+	protected void erode(Raster src, WritableRaster dst)
+	{
+		this.rank(src, dst, false);
+	}
+
+	/**
+	 * Compute the channel-wise maximum or minimum of the neighbors covered by
+	 * the kernel.
+	 *
+	 * @param src the source image
+	 * @param dst the destination image
+	 * @param max <code>true</code> for the maximum (dilate),
+	 *            <code>false</code> for the minimum (erode)
+	 */
+	private void rank(BufferedImage src, BufferedImage dst, boolean max)
+	{
+		MorphStream.run(this.kernel, max ? TYPE_DILATE : TYPE_ERODE, src, dst);
+	}
+
+	/**
+	 * Compute the band-wise maximum or minimum of the neighbors covered by the
+	 * kernel.
+	 *
+	 * @param src the source raster
+	 * @param dst the destination raster
+	 * @param max <code>true</code> for the maximum (dilate),
+	 *            <code>false</code> for the minimum (erode)
+	 */
+	private void rank(Raster src, WritableRaster dst, boolean max)
 	{
 		int width = src.getWidth();
 		int height = src.getHeight();
-		int rgb;
-		int[][] alpha = new int[height][width];
-		int[][] red = new int[height][width];
-		int[][] green = new int[height][width];
-		int[][] blue = new int[height][width];
-		int[][][] data = { alpha, red, green, blue };
-		// Ehance the full sRGB color space
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-			{
-				rgb = src.getRGB(x, y);
-				alpha[y][x] = rgb >> 24 & 0xff;
-				red[y][x] = rgb >> 16 & 0xff;
-				green[y][x] = rgb >> 8 & 0xff;
-				blue[y][x] = rgb & 0xff;
-			}
-		Point[] offsets = this.kernel.offsets;
-		ArrayList<Integer>[] lists = new ArrayList[4];
-		for (int i = 0; i < lists.length; i++)
-			lists[i] = new ArrayList<>(offsets.length);
-		int px, py;
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
+		int[] plane = new int[width * height];
+		int[] out = new int[width * height];
+		Rectangle bounds = this.kernel.getBounds();
+		for (int b = 0; b < src.getNumBands(); b++)
+		{
+			src.getSamples(src.getMinX(), src.getMinY(), width, height, b, plane);
+			if (this.kernel.isRectangular())
 			{
-				for (ArrayList<Integer> list : lists)
-					list.clear();
-				for (Point p : offsets)
-				{
-					px = p.x + x;
-					if (px < 0 || px >= width)
-						continue;
-					py = p.y + y;
-					if (py < 0 || py >= height)
-						continue;
-					for (int z = 0; z < lists.length; z++)
-						lists[z].add(data[z][py][px]);
-				}
-
-				dst.setRGB(x, y, Collections.min(lists[0]) << 24 | Collections.min(lists[1]) << 16
-						| Collections.min(lists[2]) << 8 | Collections.min(lists[3]));
+				// the lines in both directions through the plane itself
+				LineMorph.horizontal(plane, plane, width, height, bounds.x,
+						bounds.x + bounds.width - 1, max);
+				LineMorph.vertical(plane, out, width, height, bounds.y,
+						bounds.y + bounds.height - 1, max);
 			}
+			else
+				this.rank(plane, out, width, height, max);
+			int identity = max ? 0 : (1 << src.getSampleModel().getSampleSize(b)) - 1;
+			// the pixels without the neighbors in the raster keep the identity
+			for (int i = 0; i < out.length; i++)
+				if (max ? out[i] < identity : out[i] > identity)
+					out[i] = identity;
+			dst.setSamples(dst.getMinX(), dst.getMinY(), width, height, b, out);
+		}
 	}
 
-	protected void erode(Raster src, WritableRaster dst)
+	/**
+	 * Compute the maximum or minimum of the neighbors covered by the kernel
+	 * in the plane.
+	 *
+	 * @param src the source plane
+	 * @param dst the destination plane
+	 * @param width the plane width
+	 * @param height the plane height
+	 * @param max <code>true</code> for the maximum (dilate),
+	 *            <code>false</code> for the minimum (erode)
+	 */
+	private void rank(int[] src, int[] dst, int width, int height, boolean max)
 	{
-		int width = src.getWidth();
-		int height = src.getHeight();
-		int[][][] data = new int[height][width][3];
-		// Ehance the full sRGB color space
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-				src.getPixel(x, y, data[y][x]);
-		Point[] offsets = this.kernel.offsets;
-		ArrayList<Integer>[] lists = new ArrayList[3];
-		for (int i = 0; i < 3; i++)
-			lists[i] = new ArrayList<>(offsets.length);
-		int px, py;
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
+		int[][] runs = this.kernel.getRuns();
+		int longest = 1;
+		for (int[] run : runs)
+			longest = Math.max(longest, run[2] - run[1] + 1);
+		int length = LineMorph.getBufferLength(width, longest);
+		int[] line = new int[length];
+		int[] forward = new int[length];
+		int[] backward = new int[length];
+		int[] filtered = new int[width];
+		for (int y = 0, o = 0; y < height; y++, o += width)
+		{
+			Arrays.fill(dst, o, o + width, max ? Integer.MIN_VALUE : Integer.MAX_VALUE);
+			for (int[] run : runs)
 			{
-				for (int z = 0; z < 3; z++)
-					lists[z].clear();
-				for (Point p : offsets)
-				{
-					px = p.x + x;
-					if (px < 0 || px > width)
-						continue;
-					py = p.y + y;
-					if (py < 0 || py > height)
-						continue;
-					for (int z = 0; z < 3; z++)
-						lists[z].add(data[py][px][z]);
-				}
-				for (int z = 0; z < 3; z++)
-					data[y][x][z] = Collections.min(lists[z]);
-				dst.setPixel(x, y, data[y][x]);
+				int py = run[0] + y;
+				if (py < 0 || py >= height)
+					continue;
+				LineMorph.horizontal(src, py * width, filtered, 0, width, run[1], run[2], max,
+						line, forward, backward);
+				for (int x = 0; x < width; x++)
+					dst[o + x] = LineMorph.rank(dst[o + x], filtered[x], max);
 			}
+		}
 	}
 
 	/**
-	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
-	 *      java.awt.image.BufferedImage)
+	 * @see com.github.frankjiang.image4j.StreamableOp#getRowOps()
 	 */
 	@Override
-	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	public RowOp[] getRowOps()
 	{
-		ImagingLib.makeTransparentImage(dst);
+		int[][] runs = this.kernel.getRuns();
+		RankRowOp erode = new RankRowOp(runs, false);
+		RankRowOp dilate = new RankRowOp(runs, true);
 		switch (this.type)
 		{
 		case TYPE_ERODE:
-			this.erode(src, dst);
-			break;
+			return new RowOp[] { erode };
 		case TYPE_DILATE:
-			this.dilate(src, dst);
-			break;
+			return new RowOp[] { dilate };
 		case TYPE_OPEN:
-		{
-			BufferedImage tmp = this.createCompatibleDestImage(src, src.getColorModel());
-			ImagingLib.makeTransparentImage(tmp);
-			this.erode(src, tmp);
-			this.dilate(tmp, dst);
-		}
-			break;
+			return new RowOp[] { erode, dilate };
 		case TYPE_CLOSE:
-		{
-			BufferedImage tmp = this.createCompatibleDestImage(src, src.getColorModel());
-			ImagingLib.makeTransparentImage(tmp);
-			this.dilate(src, tmp);
-			this.erode(tmp, dst);
-		}
-			break;
+			return new RowOp[] { dilate, erode };
+		case TYPE_GRADIENT:
+		case TYPE_WHITE_TOP_HAT:
+		case TYPE_BLACK_TOP_HAT:
+			return new RowOp[] { new CompoundRowOp(runs, this.type) };
 		default:
 			throw new IllegalArgumentException("Unknown morphology operation type.");
 		}
 	}
 
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		MorphStream.run(this.kernel, this.type, src, dst);
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return true;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#getHalo()
+	 */
+	@Override
+	protected int getHalo()
+	{
+		int extent = this.kernel.getExtent();
+		return this.type == TYPE_ERODE || this.type == TYPE_DILATE
+				|| this.type == TYPE_GRADIENT ? extent : extent * 2;
+	}
+
 	/**
 	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.Raster,
 	 *      java.awt.image.WritableRaster)
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * CompoundRowOp.java is PROPRIETARY/CONFIDENTIAL built in 9:12:48 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.morph;
+
+import java.util.Arrays;
+
+import com.github.frankjiang.image4j.RowOp;
+
+/**
+ * The row operation of the morphological gradient and the top-hat
+ * transforms, which combine the ranks with the source in one row operation
+ * for the {@linkplain com.github.frankjiang.image4j.RowPipeline}.
+ * <p>
+ * The top-hat transforms rank the first ranks of the rows within the halo.
+ * The operation {@linkplain #open(int) opened} for a run keeps the scratch
+ * rows and a rolling buffer of the first ranks, so each row computes the first
+ * rank of one new row only, as the rows are filtered in order. The results
+ * equal the ones of {@linkplain MorphStream}.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+class CompoundRowOp implements RowOp
+{
+	/**
+	 * The operation type of {@linkplain ColorMorphOp}.
+	 */
+	private final int		type;
+	/**
+	 * The first and the second ranks.
+	 */
+	private final RankRowOp	first, second;
+	/**
+	 * The halo of a rank.
+	 */
+	private final int		halo;
+	/**
+	 * The scratch rows of the opened operation, <code>null</code> for the
+	 * shared one: the second rank and the first ranks of the rows within the
+	 * halo.
+	 */
+	private final int[]		ranked;
+	/**
+	 * The rolling buffer of the first ranks, the window of them and the sub
+	 * window of the source rows.
+	 */
+	private final int[][]	ranks, window, sub;
+	/**
+	 * The Y coordinates of the rows in the rolling buffer.
+	 */
+	private final int[]		indices;
+
+	/**
+	 * Construct an instance of <tt>CompoundRowOp</tt>.
+	 *
+	 * @param runs the kernel runs
+	 * @param type the operation type of {@linkplain ColorMorphOp}, the
+	 *            gradient or a top-hat transform
+	 */
+	CompoundRowOp(int[][] runs, int type)
+	{
+		this.type = type;
+		boolean open = type != ColorMorphOp.TYPE_BLACK_TOP_HAT;
+		this.first = new RankRowOp(runs, !open);
+		this.second = new RankRowOp(runs, open);
+		this.halo = this.first.getHalo();
+		this.ranked = null;
+		this.ranks = this.window = this.sub = null;
+		this.indices = null;
+	}
+
+	/**
+	 * Construct an opened instance of <tt>CompoundRowOp</tt> with the scratch
+	 * rows of the specified width.
+	 *
+	 * @param op the shared operation
+	 * @param width the row width
+	 */
+	private CompoundRowOp(CompoundRowOp op, int width)
+	{
+		this.type = op.type;
+		this.first = op.first.open(width);
+		this.second = op.second.open(width);
+		this.halo = op.halo;
+		this.ranked = new int[width];
+		int size = 2 * this.halo + 1;
+		this.ranks = this.type == ColorMorphOp.TYPE_GRADIENT ? null : new int[size][width];
+		this.window = new int[size][];
+		this.sub = new int[size][];
+		this.indices = new int[size];
+		Arrays.fill(this.indices, Integer.MIN_VALUE);
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.RowOp#getHalo()
+	 */
+	@Override
+	public int getHalo()
+	{
+		return this.type == ColorMorphOp.TYPE_GRADIENT ? this.halo : this.halo * 2;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.RowOp#filterRow(int[][], int, int,
+	 *      int[])
+	 */
+	@Override
+	public void filterRow(int[][] rows, int y, int width, int[] out)
+	{
+		if (this.ranked == null || this.ranked.length != width)
+		{
+			this.open(width).filterRow(rows, y, width, out);
+			return;
+		}
+		int[] ranked = this.ranked;
+		if (this.type == ColorMorphOp.TYPE_GRADIENT)
+		{
+			// the dilated alpha and the channels of the dilated minus the eroded
+			this.second.filterRow(rows, y, width, ranked);
+			this.first.filterRow(rows, y, width, out);
+			for (int x = 0; x < width; x++)
+				out[x] = CompoundRowOp.subtract(ranked[x], out[x], ranked[x]);
+			return;
+		}
+		// the first ranks of the rows within the halo, the buffered ones reused
+		int h = this.halo;
+		int[][] window = this.window, sub = this.sub;
+		for (int j = 0; j < window.length; j++)
+		{
+			window[j] = null;
+			if (rows[j + h] == null)
+				continue;
+			int py = y - h + j, slot = Math.floorMod(py, window.length);
+			window[j] = this.ranks[slot];
+			if (this.indices[slot] == py)
+				continue;
+			System.arraycopy(rows, j, sub, 0, sub.length);
+			this.first.filterRow(sub, py, width, window[j]);
+			this.indices[slot] = py;
+		}
+		this.second.filterRow(window, y, width, ranked);
+		int[] src = rows[2 * h];
+		for (int x = 0; x < width; x++)
+			out[x] = this.type == ColorMorphOp.TYPE_WHITE_TOP_HAT
+					? CompoundRowOp.subtract(src[x], ranked[x], src[x])
+					: CompoundRowOp.subtract(ranked[x], src[x], src[x]);
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.RowOp#open(int)
+	 */
+	@Override
+	public RowOp open(int width)
+	{
+		return new CompoundRowOp(this, width);
+	}
+
+	/**
+	 * Returns the channel-wise difference clamped to 0.
+	 *
+	 * @param hi the minuend pixel
+	 * @param lo the subtrahend pixel
+	 * @param alpha the pixel of the alpha channel
+	 * @return the difference pixel
+	 */
+	private static int subtract(int hi, int lo, int alpha)
+	{
+		int r = Math.max(0, (hi >> 16 & 0xff) - (lo >> 16 & 0xff));
+		int g = Math.max(0, (hi >> 8 & 0xff) - (lo >> 8 & 0xff));
+		int b = Math.max(0, (hi & 0xff) - (lo & 0xff));
+		return alpha & 0xff000000 | r << 16 | g << 8 | b;
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * LineMorph.java is PROPRIETARY/CONFIDENTIAL built in 7:05:44 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.morph;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * The erosion and dilation with the line and rectangle kernels by the van
+ * Herk/Gil-Werman algorithm.
+ * <p>
+ * The line of <code>k</code> samples is split into blocks of <code>k</code>
+ * samples, the running maximum (or minimum) of each block is computed
+ * forwards and backwards, and the maximum of a window is the maximum of the
+ * backward value at its start and the forward value at its end. So a line
+ * costs about 3 comparisons per sample at any length. A rectangle is a
+ * horizontal line followed by a vertical line.
+ * </p>
+ * <p>
+ * The operations work on the planes of one channel, the samples in rows of
+ * <code>width</code>. The destination sample <code>(x, y)</code> is the
+ * maximum (dilate) or minimum (erode) of the source samples at
+ * <code>(x + dx, y + dy)</code> for the offsets of the kernel, the offsets out
+ * of the plane are ignored, as {@linkplain ColorMorphOp} does.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public final class LineMorph
+{
+	/**
+	 * Construct an instance of <tt>LineMorph</tt>.
+	 */
+	private LineMorph()
+	{
+	}
+
+	/**
+	 * Filter the plane with the rectangle kernel of the offsets in the bounds.
+	 *
+	 * @param src the source plane
+	 * @param dst the destination plane, may be <code>src</code>
+	 * @param width the plane width
+	 * @param height the plane height
+	 * @param bounds the bounds of the kernel offsets
+	 * @param max <code>true</code> for the maximum (dilate),
+	 *            <code>false</code> for the minimum (erode)
+	 * @see MorphKernel#isRectangular()
+	 */
+	public static void rectangle(int[] src, int[] dst, int width, int height, Rectangle bounds,
+			boolean max)
+	{
+		int[] tmp = new int[width * height];
+		LineMorph.horizontal(src, tmp, width, height, bounds.x, bounds.x + bounds.width - 1, max);
+		LineMorph.vertical(tmp, dst, width, height, bounds.y, bounds.y + bounds.height - 1, max);
+	}
+
+	/**
+	 * Filter the rows of the plane with the horizontal line of the offsets
+	 * <code>[from, to]</code>.
+	 *
+	 * @param src the source plane
+	 * @param dst the destination plane, may be <code>src</code>
+	 * @param width the plane width
+	 * @param height the plane height
+	 * @param from the first offset
+	 * @param to the last offset
+	 * @param max <code>true</code> for the maximum (dilate),
+	 *            <code>false</code> for the minimum (erode)
+	 */
+	public static void horizontal(int[] src, int[] dst, int width, int height, int from, int to,
+			boolean max)
+	{
+		int k = to - from + 1;
+		if (k <= 0)
+			throw new IllegalArgumentException("The line is empty.");
+		if (k == 1 && from == 0)
+		{
+			if (src != dst)
+				System.arraycopy(src, 0, dst, 0, width * height);
+			return;
+		}
+		int length = LineMorph.getBufferLength(width, k);
+		int[] line = new int[length];
+		int[] forward = new int[length];
+		int[] backward = new int[length];
+		for (int y = 0, offset = 0; y < height; y++, offset += width)
+			LineMorph.horizontal(src, offset, dst, offset, width, from, to, max, line, forward,
+					backward);
+	}
+
+	/**
+	 * Returns the length of the buffers of the horizontal lines, which holds
+	 * the padded line of any length up to <code>k</code>.
+	 *
+	 * @param width the row width
+	 * @param k the maximum line length
+	 * @return the buffer length
+	 */
+	static int getBufferLength(int width, int k)
+	{
+		// the padded line of width + 2 (k - 1) samples rounded up to blocks
+		return width + 3 * (k - 1);
+	}
+
+	/**
+	 * Filter one row with the horizontal line of the offsets
+	 * <code>[from, to]</code>. The samples without the neighbors in the row
+	 * are {@linkplain Integer#MIN_VALUE} for the maximum and
+	 * {@linkplain Integer#MAX_VALUE} for the minimum.
+	 *
+	 * @param src the source samples
+	 * @param srcOffset the offset of the source row
+	 * @param dst the destination samples, may be <code>src</code>
+	 * @param dstOffset the offset of the destination row
+	 * @param width the row width
+	 * @param from the first offset
+	 * @param to the last offset
+	 * @param max <code>true</code> for the maximum, <code>false</code> for the
+	 *            minimum
+	 * @param line the buffer of the padded line
+	 * @param forward the buffer of the forward values
+	 * @param backward the buffer of the backward values
+	 * @see #getBufferLength(int, int)
+	 */
+	static void horizontal(int[] src, int srcOffset, int[] dst, int dstOffset, int width,
+			int from, int to, boolean max, int[] line, int[] forward, int[] backward)
+	{
+		int k = to - from + 1;
+		int identity = max ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+		// the padded line, whose sample q is the source sample q + from
+		int length = (width + k - 1 + k - 1) / k * k;
+		for (int q = 0; q < length; q++)
+		{
+			int x = q + from;
+			line[q] = x < 0 || x >= width ? identity : src[srcOffset + x];
+		}
+		for (int s = 0; s < length; s += k)
+		{
+			forward[s] = line[s];
+			for (int q = s + 1; q < s + k; q++)
+				forward[q] = LineMorph.rank(forward[q - 1], line[q], max);
+			backward[s + k - 1] = line[s + k - 1];
+			for (int q = s + k - 2; q >= s; q--)
+				backward[q] = LineMorph.rank(backward[q + 1], line[q], max);
+		}
+		for (int x = 0; x < width; x++)
+			dst[dstOffset + x] = LineMorph.rank(backward[x], forward[x + k - 1], max);
+	}
+
+	/**
+	 * Filter the columns of the plane with the vertical line of the offsets
+	 * <code>[from, to]</code>. The columns are processed a row at a time, only
+	 * the running values of two blocks are kept.
+	 *
+	 * @param src the source plane
+	 * @param dst the destination plane, different from <code>src</code>
+	 * @param width the plane width
+	 * @param height the plane height
+	 * @param from the first offset
+	 * @param to the last offset
+	 * @param max <code>true</code> for the maximum (dilate),
+	 *            <code>false</code> for the minimum (erode)
+	 */
+	public static void vertical(int[] src, int[] dst, int width, int height, int from, int to,
+			boolean max)
+	{
+		int k = to - from + 1;
+		if (k <= 0)
+			throw new IllegalArgumentException("The line is empty.");
+		if (src == dst)
+			throw new IllegalArgumentException("The source and destination planes are the same.");
+		if (k == 1 && from == 0)
+		{
+			System.arraycopy(src, 0, dst, 0, width * height);
+			return;
+		}
+		int identity = max ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+		// the backward values of the block [s, s + k) and the forward values of
+		// the block [s + k, s + 2k), the padded row q is the source row q + from
+		int[] backward = new int[k * width];
+		int[] forward = new int[k * width];
+		for (int s = 0; s < height; s += k)
+		{
+			LineMorph.copy(src, width, height, s + k - 1 + from, identity, backward,
+					(k - 1) * width);
+			for (int j = k - 2; j >= 0; j--)
+				LineMorph.rank(src, width, height, s + j + from, backward, (j + 1) * width,
+						backward, j * width, max);
+			LineMorph.copy(src, width, height, s + k + from, identity, forward, 0);
+			for (int j = 1; j < k - 1; j++)
+				LineMorph.rank(src, width, height, s + k + j + from, forward, (j - 1) * width,
+						forward, j * width, max);
+			// the window of the row y is [y, y + k) of the padded rows
+			for (int y = s; y < Math.min(s + k, height); y++)
+			{
+				int b = (y - s) * width;
+				int f = y == s ? 0 : (y - s - 1) * width;
+				int[] end = y == s ? backward : forward;
+				for (int x = 0, o = y * width; x < width; x++)
+					dst[o + x] = LineMorph.rank(backward[b + x], end[f + x], max);
+			}
+		}
+	}
+
+	/**
+	 * Copy a source row into the buffer.
+	 *
+	 * @param src the source plane
+	 * @param width the plane width
+	 * @param height the plane height
+	 * @param y the Y coordinate of the row
+	 * @param identity the value of the rows out of the plane
+	 * @param buffer the buffer
+	 * @param offset the offset in the buffer
+	 */
+	private static void copy(int[] src, int width, int height, int y, int identity,
+			int[] buffer, int offset)
+	{
+		if (y < 0 || y >= height)
+			Arrays.fill(buffer, offset, offset + width, identity);
+		else
+			System.arraycopy(src, y * width, buffer, offset, width);
+	}
+
+	/**
+	 * Combine a source row with a buffered row.
+	 *
+	 * @param src the source plane
+	 * @param width the plane width
+	 * @param height the plane height
+	 * @param y the Y coordinate of the source row, the rows out of the plane
+	 *            are ignored
+	 * @param in the buffered values
+	 * @param from the offset of the buffered row
+	 * @param out the combined values
+	 * @param to the offset of the combined row
+	 * @param max <code>true</code> for the maximum, <code>false</code> for the
+	 *            minimum
+	 */
+	private static void rank(int[] src, int width, int height, int y, int[] in, int from,
+			int[] out, int to, boolean max)
+	{
+		if (y < 0 || y >= height)
+			System.arraycopy(in, from, out, to, width);
+		else
+			for (int x = 0, o = y * width; x < width; x++)
+				out[to + x] = LineMorph.rank(in[from + x], src[o + x], max);
+	}
+
+	/**
+	 * Returns the maximum or minimum of the values.
+	 *
+	 * @param a a value
+	 * @param b another value
+	 * @param max <code>true</code> for the maximum, <code>false</code> for the
+	 *            minimum
+	 * @return the maximum or minimum
+	 */
+	static int rank(int a, int b, boolean max)
+	{
+		return max ? a > b ? a : b : a < b ? a : b;
+	}
+}
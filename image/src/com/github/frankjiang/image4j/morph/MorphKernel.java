@@ -9,7 +9,10 @@
 package com.github.frankjiang.image4j.morph;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * The morphology kernel class.
@@ -46,6 +49,90 @@ public class MorphKernel
 		return new MorphKernel(offsets);
 	}
 
+	/**
+	 * Returns the disk kernel of the offsets within the radius.
+	 *
+	 * @param radius the radius
+	 * @return the disk kernel
+	 */
+	public static MorphKernel getDiskKernel(int radius)
+	{
+		if (radius < 1)
+			throw new IllegalArgumentException("The value of radius is less than 1.");
+		ArrayList<Point> points = new ArrayList<>();
+		for (int y = -radius; y <= radius; y++)
+			for (int x = -radius; x <= radius; x++)
+				if (x * x + y * y <= radius * radius)
+					points.add(new Point(x, y));
+		return new MorphKernel(points.toArray(new Point[0]));
+	}
+
+	/**
+	 * Returns the cross kernel of the horizontal and vertical offsets within
+	 * the radius.
+	 *
+	 * @param radius the radius
+	 * @return the cross kernel
+	 */
+	public static MorphKernel getCrossKernel(int radius)
+	{
+		if (radius < 1)
+			throw new IllegalArgumentException("The value of radius is less than 1.");
+		ArrayList<Point> points = new ArrayList<>();
+		for (int y = -radius; y <= radius; y++)
+			if (y == 0)
+				for (int x = -radius; x <= radius; x++)
+					points.add(new Point(x, y));
+			else
+				points.add(new Point(0, y));
+		return new MorphKernel(points.toArray(new Point[0]));
+	}
+
+	/**
+	 * Returns the diamond kernel of the offsets within the radius in the
+	 * city block distance.
+	 *
+	 * @param radius the radius
+	 * @return the diamond kernel
+	 */
+	public static MorphKernel getDiamondKernel(int radius)
+	{
+		if (radius < 1)
+			throw new IllegalArgumentException("The value of radius is less than 1.");
+		ArrayList<Point> points = new ArrayList<>();
+		for (int y = -radius; y <= radius; y++)
+			for (int x = Math.abs(y) - radius; x <= radius - Math.abs(y); x++)
+				points.add(new Point(x, y));
+		return new MorphKernel(points.toArray(new Point[0]));
+	}
+
+	/**
+	 * Returns the digital line kernel centered at the origin. The line has
+	 * <code>length</code> offsets along its major axis, the angle is
+	 * counterclockwise from the X axis with the Y axis downwards.
+	 *
+	 * @param length the number of the offsets
+	 * @param theta the angle in radians
+	 * @return the line kernel
+	 */
+	public static MorphKernel getLineKernel(int length, double theta)
+	{
+		if (length < 2)
+			throw new IllegalArgumentException("The value of length is less than 2.");
+		double cos = Math.cos(theta), sin = -Math.sin(theta);
+		boolean horizontal = Math.abs(cos) >= Math.abs(sin);
+		double slope = horizontal ? sin / cos : cos / sin;
+		Point[] offsets = new Point[length];
+		int begin = -(length / 2);
+		for (int i = 0; i < length; i++)
+		{
+			int t = begin + i;
+			int u = (int) Math.round(t * slope);
+			offsets[i] = horizontal ? new Point(t, u) : new Point(u, t);
+		}
+		return new MorphKernel(offsets);
+	}
+
 	protected Point[] offsets;
 
 	protected MorphKernel()
@@ -64,4 +151,88 @@ public class MorphKernel
 	{
 		return this.offsets;
 	}
+
+	/**
+	 * Returns the bounds of the offsets.
+	 *
+	 * @return the bounds
+	 */
+	public Rectangle getBounds()
+	{
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		for (Point p : this.offsets)
+		{
+			minX = Math.min(minX, p.x);
+			minY = Math.min(minY, p.y);
+			maxX = Math.max(maxX, p.x);
+			maxY = Math.max(maxY, p.y);
+		}
+		return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+	}
+
+	/**
+	 * Returns <code>true</code> if the offsets fill their bounds, as the
+	 * kernels of {@linkplain #getSquareKernel(int)} and
+	 * {@linkplain #getShadowKernel(int)}. The rectangular kernels are
+	 * decomposed into lines by {@linkplain LineMorph}.
+	 *
+	 * @return <code>true</code> if rectangular
+	 */
+	public boolean isRectangular()
+	{
+		Rectangle bounds = this.getBounds();
+		if ((long) bounds.width * bounds.height > this.offsets.length)
+			return false;
+		boolean[] covered = new boolean[bounds.width * bounds.height];
+		int count = 0;
+		for (Point p : this.offsets)
+		{
+			int i = (p.y - bounds.y) * bounds.width + p.x - bounds.x;
+			if (!covered[i])
+			{
+				covered[i] = true;
+				count++;
+			}
+		}
+		return count == covered.length;
+	}
+
+	/**
+	 * Returns the run-length form of the kernel: the horizontal runs of the
+	 * offsets, the consecutive offsets of each row merged, sorted by the row
+	 * and then by the start. The operations process each run as a span of
+	 * samples, so the bounds are checked once per run instead of per offset,
+	 * and the sliding window results are reused along the span.
+	 *
+	 * @return the runs of <code>{dy, dxStart, dxEnd}</code>
+	 */
+	public int[][] getRuns()
+	{
+		Point[] offsets = this.offsets.clone();
+		Arrays.sort(offsets, (a, b) -> a.y != b.y ? Integer.compare(a.y, b.y)
+				: Integer.compare(a.x, b.x));
+		List<int[]> runs = new ArrayList<>();
+		int[] run = null;
+		for (Point p : offsets)
+			if (run != null && run[0] == p.y && p.x <= run[2] + 1)
+				run[2] = Math.max(run[2], p.x);
+			else
+				runs.add(run = new int[] { p.y, p.x, p.x });
+		return runs.toArray(new int[runs.size()][]);
+	}
+
+	/**
+	 * Returns the extent of this kernel, the maximum absolute value of the
+	 * offset coordinates.
+	 *
+	 * @return the extent
+	 */
+	public int getExtent()
+	{
+		int extent = 0;
+		for (Point p : this.offsets)
+			extent = Math.max(extent, Math.max(Math.abs(p.x), Math.abs(p.y)));
+		return extent;
+	}
 }
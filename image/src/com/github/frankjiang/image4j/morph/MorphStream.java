@@ -0,0 +1,639 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * MorphStream.java is PROPRIETARY/CONFIDENTIAL built in 8:41:26 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.morph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.frankjiang.image4j.PixelAccessor;
+
+/**
+ * The streamed morphology of the packed ARGB images.
+ * <p>
+ * The source rows are pushed one by one through the stages, each keeps the
+ * rolling buffers of the rows within the kernel height only, so the memory
+ * grows with the image width and the kernel height but not with the image
+ * height. A rank stage filters the buffered rows with the horizontal runs of
+ * the kernel by the {@linkplain LineMorph} lines, and combines the filtered
+ * runs vertically for the emitted row, a rectangular kernel is filtered by
+ * the lines in both directions instead. The compound operations chain the
+ * stages: the open and the close pass the rows of the first rank stage to the
+ * second, the gradient computes the maximum and the minimum in one stage, and
+ * the top-hat transforms keep the source rows until the opened or closed rows
+ * are emitted.
+ * </p>
+ * <p>
+ * The top-hat transforms keep the alpha channel of the source, and the
+ * gradient takes the dilated alpha channel, so the opaque images stay opaque.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+class MorphStream
+{
+	/**
+	 * The stage of the stream.
+	 */
+	private static abstract class Stage
+	{
+		/**
+		 * The next stage.
+		 */
+		Stage next;
+
+		/**
+		 * Push the row <code>y</code> into this stage.
+		 *
+		 * @param y the Y coordinate of the row
+		 * @param row the packed ARGB values of the row
+		 */
+		abstract void push(int y, int[] row);
+
+		/**
+		 * Flush the remaining rows after the last row is pushed.
+		 */
+		void finish()
+		{
+			if (this.next != null)
+				this.next.finish();
+		}
+	}
+
+	/**
+	 * The channel-wise maximum, minimum or their difference of the kernel.
+	 * <p>
+	 * The runs of the same horizontal span at the consecutive rows are
+	 * grouped, and the ranks of <code>2<sup>l</sup></code> consecutive rows
+	 * are kept for each level <code>l</code>, so a group of any height is
+	 * combined from two buffered rows. A span filters the buffered source rows
+	 * as they enter its highest run, so its ring holds only the rows between
+	 * its lowest and highest runs, at the levels of its tallest group.
+	 * </p>
+	 */
+	private static class RankStage extends Stage
+	{
+		final int		width, height, halo, slots;
+		/**
+		 * The groups of <code>{dyFrom, dyTo, span}</code>.
+		 */
+		final int[][]	groups;
+		/**
+		 * The distinct horizontal spans of <code>{dxStart, dxEnd}</code>.
+		 */
+		final int[][]	spans;
+		/**
+		 * The lowest and the highest row offsets of the runs of each span.
+		 */
+		final int[]		lows, highs;
+		/**
+		 * The next source row to filter of each span.
+		 */
+		final int[]		pending;
+		/**
+		 * The ranks of the stage, <code>true</code> for the maximum.
+		 */
+		final boolean[]	ranks;
+		/**
+		 * The filtered rows of <code>[rank][span][level][slot]</code> in
+		 * channel planes of <code>width</code>.
+		 */
+		final int[][][][][]	ring;
+		/**
+		 * The source rows within the halo in channel planes.
+		 */
+		final int[][]	sources;
+		final int[]		line, forward, backward, out;
+		final int[][]	acc;
+		int				emitted;
+
+		RankStage(int[][] runs, int width, int height, boolean... ranks)
+		{
+			this.width = width;
+			this.height = height;
+			this.ranks = ranks;
+			int halo = 0, longest = 1;
+			List<int[]> spans = new ArrayList<>();
+			List<int[]> groups = new ArrayList<>();
+			for (int[] run : runs)
+			{
+				halo = Math.max(halo, Math.abs(run[0]));
+				int span = -1;
+				for (int s = 0; s < spans.size() && span < 0; s++)
+					if (spans.get(s)[0] == run[1] && spans.get(s)[1] == run[2])
+						span = s;
+				if (span < 0)
+				{
+					span = spans.size();
+					spans.add(new int[] { run[1], run[2] });
+					longest = Math.max(longest, run[2] - run[1] + 1);
+				}
+				// the runs are sorted by the rows
+				int[] group = null;
+				for (int[] g : groups)
+					if (g[2] == span && g[1] == run[0] - 1)
+						group = g;
+				if (group == null)
+					groups.add(new int[] { run[0], run[0], span });
+				else
+					group[1]++;
+			}
+			this.halo = halo;
+			this.slots = 2 * halo + 1;
+			this.spans = spans.toArray(new int[spans.size()][]);
+			this.groups = groups.toArray(new int[groups.size()][]);
+			int n = this.spans.length;
+			this.lows = new int[n];
+			this.highs = new int[n];
+			this.pending = new int[n];
+			int[] tallest = new int[n];
+			Arrays.fill(this.lows, Integer.MAX_VALUE);
+			Arrays.fill(this.highs, Integer.MIN_VALUE);
+			for (int[] group : this.groups)
+			{
+				int s = group[2];
+				this.lows[s] = Math.min(this.lows[s], group[0]);
+				this.highs[s] = Math.max(this.highs[s], group[1]);
+				tallest[s] = Math.max(tallest[s], group[1] - group[0] + 1);
+			}
+			this.ring = new int[ranks.length][n][][][];
+			for (int s = 0; s < n; s++)
+			{
+				int levels = 32 - Integer.numberOfLeadingZeros(tallest[s]);
+				for (int k = 0; k < ranks.length; k++)
+					this.ring[k][s] = new int[levels][this.highs[s] - this.lows[s] + 1][4 * width];
+				this.pending[s] = Math.max(0, this.lows[s]);
+			}
+			this.sources = new int[this.slots][4 * width];
+			int length = LineMorph.getBufferLength(width, longest);
+			this.line = new int[length];
+			this.forward = new int[length];
+			this.backward = new int[length];
+			this.acc = new int[ranks.length][4 * width];
+			this.out = new int[width];
+		}
+
+		@Override
+		void push(int y, int[] row)
+		{
+			MorphStream.unpack(row, this.sources[y % this.slots], this.width);
+			if (y >= this.halo)
+				this.emit(y - this.halo);
+		}
+
+		@Override
+		void finish()
+		{
+			while (this.emitted < this.height)
+				this.emit(this.emitted);
+			super.finish();
+		}
+
+		/**
+		 * Filter the source row <code>y</code> with the span, and combine the
+		 * levels ending at the row.
+		 *
+		 * @param s the index of the span
+		 * @param y the Y coordinate of the source row
+		 */
+		private void filter(int s, int y)
+		{
+			int w = this.width;
+			int[] channels = this.sources[y % this.slots];
+			int rows = this.highs[s] - this.lows[s] + 1;
+			int first = Math.max(0, this.lows[s]);
+			for (int k = 0; k < this.ranks.length; k++)
+			{
+				boolean max = this.ranks[k];
+				int[][][] levels = this.ring[k][s];
+				int[] filtered = levels[0][y % rows];
+				for (int c = 0; c < 4; c++)
+					LineMorph.horizontal(channels, c * w, filtered, c * w, w, this.spans[s][0],
+							this.spans[s][1], max, this.line, this.forward, this.backward);
+				// the rows of the level l ending at the row y
+				for (int l = 1; l < levels.length; l++)
+				{
+					int start = y - (1 << l) + 1;
+					if (start < first)
+						break;
+					MorphStream.rank(levels[l - 1][start % rows],
+							levels[l - 1][(start + (1 << l - 1)) % rows], levels[l][start % rows],
+							max);
+				}
+			}
+		}
+
+		/**
+		 * Combine the buffered rows and emit the row <code>y</code>.
+		 *
+		 * @param y the Y coordinate of the row
+		 */
+		private void emit(int y)
+		{
+			// the source rows entering the highest runs of the spans
+			for (int s = 0; s < this.spans.length; s++)
+			{
+				int last = Math.min(this.height - 1, y + this.highs[s]);
+				while (this.pending[s] <= last)
+					this.filter(s, this.pending[s]++);
+			}
+			for (int k = 0; k < this.ranks.length; k++)
+			{
+				boolean max = this.ranks[k];
+				int[] acc = this.acc[k];
+				// the pixels without the neighbors in the image keep the identity
+				Arrays.fill(acc, max ? 0 : 0xff);
+				for (int[] group : this.groups)
+				{
+					int from = Math.max(0, y + group[0]);
+					int to = Math.min(this.height - 1, y + group[1]);
+					if (from > to)
+						continue;
+					int s = group[2], rows = this.highs[s] - this.lows[s] + 1;
+					int l = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+					int[][] level = this.ring[k][s][l];
+					MorphStream.rank(acc, level[from % rows], acc, max);
+					MorphStream.rank(acc, level[(to - (1 << l) + 1) % rows], acc, max);
+				}
+			}
+			int w = this.width;
+			int[] a = this.acc[0];
+			if (this.ranks.length == 1)
+				MorphStream.pack(a, this.out, w);
+			else
+			{
+				// the difference of the maximum and the minimum, the maximum alpha
+				int[] b = this.acc[1];
+				for (int x = 0; x < w; x++)
+					this.out[x] = a[x] << 24 | MorphStream.subtract(a[w + x], b[w + x]) << 16
+							| MorphStream.subtract(a[2 * w + x], b[2 * w + x]) << 8
+							| MorphStream.subtract(a[3 * w + x], b[3 * w + x]);
+			}
+			this.emitted = y + 1;
+			this.next.push(y, this.out);
+		}
+	}
+
+	/**
+	 * The channel-wise maximum or minimum of a rectangular kernel by the
+	 * {@linkplain LineMorph} lines in both directions.
+	 * <p>
+	 * Each entering row is filtered with the horizontal line, and the vertical
+	 * line runs on the blocks of <code>k</code> rows of the kernel height: the
+	 * backward values of the last complete block and the forward value of the
+	 * current block give the rank of any <code>k</code> consecutive rows. So
+	 * only the rows of two blocks are kept, and a row costs about 3
+	 * comparisons per sample at any kernel size.
+	 * </p>
+	 */
+	private static class RectangleStage extends Stage
+	{
+		final int		width, height;
+		/**
+		 * The offsets of the kernel bounds.
+		 */
+		final int		top, bottom, left, right;
+		/**
+		 * <code>true</code> for the maximum, <code>false</code> for the minimum.
+		 */
+		final boolean	max;
+		/**
+		 * The filtered rows of the two blocks in channel planes, the complete
+		 * block holds its backward values.
+		 */
+		final int[][][]	blocks;
+		/**
+		 * The forward value of the current block.
+		 */
+		final int[]		running;
+		final int[]		channels, line, forward, backward, ranked, out;
+		/**
+		 * The next padded row, the padded row <code>q</code> is the source row
+		 * <code>q + top</code>.
+		 */
+		int				padded;
+
+		RectangleStage(Rectangle bounds, int width, int height, boolean max)
+		{
+			this.width = width;
+			this.height = height;
+			this.top = bounds.y;
+			this.bottom = bounds.y + bounds.height - 1;
+			this.left = bounds.x;
+			this.right = bounds.x + bounds.width - 1;
+			this.max = max;
+			this.blocks = new int[2][bounds.height][4 * width];
+			this.running = new int[4 * width];
+			this.channels = new int[4 * width];
+			int length = LineMorph.getBufferLength(width, bounds.width);
+			this.line = new int[length];
+			this.forward = new int[length];
+			this.backward = new int[length];
+			this.ranked = new int[4 * width];
+			this.out = new int[width];
+		}
+
+		@Override
+		void push(int y, int[] row)
+		{
+			int q = y - this.top;
+			if (q < 0)
+				return;
+			// the rows above the image
+			while (this.padded < q)
+				this.process(null);
+			MorphStream.unpack(row, this.channels, this.width);
+			this.process(this.channels);
+		}
+
+		@Override
+		void finish()
+		{
+			// the rows below the image
+			int k = this.bottom - this.top + 1;
+			while (this.padded < this.height + k - 1)
+				this.process(null);
+			super.finish();
+		}
+
+		/**
+		 * Filter the next padded row, and emit the row whose window ends at
+		 * it.
+		 *
+		 * @param channels the source row in channel planes, <code>null</code>
+		 *            for the rows out of the image
+		 */
+		private void process(int[] channels)
+		{
+			int w = this.width, k = this.bottom - this.top + 1;
+			int q = this.padded++, j = q % k;
+			int[][] block = this.blocks[q / k & 1];
+			int[] filtered = block[j];
+			if (channels == null)
+				Arrays.fill(filtered, this.max ? Integer.MIN_VALUE : Integer.MAX_VALUE);
+			else
+				for (int c = 0; c < 4; c++)
+					LineMorph.horizontal(channels, c * w, filtered, c * w, w, this.left,
+							this.right, this.max, this.line, this.forward, this.backward);
+			if (j == 0)
+				System.arraycopy(filtered, 0, this.running, 0, filtered.length);
+			else
+				MorphStream.rank(this.running, filtered, this.running, this.max);
+			if (j == k - 1)
+				for (int i = k - 2; i >= 0; i--)
+					MorphStream.rank(block[i], block[i + 1], block[i], this.max);
+			// the window of the row y is [y, y + k) of the padded rows
+			int y = q - k + 1;
+			if (y < 0 || y >= this.height)
+				return;
+			int[] a = this.running, b = y % k == 0 ? a : this.blocks[y / k & 1][y % k];
+			// the pixels without the neighbors in the image keep the identity
+			int identity = this.max ? 0 : 0xff;
+			for (int i = 0; i < this.ranked.length; i++)
+				this.ranked[i] = LineMorph.rank(LineMorph.rank(a[i], b[i], this.max), identity,
+						this.max);
+			MorphStream.pack(this.ranked, this.out, w);
+			this.next.push(y, this.out);
+		}
+	}
+
+	/**
+	 * The stage keeping the source rows for the difference stage.
+	 */
+	private static class SourceStage extends Stage
+	{
+		final DifferenceStage	difference;
+
+		SourceStage(DifferenceStage difference)
+		{
+			this.difference = difference;
+		}
+
+		@Override
+		void push(int y, int[] row)
+		{
+			int[][] ring = this.difference.ring;
+			System.arraycopy(row, 0, ring[y % ring.length], 0, row.length);
+			this.next.push(y, row);
+		}
+	}
+
+	/**
+	 * The channel-wise difference of the filtered rows and the source rows.
+	 */
+	private static class DifferenceStage extends Stage
+	{
+		/**
+		 * The source rows.
+		 */
+		final int[][]	ring;
+		/**
+		 * <code>true</code> for the filtered minus the source,
+		 * <code>false</code> for the source minus the filtered.
+		 */
+		final boolean	above;
+		final int[]		out;
+
+		DifferenceStage(int width, int delay, boolean above)
+		{
+			this.ring = new int[delay + 1][width];
+			this.above = above;
+			this.out = new int[width];
+		}
+
+		@Override
+		void push(int y, int[] row)
+		{
+			int[] src = this.ring[y % this.ring.length];
+			for (int x = 0; x < row.length; x++)
+			{
+				int hi = this.above ? row[x] : src[x];
+				int lo = this.above ? src[x] : row[x];
+				this.out[x] = src[x] & 0xff000000
+						| MorphStream.subtract(hi >> 16 & 0xff, lo >> 16 & 0xff) << 16
+						| MorphStream.subtract(hi >> 8 & 0xff, lo >> 8 & 0xff) << 8
+						| MorphStream.subtract(hi & 0xff, lo & 0xff);
+			}
+			this.next.push(y, this.out);
+		}
+	}
+
+	/**
+	 * The sink writing the rows to the destination.
+	 */
+	private static class SinkStage extends Stage
+	{
+		final PixelAccessor	dst;
+		final int			width;
+
+		SinkStage(PixelAccessor dst, int width)
+		{
+			this.dst = dst;
+			this.width = width;
+		}
+
+		@Override
+		void push(int y, int[] row)
+		{
+			this.dst.setRGB(0, y, this.width, row, 0);
+		}
+	}
+
+	/**
+	 * Combine the rows element by element.
+	 *
+	 * @param a a row
+	 * @param b another row
+	 * @param out the combined row, may be <code>a</code> or <code>b</code>
+	 * @param max <code>true</code> for the maximum, <code>false</code> for the
+	 *            minimum
+	 */
+	private static void rank(int[] a, int[] b, int[] out, boolean max)
+	{
+		if (max)
+			for (int i = 0; i < out.length; i++)
+				out[i] = a[i] > b[i] ? a[i] : b[i];
+		else
+			for (int i = 0; i < out.length; i++)
+				out[i] = a[i] < b[i] ? a[i] : b[i];
+	}
+
+	/**
+	 * Unpack the packed ARGB values into the channel planes.
+	 *
+	 * @param row the packed ARGB values
+	 * @param channels the alpha, red, green and blue planes of
+	 *            <code>width</code>
+	 * @param width the row width
+	 */
+	private static void unpack(int[] row, int[] channels, int width)
+	{
+		int w = width;
+		for (int x = 0; x < w; x++)
+		{
+			int argb = row[x];
+			channels[x] = argb >>> 24;
+			channels[w + x] = argb >> 16 & 0xff;
+			channels[2 * w + x] = argb >> 8 & 0xff;
+			channels[3 * w + x] = argb & 0xff;
+		}
+	}
+
+	/**
+	 * Pack the channel planes into the packed ARGB values.
+	 *
+	 * @param channels the alpha, red, green and blue planes of
+	 *            <code>width</code>
+	 * @param row the packed ARGB values
+	 * @param width the row width
+	 */
+	private static void pack(int[] channels, int[] row, int width)
+	{
+		int w = width;
+		for (int x = 0; x < w; x++)
+			row[x] = channels[x] << 24 | channels[w + x] << 16 | channels[2 * w + x] << 8
+					| channels[3 * w + x];
+	}
+
+	/**
+	 * Returns the rank stage of the kernel, by the lines in both directions if
+	 * the kernel is rectangular.
+	 *
+	 * @param kernel the kernel
+	 * @param width the image width
+	 * @param height the image height
+	 * @param max <code>true</code> for the maximum, <code>false</code> for the
+	 *            minimum
+	 * @return the stage
+	 */
+	private static Stage rank(MorphKernel kernel, int width, int height, boolean max)
+	{
+		return kernel.isRectangular()
+				? new RectangleStage(kernel.getBounds(), width, height, max)
+				: new RankStage(kernel.getRuns(), width, height, max);
+	}
+
+	/**
+	 * Returns the difference of the channel values clamped to 0, which is
+	 * negative for the kernels not symmetric or the pixels without neighbors.
+	 *
+	 * @param a a channel value
+	 * @param b another channel value
+	 * @return the difference
+	 */
+	private static int subtract(int a, int b)
+	{
+		return a > b ? a - b : 0;
+	}
+
+	/**
+	 * Stream the source image through the morphology operation.
+	 *
+	 * @param kernel the kernel
+	 * @param type the operation type of {@linkplain ColorMorphOp}
+	 * @param src the source image
+	 * @param dst the destination image
+	 */
+	static void run(MorphKernel kernel, int type, BufferedImage src, BufferedImage dst)
+	{
+		int width = src.getWidth(), height = src.getHeight();
+		int[][] runs = kernel.getRuns();
+		Stage sink = new SinkStage(PixelAccessor.getAccessor(dst), width);
+		Stage head;
+		switch (type)
+		{
+		case ColorMorphOp.TYPE_ERODE:
+		case ColorMorphOp.TYPE_DILATE:
+			head = MorphStream.rank(kernel, width, height, type == ColorMorphOp.TYPE_DILATE);
+			head.next = sink;
+			break;
+		case ColorMorphOp.TYPE_OPEN:
+		case ColorMorphOp.TYPE_CLOSE:
+		{
+			boolean open = type == ColorMorphOp.TYPE_OPEN;
+			head = MorphStream.rank(kernel, width, height, !open);
+			head.next = MorphStream.rank(kernel, width, height, open);
+			head.next.next = sink;
+			break;
+		}
+		case ColorMorphOp.TYPE_WHITE_TOP_HAT:
+		case ColorMorphOp.TYPE_BLACK_TOP_HAT:
+		{
+			boolean open = type == ColorMorphOp.TYPE_WHITE_TOP_HAT;
+			RankStage first = new RankStage(runs, width, height, !open);
+			RankStage second = new RankStage(runs, width, height, open);
+			first.next = second;
+			DifferenceStage difference = new DifferenceStage(width, first.halo + second.halo,
+					!open);
+			second.next = difference;
+			difference.next = sink;
+			head = new SourceStage(difference);
+			head.next = first;
+			break;
+		}
+		case ColorMorphOp.TYPE_GRADIENT:
+			head = new RankStage(runs, width, height, true, false);
+			head.next = sink;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown morphology operation type.");
+		}
+		PixelAccessor in = PixelAccessor.getAccessor(src);
+		int[] row = new int[width];
+		for (int y = 0; y < height; y++)
+		{
+			in.getRGB(0, y, width, row, 0);
+			head.push(y, row);
+		}
+		head.finish();
+	}
+}
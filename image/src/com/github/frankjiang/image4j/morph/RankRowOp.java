@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * RankRowOp.java is PROPRIETARY/CONFIDENTIAL built in 11:26:03 PM, Oct 16,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.morph;
+
+import java.util.Arrays;
+
+import com.github.frankjiang.image4j.RowOp;
+
+/**
+ * The row operation computing the channel-wise maximum (dilate) or minimum
+ * (erode) of the neighbors covered by a kernel. The neighbors out of the image
+ * are ignored.
+ * <p>
+ * The kernel is processed in its {@linkplain MorphKernel#getRuns() runs}, each
+ * run filters its source row with a {@linkplain LineMorph} line, so the cost
+ * per pixel does not grow with the run lengths. The operation
+ * {@linkplain #open(int) opened} for a run keeps the scratch rows.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+class RankRowOp implements RowOp
+{
+	/**
+	 * The kernel runs of <code>{dy, dxStart, dxEnd}</code> sorted by the row.
+	 */
+	private final int[][]	runs;
+	/**
+	 * <code>true</code> for the maximum, <code>false</code> for the minimum.
+	 */
+	private final boolean	max;
+	/**
+	 * The vertical halo size.
+	 */
+	private final int		halo;
+	/**
+	 * The length of the longest run.
+	 */
+	private final int		longest;
+	/**
+	 * The scratch rows of the opened operation, <code>null</code> for the
+	 * shared one: the unpacked channels, the filtered channels and the
+	 * accumulated channels.
+	 */
+	private final int[]		channels, filtered, acc;
+	/**
+	 * The scratch buffers of {@linkplain LineMorph}.
+	 */
+	private final int[]		line, forward, backward;
+
+	/**
+	 * Construct an instance of <tt>RankRowOp</tt>.
+	 *
+	 * @param runs the kernel runs
+	 * @param max <code>true</code> for the maximum, <code>false</code> for the
+	 *            minimum
+	 * @see MorphKernel#getRuns()
+	 */
+	RankRowOp(int[][] runs, boolean max)
+	{
+		this.runs = runs;
+		this.max = max;
+		int halo = 0, longest = 1;
+		for (int[] run : runs)
+		{
+			halo = Math.max(halo, Math.abs(run[0]));
+			longest = Math.max(longest, run[2] - run[1] + 1);
+		}
+		this.halo = halo;
+		this.longest = longest;
+		this.channels = this.filtered = this.acc = null;
+		this.line = this.forward = this.backward = null;
+	}
+
+	/**
+	 * Construct an opened instance of <tt>RankRowOp</tt> with the scratch rows
+	 * of the specified width.
+	 *
+	 * @param op the shared operation
+	 * @param width the row width
+	 */
+	private RankRowOp(RankRowOp op, int width)
+	{
+		this.runs = op.runs;
+		this.max = op.max;
+		this.halo = op.halo;
+		this.longest = op.longest;
+		this.channels = new int[4 * width];
+		this.filtered = new int[4 * width];
+		this.acc = new int[4 * width];
+		int length = LineMorph.getBufferLength(width, this.longest);
+		this.line = new int[length];
+		this.forward = new int[length];
+		this.backward = new int[length];
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.RowOp#getHalo()
+	 */
+	@Override
+	public int getHalo()
+	{
+		return this.halo;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.RowOp#filterRow(int[][], int, int,
+	 *      int[])
+	 */
+	@Override
+	public void filterRow(int[][] rows, int y, int width, int[] out)
+	{
+		if (this.acc == null || this.acc.length != 4 * width)
+		{
+			this.open(width).filterRow(rows, y, width, out);
+			return;
+		}
+		int w = width;
+		int[] channels = this.channels, filtered = this.filtered, acc = this.acc;
+		// the pixels without the neighbors in the image keep the identity
+		Arrays.fill(acc, this.max ? 0 : 0xff);
+		int[] unpacked = null;
+		for (int[] run : this.runs)
+		{
+			int[] row = rows[this.halo + run[0]];
+			if (row == null)
+				continue;
+			if (row != unpacked)
+			{
+				for (int x = 0; x < w; x++)
+				{
+					channels[x] = row[x] >>> 24;
+					channels[w + x] = row[x] >> 16 & 0xff;
+					channels[2 * w + x] = row[x] >> 8 & 0xff;
+					channels[3 * w + x] = row[x] & 0xff;
+				}
+				unpacked = row;
+			}
+			for (int c = 0; c < 4; c++)
+				LineMorph.horizontal(channels, c * w, filtered, c * w, w, run[1], run[2],
+						this.max, this.line, this.forward, this.backward);
+			if (this.max)
+				for (int i = 0; i < acc.length; i++)
+					acc[i] = acc[i] > filtered[i] ? acc[i] : filtered[i];
+			else
+				for (int i = 0; i < acc.length; i++)
+					acc[i] = acc[i] < filtered[i] ? acc[i] : filtered[i];
+		}
+		for (int x = 0; x < w; x++)
+			out[x] = acc[x] << 24 | acc[w + x] << 16 | acc[2 * w + x] << 8 | acc[3 * w + x];
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.RowOp#open(int)
+	 */
+	@Override
+	public RankRowOp open(int width)
+	{
+		return new RankRowOp(this, width);
+	}
+}
@@ -9,12 +9,12 @@
 package com.github.frankjiang.image4j.noise;
 
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
 import java.awt.image.ImagingOpException;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 
 import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.PixelAccessor;
 
 /**
  * The abstract noised image builder for noise appending operations.
@@ -60,17 +60,20 @@ public class NoisedImageOp extends ImagingOp
 	{
 		int height = dst.getHeight();
 		int width = dst.getWidth();
-		Raster raster = src.getRaster();
-		ColorModel model = src.getColorModel();
+		PixelAccessor in = PixelAccessor.getAccessor(src);
+		PixelAccessor out = PixelAccessor.getAccessor(dst);
+		int[] row = new int[width];
 		int[] channels = new int[3];
-		for (int x = 0; x < width; x++)
-			for (int y = 0; y < height; y++)
+		for (int y = 0; y < height; y++)
+		{
+			in.getRGB(0, y, width, row, 0);
+			for (int x = 0; x < width; x++)
 			{
 				// get sources and generate noises
-				Object inData = raster.getDataElements(x, y, null);
-				channels[0] = model.getRed(inData);
-				channels[1] = model.getGreen(inData);
-				channels[2] = model.getBlue(inData);
+				int rgb = row[x];
+				channels[0] = rgb >> 16 & 0xff;
+				channels[1] = rgb >> 8 & 0xff;
+				channels[2] = rgb & 0xff;
 				this.generator.generate(channels);
 
 				// check bounds
@@ -83,8 +86,10 @@ public class NoisedImageOp extends ImagingOp
 				}
 
 				// set results
-				dst.setRGB(x, y, 0xff << 24 | channels[0] << 16 | channels[1] << 8 | channels[2]);
+				row[x] = 0xff << 24 | channels[0] << 16 | channels[1] << 8 | channels[2];
 			}
+			out.setRGB(0, y, width, row, 0);
+		}
 	}
 
 	/**
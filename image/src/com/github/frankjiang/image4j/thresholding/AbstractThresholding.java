@@ -10,7 +10,6 @@ package com.github.frankjiang.image4j.thresholding;
 
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
-import java.awt.color.ColorSpace;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
@@ -21,11 +20,16 @@ import java.awt.image.RasterFormatException;
 import java.awt.image.WritableRaster;
 
 import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.PixelAccessor;
 import com.github.frankjiang.image4j.color.ColorConvertUtils;
 
 /**
  * The abstract thresholding operator.
  * <p>
+ * The thresholding results are packed into the <code>TYPE_BYTE_BINARY</code>
+ * destination eight pixels per byte. The gray values are mapped by a 256-entry
+ * lookup table of bits, so any threshold or set of the foreground values costs
+ * the same as a single comparison.
  * </p>
  * 
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
@@ -39,10 +43,8 @@ public abstract class AbstractThresholding extends ImagingOp
 	 * bands. A <CODE>RasterFormatException</CODE> may be thrown if the
 	 * transformed width or height is equal to 0.
 	 * <p>
-	 * If <CODE>destCM</CODE> is null,
-	 * an appropriate <CODE>ColorModel</CODE> is used; this
-	 * <CODE>ColorModel</CODE> may have
-	 * an alpha channel even if the source <CODE>ColorModel</CODE> is opaque.
+	 * If <CODE>destCM</CODE> is null, a <CODE>TYPE_BYTE_BINARY</CODE> image
+	 * is created, which is the type of the thresholding results.
 	 *
 	 * @param src The <CODE>BufferedImage</CODE> to be transformed.
 	 * @param destCM <CODE>ColorModel</CODE> of the destination. If null,
@@ -69,11 +71,7 @@ public abstract class AbstractThresholding extends ImagingOp
 					"Transformed height (" + h + ") is less than or equal to 0.");
 
 		if (destCM == null)
-		{
-			ColorModel cm = src.getColorModel();
-			image = new BufferedImage(cm, src.getRaster().createCompatibleWritableRaster(w, h),
-					cm.isAlphaPremultiplied(), null);
-		}
+			image = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_BINARY);
 		else
 			image = new BufferedImage(destCM, destCM.createCompatibleWritableRaster(w, h),
 					destCM.isAlphaPremultiplied(), null);
@@ -101,11 +99,11 @@ public abstract class AbstractThresholding extends ImagingOp
 	/**
 	 * Transforms the source <CODE>BufferedImage</CODE> and stores the results
 	 * in the destination <CODE>BufferedImage</CODE>.
-	 * If the color models for the two images do not match, a color
-	 * conversion into the destination color model is performed.
+	 * The color sources are converted to gray by
+	 * {@linkplain ColorConvertUtils#getLuminanceImage(BufferedImage)}, the
+	 * same gray values the fused point operations threshold.
 	 * If the destination image is null,
-	 * a <CODE>BufferedImage</CODE> is created with the source
-	 * <CODE>ColorModel</CODE>.
+	 * a <CODE>TYPE_BYTE_BINARY</CODE> image is created.
 	 * <p>
 	 * The coordinates of the rectangle returned by
 	 * <code>getBounds2D(BufferedImage)</code>
@@ -137,18 +135,15 @@ public abstract class AbstractThresholding extends ImagingOp
 	{
 		if (src == null)
 			throw new NullPointerException("src image is null");
-		if (src.getColorModel().getColorSpace().getType() != ColorSpace.CS_GRAY)
-			src = ColorConvertUtils.getGrayImage(src);
-		int width = src.getWidth();
-		int height = src.getHeight();
-		int imageType = BufferedImage.TYPE_BYTE_BINARY;
+		// the same gray values as the fused point operations
+		src = ColorConvertUtils.getLuminanceImage(src);
 		if (dst == null)
-			dst = new BufferedImage(width, height, imageType);
+			dst = this.createCompatibleDestImage(src, null);
 		else if (dst.getType() != BufferedImage.TYPE_BYTE_BINARY)
 			throw new IllegalArgumentException(String.format(
 					"The user provided dst image type is %d, not TYPE_BYTE_BINARY (%d)",
 					dst.getType(), BufferedImage.TYPE_BYTE_BINARY));
-		operate(src, dst);
+		this.execute(src, dst);
 		return dst;
 	}
 
@@ -212,4 +207,141 @@ public abstract class AbstractThresholding extends ImagingOp
 		throw new UnsupportedOperationException("The operation for rasters is not defined yet.");
 	}
 
+	/**
+	 * Maps the gray values of the source by the lookup table and packs the
+	 * bits into the destination.
+	 * <p>
+	 * The <code>TYPE_BYTE_GRAY</code> samples are read from the backing array
+	 * and packed straight into the bytes of the destination, when its rows
+	 * start on a byte boundary; the other images are mapped row by row.
+	 * </p>
+	 *
+	 * @param src the gray source image
+	 * @param dst the binary destination image
+	 * @param table the bits of the 256 gray values, 0 for the background and
+	 *            1 for the foreground
+	 */
+	protected static void binarize(BufferedImage src, BufferedImage dst, byte[] table)
+	{
+		int width = src.getWidth();
+		int height = src.getHeight();
+		PixelAccessor in = PixelAccessor.getAccessor(src);
+		PixelAccessor out = PixelAccessor.getAccessor(dst);
+		if (in instanceof PixelAccessor.ByteGray && out instanceof PixelAccessor.ByteBinary
+				&& (((PixelAccessor.ByteBinary) out).getBitOffset() & 7) == 0)
+		{
+			PixelAccessor.ByteGray gray = (PixelAccessor.ByteGray) in;
+			PixelAccessor.ByteBinary binary = (PixelAccessor.ByteBinary) out;
+			byte[] samples = gray.getData();
+			byte[] bits = binary.getData();
+			int stride = gray.getPixelStride();
+			int start = binary.getBitOffset() >> 3;
+			for (int y = 0; y < height; y++)
+				AbstractThresholding.pack(samples, gray.getIndex(0, y), stride, table, bits,
+						binary.getRowIndex(y) + start, width);
+			return;
+		}
+		// the gray band is the first one, the samples wider than 8 bits are
+		// compared by their high bits
+		Raster raster = src.getRaster();
+		int shift = Math.max(0, raster.getSampleModel().getSampleSize(0) - 8);
+		int[] samples = new int[width];
+		byte[] row = new byte[width];
+		for (int y = 0; y < height; y++)
+		{
+			raster.getSamples(0, y, width, 1, 0, samples);
+			for (int x = 0; x < width; x++)
+				row[x] = table[samples[x] >> shift & 0xff];
+			AbstractThresholding.setBits(out, y, row, width);
+		}
+	}
+
+	/**
+	 * Maps a row of the gray samples by the lookup table and packs the bits
+	 * from the first bit of a byte.
+	 *
+	 * @param samples the gray samples
+	 * @param i the index of the first sample
+	 * @param stride the pixel stride of the samples
+	 * @param table the bits of the 256 gray values
+	 * @param bits the packed bits
+	 * @param o the index of the first byte of the bits
+	 * @param width the number of the pixels
+	 */
+	private static void pack(byte[] samples, int i, int stride, byte[] table, byte[] bits, int o,
+			int width)
+	{
+		int s = stride, x = 0;
+		// the contiguous samples are addressed without the multiplications
+		if (s == 1)
+			for (; x + 8 <= width; x += 8, i += 8)
+				bits[o++] = (byte) (table[samples[i] & 0xff] << 7
+						| table[samples[i + 1] & 0xff] << 6
+						| table[samples[i + 2] & 0xff] << 5
+						| table[samples[i + 3] & 0xff] << 4
+						| table[samples[i + 4] & 0xff] << 3
+						| table[samples[i + 5] & 0xff] << 2
+						| table[samples[i + 6] & 0xff] << 1
+						| table[samples[i + 7] & 0xff]);
+		else
+			for (; x + 8 <= width; x += 8, i += 8 * s)
+				bits[o++] = (byte) (table[samples[i] & 0xff] << 7
+						| table[samples[i + s] & 0xff] << 6
+						| table[samples[i + 2 * s] & 0xff] << 5
+						| table[samples[i + 3 * s] & 0xff] << 4
+						| table[samples[i + 4 * s] & 0xff] << 3
+						| table[samples[i + 5 * s] & 0xff] << 2
+						| table[samples[i + 6 * s] & 0xff] << 1
+						| table[samples[i + 7 * s] & 0xff]);
+		if (x < width)
+		{
+			int packed = 0, shift = 7;
+			for (; x < width; x++, i += s)
+				packed |= table[samples[i] & 0xff] << shift--;
+			// the bits after the row belong to the pixels outside the image
+			int mask = 0xff << (shift + 1) & 0xff;
+			bits[o] = (byte) (bits[o] & ~mask | packed);
+		}
+	}
+
+	/**
+	 * Packs a row of bits into the binary destination.
+	 *
+	 * @param dst the accessor of the binary destination image
+	 * @param y the Y coordinate of the row
+	 * @param row the bits of the row, 0 or 1
+	 * @param width the number of the bits
+	 */
+	protected static void setBits(PixelAccessor dst, int y, byte[] row, int width)
+	{
+		if (!(dst instanceof PixelAccessor.ByteBinary))
+		{
+			int[] samples = new int[width];
+			for (int x = 0; x < width; x++)
+				samples[x] = row[x];
+			dst.setPixels(0, y, width, samples);
+			return;
+		}
+		PixelAccessor.ByteBinary binary = (PixelAccessor.ByteBinary) dst;
+		if ((binary.getBitOffset() & 7) != 0)
+		{
+			for (int x = 0; x < width; x++)
+				binary.setBit(x, y, row[x]);
+			return;
+		}
+		byte[] bits = binary.getData();
+		int o = binary.getRowIndex(y) + (binary.getBitOffset() >> 3), x = 0;
+		for (; x + 8 <= width; x += 8)
+			bits[o++] = (byte) (row[x] << 7 | row[x + 1] << 6 | row[x + 2] << 5 | row[x + 3] << 4
+					| row[x + 4] << 3 | row[x + 5] << 2 | row[x + 6] << 1 | row[x + 7]);
+		if (x < width)
+		{
+			int packed = 0, shift = 7;
+			for (; x < width; x++)
+				packed |= row[x] << shift--;
+			int mask = 0xff << (shift + 1) & 0xff;
+			bits[o] = (byte) (bits[o] & ~mask | packed);
+		}
+	}
+
 }
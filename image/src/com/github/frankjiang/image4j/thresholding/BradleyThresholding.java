@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * BradleyThresholding.java is PROPRIETARY/CONFIDENTIAL built in 12:18:27 PM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+/**
+ * The Bradley-Roth thresholding, whose threshold is <code>m * (1 - t)</code>
+ * for the mean <code>m</code> of the window, so the pixels darker than the
+ * mean by the fraction <code>t</code> are background.
+ * <p>
+ * Only the table of the values is built.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class BradleyThresholding extends LocalThresholding
+{
+	/**
+	 * The fraction below the mean.
+	 */
+	protected double t;
+
+	/**
+	 * Construct an instance of <tt>BradleyThresholding</tt> with
+	 * <code>t = 0.15</code>.
+	 *
+	 * @param radius the window radius
+	 */
+	public BradleyThresholding(int radius)
+	{
+		this(radius, 0.15);
+	}
+
+	/**
+	 * Construct an instance of <tt>BradleyThresholding</tt>.
+	 *
+	 * @param radius the window radius
+	 * @param t the fraction below the mean
+	 */
+	public BradleyThresholding(int radius, double t)
+	{
+		super(radius);
+		this.t = t;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.thresholding.LocalThresholding#getThreshold(double,
+	 *      double)
+	 */
+	@Override
+	protected double getThreshold(double mean, double deviation)
+	{
+		return mean * (1 - this.t);
+	}
+
+	/**
+	 * Returns <code>false</code>.
+	 *
+	 * @see com.github.frankjiang.image4j.thresholding.LocalThresholding#isDeviationRequired()
+	 */
+	@Override
+	protected boolean isDeviationRequired()
+	{
+		return false;
+	}
+
+	/**
+	 * Returns the fraction below the mean.
+	 *
+	 * @return the fraction
+	 */
+	public double getT()
+	{
+		return this.t;
+	}
+
+	/**
+	 * Set the fraction below the mean.
+	 *
+	 * @param t the value of t
+	 */
+	public void setT(double t)
+	{
+		this.t = t;
+	}
+}
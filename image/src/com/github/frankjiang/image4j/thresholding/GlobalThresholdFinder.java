@@ -6,14 +6,25 @@
 
 package com.github.frankjiang.image4j.thresholding;
 
+import com.github.frankjiang.image4j.histogram.Histogram;
+
 /**
- * The threshold finder 
+ * The threshold finder, which finds the global threshold of an image from its
+ * gray histogram.
  * <p>
+ * The pixels whose gray value is greater than the threshold are foreground,
+ * as {@linkplain GlobalThresholding} does.
  * </p>
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
 public interface GlobalThresholdFinder
 {
-
+	/**
+	 * Returns the threshold of the histogram.
+	 *
+	 * @param histogram the gray histogram
+	 * @return the threshold in 0-255
+	 */
+	public int findThreshold(Histogram histogram);
 }
@@ -10,8 +10,12 @@ package com.github.frankjiang.image4j.thresholding;
 
 import java.awt.image.BufferedImage;
 import java.awt.image.ImagingOpException;
-import java.awt.image.Raster;
-import java.awt.image.WritableRaster;
+import java.util.concurrent.ForkJoinPool;
+
+import com.github.frankjiang.image4j.ImagingOp;
+import com.github.frankjiang.image4j.PointOp;
+import com.github.frankjiang.image4j.color.ColorConvertUtils;
+import com.github.frankjiang.image4j.histogram.Histogram;
 
 /**
  * The global thresholding.
@@ -21,13 +25,187 @@ import java.awt.image.WritableRaster;
  * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
  * @version 1.0.0
  */
-public class GlobalThresholding extends AbstractThresholding
+public class GlobalThresholding extends AbstractThresholding implements PointOp
 {
+	/**
+	 * The threshold, the pixels whose gray value is greater than it are
+	 * foreground.
+	 */
+	protected int					threshold;
+	/**
+	 * The threshold finder, <code>null</code> for the fixed threshold.
+	 */
+	protected GlobalThresholdFinder	finder;
+
 	public GlobalThresholding()
 	{
 
 	}
 
+	/**
+	 * Construct an instance of <tt>GlobalThresholding</tt> whose threshold is
+	 * found from the gray histogram of each source image.
+	 *
+	 * @param finder the threshold finder
+	 */
+	public GlobalThresholding(GlobalThresholdFinder finder)
+	{
+		if (finder == null)
+			throw new NullPointerException("The threshold finder is null.");
+		this.finder = finder;
+	}
+
+	/**
+	 * Construct an instance of <tt>GlobalThresholding</tt>.
+	 *
+	 * @param threshold the threshold
+	 */
+	public GlobalThresholding(int threshold)
+	{
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Returns the threshold, which is the one found from the last filtered
+	 * image if a finder is set.
+	 *
+	 * @return the threshold
+	 */
+	public int getThreshold()
+	{
+		return this.threshold;
+	}
+
+	/**
+	 * Set the threshold.
+	 *
+	 * @param threshold the value of threshold
+	 */
+	public void setThreshold(int threshold)
+	{
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Returns the threshold finder.
+	 *
+	 * @return the threshold finder, <code>null</code> for the fixed threshold
+	 */
+	public GlobalThresholdFinder getFinder()
+	{
+		return this.finder;
+	}
+
+	/**
+	 * Set the threshold finder.
+	 *
+	 * @param finder the value of finder, <code>null</code> for the fixed
+	 *            threshold
+	 */
+	public void setFinder(GlobalThresholdFinder finder)
+	{
+		this.finder = finder;
+	}
+
+	/**
+	 * Returns <code>false</code> if the threshold is found from the histogram.
+	 *
+	 * @see com.github.frankjiang.image4j.PointOp#isPointwise()
+	 */
+	@Override
+	public boolean isPointwise()
+	{
+		return this.finder == null;
+	}
+
+	/**
+	 * Returns white for the foreground pixels and black for the background
+	 * pixels, the gray value is computed by
+	 * {@linkplain ColorConvertUtils#getGray(int)}.
+	 *
+	 * @see com.github.frankjiang.image4j.PointOp#filterRGB(int, int, int)
+	 */
+	@Override
+	public int filterRGB(int x, int y, int argb)
+	{
+		return ColorConvertUtils.getGray(argb) > this.threshold ? 0xffffffff : 0xff000000;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return true;
+	}
+
+	/**
+	 * Finds the threshold from the gray histogram of the whole source image if
+	 * a finder is set, then thresholds the image tile by tile. The histogram
+	 * is computed on the pool of the executor if available. The tiles share
+	 * the lookup table of the found threshold of this call, which is kept as
+	 * the {@linkplain #getThreshold() threshold} of this operation once the
+	 * image is thresholded, so that the concurrent filters do not read each
+	 * other's threshold.
+	 *
+	 * @see com.github.frankjiang.image4j.ImagingOp#execute(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void execute(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		if (this.finder == null)
+		{
+			super.execute(src, dst);
+			return;
+		}
+		ForkJoinPool pool = this.executor == null ? ForkJoinPool.commonPool()
+				: this.executor.getPool();
+		Histogram histogram = Histogram.compute(pool, src, Histogram.CHANNEL_GRAY)[0];
+		int found = this.finder.findThreshold(histogram);
+		final byte[] table = GlobalThresholding.getLookupTable(found);
+		if (this.executor != null && src.getWidth() == dst.getWidth()
+				&& src.getHeight() == dst.getHeight())
+			this.executor.execute(new ImagingOp()
+			{
+				@Override
+				protected void operate(BufferedImage src, BufferedImage dst)
+				{
+					AbstractThresholding.binarize(src, dst, table);
+				}
+			}, src, dst);
+		else
+			AbstractThresholding.binarize(src, dst, table);
+		this.threshold = found;
+	}
+
+	/**
+	 * Returns the lookup table of the bits of the gray values, the values
+	 * greater than the threshold are 1.
+	 *
+	 * @return the lookup table of the 256 gray values
+	 */
+	protected byte[] getLookupTable()
+	{
+		return GlobalThresholding.getLookupTable(this.threshold);
+	}
+
+	/**
+	 * Returns the lookup table of the bits of the gray values, the values
+	 * greater than the specified threshold are 1.
+	 *
+	 * @param threshold the threshold
+	 * @return the lookup table of the 256 gray values
+	 */
+	protected static byte[] getLookupTable(int threshold)
+	{
+		byte[] table = new byte[256];
+		for (int v = Math.max(0, threshold + 1); v < 256; v++)
+			table[v] = 1;
+		return table;
+	}
+
 	/**
 	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
 	 *      java.awt.image.BufferedImage)
@@ -35,22 +213,7 @@ public class GlobalThresholding extends AbstractThresholding
 	@Override
 	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
 	{
-		int width = src.getWidth();
-		int height = src.getHeight();
-		int threshold = 0;
-		Raster rasterSrc = src.getRaster();
-		WritableRaster rasterDst = dst.getRaster();
-
-		for (int y = 0; y < height; y++)
-			for (int x = 0; x < width; x++)
-			{
-				byte[] data = (byte[]) rasterSrc.getDataElements(x, y, null);
-				if ((data[0] & 0xff) > threshold)
-					data[0] = -1;
-				else
-					data[0] = 0;
-				rasterDst.setDataElements(x, y, data);
-			}
+		AbstractThresholding.binarize(src, dst, this.getLookupTable());
 	}
 
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * IntegralImage.java is PROPRIETARY/CONFIDENTIAL built in 11:34:20 AM, Oct 17,
+ * 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+import java.awt.image.BufferedImage;
+
+import com.github.frankjiang.image4j.PixelAccessor;
+
+/**
+ * The summed-area tables of the samples and the squared samples of a gray
+ * image, from which the sum of any rectangle is read in a constant time.
+ * <p>
+ * The table row <code>j</code> holds the sums over the image rows
+ * <code>[0, j)</code>, and its entry <code>x</code> the sums over the columns
+ * <code>[0, x)</code>, so the tables have <code>(width + 1)</code> columns.
+ * The sums are kept in <code>long</code> values, which do not overflow for any
+ * image an array can address.
+ * </p>
+ * <p>
+ * The image rows are pushed one by one. The tables keep the last
+ * <code>capacity</code> table rows only in a ring, so a streamed operation
+ * with the windows of <code>2r + 1</code> rows needs a capacity of
+ * <code>2r + 2</code> instead of the whole image.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class IntegralImage
+{
+	/**
+	 * The image width.
+	 */
+	protected final int		width;
+	/**
+	 * The number of the table rows kept.
+	 */
+	protected final int		capacity;
+	/**
+	 * The sums of the samples.
+	 */
+	protected final long[]	sums;
+	/**
+	 * The sums of the squared samples, <code>null</code> if not computed.
+	 */
+	protected final long[]	squares;
+	/**
+	 * The number of the pushed image rows.
+	 */
+	protected int			rows;
+
+	/**
+	 * Construct an instance of <tt>IntegralImage</tt>.
+	 *
+	 * @param width the image width
+	 * @param capacity the number of the table rows kept, at least 2,
+	 *            <code>height + 1</code> to keep the whole tables
+	 * @param squared <code>true</code> to compute the sums of the squared
+	 *            samples
+	 */
+	public IntegralImage(int width, int capacity, boolean squared)
+	{
+		if (capacity < 2)
+			throw new IllegalArgumentException("The capacity is less than 2.");
+		long length = (long) (width + 1) * capacity;
+		if (length > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException(String.format(
+					"The tables of %d rows of width %d are too large, use a smaller capacity.",
+					capacity, width));
+		this.width = width;
+		this.capacity = capacity;
+		this.sums = new long[(int) length];
+		this.squares = squared ? new long[(int) length] : null;
+	}
+
+	/**
+	 * Returns the whole tables of the gray samples of the image.
+	 *
+	 * @param image the gray image
+	 * @param squared <code>true</code> to compute the sums of the squared
+	 *            samples
+	 * @return the integral image
+	 */
+	public static IntegralImage compute(BufferedImage image, boolean squared)
+	{
+		int width = image.getWidth();
+		IntegralImage integral = new IntegralImage(width, image.getHeight() + 1, squared);
+		PixelAccessor accessor = PixelAccessor.getAccessor(image);
+		int[] samples = new int[width];
+		for (int y = 0; y < image.getHeight(); y++)
+			integral.push(accessor.getPixels(0, y, width, samples));
+		return integral;
+	}
+
+	/**
+	 * Push the next image row.
+	 *
+	 * @param samples the samples of the row
+	 */
+	public void push(int[] samples)
+	{
+		int w = this.width + 1;
+		int previous = this.rows % this.capacity * w;
+		int current = (this.rows + 1) % this.capacity * w;
+		long sum = 0;
+		this.sums[current] = 0;
+		for (int x = 0; x < this.width; x++)
+		{
+			sum += samples[x];
+			this.sums[current + x + 1] = this.sums[previous + x + 1] + sum;
+		}
+		if (this.squares != null)
+		{
+			long square = 0;
+			this.squares[current] = 0;
+			for (int x = 0; x < this.width; x++)
+			{
+				square += (long) samples[x] * samples[x];
+				this.squares[current + x + 1] = this.squares[previous + x + 1] + square;
+			}
+		}
+		this.rows++;
+	}
+
+	/**
+	 * Returns the index of the table row <code>j</code> in the tables, which
+	 * is the sums over the image rows <code>[0, j)</code>.
+	 *
+	 * @param j the table row, within the last <code>capacity</code> ones
+	 * @return the index of the entry 0 of the row
+	 */
+	public int getRowIndex(int j)
+	{
+		if (j > this.rows || j <= this.rows - this.capacity)
+			throw new IllegalArgumentException(
+					String.format("The table row %d is not kept, %d rows are pushed.", j,
+							this.rows));
+		return j % this.capacity * (this.width + 1);
+	}
+
+	/**
+	 * Returns the sum of the samples in the rectangle.
+	 *
+	 * @param x0 the first column
+	 * @param y0 the first row
+	 * @param x1 the last column
+	 * @param y1 the last row
+	 * @return the sum
+	 */
+	public long getSum(int x0, int y0, int x1, int y1)
+	{
+		return IntegralImage.getSum(this.sums, this.getRowIndex(y0), this.getRowIndex(y1 + 1),
+				x0, x1);
+	}
+
+	/**
+	 * Returns the sum of the squared samples in the rectangle.
+	 *
+	 * @param x0 the first column
+	 * @param y0 the first row
+	 * @param x1 the last column
+	 * @param y1 the last row
+	 * @return the sum of the squared samples
+	 */
+	public long getSquaredSum(int x0, int y0, int x1, int y1)
+	{
+		if (this.squares == null)
+			throw new IllegalStateException("The squared samples are not summed.");
+		return IntegralImage.getSum(this.squares, this.getRowIndex(y0),
+				this.getRowIndex(y1 + 1), x0, x1);
+	}
+
+	/**
+	 * Returns the sum of a rectangle in the table.
+	 *
+	 * @param table the table
+	 * @param top the index of the table row above the rectangle
+	 * @param bottom the index of the table row below the rectangle
+	 * @param x0 the first column
+	 * @param x1 the last column
+	 * @return the sum
+	 */
+	static long getSum(long[] table, int top, int bottom, int x0, int x1)
+	{
+		return table[bottom + x1 + 1] - table[bottom + x0] - table[top + x1 + 1] + table[top + x0];
+	}
+
+	/**
+	 * Returns the table of the sums of the samples.
+	 *
+	 * @return the table
+	 * @see #getRowIndex(int)
+	 */
+	public long[] getSums()
+	{
+		return this.sums;
+	}
+
+	/**
+	 * Returns the table of the sums of the squared samples.
+	 *
+	 * @return the table, <code>null</code> if not computed
+	 * @see #getRowIndex(int)
+	 */
+	public long[] getSquares()
+	{
+		return this.squares;
+	}
+
+	/**
+	 * Returns the image width.
+	 *
+	 * @return the width
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	/**
+	 * Returns the number of the table rows kept.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * Returns the number of the pushed image rows.
+	 *
+	 * @return the number of the rows
+	 */
+	public int getRows()
+	{
+		return this.rows;
+	}
+}
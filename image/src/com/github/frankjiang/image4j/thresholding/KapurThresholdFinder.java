@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * KapurThresholdFinder.java is PROPRIETARY/CONFIDENTIAL built in 10:31:07 AM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+import com.github.frankjiang.image4j.histogram.Histogram;
+
+/**
+ * The threshold finder of the Kapur-Sahoo-Wong method, which maximizes the
+ * sum of the entropies of the background and the foreground distributions.
+ * <p>
+ * The entropy of a class of the probability <code>P</code> is
+ * <code>ln P - S / P</code>, where <code>S</code> is the sum of
+ * <code>p ln p</code> over its values, so each threshold costs a constant
+ * time with the prefix sums.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class KapurThresholdFinder implements GlobalThresholdFinder
+{
+	/**
+	 * @see com.github.frankjiang.image4j.thresholding.GlobalThresholdFinder#findThreshold(com.github.frankjiang.image4j.histogram.Histogram)
+	 */
+	@Override
+	public int findThreshold(Histogram histogram)
+	{
+		double total = histogram.getTotal();
+		if (total == 0)
+			return 0;
+		double[] entropy = new double[Histogram.BINS];
+		double sum = 0;
+		for (int i = 0; i < Histogram.BINS; i++)
+		{
+			double p = histogram.getCount(i) / total;
+			if (p > 0)
+				sum += p * Math.log(p);
+			entropy[i] = sum;
+		}
+		double probability = 0, best = Double.NEGATIVE_INFINITY;
+		int threshold = 0;
+		for (int t = 0; t < Histogram.BINS - 1; t++)
+		{
+			probability += histogram.getCount(t) / total;
+			double rest = 1 - probability;
+			if (probability <= 0)
+				continue;
+			if (rest <= 1e-12)
+				break;
+			double h = Math.log(probability) - entropy[t] / probability + Math.log(rest)
+					- (sum - entropy[t]) / rest;
+			if (h > best)
+			{
+				best = h;
+				threshold = t;
+			}
+		}
+		return threshold;
+	}
+}
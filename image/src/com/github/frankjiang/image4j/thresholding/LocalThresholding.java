@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * LocalThresholding.java is PROPRIETARY/CONFIDENTIAL built in 11:52:08 AM, Oct
+ * 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ImagingOpException;
+import java.awt.image.Raster;
+
+import com.github.frankjiang.image4j.PixelAccessor;
+
+/**
+ * The local (adaptive) thresholding, whose threshold of each pixel is
+ * computed from the mean and the standard deviation of the gray values in the
+ * square window of <code>2r + 1</code> pixels around it, clipped to the image.
+ * <p>
+ * The window statistics are read from the {@linkplain IntegralImage
+ * summed-area tables} of the values and the squared values, so the cost per
+ * pixel does not grow with the window size. The whole tables are built by
+ * default; the streaming mode keeps <code>2r + 2</code> table rows only,
+ * which bounds the memory by the window height instead of the image height,
+ * and gives the same result.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public abstract class LocalThresholding extends AbstractThresholding
+{
+	/**
+	 * The window radius.
+	 */
+	protected int		radius;
+	/**
+	 * <code>true</code> to keep only the table rows of a window.
+	 */
+	protected boolean	streaming;
+
+	/**
+	 * Construct an instance of <tt>LocalThresholding</tt>.
+	 *
+	 * @param radius the window radius
+	 */
+	protected LocalThresholding(int radius)
+	{
+		this.setRadius(radius);
+	}
+
+	/**
+	 * Returns the threshold of a pixel, the pixels whose gray value is greater
+	 * than it are foreground.
+	 *
+	 * @param mean the mean of the window
+	 * @param deviation the standard deviation of the window, 0 if
+	 *            {@linkplain #isDeviationRequired()} returns <code>false</code>
+	 * @return the threshold
+	 */
+	protected abstract double getThreshold(double mean, double deviation);
+
+	/**
+	 * Returns <code>true</code> if the threshold depends on the standard
+	 * deviation, which requires the table of the squared values.
+	 * <p>
+	 * The default implementation returns <code>true</code>.
+	 * </p>
+	 *
+	 * @return <code>true</code> if the deviation is required
+	 */
+	protected boolean isDeviationRequired()
+	{
+		return true;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return true;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#getHalo()
+	 */
+	@Override
+	protected int getHalo()
+	{
+		return this.radius;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		int width = src.getWidth();
+		int height = src.getHeight();
+		int r = this.radius;
+		boolean deviation = this.isDeviationRequired();
+		int capacity = this.streaming ? Math.min(2 * r + 2, height + 1) : height + 1;
+		IntegralImage integral = new IntegralImage(width, capacity, deviation);
+		long[] sums = integral.getSums();
+		long[] squares = integral.getSquares();
+		// the gray band is the first one
+		Raster in = src.getRaster();
+		PixelAccessor out = PixelAccessor.getAccessor(dst);
+		int[] samples = new int[width];
+		byte[] row = new byte[width];
+		for (int y = 0; y < height; y++)
+		{
+			int y0 = Math.max(0, y - r), y1 = Math.min(height - 1, y + r);
+			while (integral.getRows() <= y1)
+				integral.push(in.getSamples(0, integral.getRows(), width, 1, 0, samples));
+			int top = integral.getRowIndex(y0);
+			int bottom = integral.getRowIndex(y1 + 1);
+			in.getSamples(0, y, width, 1, 0, samples);
+			for (int x = 0; x < width; x++)
+			{
+				int x0 = Math.max(0, x - r), x1 = Math.min(width - 1, x + r);
+				double n = (x1 - x0 + 1) * (y1 - y0 + 1);
+				double mean = IntegralImage.getSum(sums, top, bottom, x0, x1) / n;
+				double sd = 0;
+				if (deviation)
+				{
+					double variance = IntegralImage.getSum(squares, top, bottom, x0, x1) / n
+							- mean * mean;
+					sd = variance > 0 ? Math.sqrt(variance) : 0;
+				}
+				row[x] = (byte) (samples[x] > this.getThreshold(mean, sd) ? 1 : 0);
+			}
+			AbstractThresholding.setBits(out, y, row, width);
+		}
+	}
+
+	/**
+	 * Returns the window radius.
+	 *
+	 * @return the radius
+	 */
+	public int getRadius()
+	{
+		return this.radius;
+	}
+
+	/**
+	 * Set the window radius.
+	 *
+	 * @param radius the value of radius
+	 */
+	public void setRadius(int radius)
+	{
+		if (radius < 1)
+			throw new IllegalArgumentException("The window radius is less than 1.");
+		this.radius = radius;
+	}
+
+	/**
+	 * Returns <code>true</code> if only the table rows of a window are kept.
+	 *
+	 * @return <code>true</code> if streaming
+	 */
+	public boolean isStreaming()
+	{
+		return this.streaming;
+	}
+
+	/**
+	 * Set whether only the table rows of a window are kept.
+	 *
+	 * @param streaming the value of streaming
+	 */
+	public void setStreaming(boolean streaming)
+	{
+		this.streaming = streaming;
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * LookupThresholding.java is PROPRIETARY/CONFIDENTIAL built in 2:41:27 PM, Oct
+ * 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ImagingOpException;
+
+import com.github.frankjiang.image4j.PointOp;
+import com.github.frankjiang.image4j.color.ColorConvertUtils;
+
+/**
+ * The thresholding by an arbitrary set of the foreground gray values.
+ * <p>
+ * The set is a 256-entry lookup table, so the multi-level maps, such as the
+ * classes between the thresholds of {@linkplain MultiOtsuThresholdFinder},
+ * are binarized at the same cost as a single threshold.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class LookupThresholding extends AbstractThresholding implements PointOp
+{
+	/**
+	 * The bits of the gray values, 1 for the foreground.
+	 */
+	protected final byte[] table;
+
+	/**
+	 * Construct an instance of <tt>LookupThresholding</tt>.
+	 *
+	 * @param foreground <code>true</code> for the foreground gray values,
+	 *            256 entries
+	 */
+	public LookupThresholding(boolean[] foreground)
+	{
+		if (foreground.length != 256)
+			throw new IllegalArgumentException(String.format(
+					"The lookup table has %d entries, not 256.", foreground.length));
+		this.table = new byte[256];
+		for (int v = 0; v < 256; v++)
+			this.table[v] = (byte) (foreground[v] ? 1 : 0);
+	}
+
+	/**
+	 * Returns the thresholding which keeps the classes between the thresholds
+	 * as the foreground. The class <code>i</code> holds the gray values in
+	 * <code>(thresholds[i - 1], thresholds[i]]</code>.
+	 *
+	 * @param thresholds the ascending thresholds, such as the ones of
+	 *            {@linkplain MultiOtsuThresholdFinder#findThresholds(com.github.frankjiang.image4j.histogram.Histogram)}
+	 * @param classes the foreground classes in
+	 *            <code>[0, thresholds.length]</code>
+	 * @return the thresholding
+	 */
+	public static LookupThresholding getClassThresholding(int[] thresholds, int... classes)
+	{
+		boolean[] foreground = new boolean[256];
+		for (int c : classes)
+		{
+			if (c < 0 || c > thresholds.length)
+				throw new IllegalArgumentException(
+						String.format("The class %d is not in [0, %d].", c, thresholds.length));
+			int from = c == 0 ? 0 : thresholds[c - 1] + 1;
+			int to = c == thresholds.length ? 255 : thresholds[c];
+			for (int v = Math.max(0, from); v <= Math.min(255, to); v++)
+				foreground[v] = true;
+		}
+		return new LookupThresholding(foreground);
+	}
+
+	/**
+	 * Returns <code>true</code> if the gray value is foreground.
+	 *
+	 * @param gray the gray value in 0-255
+	 * @return <code>true</code> if foreground
+	 */
+	public boolean isForeground(int gray)
+	{
+		return this.table[gray] != 0;
+	}
+
+	/**
+	 * Returns white for the foreground pixels and black for the background
+	 * pixels, the gray value is computed by
+	 * {@linkplain ColorConvertUtils#getGray(int)}.
+	 *
+	 * @see com.github.frankjiang.image4j.PointOp#filterRGB(int, int, int)
+	 */
+	@Override
+	public int filterRGB(int x, int y, int argb)
+	{
+		return this.table[ColorConvertUtils.getGray(argb)] != 0 ? 0xffffffff : 0xff000000;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#isTileable()
+	 */
+	@Override
+	protected boolean isTileable()
+	{
+		return true;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.ImagingOp#operate(java.awt.image.BufferedImage,
+	 *      java.awt.image.BufferedImage)
+	 */
+	@Override
+	protected void operate(BufferedImage src, BufferedImage dst) throws ImagingOpException
+	{
+		AbstractThresholding.binarize(src, dst, this.table);
+	}
+}
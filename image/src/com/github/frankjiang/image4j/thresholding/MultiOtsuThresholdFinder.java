@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * MultiOtsuThresholdFinder.java is PROPRIETARY/CONFIDENTIAL built in 10:46:15
+ * AM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+import com.github.frankjiang.image4j.histogram.Histogram;
+
+/**
+ * The threshold finder of the multi-level Otsu method, which splits the
+ * histogram into several classes maximizing their between-class variance.
+ * <p>
+ * The between-class variance is maximized when the sum of
+ * <code>S<sup>2</sup> / W</code> of the classes is, where <code>W</code> and
+ * <code>S</code> are the count and the value sum of a class. The optimal
+ * thresholds are found exactly by the dynamic programming over the prefix
+ * sums in <code>O(levels * 256<sup>2</sup>)</code>, independent of the image
+ * size.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class MultiOtsuThresholdFinder implements GlobalThresholdFinder
+{
+	/**
+	 * The number of the classes.
+	 */
+	protected int levels;
+
+	/**
+	 * Construct an instance of <tt>MultiOtsuThresholdFinder</tt>.
+	 *
+	 * @param levels the number of the classes, at least 2
+	 */
+	public MultiOtsuThresholdFinder(int levels)
+	{
+		if (levels < 2 || levels > Histogram.BINS)
+			throw new IllegalArgumentException(
+					String.format("The number of levels %d is not in [2, %d].", levels,
+							Histogram.BINS));
+		this.levels = levels;
+	}
+
+	/**
+	 * Returns the number of the classes.
+	 *
+	 * @return the number of the classes
+	 */
+	public int getLevels()
+	{
+		return this.levels;
+	}
+
+	/**
+	 * Returns the highest threshold, which separates the brightest class from
+	 * the others.
+	 *
+	 * @see com.github.frankjiang.image4j.thresholding.GlobalThresholdFinder#findThreshold(com.github.frankjiang.image4j.histogram.Histogram)
+	 */
+	@Override
+	public int findThreshold(Histogram histogram)
+	{
+		int[] thresholds = this.findThresholds(histogram);
+		return thresholds[thresholds.length - 1];
+	}
+
+	/**
+	 * Returns the thresholds of the histogram in the ascending order, the
+	 * class <code>k</code> contains the values in
+	 * <code>(thresholds[k - 1], thresholds[k]]</code>.
+	 *
+	 * @param histogram the gray histogram
+	 * @return the <code>levels - 1</code> thresholds
+	 */
+	public int[] findThresholds(Histogram histogram)
+	{
+		int n = Histogram.BINS;
+		double[] weights = new double[n + 1];
+		double[] sums = new double[n + 1];
+		for (int i = 0; i < n; i++)
+		{
+			weights[i + 1] = weights[i] + histogram.getCount(i);
+			sums[i + 1] = sums[i] + (double) i * histogram.getCount(i);
+		}
+		// the best score of k + 1 classes covering [0, b] and its last start
+		double[][] scores = new double[this.levels][n];
+		int[][] starts = new int[this.levels][n];
+		for (int b = 0; b < n; b++)
+			scores[0][b] = MultiOtsuThresholdFinder.score(weights, sums, 0, b);
+		for (int k = 1; k < this.levels; k++)
+			for (int b = k; b < n; b++)
+			{
+				double best = Double.NEGATIVE_INFINITY;
+				for (int a = k - 1; a < b; a++)
+				{
+					double score = scores[k - 1][a]
+							+ MultiOtsuThresholdFinder.score(weights, sums, a + 1, b);
+					if (score > best)
+					{
+						best = score;
+						starts[k][b] = a;
+					}
+				}
+				scores[k][b] = best;
+			}
+		int[] thresholds = new int[this.levels - 1];
+		for (int k = this.levels - 1, b = n - 1; k > 0; k--)
+			b = thresholds[k - 1] = starts[k][b];
+		return thresholds;
+	}
+
+	/**
+	 * Returns <code>S<sup>2</sup> / W</code> of the class of the values in
+	 * <code>[from, to]</code>.
+	 *
+	 * @param weights the prefix counts
+	 * @param sums the prefix value sums
+	 * @param from the first value
+	 * @param to the last value
+	 * @return the score, 0 for an empty class
+	 */
+	private static double score(double[] weights, double[] sums, int from, int to)
+	{
+		double weight = weights[to + 1] - weights[from];
+		if (weight <= 0)
+			return 0;
+		double sum = sums[to + 1] - sums[from];
+		return sum * sum / weight;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * NiblackThresholding.java is PROPRIETARY/CONFIDENTIAL built in 12:10:33 PM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+/**
+ * The Niblack thresholding, whose threshold is <code>m + k * s</code> for the
+ * mean <code>m</code> and the standard deviation <code>s</code> of the window.
+ * <p>
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class NiblackThresholding extends LocalThresholding
+{
+	/**
+	 * The weight of the standard deviation.
+	 */
+	protected double k;
+
+	/**
+	 * Construct an instance of <tt>NiblackThresholding</tt> with
+	 * <code>k = -0.2</code>.
+	 *
+	 * @param radius the window radius
+	 */
+	public NiblackThresholding(int radius)
+	{
+		this(radius, -0.2);
+	}
+
+	/**
+	 * Construct an instance of <tt>NiblackThresholding</tt>.
+	 *
+	 * @param radius the window radius
+	 * @param k the weight of the standard deviation
+	 */
+	public NiblackThresholding(int radius, double k)
+	{
+		super(radius);
+		this.k = k;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.thresholding.LocalThresholding#getThreshold(double,
+	 *      double)
+	 */
+	@Override
+	protected double getThreshold(double mean, double deviation)
+	{
+		return mean + this.k * deviation;
+	}
+
+	/**
+	 * Returns the weight of the standard deviation.
+	 *
+	 * @return the weight
+	 */
+	public double getK()
+	{
+		return this.k;
+	}
+
+	/**
+	 * Set the weight of the standard deviation.
+	 *
+	 * @param k the value of k
+	 */
+	public void setK(double k)
+	{
+		this.k = k;
+	}
+}
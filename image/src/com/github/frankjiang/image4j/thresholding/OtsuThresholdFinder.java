@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * OtsuThresholdFinder.java is PROPRIETARY/CONFIDENTIAL built in 10:24:51 AM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+import com.github.frankjiang.image4j.histogram.Histogram;
+
+/**
+ * The threshold finder of the Otsu method, which maximizes the between-class
+ * variance of the background and the foreground.
+ * <p>
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class OtsuThresholdFinder implements GlobalThresholdFinder
+{
+	/**
+	 * @see com.github.frankjiang.image4j.thresholding.GlobalThresholdFinder#findThreshold(com.github.frankjiang.image4j.histogram.Histogram)
+	 */
+	@Override
+	public int findThreshold(Histogram histogram)
+	{
+		double total = histogram.getTotal();
+		double sum = 0;
+		for (int i = 0; i < Histogram.BINS; i++)
+			sum += (double) i * histogram.getCount(i);
+		double weight = 0, partial = 0, best = -1;
+		int threshold = 0;
+		for (int t = 0; t < Histogram.BINS - 1; t++)
+		{
+			weight += histogram.getCount(t);
+			partial += (double) t * histogram.getCount(t);
+			if (weight == 0)
+				continue;
+			if (weight == total)
+				break;
+			double difference = partial / weight - (sum - partial) / (total - weight);
+			double variance = weight * (total - weight) * difference * difference;
+			if (variance > best)
+			{
+				best = variance;
+				threshold = t;
+			}
+		}
+		return threshold;
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * SauvolaThresholding.java is PROPRIETARY/CONFIDENTIAL built in 12:14:52 PM,
+ * Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+/**
+ * The Sauvola thresholding, whose threshold is
+ * <code>m * (1 + k * (s / R - 1))</code> for the mean <code>m</code> and the
+ * standard deviation <code>s</code> of the window, where <code>R</code> is
+ * the dynamic range of the standard deviation.
+ * <p>
+ * The threshold falls well below the mean in the flat windows, so the
+ * background noise of the document images is suppressed.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class SauvolaThresholding extends LocalThresholding
+{
+	/**
+	 * The sensitivity.
+	 */
+	protected double	k;
+	/**
+	 * The dynamic range of the standard deviation.
+	 */
+	protected double	range;
+
+	/**
+	 * Construct an instance of <tt>SauvolaThresholding</tt> with
+	 * <code>k = 0.5</code> and <code>R = 128</code>.
+	 *
+	 * @param radius the window radius
+	 */
+	public SauvolaThresholding(int radius)
+	{
+		this(radius, 0.5, 128);
+	}
+
+	/**
+	 * Construct an instance of <tt>SauvolaThresholding</tt>.
+	 *
+	 * @param radius the window radius
+	 * @param k the sensitivity
+	 * @param range the dynamic range of the standard deviation
+	 */
+	public SauvolaThresholding(int radius, double k, double range)
+	{
+		super(radius);
+		this.k = k;
+		this.range = range;
+	}
+
+	/**
+	 * @see com.github.frankjiang.image4j.thresholding.LocalThresholding#getThreshold(double,
+	 *      double)
+	 */
+	@Override
+	protected double getThreshold(double mean, double deviation)
+	{
+		return mean * (1 + this.k * (deviation / this.range - 1));
+	}
+
+	/**
+	 * Returns the sensitivity.
+	 *
+	 * @return the sensitivity
+	 */
+	public double getK()
+	{
+		return this.k;
+	}
+
+	/**
+	 * Set the sensitivity.
+	 *
+	 * @param k the value of k
+	 */
+	public void setK(double k)
+	{
+		this.k = k;
+	}
+
+	/**
+	 * Returns the dynamic range of the standard deviation.
+	 *
+	 * @return the range
+	 */
+	public double getRange()
+	{
+		return this.range;
+	}
+
+	/**
+	 * Set the dynamic range of the standard deviation.
+	 *
+	 * @param range the value of range
+	 */
+	public void setRange(double range)
+	{
+		this.range = range;
+	}
+}
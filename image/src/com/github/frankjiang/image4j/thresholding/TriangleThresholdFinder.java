@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2011, 2020, Frank Jiang and/or its affiliates. All rights
+ * reserved.
+ * TriangleThresholdFinder.java is PROPRIETARY/CONFIDENTIAL built in 10:38:44
+ * AM, Oct 17, 2026.
+ * Use is subject to license terms.
+ */
+
+package com.github.frankjiang.image4j.thresholding;
+
+import com.github.frankjiang.image4j.histogram.Histogram;
+
+/**
+ * The threshold finder of the triangle method of Zack et al.
+ * <p>
+ * A line is drawn from the peak of the histogram to the end of its longer
+ * tail, one value beyond the last counted value, and the threshold is the
+ * value whose count lies farthest below the line. It suits the histograms of
+ * one dominant peak, as the pages of sparse text.
+ * </p>
+ *
+ * @author <a href="mailto:jiangfan0576@gmail.com">Frank Jiang</a>
+ * @version 1.0.0
+ */
+public class TriangleThresholdFinder implements GlobalThresholdFinder
+{
+	/**
+	 * @see com.github.frankjiang.image4j.thresholding.GlobalThresholdFinder#findThreshold(com.github.frankjiang.image4j.histogram.Histogram)
+	 */
+	@Override
+	public int findThreshold(Histogram histogram)
+	{
+		int min = histogram.getMinValue();
+		int max = histogram.getMaxValue();
+		if (min < 0)
+			return 0;
+		int peak = min;
+		for (int i = min; i <= max; i++)
+			if (histogram.getCount(i) > histogram.getCount(peak))
+				peak = i;
+		// the end of the longer tail, whose count is 0
+		int end = peak - min > max - peak ? min - 1 : max + 1;
+		double height = histogram.getCount(peak);
+		// the vertical distance to the line is proportional to the distance
+		double best = -1;
+		int threshold = peak;
+		int step = end < peak ? -1 : 1;
+		for (int i = peak + step; i != end; i += step)
+		{
+			double distance = height * (end - i) / (end - peak) - histogram.getCount(i);
+			if (distance > best)
+			{
+				best = distance;
+				threshold = i;
+			}
+		}
+		return threshold;
+	}
+}